@@ -1,26 +1,52 @@
+import domain.catalog.Catalog;
+import infrastructure.ConcurrentProductRepository;
+import infrastructure.metrics.InstrumentedProductRepository;
+import infrastructure.metrics.MetricsRegistry;
 import presentation.ConsoleInterface;
+import presentation.http.HttpInterface;
 
 /**
  * Point d'entrée de l'application de gestion de stock.
  * Lance l'interface en ligne de commande permettant les opérations
  * de consultation et de modification du catalogue produit.
  * Cette classe initialise le contrôleur principal.
- * Elle pourra également servir de point d’ancrage à d’autres interfaces
- * futures (web, graphique, API, etc.).
+ * Avec l'option {@code --http <port>}, lance à la place l'interface HTTP/JSON
+ * ({@link HttpInterface}), partagée par plusieurs caisses.
  *
  * @author Lucas
- * @version 1.0
+ * @version 1.1
  */
 public class Main {
 
     /**
      * Méthode principale du programme.
-     * Initialise l'interface console et démarre la boucle interactive.
+     * Initialise l'interface console et démarre la boucle interactive, ou démarre
+     * le serveur HTTP si l'option {@code --http <port>} est fournie.
      *
-     * @param args arguments passés en ligne de commande (non utilisés)
+     * @param args arguments passés en ligne de commande ({@code --http <port>} facultatif)
      */
     public static void main(String[] args) {
+        if (args.length >= 2 && args[0].equals("--http")) {
+            startHttp(Integer.parseInt(args[1]));
+            return;
+        }
         ConsoleInterface console = new ConsoleInterface();
         console.start();
     }
-}
\ No newline at end of file
+
+    /**
+     * Démarre l'interface HTTP sur un dépôt concurrent mesuré ; le serveur tourne
+     * jusqu'à l'arrêt de la JVM.
+     *
+     * @param port port d'écoute
+     */
+    private static void startHttp(int port) {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.registerMBean(MetricsRegistry.DEFAULT_OBJECT_NAME);
+        HttpInterface http = new HttpInterface(
+                new InstrumentedProductRepository(new ConcurrentProductRepository(), metrics), new Catalog(), metrics);
+        int boundPort = http.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(http::stop));
+        System.out.println("Serveur HTTP démarré sur le port " + boundPort + ".");
+    }
+}
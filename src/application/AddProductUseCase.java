@@ -6,6 +6,11 @@ import domain.catalog.ProductLine;
 import domain.product.Product;
 import domain.product.SimpleProduct;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Use case responsable de l'ajout d'un produit dans le stock.
  *
@@ -18,7 +23,7 @@ import domain.product.SimpleProduct;
  * Cette classe fait partie de la couche application et dépend d'un port {@link ProductRepository}.
  *
  * @author Lucas
- * @version 1.2
+ * @version 1.4
  */
 public class AddProductUseCase {
 
@@ -69,4 +74,46 @@ public class AddProductUseCase {
             productRepository.save(product);
         }
     }
+
+    /**
+     * Ajoute un lot de produits, dans l'ordre de la liste, avec les mêmes règles que
+     * {@link #execute(Product)} (utilisé par l'import de catalogue).
+     * Le lot est vérifié avant toute écriture : un produit nul fait rejeter le lot entier.
+     * <p>
+     * Les fusions avec les produits existants (ou déjà vus plus tôt dans le lot) sont
+     * calculées en mémoire, puis le lot est écrit en une fois par
+     * {@link ProductRepository#saveAll(List)} : une seule valeur par identifiant, et le
+     * dépôt peut utiliser son chemin d'écriture en masse.
+     * </p>
+     *
+     * @param products les produits à enregistrer ou mettre à jour
+     * @throws IllegalArgumentException si la liste est nulle ou contient un produit nul
+     */
+    public void executeAll(List<Product> products) {
+        if (products == null) {
+            throw new IllegalArgumentException("La liste de produits ne peut pas être nulle.");
+        }
+        for (Product product : products) {
+            if (product == null) {
+                throw new IllegalArgumentException("Le produit ne peut pas être nul.");
+            }
+        }
+        Map<String, Product> merged = new LinkedHashMap<>();
+        for (Product product : products) {
+            String id = product.getProductId();
+            Product existing = merged.get(id);
+            if (existing == null) {
+                existing = productRepository.findById(id);
+            }
+            merged.put(id, existing == null ? product : new SimpleProduct(
+                    existing.getProductId(),
+                    existing.getName(),
+                    product.getPrice(),
+                    existing.getStock() + product.getStock(),
+                    existing.getBrand(),
+                    existing.getProductLine()
+            ));
+        }
+        productRepository.saveAll(new ArrayList<>(merged.values()));
+    }
 }
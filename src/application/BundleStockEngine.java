@@ -0,0 +1,147 @@
+package application;
+
+import application.ports.ProductRepository;
+import domain.product.BillOfMaterials;
+import domain.product.ContainerProduct;
+import domain.product.Product;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Moteur de stock des lots : tient à jour la nomenclature ({@link BillOfMaterials}) des
+ * produits conteneurs d'un dépôt et calcule, pour chaque produit, la quantité disponible
+ * à la vente.
+ * <p>
+ * Disponible à la vente = stock propre + nombre de conteneurs assemblables à partir du
+ * disponible du composant ({@code disponible(composant) / quantité contenue}). Un composant
+ * partagé par plusieurs lots est compté en entier pour chacun d'eux : le chiffre indique
+ * ce que l'on peut vendre de ce produit, pas une répartition entre les lots.
+ * </p>
+ * <p>
+ * Les valeurs calculées sont mémorisées. Après chaque écriture, {@link #refresh(String)}
+ * resynchronise le lien du produit écrit et n'invalide que ce produit et les conteneurs
+ * qui le contiennent (liens inverses) : les autres valeurs restent en mémoire. Un compteur
+ * d'écritures empêche qu'une valeur calculée pendant une invalidation ne soit conservée.
+ * </p>
+ * <p>
+ * Le moteur ne voit que les écritures qui lui sont signalées : le dépôt doit être utilisé au
+ * travers d'un décorateur qui appelle {@link #checkBundle(Product)} et {@link #refresh(String)}
+ * (voir {@code infrastructure.BundleAwareProductRepository}).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class BundleStockEngine {
+
+    private final ProductRepository productRepository;
+    private final BillOfMaterials billOfMaterials = new BillOfMaterials();
+    private final Map<String, Integer> available = new ConcurrentHashMap<>();
+    private final AtomicLong writeStamp = new AtomicLong();
+    private final LongAdder computations = new LongAdder();
+
+    /**
+     * Construit le moteur et la nomenclature à partir du contenu actuel du dépôt.
+     *
+     * @param productRepository dépôt des produits
+     * @throws IllegalArgumentException si le dépôt est null ou contient un cycle de conteneurs
+     */
+    public BundleStockEngine(ProductRepository productRepository) {
+        if (productRepository == null) {
+            throw new IllegalArgumentException("productRepository cannot be null");
+        }
+        this.productRepository = productRepository;
+        productRepository.forEach(product -> {
+            if (product instanceof ContainerProduct cp) {
+                billOfMaterials.link(cp.getProductId(), cp.getContainedProduct().getProductId(),
+                        cp.getContainedQuantity());
+            }
+        });
+    }
+
+    /**
+     * Vérifie qu'un produit peut être enregistré sans créer de cycle dans la nomenclature.
+     *
+     * @param product produit sur le point d'être enregistré
+     * @throws IllegalArgumentException si c'est un conteneur qui se contiendrait lui-même
+     */
+    public void checkBundle(Product product) {
+        if (product instanceof ContainerProduct cp) {
+            billOfMaterials.checkLink(cp.getProductId(), cp.getContainedProduct().getProductId());
+        }
+    }
+
+    /**
+     * Resynchronise un produit après une écriture (enregistrement, vente ou suppression) :
+     * son lien vers son composant est relu dans le dépôt, puis sa disponibilité et celle
+     * des conteneurs qui le contiennent sont invalidées.
+     *
+     * @param productId identifiant du produit écrit
+     */
+    public void refresh(String productId) {
+        Product product = productRepository.findById(productId);
+        if (product instanceof ContainerProduct cp) {
+            billOfMaterials.link(productId, cp.getContainedProduct().getProductId(), cp.getContainedQuantity());
+        } else {
+            billOfMaterials.unlink(productId);
+        }
+        writeStamp.incrementAndGet();
+        for (String affected : billOfMaterials.affectedBy(productId)) {
+            available.remove(affected);
+        }
+    }
+
+    /**
+     * Retourne la quantité disponible à la vente d'un produit (stock propre et lots
+     * assemblables), à partir des valeurs mémorisées quand elles sont à jour.
+     *
+     * @param productId identifiant du produit
+     * @return quantité disponible (0 si le produit n'existe pas)
+     */
+    public int availableToSell(String productId) {
+        Integer cached = available.get(productId);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = writeStamp.get();
+        int value = compute(productId);
+        available.put(productId, value);
+        if (writeStamp.get() != stamp) {
+            // une écriture a eu lieu pendant le calcul : la valeur est peut-être périmée
+            available.remove(productId, value);
+        }
+        return value;
+    }
+
+    /**
+     * @param containerId identifiant d'un produit
+     * @return son lien vers son composant, ou null si ce n'est pas un conteneur
+     */
+    public BillOfMaterials.Link componentOf(String containerId) {
+        return billOfMaterials.componentOf(containerId);
+    }
+
+    /**
+     * @return nombre de disponibilités effectivement calculées (hors valeurs mémorisées)
+     */
+    public long getComputations() {
+        return computations.sum();
+    }
+
+    private int compute(String productId) {
+        computations.increment();
+        Product product = productRepository.findById(productId);
+        if (product == null) {
+            return 0;
+        }
+        long total = product.getStock();
+        BillOfMaterials.Link link = billOfMaterials.componentOf(productId);
+        if (link != null) {
+            total += availableToSell(link.getComponentId()) / link.getQuantity();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+}
@@ -1,18 +1,29 @@
 package application;
 
+import application.ports.ProductPage;
 import application.ports.ProductRepository;
 import domain.product.Product;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Cas d'usage : Rechercher des produits dans le stock.
  * Permet une recherche ciblée selon l'identifiant, le nom ou les deux.
  * Recherche insensible à la casse et robuste aux chaînes vides.
+ * Permet aussi de parcourir le stock page par page, sans copie complète du catalogue.
+ * Un mode de recherche parallèle (fork/join) parcourt les gros catalogues sur tous les cœurs.
+ * Aucune recherche ne copie le catalogue entier : sans mot-clé, seule la première page est
+ * retournée.
  *
  * @author Lucas
- * @version 1.2
+ * @version 1.6
  */
 public class SearchProductUseCase {
 
@@ -23,15 +34,41 @@ public class SearchProductUseCase {
         ID, NAME, BOTH
     }
 
+    /** Taille de catalogue en dessous de laquelle la recherche parallèle parcourt séquentiellement. */
+    public static final int PARALLEL_THRESHOLD = 20_000;
+
+    /** Nombre de produits retournés sans mot-clé (première page, par identifiant croissant). */
+    public static final int BROWSE_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
+    private final ForkJoinPool pool;
 
     public SearchProductUseCase(ProductRepository productRepository) {
+        this(productRepository, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param productRepository Dépôt des produits
+     * @param pool Pool fork/join utilisé par la recherche parallèle
+     */
+    public SearchProductUseCase(ProductRepository productRepository, ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Le pool fork/join ne peut pas être nul.");
+        }
         this.productRepository = productRepository;
+        this.pool = pool;
     }
 
     /**
      * Recherche les produits selon le mode spécifié.
-     * Si aucun mot-clé valide n'est fourni, retourne l'intégralité des produits.
+     * Si aucun mot-clé valide n'est fourni, retourne la première page du stock
+     * ({@value #BROWSE_PAGE_SIZE} produits par identifiant croissant, suite via
+     * {@link #browse(String, int)}) plutôt qu'une copie du catalogue entier.
+     * <p>
+     * La recherche est déléguée au référentiel ({@link ProductRepository#searchById(String)}
+     * et {@link ProductRepository#search(String)}), qui peut s'appuyer sur un index
+     * plutôt que sur un parcours complet du stock.
+     * </p>
      *
      * @param keyword Mot-clé utilisé pour filtrer les produits
      * @param mode Mode de recherche (ID, NAME ou BOTH)
@@ -39,14 +76,152 @@ public class SearchProductUseCase {
      */
     public List<Product> execute(String keyword, Mode mode) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return productRepository.findAll();
+            return firstPage();
+        }
+
+        return switch (mode) {
+            case ID -> productRepository.searchById(keyword);
+            case NAME -> productRepository.search(keyword);
+            case BOTH -> searchBoth(keyword);
+        };
+    }
+
+    /**
+     * Recherche par parcours complet, en parallèle sur les gros catalogues.
+     * <p>
+     * Destinée aux dépôts sans index de recherche (ou aux critères qu'aucun index ne
+     * couvre) : le flux du dépôt ({@link ProductRepository#stream()}) est découpé par son
+     * propre {@link java.util.Spliterator} et évalué dans le pool fork/join, sans copie
+     * préalable du catalogue. Les résultats sont fusionnés dans l'ordre de découpage : ils
+     * sont donc identiques, ordre compris, à ceux d'un parcours séquentiel. En mode BOTH, un
+     * produit correspond si son identifiant ou son nom contient le mot-clé. Sous
+     * {@value #PARALLEL_THRESHOLD} produits, le parcours reste séquentiel. Sans mot-clé
+     * valide, retourne la première page du stock, comme {@link #execute(String, Mode)}.
+     * </p>
+     *
+     * @param keyword Mot-clé utilisé pour filtrer les produits
+     * @param mode Mode de recherche (ID, NAME ou BOTH)
+     * @return Produits correspondants, dans l'ordre de parcours du dépôt
+     */
+    public List<Product> executeParallel(String keyword, Mode mode) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return firstPage();
+        }
+        return scan(keyword, mode, productRepository.count() >= PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Recherche par parcours complet en forçant le mode d'exécution (comparaison des
+     * deux modes dans les benchmarks).
+     * <p>
+     * Chaque produit est comparé à ses formes en minuscules ({@link Product#getLowerCaseId()},
+     * {@link Product#getLowerCaseName()}), calculées une fois par produit et non à chaque
+     * requête.
+     * </p>
+     *
+     * @param keyword Mot-clé non vide
+     * @param mode Mode de recherche (ID, NAME ou BOTH)
+     * @param parallel true pour un parcours fork/join, false pour un parcours séquentiel
+     * @return Produits correspondants, dans l'ordre de parcours du dépôt
+     */
+    public List<Product> scan(String keyword, Mode mode, boolean parallel) {
+        String lowered = keyword.toLowerCase(Locale.ROOT);
+        Predicate<Product> matcher = switch (mode) {
+            case ID -> p -> p.getLowerCaseId().contains(lowered);
+            case NAME -> p -> p.getLowerCaseName().contains(lowered);
+            case BOTH -> p -> p.getLowerCaseId().contains(lowered) || p.getLowerCaseName().contains(lowered);
+        };
+        if (!parallel) {
+            List<Product> results = new ArrayList<>();
+            productRepository.forEach(p -> {
+                if (matcher.test(p)) {
+                    results.add(p);
+                }
+            });
+            return results;
+        }
+        // un flux parallèle lancé depuis le pool s'exécute dans ce pool
+        return pool.submit(() -> productRepository.stream().parallel().filter(matcher)
+                .collect(Collectors.toList())).join();
+    }
+
+    /**
+     * Autocomplétion : retourne au plus {@code limit} produits dont l'identifiant et/ou le nom
+     * commencent par le préfixe saisi. Destiné à être rappelé à chaque frappe du caissier.
+     * En mode BOTH, les correspondances sur l'identifiant sont listées en premier.
+     *
+     * @param prefix Début de l'identifiant ou du nom saisi
+     * @param mode Mode de recherche (ID, NAME ou BOTH)
+     * @param limit Nombre maximal de produits retournés
+     * @return Premiers produits correspondants (vide si le préfixe est vide)
+     */
+    public List<Product> autocomplete(String prefix, Mode mode, int limit) {
+        if (prefix == null || prefix.trim().isEmpty() || limit <= 0) {
+            return new ArrayList<>();
         }
 
-        final String lowered = keyword.toLowerCase();
-        return productRepository.findAll().stream()
-                .filter(p ->
-                        (mode == Mode.ID || mode == Mode.BOTH) && p.getProductId().toLowerCase().contains(lowered)
-                                || (mode == Mode.NAME || mode == Mode.BOTH) && p.getName().toLowerCase().contains(lowered))
-                .collect(Collectors.toList());
+        return switch (mode) {
+            case ID -> productRepository.autocompleteById(prefix, limit);
+            case NAME -> productRepository.autocompleteByName(prefix, limit);
+            case BOTH -> {
+                Map<String, Product> merged = new LinkedHashMap<>();
+                for (Product p : productRepository.autocompleteById(prefix, limit)) {
+                    merged.put(p.getProductId(), p);
+                }
+                for (Product p : productRepository.autocompleteByName(prefix, limit)) {
+                    if (merged.size() >= limit) {
+                        break;
+                    }
+                    merged.putIfAbsent(p.getProductId(), p);
+                }
+                yield new ArrayList<>(merged.values());
+            }
+        };
+    }
+
+    /**
+     * Parcourt le stock page par page, par identifiant croissant.
+     * Seuls les produits de la page sont lus, quelle que soit la taille du catalogue.
+     *
+     * @param cursor Curseur retourné par la page précédente (null pour la première page)
+     * @param pageSize Nombre de produits par page
+     * @return La page demandée et le curseur de la suivante
+     * @throws IllegalArgumentException si la taille de page n'est pas strictement positive
+     */
+    public ProductPage browse(String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("La taille de page doit être strictement positive.");
+        }
+        return productRepository.findPage(cursor, pageSize);
+    }
+
+    /**
+     * Compte les produits du stock sans les copier.
+     *
+     * @return Nombre de produits
+     */
+    public long countAll() {
+        return productRepository.count();
+    }
+
+    private List<Product> firstPage() {
+        return productRepository.findPage(null, BROWSE_PAGE_SIZE).getProducts();
+    }
+
+    /**
+     * Fusionne les résultats par identifiant et par nom, sans doublon.
+     *
+     * @param keyword Mot-clé utilisé pour filtrer les produits
+     * @return Produits dont l'identifiant ou le nom correspond
+     */
+    private List<Product> searchBoth(String keyword) {
+        Map<String, Product> merged = new LinkedHashMap<>();
+        for (Product p : productRepository.searchById(keyword)) {
+            merged.put(p.getProductId(), p);
+        }
+        for (Product p : productRepository.search(keyword)) {
+            merged.putIfAbsent(p.getProductId(), p);
+        }
+        return new ArrayList<>(merged.values());
     }
-}
\ No newline at end of file
+}
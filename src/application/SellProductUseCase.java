@@ -1,38 +1,57 @@
 package application;
 
 import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.BillOfMaterials;
 import domain.product.ContainerProduct;
 import domain.product.Product;
 import domain.product.SimpleProduct;
 import domain.sale.CartLine;
+import domain.sale.CartResult;
 import domain.sale.DiscountPolicy;
+import domain.sale.PromotionEngine;
 import domain.sale.Receipt;
 import domain.sale.ReceiptLine;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Cas d'usage : Vendre un ou plusieurs produits du stock (panier).
  * - Vérifie l'existence des produits
  * - Vérifie la disponibilité en stock
- * - Calcule le total du panier
- * - Applique une remise (via DiscountPolicy)
- * - Met à jour le stock
+ * - Calcule le total du panier (en centimes, arithmétique entière exacte)
+ * - Applique les remises (via PromotionEngine)
+ * - Met à jour le stock (compare-and-set optimiste, sans verrou global)
  * - Génère un ticket (Receipt)
  *
- * La règle de remise est externalisée dans {@link domain.sale.DiscountPolicy}
+ * Les règles de remise sont externalisées dans {@link domain.sale.PromotionEngine}
  * afin de séparer la logique métier du cas d'utilisation et de respecter
- * le principe Open/Closed (SOLID). Cela permet de modifier facilement
- * la stratégie de remise sans changer ce UseCase.
+ * le principe Open/Closed (SOLID). Les promotions peuvent ainsi être remplacées
+ * à chaud sans changer ce UseCase ni interrompre les ventes.
+ *
+ * Avec un {@link BundleStockEngine}, la vente d'un lot ({@link ContainerProduct}) dont le
+ * stock propre ne suffit pas assemble les lots manquants à partir de leur composant
+ * (récursivement) : le lot et ses composants sont décrémentés dans le même compare-and-set.
  *
  * @author Lucas
- * @version 2.1
+ * @version 2.7
  */
 public class SellProductUseCase {
 
+    /** Nombre maximal de tentatives en cas de conflit de concurrence sur le stock. */
+    private static final int MAX_ATTEMPTS = 64;
+
+    /** Nombre de paniers traités par aller-retour vers le dépôt lors d'une vente groupée. */
+    private static final int BATCH_SIZE = 1024;
+
     private final ProductRepository productRepository;
-    private final DiscountPolicy discountPolicy;
+    private final PromotionEngine promotions;
+    private final BundleStockEngine bundles;
 
     /**
      * Constructeur par défaut (règle TP2).
@@ -51,8 +70,35 @@ public class SellProductUseCase {
      * @param discountPolicy politique de remise
      */
     public SellProductUseCase(ProductRepository productRepository, DiscountPolicy discountPolicy) {
+        this(productRepository, PromotionEngine.fromPolicy(discountPolicy));
+    }
+
+    /**
+     * Constructeur avec moteur de promotions (paliers, marques, gammes, quantités).
+     *
+     * @param productRepository Référentiel des produits
+     * @param promotions moteur de promotions partagé
+     */
+    public SellProductUseCase(ProductRepository productRepository, PromotionEngine promotions) {
+        this(productRepository, promotions, null);
+    }
+
+    /**
+     * Constructeur avec moteur de lots : les lots en rupture sont assemblés à partir
+     * de leurs composants au moment de la vente.
+     *
+     * @param productRepository Référentiel des produits (tenu à jour dans le moteur)
+     * @param promotions moteur de promotions partagé
+     * @param bundles moteur de stock des lots (null : lots vendus sur leur seul stock propre)
+     */
+    public SellProductUseCase(ProductRepository productRepository, PromotionEngine promotions,
+                              BundleStockEngine bundles) {
+        if (promotions == null) {
+            throw new IllegalArgumentException("promotions cannot be null");
+        }
         this.productRepository = productRepository;
-        this.discountPolicy = discountPolicy;
+        this.promotions = promotions;
+        this.bundles = bundles;
     }
 
     /**
@@ -69,10 +115,18 @@ public class SellProductUseCase {
 
     /**
      * TP2 : Exécute une vente de type panier (max 3 articles).
+     * <p>
+     * La validation et la mise à jour du stock sont réalisées de manière optimiste :
+     * les produits sont lus avec leur version, puis toutes les lignes sont validées
+     * en une seule opération {@link ProductRepository#compareAndSaveAll(List, List)}.
+     * Si un autre panier a modifié l'un des produits entre-temps, la vente est
+     * intégralement recalculée (stock relu et revérifié), ce qui empêche toute survente.
+     * </p>
      *
      * @param cartLines lignes du panier (1 à 3)
      * @return le ticket de caisse
      * @throws IllegalArgumentException si panier invalide, produit introuvable, stock insuffisant, etc.
+     * @throws IllegalStateException si la vente reste en conflit après {@value #MAX_ATTEMPTS} tentatives
      */
     public Receipt executeCart(List<CartLine> cartLines) {
         if (cartLines == null || cartLines.isEmpty()) {
@@ -82,60 +136,291 @@ public class SellProductUseCase {
             throw new IllegalArgumentException("Le panier ne peut pas contenir plus de 3 articles.");
         }
 
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Receipt receipt = tryExecuteCart(cartLines);
+            if (receipt != null) {
+                return receipt;
+            }
+            Thread.onSpinWait();
+        }
+        throw new IllegalStateException(
+                "Vente abandonnée : conflit persistant sur le stock après " + MAX_ATTEMPTS + " tentatives.");
+    }
+
+    /**
+     * Vente groupée : traite une suite de paniers (par exemple rejoués depuis des caisses
+     * hors ligne) en limitant les accès au dépôt.
+     * <p>
+     * Les paniers sont traités par lots de {@value #BATCH_SIZE}. Pour chaque lot, chaque produit
+     * concerné est lu une seule fois, les paniers sont validés dans leur ordre d'arrivée
+     * sur un stock simulé (premier arrivé, premier servi : un panier qui ne peut plus être
+     * servi est refusé sans affecter les suivants), puis toutes les décrémentations du lot
+     * sont appliquées en un seul {@link ProductRepository#compareAndSaveAll(List, List)}.
+     * En cas de conflit avec une vente concurrente, le lot est recalculé ; si le conflit
+     * persiste, le lot est traité panier par panier via {@link #executeCart(List)}.
+     * Avec un moteur de lots, les paniers sont toujours traités un par un, l'assemblage
+     * des lots n'étant pas simulé sur le stock du lot.
+     * </p>
+     *
+     * @param carts paniers dans leur ordre d'arrivée
+     * @return un résultat par panier, dans le même ordre (ticket ou motif du refus)
+     */
+    public List<CartResult> executeBatch(Iterable<List<CartLine>> carts) {
+        if (carts == null) {
+            throw new IllegalArgumentException("carts cannot be null");
+        }
+        List<CartResult> results = new ArrayList<>();
+        List<List<CartLine>> chunk = new ArrayList<>(BATCH_SIZE);
+        Iterator<List<CartLine>> iterator = carts.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == BATCH_SIZE || !iterator.hasNext()) {
+                results.addAll(executeChunk(chunk));
+                chunk.clear();
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Traite un lot de paniers, avec repli panier par panier si les conflits persistent.
+     */
+    private List<CartResult> executeChunk(List<List<CartLine>> carts) {
+        for (int attempt = 0; bundles == null && attempt < MAX_ATTEMPTS; attempt++) {
+            List<CartResult> results = tryExecuteChunk(carts);
+            if (results != null) {
+                return results;
+            }
+            Thread.onSpinWait();
+        }
+        List<CartResult> results = new ArrayList<>(carts.size());
+        for (List<CartLine> cart : carts) {
+            try {
+                results.add(CartResult.accepted(executeCart(cart)));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                results.add(CartResult.rejected(e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Réalise une tentative de vente groupée : une lecture versionnée par produit,
+     * simulation du stock dans l'ordre des paniers, puis un unique compare-and-set.
+     *
+     * @param carts paniers du lot
+     * @return les résultats, ou null si un produit vendu a été modifié pendant la tentative
+     */
+    private List<CartResult> tryExecuteChunk(List<List<CartLine>> carts) {
+        Map<String, VersionedProduct> readProducts = new HashMap<>();
+        Map<String, Integer> stocks = new HashMap<>();
+        for (List<CartLine> cart : carts) {
+            if (cart == null) {
+                continue;
+            }
+            for (CartLine line : cart) {
+                String productId = line.getProductId();
+                if (!readProducts.containsKey(productId)) {
+                    VersionedProduct read = productRepository.findVersionedById(productId);
+                    readProducts.put(productId, read);
+                    if (read != null) {
+                        stocks.put(productId, read.getProduct().getStock());
+                    }
+                }
+            }
+        }
+
+        List<CartResult> results = new ArrayList<>(carts.size());
+        Map<String, VersionedProduct> sold = new LinkedHashMap<>();
+        for (List<CartLine> cart : carts) {
+            String rejection = checkCart(cart, stocks);
+            if (rejection != null) {
+                results.add(CartResult.rejected(rejection));
+                continue;
+            }
+            List<ReceiptLine> receiptLines = new ArrayList<>(cart.size());
+            long grossTotal = 0L;
+            for (CartLine line : cart) {
+                String productId = line.getProductId();
+                Product product = readProducts.get(productId).getProduct();
+                stocks.merge(productId, -line.getQuantity(), Integer::sum);
+                sold.put(productId, readProducts.get(productId));
+                ReceiptLine receiptLine = new ReceiptLine(product.getName(), line.getQuantity(), product.getPriceCents());
+                receiptLines.add(receiptLine);
+                grossTotal = Math.addExact(grossTotal, receiptLine.getLineTotalCents());
+            }
+            long discountAmount = promotions.computeDiscountCents(cart, id -> readProducts.get(id).getProduct());
+            results.add(CartResult.accepted(
+                    new Receipt(receiptLines, grossTotal, discountAmount, grossTotal - discountAmount)));
+        }
+
+        List<VersionedProduct> expected = new ArrayList<>(sold.values());
+        List<Product> updated = new ArrayList<>(expected.size());
+        for (VersionedProduct read : expected) {
+            Product product = read.getProduct();
+            updated.add(copyWithNewStock(product, stocks.get(product.getProductId())));
+        }
+        if (!expected.isEmpty() && !productRepository.compareAndSaveAll(expected, updated)) {
+            return null;
+        }
+        return results;
+    }
+
+    /**
+     * Vérifie qu'un panier peut être servi avec le stock simulé du lot
+     * (mêmes règles et mêmes messages que {@link #executeCart(List)}).
+     *
+     * @param cart panier à vérifier
+     * @param stocks stock restant par produit (absent si le produit n'existe pas)
+     * @return le motif du refus, ou null si le panier peut être servi
+     */
+    private String checkCart(List<CartLine> cart, Map<String, Integer> stocks) {
+        if (cart == null || cart.isEmpty()) {
+            return "Le panier ne peut pas être vide.";
+        }
+        if (cart.size() > 3) {
+            return "Le panier ne peut pas contenir plus de 3 articles.";
+        }
+        Map<String, Integer> requested = new HashMap<>();
+        for (CartLine line : cart) {
+            String productId = line.getProductId();
+            Integer available = stocks.get(productId);
+            if (available == null) {
+                return "Produit introuvable avec l'ID : " + productId;
+            }
+            int alreadyRequested = requested.getOrDefault(productId, 0);
+            if (available - alreadyRequested < line.getQuantity()) {
+                return "Stock insuffisant pour le produit : " + productId +
+                        " (stock=" + (available - alreadyRequested) + ", demandé=" + line.getQuantity() + ")";
+            }
+            requested.put(productId, alreadyRequested + line.getQuantity());
+        }
+        return null;
+    }
+
+    /**
+     * Réalise une tentative de vente : lecture versionnée, validation, puis compare-and-set.
+     *
+     * @param cartLines lignes du panier
+     * @return le ticket de caisse, ou null si un produit a été modifié pendant la tentative
+     * @throws IllegalArgumentException si produit introuvable ou stock insuffisant
+     */
+    private Receipt tryExecuteCart(List<CartLine> cartLines) {
         // 1) Vérifications + calcul lignes ticket
         List<ReceiptLine> receiptLines = new ArrayList<>();
-        double grossTotal = 0.0;
+        long grossTotal = 0L;
 
-        // On stocke les produits à mettre à jour après avoir TOUT validé
-        List<Product> productsToUpdate = new ArrayList<>();
-        List<Integer> newStocks = new ArrayList<>();
+        // Un même produit peut apparaître sur plusieurs lignes : on cumule les quantités
+        Map<String, VersionedProduct> readProducts = new LinkedHashMap<>();
+        Map<String, Integer> newStocks = new LinkedHashMap<>();
 
         for (CartLine line : cartLines) {
             String productId = line.getProductId();
             int quantity = line.getQuantity();
 
-            Product existing = productRepository.findById(productId);
-            if (existing == null) {
+            VersionedProduct read = read(productId, readProducts, newStocks);
+            if (read == null) {
                 throw new IllegalArgumentException("Produit introuvable avec l'ID : " + productId);
             }
+            Product existing = read.getProduct();
+            int available = newStocks.get(productId);
+            if (bundles != null && available < quantity) {
+                available = (int) Math.min(Integer.MAX_VALUE, availableWithAssembly(productId, readProducts, newStocks));
+            }
 
-            if (existing.getStock() < quantity) {
+            if (available < quantity) {
                 throw new IllegalArgumentException(
                         "Stock insuffisant pour le produit : " + productId +
-                                " (stock=" + existing.getStock() + ", demandé=" + quantity + ")"
+                                " (stock=" + available + ", demandé=" + quantity + ")"
                 );
             }
 
-            receiptLines.add(new ReceiptLine(existing.getName(), quantity, existing.getPrice()));
-            grossTotal += existing.getPrice() * quantity;
+            ReceiptLine receiptLine = new ReceiptLine(existing.getName(), quantity, existing.getPriceCents());
+            receiptLines.add(receiptLine);
+            grossTotal = Math.addExact(grossTotal, receiptLine.getLineTotalCents());
 
-            productsToUpdate.add(existing);
-            newStocks.add(existing.getStock() - quantity);
+            take(productId, quantity, readProducts, newStocks);
         }
 
-        // 2) Remise via policy
-        double discountAmount = discountPolicy.computeDiscount(grossTotal);
-        double netTotal = grossTotal - discountAmount;
+        // 2) Remises via le moteur de promotions
+        long discountAmount = promotions.computeDiscountCents(cartLines, id -> readProducts.get(id).getProduct());
+        long netTotal = grossTotal - discountAmount;
 
-        // 3) Mise à jour du stock (après validation complète)
-        for (int i = 0; i < productsToUpdate.size(); i++) {
-            Product updated = copyWithNewStock(productsToUpdate.get(i), newStocks.get(i));
-            productRepository.save(updated);
+        // 3) Mise à jour atomique du stock (après validation complète)
+        List<VersionedProduct> expected = new ArrayList<>(readProducts.values());
+        List<Product> updated = new ArrayList<>(expected.size());
+        for (VersionedProduct read : expected) {
+            String productId = read.getProduct().getProductId();
+            updated.add(copyWithNewStock(read.getProduct(), newStocks.get(productId)));
+        }
+        if (!productRepository.compareAndSaveAll(expected, updated)) {
+            return null;
         }
 
         return new Receipt(receiptLines, grossTotal, discountAmount, netTotal);
     }
 
+    /**
+     * Lit un produit avec sa version, une seule fois par tentative.
+     *
+     * @return le produit lu, ou null s'il n'existe pas
+     */
+    private VersionedProduct read(String productId, Map<String, VersionedProduct> readProducts,
+                                  Map<String, Integer> newStocks) {
+        VersionedProduct read = readProducts.get(productId);
+        if (read == null) {
+            read = productRepository.findVersionedById(productId);
+            if (read != null) {
+                readProducts.put(productId, read);
+                newStocks.put(productId, read.getProduct().getStock());
+            }
+        }
+        return read;
+    }
+
+    /**
+     * Quantité vendable d'un produit sur le stock restant de la tentative : stock propre
+     * plus lots assemblables à partir du composant (nomenclature du moteur, sans cycle).
+     */
+    private long availableWithAssembly(String productId, Map<String, VersionedProduct> readProducts,
+                                       Map<String, Integer> newStocks) {
+        if (read(productId, readProducts, newStocks) == null) {
+            return 0L;
+        }
+        long own = newStocks.get(productId);
+        BillOfMaterials.Link link = bundles == null ? null : bundles.componentOf(productId);
+        if (link == null) {
+            return own;
+        }
+        return own + availableWithAssembly(link.getComponentId(), readProducts, newStocks) / link.getQuantity();
+    }
+
+    /**
+     * Prélève une quantité (déjà vérifiée) : d'abord sur le stock propre, puis, pour un lot,
+     * en assemblant le reste à partir du composant.
+     */
+    private void take(String productId, int quantity, Map<String, VersionedProduct> readProducts,
+                      Map<String, Integer> newStocks) {
+        int own = newStocks.get(productId);
+        int fromStock = Math.min(own, quantity);
+        newStocks.put(productId, own - fromStock);
+        if (fromStock < quantity) {
+            BillOfMaterials.Link link = bundles.componentOf(productId);
+            take(link.getComponentId(), Math.multiplyExact(quantity - fromStock, link.getQuantity()),
+                    readProducts, newStocks);
+        }
+    }
+
     /**
      * Recrée un produit du même type avec un stock mis à jour.
      * (Tes entités sont immuables côté stock, donc on reconstruit.)
      */
     private Product copyWithNewStock(Product existing, int newStock) {
         if (existing instanceof ContainerProduct cp) {
-            return new ContainerProduct(
+            return ContainerProduct.ofCents(
                     cp.getProductId(),
                     cp.getName(),
-                    cp.getPrice(),
+                    cp.getPriceCents(),
                     newStock,
                     cp.getContainedProduct(),
                     cp.getContainedQuantity(),
@@ -145,13 +430,13 @@ public class SellProductUseCase {
         }
 
         // défaut : produit simple
-        return new SimpleProduct(
+        return SimpleProduct.ofCents(
                 existing.getProductId(),
                 existing.getName(),
-                existing.getPrice(),
+                existing.getPriceCents(),
                 newStock,
                 existing.getBrand(),
                 existing.getProductLine()
         );
     }
-}
\ No newline at end of file
+}
@@ -4,23 +4,36 @@ import application.ports.ProductRepository;
 import domain.product.Product;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
 
 /**
  * Cas d'usage : Trier les produits du stock par ordre croissant de prix.
- * Ce cas d'utilisation propose deux approches :
+ * Ce cas d'utilisation propose plusieurs approches :
  * <ul>
  *     <li>Tri rapide via l'API Java standard (Comparator + sort)</li>
- *     <li>Tri manuel via l'algorithme de tri par sélection (à des fins pédagogiques ou de benchmarking)</li>
+ *     <li>Top-K : les K premiers produits via un tas borné, en O(n log K), sans trier tout le catalogue</li>
+ *     <li>Pagination (offset/limit) sur la liste triée, servie par un top-K lorsque la page est proche du début</li>
+ *     <li>Tri parallèle sur des clés primitives extraites ({@link Arrays#parallelSort(long[])}) pour les très gros catalogues</li>
+ *     <li>Tri manuel via l'algorithme de tri par sélection (référence pour les benchmarks uniquement)</li>
  * </ul>
  * Cette classe n'effectue aucun tri en place dans le dépôt : elle retourne une nouvelle liste triée.
+ * <p>
+ * Lorsque le dépôt maintient un index de prix, {@link #sortByPrice()}, {@link #findByPriceRange(double, double)},
+ * {@link #findCheapest()} et {@link #findMostExpensive()} sont servis directement par cet index, sans tri complet.
+ * </p>
  *
  * @author Lucas
- * @version 1.1
+ * @version 1.4
  */
 public class SortProductsUseCase {
 
+    /** Taille de catalogue en dessous de laquelle le tri parallèle n'apporte rien. */
+    static final int PARALLEL_THRESHOLD = 1 << 13;
+
     private final ProductRepository repository;
 
     /**
@@ -33,25 +46,169 @@ public class SortProductsUseCase {
     }
 
     /**
-     * Trie les produits en mémoire par prix croissant.
-     * Utilise {@link java.util.Collections#sort(List, java.util.Comparator)} pour des performances optimales.
+     * Retourne les produits par prix croissant (à prix égal, par identifiant).
+     * Délègue au dépôt ({@link ProductRepository#findAllOrderedByPrice()}), qui lit son index
+     * de prix s'il en dispose, ou trie une copie via TimSort sinon.
      *
      * @return liste de produits triée par prix
      */
     public List<Product> sortByPrice() {
-        List<Product> products = new ArrayList<>(repository.findAll());
-        products.sort(Comparator.comparingDouble(Product::getPrice));
-        return products;
+        return repository.findAllOrderedByPrice();
+    }
+
+    /**
+     * Retourne les {@code k} produits les moins chers, par prix croissant.
+     * Un tas borné à {@code k} éléments est alimenté par un parcours du dépôt :
+     * coût O(n log k), mémoire O(k).
+     *
+     * @param k nombre de produits voulus
+     * @return au plus {@code k} produits triés par prix croissant
+     * @throws IllegalArgumentException si {@code k} est négatif
+     */
+    public List<Product> findCheapest(int k) {
+        return topK(k, ProductRepository.BY_PRICE);
+    }
+
+    /**
+     * Retourne les {@code k} produits les plus chers, par prix décroissant.
+     *
+     * @param k nombre de produits voulus
+     * @return au plus {@code k} produits triés par prix décroissant
+     * @throws IllegalArgumentException si {@code k} est négatif
+     */
+    public List<Product> findMostExpensive(int k) {
+        return topK(k, ProductRepository.BY_PRICE.reversed());
+    }
+
+    /**
+     * Retourne une page de la liste triée par prix croissant.
+     * <p>
+     * Les premières pages (offset + limit petit devant la taille du catalogue) sont
+     * calculées par un top-K ; au-delà, la liste triée complète est découpée.
+     * </p>
+     *
+     * @param offset rang du premier produit de la page (à partir de 0)
+     * @param limit nombre maximal de produits de la page
+     * @return produits de la page, par prix croissant
+     * @throws IllegalArgumentException si l'offset ou la limite est négatif
+     */
+    public List<Product> sortByPrice(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Pagination invalide : offset=" + offset + ", limit=" + limit);
+        }
+        long end = (long) offset + limit;
+        List<Product> sorted = end <= repository.count() / 4
+                ? findCheapest((int) end)
+                : sortByPrice();
+        if (offset >= sorted.size()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(sorted.subList(offset, (int) Math.min(end, sorted.size())));
     }
 
     /**
-     * Variante manuelle du tri utilisant l'algorithme de tri par sélection.
-     * Moins efficace que {@link #sortByPrice()}, mais utile pour l'analyse de performance ou démonstration.
+     * Trie tout le catalogue par prix croissant (à prix égal, par identifiant) en
+     * parallèle, sans comparer d'objets pendant le tri principal.
+     * <p>
+     * Chaque produit est réduit à une clé {@code long} qui combine son prix en centimes
+     * (bits de poids fort) et sa position (bits de poids faible) ; le tableau de clés est
+     * trié par {@link Arrays#parallelSort(long[])}, puis les produits de même prix sont
+     * départagés par identifiant. Si les prix ne tiennent pas dans la clé (prix négatif ou
+     * trop élevé), le tri parallèle porte directement sur les produits. Sous
+     * {@value #PARALLEL_THRESHOLD} produits, un tri séquentiel est utilisé.
+     * </p>
+     *
+     * @return liste de produits triée par prix
+     */
+    public List<Product> sortByPriceParallel() {
+        Product[] products = repository.stream().toArray(Product[]::new);
+        if (products.length < PARALLEL_THRESHOLD) {
+            Arrays.sort(products, ProductRepository.BY_PRICE);
+            return new ArrayList<>(Arrays.asList(products));
+        }
+        int indexBits = 64 - Long.numberOfLeadingZeros(products.length - 1L);
+        long maxPrice = 0L;
+        boolean packable = true;
+        for (Product product : products) {
+            long price = product.getPriceCents();
+            if (price < 0) {
+                packable = false;
+                break;
+            }
+            maxPrice = Math.max(maxPrice, price);
+        }
+        if (!packable || 64 - Long.numberOfLeadingZeros(maxPrice) + indexBits > 63) {
+            Arrays.parallelSort(products, ProductRepository.BY_PRICE);
+            return new ArrayList<>(Arrays.asList(products));
+        }
+
+        long[] keys = new long[products.length];
+        for (int i = 0; i < products.length; i++) {
+            keys[i] = (products[i].getPriceCents() << indexBits) | i;
+        }
+        Arrays.parallelSort(keys);
+
+        long indexMask = (1L << indexBits) - 1;
+        Product[] sorted = new Product[products.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = products[(int) (keys[i] & indexMask)];
+        }
+        // départage par identifiant des produits de même prix (séries en général très courtes)
+        int runStart = 0;
+        for (int i = 1; i <= sorted.length; i++) {
+            if (i == sorted.length || (keys[i] >>> indexBits) != (keys[runStart] >>> indexBits)) {
+                if (i - runStart > 1) {
+                    Arrays.sort(sorted, runStart, i, Comparator.comparing(Product::getProductId));
+                }
+                runStart = i;
+            }
+        }
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+
+    /**
+     * Retourne les produits dont le prix est compris entre deux bornes incluses
+     * (ex : entre 5€ et 20€), par prix croissant.
+     *
+     * @param minPrice prix minimal (inclus)
+     * @param maxPrice prix maximal (inclus)
+     * @return produits de la plage triés par prix
+     * @throws IllegalArgumentException si une borne est négative ou si min &gt; max
+     */
+    public List<Product> findByPriceRange(double minPrice, double maxPrice) {
+        if (minPrice < 0 || maxPrice < minPrice) {
+            throw new IllegalArgumentException("Plage de prix invalide : [" + minPrice + ", " + maxPrice + "]");
+        }
+        return repository.findByPriceBetween(minPrice, maxPrice);
+    }
+
+    /**
+     * Retourne le produit le moins cher du stock.
+     *
+     * @return produit le moins cher, ou null si le stock est vide
+     */
+    public Product findCheapest() {
+        return repository.findCheapest();
+    }
+
+    /**
+     * Retourne le produit le plus cher du stock.
+     *
+     * @return produit le plus cher, ou null si le stock est vide
+     */
+    public Product findMostExpensive() {
+        return repository.findMostExpensive();
+    }
+
+    /**
+     * Variante manuelle du tri utilisant l'algorithme de tri par sélection, en O(n²).
+     * Conservée uniquement comme référence de comparaison dans les benchmarks : utiliser
+     * {@link #sortByPrice()}, {@link #sortByPrice(int, int)} ou {@link #findCheapest(int)}.
      *
      * @return liste triée par prix en utilisant un algorithme bas-niveau
      */
     public List<Product> sortByPriceSelectionSort() {
-        List<Product> produits = new ArrayList<>(repository.findAll());
+        List<Product> produits = repository.stream().collect(Collectors.toCollection(ArrayList::new));
 
         for (int i = 0; i < produits.size() - 1; i++) {
             int minIndex = i;
@@ -68,4 +225,33 @@ public class SortProductsUseCase {
         }
         return produits;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sélectionne les {@code k} premiers produits selon un ordre, avec un tas borné dont la
+     * racine est le moins bon des candidats retenus.
+     *
+     * @param k nombre de produits voulus
+     * @param order ordre de sélection
+     * @return au plus {@code k} produits, dans l'ordre demandé
+     */
+    private List<Product> topK(int k, Comparator<Product> order) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Le nombre de produits demandé doit être positif : " + k);
+        }
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Product> heap = new PriorityQueue<>(Math.min(k, 1024), order.reversed());
+        repository.forEach(product -> {
+            if (heap.size() < k) {
+                heap.add(product);
+            } else if (order.compare(product, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(product);
+            }
+        });
+        List<Product> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
@@ -0,0 +1,63 @@
+package application.ports;
+
+import domain.product.Product;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Page de produits obtenue par curseur ({@link ProductRepository#findPage(String, int)}).
+ * <p>
+ * Les produits sont ordonnés par identifiant. Le curseur de la page suivante est
+ * l'identifiant du dernier produit de la page : il reste valable même si des produits
+ * sont ajoutés ou supprimés entre deux appels (aucun décalage d'offset).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class ProductPage {
+
+    private final List<Product> products;
+    private final String nextCursor;
+
+    /**
+     * @param products produits de la page, ordonnés par identifiant
+     * @param nextCursor curseur de la page suivante, ou null s'il s'agit de la dernière page
+     */
+    public ProductPage(List<Product> products, String nextCursor) {
+        this.products = Collections.unmodifiableList(products);
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Construit une page à partir d'au plus {@code limit + 1} produits ordonnés par
+     * identifiant : la présence d'un produit supplémentaire signale une page suivante.
+     *
+     * @param products produits lus (au plus {@code limit + 1})
+     * @param limit taille de page demandée
+     * @return la page correspondante
+     */
+    public static ProductPage fromLookahead(List<Product> products, int limit) {
+        if (products.size() <= limit) {
+            return new ProductPage(products, null);
+        }
+        List<Product> page = products.subList(0, limit);
+        return new ProductPage(page, page.get(limit - 1).getProductId());
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * @return curseur à passer pour obtenir la page suivante, ou null si aucune
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -1,7 +1,13 @@
 package application.ports;
 
 import domain.product.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Interface représentant le port d'accès aux données des produits.
@@ -13,6 +19,10 @@ import java.util.List;
  */
 public interface ProductRepository {
 
+    /** Ordre de référence des listes triées par prix : prix croissant puis identifiant. */
+    Comparator<Product> BY_PRICE = Comparator.comparingLong(Product::getPriceCents)
+            .thenComparing(Product::getProductId);
+
     /**
      * Sauvegarde un produit dans le référentiel.
      *
@@ -20,6 +30,24 @@ public interface ProductRepository {
      */
     void save(Product product);
 
+    /**
+     * Sauvegarde un lot de produits, comme une suite d'appels à {@link #save(Product)} dans
+     * l'ordre de la liste (si un identifiant apparaît plusieurs fois, la dernière valeur
+     * l'emporte).
+     * <p>
+     * Chemin d'écriture en masse (import de catalogue) : les implémentations peuvent
+     * mettre à jour leurs index en parallèle ou journaliser le lot en un seul
+     * enregistrement. Le lot n'est pas atomique vis-à-vis des lectures concurrentes.
+     * </p>
+     *
+     * @param products Les produits à enregistrer.
+     */
+    default void saveAll(List<Product> products) {
+        for (Product product : products) {
+            save(product);
+        }
+    }
+
     /**
      * Vérifie si un produit existe à partir de son identifiant.
      *
@@ -43,6 +71,64 @@ public interface ProductRepository {
      */
     List<Product> findAll();
 
+    /**
+     * Parcourt les produits sans en constituer de liste.
+     * <p>
+     * À privilégier sur {@link #findAll()} pour filtrer, compter ou afficher : les
+     * implémentations en mémoire diffusent directement leur contenu, sans copie.
+     * L'implémentation par défaut s'appuie sur {@link #findAll()}. L'ordre n'est pas
+     * défini et, pour un dépôt partagé, le parcours reflète un état faiblement cohérent.
+     * </p>
+     *
+     * @return Un flux de tous les produits.
+     */
+    default Stream<Product> stream() {
+        return findAll().stream();
+    }
+
+    /**
+     * Applique un visiteur à chaque produit, sans en constituer de liste.
+     *
+     * @param visitor Le traitement appliqué à chaque produit.
+     */
+    default void forEach(Consumer<? super Product> visitor) {
+        stream().forEach(visitor);
+    }
+
+    /**
+     * Compte les produits du référentiel.
+     *
+     * @return Le nombre de produits.
+     */
+    default long count() {
+        return stream().count();
+    }
+
+    /**
+     * Retourne une page de produits ordonnés par identifiant, à partir d'un curseur.
+     * <p>
+     * L'implémentation par défaut parcourt l'ensemble des produits et ne conserve que
+     * les {@code limit} premiers ; les implémentations disposant d'un index ordonné des
+     * identifiants peuvent la redéfinir.
+     * </p>
+     *
+     * @param afterId Le curseur : identifiant du dernier produit de la page précédente (null pour la première page).
+     * @param limit Le nombre maximal de produits de la page (strictement positif).
+     * @return La page demandée.
+     * @throws IllegalArgumentException si la taille de page est invalide.
+     */
+    default ProductPage findPage(String afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than zero");
+        }
+        List<Product> products = stream()
+                .filter(p -> afterId == null || p.getProductId().compareTo(afterId) > 0)
+                .sorted(Comparator.comparing(Product::getProductId))
+                .limit(limit + 1L)
+                .collect(Collectors.toCollection(ArrayList::new));
+        return ProductPage.fromLookahead(products, limit);
+    }
+
     /**
      * Recherche les produits correspondant à un mot-clé.
      * <p>
@@ -55,10 +141,165 @@ public interface ProductRepository {
      */
     List<Product> search(String keyword);
 
+    /**
+     * Recherche les produits dont l'identifiant contient le mot-clé (insensible à la casse).
+     * <p>
+     * L'implémentation par défaut parcourt l'ensemble des produits ; les implémentations
+     * disposant d'un index peuvent la redéfinir.
+     * </p>
+     *
+     * @param keyword Le mot-clé à utiliser pour la recherche.
+     * @return Une liste de produits dont l'identifiant correspond.
+     */
+    default List<Product> searchById(String keyword) {
+        String lowered = keyword.toLowerCase();
+        List<Product> results = new ArrayList<>();
+        forEach(product -> {
+            if (product.getProductId().toLowerCase().contains(lowered)) {
+                results.add(product);
+            }
+        });
+        return results;
+    }
+
+    /**
+     * Autocomplétion : retourne au plus {@code limit} produits dont l'identifiant commence
+     * par le préfixe (insensible à la casse), dans l'ordre lexicographique des identifiants.
+     * <p>
+     * L'implémentation par défaut parcourt et trie l'ensemble des produits ; les
+     * implémentations disposant d'un arbre préfixe peuvent la redéfinir.
+     * </p>
+     *
+     * @param prefix Le début de l'identifiant saisi.
+     * @param limit Le nombre maximal de produits retournés.
+     * @return Les premiers produits correspondants.
+     */
+    default List<Product> autocompleteById(String prefix, int limit) {
+        String lowered = prefix.toLowerCase();
+        return stream()
+                .filter(p -> p.getProductId().toLowerCase().startsWith(lowered))
+                .sorted(Comparator.comparing(p -> p.getProductId().toLowerCase()))
+                .limit(Math.max(0, limit))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Autocomplétion : retourne au plus {@code limit} produits dont le nom, ou l'un des mots
+     * du nom, commence par le préfixe (insensible à la casse).
+     * <p>
+     * L'implémentation par défaut parcourt et trie l'ensemble des produits ; les
+     * implémentations disposant d'un arbre préfixe peuvent la redéfinir.
+     * </p>
+     *
+     * @param prefix Le début du nom saisi.
+     * @param limit Le nombre maximal de produits retournés.
+     * @return Les premiers produits correspondants.
+     */
+    default List<Product> autocompleteByName(String prefix, int limit) {
+        String lowered = prefix.trim().toLowerCase();
+        return stream()
+                .filter(p -> {
+                    String name = p.getName().trim().toLowerCase();
+                    return name.startsWith(lowered) || name.contains(" " + lowered);
+                })
+                .sorted(Comparator.comparing(p -> p.getName().trim().toLowerCase()))
+                .limit(Math.max(0, limit))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retourne tous les produits par prix croissant (à prix égal, par identifiant).
+     * <p>
+     * L'implémentation par défaut trie l'ensemble des produits ; les
+     * implémentations disposant d'un index de prix peuvent la redéfinir.
+     * </p>
+     *
+     * @return Les produits ordonnés par prix croissant.
+     */
+    default List<Product> findAllOrderedByPrice() {
+        return stream().sorted(BY_PRICE).collect(Collectors.toList());
+    }
+
+    /**
+     * Retourne les produits dont le prix est compris entre deux bornes incluses,
+     * par prix croissant.
+     *
+     * @param minPrice Le prix minimal (inclus).
+     * @param maxPrice Le prix maximal (inclus).
+     * @return Les produits de la plage, ordonnés par prix croissant.
+     */
+    default List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        return stream()
+                .filter(p -> p.getPrice() >= minPrice && p.getPrice() <= maxPrice)
+                .sorted(BY_PRICE)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Retourne le produit le moins cher (à prix égal, le plus petit identifiant).
+     *
+     * @return Le produit le moins cher, ou null si le référentiel est vide.
+     */
+    default Product findCheapest() {
+        return stream().min(BY_PRICE).orElse(null);
+    }
+
+    /**
+     * Retourne le produit le plus cher (à prix égal, le plus grand identifiant).
+     *
+     * @return Le produit le plus cher, ou null si le référentiel est vide.
+     */
+    default Product findMostExpensive() {
+        return stream().max(BY_PRICE).orElse(null);
+    }
+
     /**
      * Supprime un produit à partir de son identifiant.
      *
      * @param productId L'identifiant du produit à supprimer.
      */
     void deleteById(String productId);
-}
+
+    /**
+     * Recherche un produit et sa version courante.
+     * <p>
+     * L'implémentation par défaut retourne une version constante : l'instance du produit
+     * fait alors office de marqueur de version (chaque écriture remplace l'instance).
+     * </p>
+     *
+     * @param productId L'identifiant du produit recherché.
+     * @return Le produit versionné, ou null s'il n'existe pas.
+     */
+    default VersionedProduct findVersionedById(String productId) {
+        Product product = findById(productId);
+        return product == null ? null : new VersionedProduct(product, 0L);
+    }
+
+    /**
+     * Enregistre toutes les mises à jour si, et seulement si, aucun des produits attendus
+     * n'a été modifié depuis sa lecture (compare-and-set multi-produits).
+     * <p>
+     * Les deux listes sont alignées : {@code replacements.get(i)} remplace
+     * {@code expected.get(i)}. L'implémentation par défaut compare les instances et
+     * n'est pas atomique : elle convient uniquement aux dépôts mono-thread.
+     * </p>
+     *
+     * @param expected Les produits lus, avec leur version.
+     * @param replacements Les nouvelles valeurs à enregistrer.
+     * @return true si toutes les mises à jour ont été appliquées, false si l'une des versions a changé.
+     */
+    default boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        if (expected.size() != replacements.size()) {
+            throw new IllegalArgumentException("expected and replacements must have the same size");
+        }
+        for (VersionedProduct entry : expected) {
+            if (findById(entry.getProduct().getProductId()) != entry.getProduct()) {
+                return false;
+            }
+        }
+        for (Product replacement : replacements) {
+            save(replacement);
+        }
+        return true;
+    }
+}
\ No newline at end of file
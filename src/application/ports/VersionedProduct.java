@@ -0,0 +1,40 @@
+package application.ports;
+
+import domain.product.Product;
+
+/**
+ * Produit accompagné de son numéro de version dans le référentiel.
+ * <p>
+ * La version est incrémentée à chaque écriture du produit. Elle permet aux cas d'usage
+ * d'appliquer un contrôle de concurrence optimiste : une mise à jour n'est validée que
+ * si le produit n'a pas été modifié depuis sa lecture.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class VersionedProduct {
+
+    private final Product product;
+    private final long version;
+
+    /**
+     * @param product produit lu (non nul)
+     * @param version version du produit au moment de la lecture
+     */
+    public VersionedProduct(Product product, long version) {
+        if (product == null) {
+            throw new IllegalArgumentException("product cannot be null");
+        }
+        this.product = product;
+        this.version = version;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
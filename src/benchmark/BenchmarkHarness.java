@@ -0,0 +1,267 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Petit banc de mesure utilisé par les benchmarks du projet.
+ * <p>
+ * Pour chaque opération, le banc exécute une phase de chauffe puis plusieurs itérations
+ * de mesure de durée fixe sur le nombre de threads demandé, et rapporte :
+ * </p>
+ * <ul>
+ *     <li>le débit (opérations par seconde, moyenne des itérations) ;</li>
+ *     <li>le temps moyen par opération ;</li>
+ *     <li>les octets alloués par opération, mesurés par thread grâce à
+ *     {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} ;</li>
+ *     <li>le nombre de collections du ramasse-miettes pendant la mesure.</li>
+ * </ul>
+ * <p>
+ * Les résultats peuvent être ajoutés à un fichier CSV afin de suivre les régressions
+ * d'une version à l'autre.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class BenchmarkHarness {
+
+    /**
+     * Opération mesurée. Le résultat est consommé par le banc afin que le JIT
+     * ne puisse pas éliminer le calcul.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        Object invoke(ThreadLocalRandom random);
+    }
+
+    /**
+     * Résultat d'une mesure.
+     */
+    public static final class Result {
+
+        private final String name;
+        private final int catalogSize;
+        private final int threads;
+        private final double opsPerSecond;
+        private final double nanosPerOp;
+        private final double bytesPerOp;
+        private final long gcCount;
+
+        Result(String name, int catalogSize, int threads, double opsPerSecond,
+               double nanosPerOp, double bytesPerOp, long gcCount) {
+            this.name = name;
+            this.catalogSize = catalogSize;
+            this.threads = threads;
+            this.opsPerSecond = opsPerSecond;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+            this.gcCount = gcCount;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        public double getNanosPerOp() {
+            return nanosPerOp;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        /**
+         * @return ligne formatée pour la console
+         */
+        public String formatForConsole() {
+            return String.format("%-32s %10d %7d %16.0f %14.1f %14.1f %6d",
+                    name, catalogSize, threads, opsPerSecond, nanosPerOp, bytesPerOp, gcCount);
+        }
+
+        /**
+         * @return ligne CSV
+         */
+        public String formatCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%.0f,%.1f,%.1f,%d",
+                    name, catalogSize, threads, opsPerSecond, nanosPerOp, bytesPerOp, gcCount);
+        }
+    }
+
+    /** En-tête de la table affichée en console. */
+    public static final String CONSOLE_HEADER = String.format("%-32s %10s %7s %16s %14s %14s %6s",
+            "Benchmark", "Catalogue", "Threads", "op/s", "ns/op", "octets/op", "GC");
+
+    /** En-tête du fichier CSV. */
+    public static final String CSV_HEADER = "benchmark,catalog_size,threads,ops_per_second,ns_per_op,bytes_per_op,gc_count";
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final long warmupMillis;
+    private final int iterations;
+    private final long iterationMillis;
+    private final AtomicLong sink = new AtomicLong();
+
+    /**
+     * @param warmupMillis durée de la phase de chauffe
+     * @param iterations nombre d'itérations de mesure
+     * @param iterationMillis durée d'une itération de mesure
+     */
+    public BenchmarkHarness(long warmupMillis, int iterations, long iterationMillis) {
+        if (warmupMillis < 0 || iterations <= 0 || iterationMillis <= 0) {
+            throw new IllegalArgumentException("invalid benchmark durations");
+        }
+        this.warmupMillis = warmupMillis;
+        this.iterations = iterations;
+        this.iterationMillis = iterationMillis;
+    }
+
+    /**
+     * Mesure une opération.
+     *
+     * @param name nom du benchmark
+     * @param catalogSize taille du catalogue (pour le rapport)
+     * @param threads nombre de threads exécutant l'opération en parallèle
+     * @param operation opération mesurée
+     * @return résultat de la mesure
+     */
+    public Result measure(String name, int catalogSize, int threads, Operation operation) {
+        if (warmupMillis > 0) {
+            runIteration(threads, warmupMillis, operation);
+        }
+        long gcBefore = gcCount();
+        long totalOps = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        double throughput = 0;
+        for (int i = 0; i < iterations; i++) {
+            long[] iteration = runIteration(threads, iterationMillis, operation);
+            totalOps += iteration[0];
+            totalNanos += iteration[1];
+            totalBytes += iteration[2];
+            throughput += iteration[0] * 1_000_000_000.0 / iteration[3];
+        }
+        long ops = Math.max(1, totalOps);
+        return new Result(name, catalogSize, threads, throughput / iterations,
+                (double) totalNanos / ops, THREADS == null ? -1 : (double) totalBytes / ops,
+                gcCount() - gcBefore);
+    }
+
+    /**
+     * Ajoute des résultats à un fichier CSV (l'en-tête est écrit à la création du fichier).
+     *
+     * @param file fichier CSV
+     * @param results résultats à ajouter
+     */
+    public static void appendCsv(Path file, Iterable<Result> results) {
+        StringBuilder sb = new StringBuilder();
+        if (!Files.exists(file)) {
+            sb.append(CSV_HEADER).append('\n');
+        }
+        for (Result result : results) {
+            sb.append(result.formatCsv()).append('\n');
+        }
+        try {
+            Files.writeString(file, sb.toString(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du rapport impossible : " + file, e);
+        }
+    }
+
+    /**
+     * Exécute l'opération en boucle sur plusieurs threads pendant la durée donnée.
+     *
+     * @return {opérations, nanosecondes cumulées par thread, octets alloués, durée réelle}
+     */
+    private long[] runIteration(int threads, long millis, Operation operation) {
+        LongAdder ops = new LongAdder();
+        LongAdder nanos = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        RuntimeException[] failure = new RuntimeException[1];
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                long hash = 0;
+                try {
+                    start.await();
+                    long bytesBefore = allocatedBytes();
+                    long begin = System.nanoTime();
+                    long deadline = begin + millis * 1_000_000L;
+                    do {
+                        Object value = operation.invoke(random);
+                        hash += System.identityHashCode(value);
+                        local++;
+                    } while (System.nanoTime() < deadline);
+                    nanos.add(System.nanoTime() - begin);
+                    bytes.add(allocatedBytes() - bytesBefore);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                } finally {
+                    ops.add(local);
+                    sink.addAndGet(hash);
+                    done.countDown();
+                }
+            }, "bench-worker-" + t);
+            worker.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long elapsed = System.nanoTime() - begin;
+        synchronized (failure) {
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+        return new long[] {ops.sum(), nanos.sum(), bytes.sum(), elapsed};
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+}
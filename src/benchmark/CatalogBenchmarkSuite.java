@@ -0,0 +1,384 @@
+package benchmark;
+
+import application.SearchProductUseCase;
+import application.SellProductUseCase;
+import application.SortProductsUseCase;
+import application.ports.ProductRepository;
+import domain.catalog.Brand;
+import domain.catalog.ProductLine;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+import domain.sale.CartLine;
+import domain.sale.Receipt;
+import infrastructure.ConcurrentProductRepository;
+import infrastructure.InMemoryProductRepository;
+import infrastructure.ProductIdGenerator;
+import infrastructure.events.ChangeEventBus;
+import infrastructure.events.PublishingProductRepository;
+import infrastructure.events.WaitStrategy;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Suite de benchmarks couvrant les chemins principaux de l'application :
+ * <ul>
+ *     <li>opérations CRUD du dépôt ({@code findById}, {@code existsById}, {@code save},
+ *     {@code deleteById}, {@code findAll}) ;</li>
+ *     <li>{@link SearchProductUseCase} dans ses trois modes, indexé puis par parcours
+ *     séquentiel et fork/join ({@code search.scan.*}) : comparer les deux parcours sur
+ *     plusieurs tailles ({@code --filter search.scan --sizes 1000,10000,100000,1000000})
+ *     donne le point de bascule à reporter dans {@link SearchProductUseCase#PARALLEL_THRESHOLD} ;</li>
+ *     <li>les algorithmes de {@link SortProductsUseCase} (index, top-K, page, parallèle, sélection) ;</li>
+ *     <li>{@link SellProductUseCase#executeCart(List)} et la vente groupée de 100 paniers ;</li>
+ *     <li>la publication sur le {@link ChangeEventBus}, seule ({@code cdc.publish}, mono-thread :
+ *     le bus n'a qu'un producteur) puis sur le chemin de vente ({@code sale.executeCart[cdc]}),
+ *     avec un consommateur qui ne fait rien ;</li>
+ *     <li>{@link ProductIdGenerator#generateId()} ;</li>
+ *     <li>{@link Receipt#formatForConsole()}.</li>
+ * </ul>
+ * <p>
+ * Chaque benchmark est exécuté pour chaque taille de catalogue et chaque nombre de threads
+ * demandés, avec mesure des allocations par opération (voir {@link BenchmarkHarness}). Les
+ * données d'un benchmark (dépôts chargés, bus) ne sont construites que s'il est retenu par
+ * {@code --filter}, juste avant sa mesure.
+ * {@link InMemoryProductRepository} n'étant pas thread-safe, les benchmarks qui écrivent
+ * utilisent {@link ConcurrentProductRepository} dès que plusieurs threads sont demandés ;
+ * la colonne « Benchmark » l'indique. Le tri par sélection, quadratique, n'est mesuré que
+ * jusqu'à {@value #SELECTION_SORT_LIMIT} produits.
+ * </p>
+ *
+ * <pre>
+ * javac -encoding UTF-8 -d out $(find src -name "*.java")
+ * java -Xmx8g -cp out benchmark.CatalogBenchmarkSuite --sizes 1000,100000,1000000,5000000 --threads 1,4 --csv bench.csv
+ * </pre>
+ *
+ * Options :
+ * <ul>
+ *     <li>{@code --sizes} tailles de catalogue (défaut : 1000,10000,100000) ;</li>
+ *     <li>{@code --threads} nombres de threads (défaut : 1,4) ;</li>
+ *     <li>{@code --filter} ne lance que les benchmarks dont le nom contient ce texte ;</li>
+ *     <li>{@code --csv} ajoute les résultats au fichier CSV donné ;</li>
+ *     <li>{@code --quick} réduit les durées de chauffe et de mesure.</li>
+ * </ul>
+ *
+ * @author Lucas
+ * @version 1.3
+ */
+public class CatalogBenchmarkSuite {
+
+    private static final int SELECTION_SORT_LIMIT = 10_000;
+    private static final int INITIAL_STOCK = Integer.MAX_VALUE / 2;
+
+    /**
+     * Point d'entrée de la suite.
+     *
+     * @param args options (voir la documentation de la classe)
+     */
+    public static void main(String[] args) {
+        int[] sizes = {1_000, 10_000, 100_000};
+        int[] threadCounts = {1, 4};
+        String filter = "";
+        Path csv = null;
+        BenchmarkHarness harness = new BenchmarkHarness(1_000, 3, 1_000);
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes" -> sizes = parseInts(args[++i]);
+                case "--threads" -> threadCounts = parseInts(args[++i]);
+                case "--filter" -> filter = args[++i];
+                case "--csv" -> csv = Path.of(args[++i]);
+                case "--quick" -> harness = new BenchmarkHarness(200, 2, 300);
+                default -> throw new IllegalArgumentException("Option inconnue : " + args[i]);
+            }
+        }
+
+        System.out.println("CPU disponibles : " + Runtime.getRuntime().availableProcessors());
+        System.out.println(BenchmarkHarness.CONSOLE_HEADER);
+        List<BenchmarkHarness.Result> results = new ArrayList<>();
+        for (int size : sizes) {
+            Product[] products = generateProducts(size);
+            for (int threads : threadCounts) {
+                try (Fixtures fixtures = new Fixtures(products, threads)) {
+                    for (Benchmark benchmark : benchmarks(threads)) {
+                        if (!benchmark.name.contains(filter)
+                                || (benchmark.name.startsWith("sort.selection") && size > SELECTION_SORT_LIMIT)) {
+                            continue;
+                        }
+                        BenchmarkHarness.Result result = harness.measure(benchmark.name, size, threads,
+                                benchmark.setup.apply(fixtures));
+                        System.out.println(result.formatForConsole());
+                        results.add(result);
+                    }
+                }
+            }
+        }
+        if (csv != null) {
+            BenchmarkHarness.appendCsv(csv, results);
+            System.out.println("Résultats ajoutés à " + csv);
+        }
+    }
+
+    /**
+     * Déclare les benchmarks pour un nombre de threads. Chaque benchmark construit ses
+     * données à la demande, à partir des {@link Fixtures} : seuls les benchmarks retenus par
+     * le filtre chargent un dépôt, et chaque benchmark qui écrit dispose de son propre dépôt
+     * afin de ne pas perturber les autres.
+     */
+    private static List<Benchmark> benchmarks(int threads) {
+        String writeSuffix = threads > 1 ? "[concurrent]" : "";
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Benchmark("repo.findById", f -> {
+            ProductRepository repository = f.readRepository();
+            return random -> repository.findById(f.randomId(random));
+        }));
+        benchmarks.add(new Benchmark("repo.existsById", f -> {
+            ProductRepository repository = f.readRepository();
+            return random -> repository.existsById(f.randomId(random));
+        }));
+        benchmarks.add(new Benchmark("repo.findAll", f -> {
+            ProductRepository repository = f.readRepository();
+            return random -> repository.findAll();
+        }));
+
+        benchmarks.add(new Benchmark("repo.save" + writeSuffix, f -> {
+            ProductRepository repository = f.writeRepository();
+            return random -> {
+                Product product = f.randomProduct(random);
+                repository.save(product);
+                return product;
+            };
+        }));
+        benchmarks.add(new Benchmark("repo.deleteThenSave" + writeSuffix, f -> {
+            ProductRepository repository = f.writeRepository();
+            return random -> {
+                Product product = f.randomProduct(random);
+                repository.deleteById(product.getProductId());
+                repository.save(product);
+                return product;
+            };
+        }));
+
+        for (SearchProductUseCase.Mode mode : SearchProductUseCase.Mode.values()) {
+            benchmarks.add(new Benchmark("search." + mode, f -> {
+                SearchProductUseCase search = f.search();
+                return random -> search.execute(String.valueOf(random.nextInt(f.size())), mode);
+            }));
+        }
+        benchmarks.add(new Benchmark("search.scan.sequential", f -> {
+            SearchProductUseCase search = f.search();
+            return random -> search.scan(String.valueOf(random.nextInt(f.size())), SearchProductUseCase.Mode.BOTH, false);
+        }));
+        benchmarks.add(new Benchmark("search.scan.forkJoin", f -> {
+            SearchProductUseCase search = f.search();
+            return random -> search.scan(String.valueOf(random.nextInt(f.size())), SearchProductUseCase.Mode.BOTH, true);
+        }));
+        benchmarks.add(new Benchmark("sort.indexed", f -> {
+            SortProductsUseCase sort = f.sort();
+            return random -> sort.sortByPrice();
+        }));
+        benchmarks.add(new Benchmark("sort.topK(20)", f -> {
+            SortProductsUseCase sort = f.sort();
+            return random -> sort.findCheapest(20);
+        }));
+        benchmarks.add(new Benchmark("sort.page(100,20)", f -> {
+            SortProductsUseCase sort = f.sort();
+            return random -> sort.sortByPrice(100, 20);
+        }));
+        benchmarks.add(new Benchmark("sort.parallel", f -> {
+            SortProductsUseCase sort = f.sort();
+            return random -> sort.sortByPriceParallel();
+        }));
+        benchmarks.add(new Benchmark("sort.selection", f -> {
+            SortProductsUseCase sort = f.sort();
+            return random -> sort.sortByPriceSelectionSort();
+        }));
+
+        benchmarks.add(new Benchmark("sale.executeCart" + writeSuffix, f -> {
+            SellProductUseCase sell = new SellProductUseCase(f.writeRepository());
+            return random -> sell.executeCart(f.randomCart(random));
+        }));
+        benchmarks.add(new Benchmark("sale.executeBatch(100)" + writeSuffix, f -> {
+            SellProductUseCase batchSell = new SellProductUseCase(f.writeRepository());
+            return random -> {
+                List<List<CartLine>> carts = new ArrayList<>(100);
+                for (int i = 0; i < 100; i++) {
+                    carts.add(f.randomCart(random));
+                }
+                return batchSell.executeBatch(carts);
+            };
+        }));
+        if (threads == 1) {
+            benchmarks.add(new Benchmark("cdc.publish", f -> {
+                ChangeEventBus bus = f.bus();
+                return random -> {
+                    Product product = f.randomProduct(random);
+                    bus.publishSave(product);
+                    return product;
+                };
+            }));
+        }
+        benchmarks.add(new Benchmark("sale.executeCart[cdc]" + writeSuffix, f -> {
+            SellProductUseCase publishingSell = new SellProductUseCase(
+                    new PublishingProductRepository(f.writeRepository(), f.bus()));
+            return random -> publishingSell.executeCart(f.randomCart(random));
+        }));
+        benchmarks.add(new Benchmark("ids.generate", f -> random -> ProductIdGenerator.generateId()));
+        benchmarks.add(new Benchmark("receipt.formatForConsole", f -> {
+            Receipt receipt = sampleReceipt(f.products);
+            return random -> receipt.formatForConsole();
+        }));
+        return benchmarks;
+    }
+
+    private static ProductRepository load(ProductRepository repository, Product[] products) {
+        for (Product product : products) {
+            repository.save(product);
+        }
+        return repository;
+    }
+
+    /**
+     * Génère un catalogue réparti sur plusieurs marques et gammes.
+     */
+    private static Product[] generateProducts(int size) {
+        Brand[] brands = new Brand[8];
+        ProductLine[] lines = new ProductLine[32];
+        for (int b = 0; b < brands.length; b++) {
+            brands[b] = new Brand("b" + b, "Marque " + b);
+        }
+        for (int l = 0; l < lines.length; l++) {
+            lines[l] = new ProductLine("l" + l, "Gamme " + l, brands[l % brands.length]);
+        }
+        Product[] products = new Product[size];
+        for (int i = 0; i < size; i++) {
+            ProductLine line = lines[i % lines.length];
+            products[i] = new SimpleProduct(String.valueOf(i), "Produit " + i,
+                    (i * 7919L % 100_000) / 100.0, INITIAL_STOCK, line.getBrand(), line);
+        }
+        return products;
+    }
+
+    /**
+     * Ticket de trois lignes servant au benchmark de mise en forme.
+     */
+    private static Receipt sampleReceipt(Product[] products) {
+        ProductRepository repository = load(new InMemoryProductRepository(),
+                new Product[] {products[0], products[products.length / 2], products[products.length - 1]});
+        List<CartLine> cart = new ArrayList<>();
+        for (Product product : repository.findAll()) {
+            cart.add(new CartLine(product.getProductId(), 2));
+        }
+        return new SellProductUseCase(repository).executeCart(cart);
+    }
+
+    private static int[] parseInts(String csv) {
+        String[] parts = csv.split(",");
+        int[] values = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Integer.parseInt(parts[i].trim());
+        }
+        return values;
+    }
+
+    /**
+     * Benchmark nommé, dont l'opération n'est construite qu'au moment de le mesurer.
+     */
+    private static final class Benchmark {
+
+        private final String name;
+        private final Function<Fixtures, BenchmarkHarness.Operation> setup;
+
+        Benchmark(String name, Function<Fixtures, BenchmarkHarness.Operation> setup) {
+            this.name = name;
+            this.setup = setup;
+        }
+    }
+
+    /**
+     * Données partagées par les benchmarks d'une taille et d'un nombre de threads, créées
+     * au premier usage : dépôt de lecture (et cas d'utilisation qui le lisent) et bus de
+     * capture des modifications, fermé avec les données.
+     */
+    private static final class Fixtures implements AutoCloseable {
+
+        private final Product[] products;
+        private final int threads;
+        private ProductRepository readRepository;
+        private SearchProductUseCase search;
+        private SortProductsUseCase sort;
+        private ChangeEventBus bus;
+
+        Fixtures(Product[] products, int threads) {
+            this.products = products;
+            this.threads = threads;
+        }
+
+        int size() {
+            return products.length;
+        }
+
+        Product randomProduct(ThreadLocalRandom random) {
+            return products[random.nextInt(products.length)];
+        }
+
+        String randomId(ThreadLocalRandom random) {
+            return randomProduct(random).getProductId();
+        }
+
+        List<CartLine> randomCart(ThreadLocalRandom random) {
+            return List.of(new CartLine(randomId(random), 1), new CartLine(randomId(random), 1),
+                    new CartLine(randomId(random), 1));
+        }
+
+        ProductRepository readRepository() {
+            if (readRepository == null) {
+                readRepository = load(new InMemoryProductRepository(), products);
+            }
+            return readRepository;
+        }
+
+        SearchProductUseCase search() {
+            if (search == null) {
+                search = new SearchProductUseCase(readRepository());
+            }
+            return search;
+        }
+
+        SortProductsUseCase sort() {
+            if (sort == null) {
+                sort = new SortProductsUseCase(readRepository());
+            }
+            return sort;
+        }
+
+        /**
+         * @return un nouveau dépôt chargé, propre au benchmark qui écrit
+         */
+        ProductRepository writeRepository() {
+            return load(threads > 1 ? new ConcurrentProductRepository() : new InMemoryProductRepository(), products);
+        }
+
+        ChangeEventBus bus() {
+            if (bus == null) {
+                bus = new ChangeEventBus(ChangeEventBus.DEFAULT_BUFFER_SIZE, WaitStrategy.SLEEPING);
+                bus.subscribe("benchmark", (event, endOfBatch) -> { });
+            }
+            return bus;
+        }
+
+        /**
+         * Arrête le consommateur du bus, s'il a été démarré.
+         */
+        @Override
+        public void close() {
+            if (bus != null) {
+                bus.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package benchmark;
+
+import application.ports.ProductRepository;
+import domain.catalog.Brand;
+import domain.catalog.ProductLine;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+import infrastructure.ConcurrentProductRepository;
+import infrastructure.InMemoryProductRepository;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Compare le débit de {@link InMemoryProductRepository} et de {@link ConcurrentProductRepository}
+ * sous 1, 4, 16 et 64 threads.
+ * <p>
+ * Le dépôt mémoire n'étant pas thread-safe, il est mesuré derrière un verrou global
+ * (seule façon correcte de le partager entre plusieurs caisses). La charge simule un
+ * comptoir de vente : 90 % de lectures ({@code findById}) et 10 % d'écritures ({@code save}).
+ * </p>
+ *
+ * <pre>
+ * javac -encoding UTF-8 -d out $(find src -name "*.java")
+ * java -cp out benchmark.RepositoryThroughputBenchmark
+ * </pre>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class RepositoryThroughputBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+    private static final long WARMUP_MILLIS = 500;
+    private static final long MEASURE_MILLIS = 2_000;
+    private static final int WRITE_PERCENT = 10;
+
+    /**
+     * Point d'entrée du benchmark.
+     *
+     * @param args arguments (non utilisés)
+     * @throws InterruptedException si un thread de mesure est interrompu
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Brand brand = new Brand("b", "Bench");
+        ProductLine line = new ProductLine("l", "Bench", brand);
+        Product[] products = new Product[CATALOG_SIZE];
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            products[i] = new SimpleProduct(String.valueOf(i), "Produit " + i, i % 100, 100, brand, line);
+        }
+
+        System.out.println("CPU disponibles : " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %22s %22s%n", "Threads", "InMemory+verrou (op/s)", "Concurrent (op/s)");
+        for (int threads : THREAD_COUNTS) {
+            double baseline = measure(() -> new LockedRepository(new InMemoryProductRepository()), products, threads);
+            double concurrent = measure(ConcurrentProductRepository::new, products, threads);
+            System.out.printf("%-8d %22.0f %22.0f%n", threads, baseline, concurrent);
+        }
+    }
+
+    /**
+     * Mesure le débit d'un dépôt pour un nombre de threads donné.
+     *
+     * @param factory fabrique du dépôt à mesurer
+     * @param products catalogue préchargé
+     * @param threads nombre de threads concurrents
+     * @return nombre d'opérations par seconde
+     */
+    private static double measure(Supplier<ProductRepository> factory, Product[] products, int threads)
+            throws InterruptedException {
+        ProductRepository repository = factory.get();
+        for (Product p : products) {
+            repository.save(p);
+        }
+        run(repository, products, threads, WARMUP_MILLIS);
+        long ops = run(repository, products, threads, MEASURE_MILLIS);
+        return ops * 1000.0 / MEASURE_MILLIS;
+    }
+
+    /**
+     * Exécute la charge pendant la durée donnée et retourne le nombre d'opérations effectuées.
+     */
+    private static long run(ProductRepository repository, Product[] products, int threads, long millis)
+            throws InterruptedException {
+        LongAdder counter = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline) {
+                        Product p = products[random.nextInt(products.length)];
+                        if (random.nextInt(100) < WRITE_PERCENT) {
+                            repository.save(p);
+                        } else {
+                            repository.findById(p.getProductId());
+                        }
+                        local++;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    counter.add(local);
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        start.countDown();
+        done.await();
+        return counter.sum();
+    }
+
+    /**
+     * Dépôt protégé par un verrou global, utilisé comme référence.
+     */
+    private static final class LockedRepository implements ProductRepository {
+
+        private final ProductRepository delegate;
+
+        LockedRepository(ProductRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized void save(Product product) {
+            delegate.save(product);
+        }
+
+        @Override
+        public synchronized boolean existsById(String productId) {
+            return delegate.existsById(productId);
+        }
+
+        @Override
+        public synchronized Product findById(String productId) {
+            return delegate.findById(productId);
+        }
+
+        @Override
+        public synchronized List<Product> findAll() {
+            return delegate.findAll();
+        }
+
+        @Override
+        public synchronized List<Product> search(String keyword) {
+            return delegate.search(keyword);
+        }
+
+        @Override
+        public synchronized void deleteById(String productId) {
+            delegate.deleteById(productId);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package domain.catalog;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Liste à ajout seul, publiée sans copie, utilisée par le {@link Catalog}.
+ * <p>
+ * Les éléments sont rangés dans un tableau agrandi par doublement : un ajout coûte O(1)
+ * amorti. Un instantané ({@link #snapshot()}) est une vue immuable des {@code n} premiers
+ * éléments du tableau courant, créée en O(1) : les cases déjà publiées ne sont plus jamais
+ * modifiées, les ajouts se font au-delà ou dans un nouveau tableau.
+ * </p>
+ * <p>
+ * Les ajouts doivent être sérialisés par l'appelant ; les instantanés se lisent sans verrou.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+final class AppendOnlyList<T> {
+
+    private Object[] elements = new Object[4];
+    private int size;
+    private volatile List<T> snapshot = List.of();
+
+    /**
+     * Ajoute un élément en fin de liste (un seul appelant à la fois), puis publie le
+     * nouvel instantané.
+     *
+     * @param element élément ajouté
+     */
+    void add(T element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = element;
+        snapshot = new Snapshot<>(elements, size);
+    }
+
+    /**
+     * @return vue immuable des éléments publiés (même instance tant qu'aucun ajout n'a lieu)
+     */
+    List<T> snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Vue figée des {@code size} premiers éléments d'un tableau.
+     */
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+
+        private final Object[] elements;
+        private final int size;
+
+        Snapshot(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " hors de [0, " + size + ")");
+            }
+            return (T) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
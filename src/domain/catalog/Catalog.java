@@ -1,6 +1,7 @@
 package domain.catalog;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Fournit un registre centralisé pour la gestion des marques ({@link Brand})
@@ -9,14 +10,31 @@ import java.util.*;
  * Ce composant encapsule la logique de création, d'accès et de regroupement
  * des entités métier liées au catalogue produit.
  * </p>
+ * <p>
+ * Le registre peut être partagé entre threads (par exemple un import en tâche de fond
+ * pendant que les caisses consultent le catalogue) :
+ * </p>
+ * <ul>
+ *     <li>les recherches par identifiant s'appuient sur des {@link ConcurrentHashMap} ;</li>
+ *     <li>les créations sont sérialisées par un verrou d'écriture, mais une création déjà
+ *     effectuée est servie sans verrou ;</li>
+ *     <li>les listes retournées sont des instantanés immuables de listes à ajout seul
+ *     ({@link AppendOnlyList}) : une création coûte O(1) amorti (pas de recopie de la liste
+ *     des marques, des gammes ou des gammes de la marque) et les lectures ne copient rien ;</li>
+ *     <li>un index marque → gammes permet de retrouver les gammes d'une marque en O(k).</li>
+ * </ul>
  *
  * @author Lucas
- * @version 1.2
+ * @version 1.4
  */
 public class Catalog {
 
-    private final Map<String, Brand> brands = new HashMap<>();
-    private final Map<String, ProductLine> productLines = new HashMap<>();
+    private final Map<String, Brand> brands = new ConcurrentHashMap<>();
+    private final Map<String, ProductLine> productLines = new ConcurrentHashMap<>();
+    private final Map<String, AppendOnlyList<ProductLine>> linesByBrand = new ConcurrentHashMap<>();
+    private final AppendOnlyList<Brand> brandList = new AppendOnlyList<>();
+    private final AppendOnlyList<ProductLine> productLineList = new AppendOnlyList<>();
+    private final Object writeLock = new Object();
 
     /**
      * Crée une marque si elle n'existe pas encore dans le registre.
@@ -30,7 +48,20 @@ public class Catalog {
      */
     public Brand createBrand(String id, String name) {
         if (id == null) throw new IllegalArgumentException("Brand ID ne peut pas être null.");
-        return brands.computeIfAbsent(id, key -> new Brand(id, name));
+        Brand existing = brands.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (writeLock) {
+            existing = brands.get(id);
+            if (existing != null) {
+                return existing;
+            }
+            Brand brand = new Brand(id, name);
+            brands.put(id, brand);
+            brandList.add(brand);
+            return brand;
+        }
     }
 
     /**
@@ -47,25 +78,40 @@ public class Catalog {
     public ProductLine createProductLine(String lineId, String name, Brand brand) {
         if (lineId == null) throw new IllegalArgumentException("ProductLine ID ne peut pas être null.");
         if (brand == null) throw new IllegalArgumentException("Brand associée ne peut pas être null.");
-        return productLines.computeIfAbsent(lineId, key -> new ProductLine(lineId, name, brand));
+        ProductLine existing = productLines.get(lineId);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (writeLock) {
+            existing = productLines.get(lineId);
+            if (existing != null) {
+                return existing;
+            }
+            ProductLine line = new ProductLine(lineId, name, brand);
+            productLines.put(lineId, line);
+            productLineList.add(line);
+            linesByBrand.computeIfAbsent(brand.getBrandId(), key -> new AppendOnlyList<>()).add(line);
+            return line;
+        }
     }
 
     /**
-     * Retourne toutes les marques actuellement enregistrées dans le catalogue.
+     * Retourne toutes les marques actuellement enregistrées dans le catalogue,
+     * dans leur ordre de création.
      *
-     * @return liste des marques
+     * @return liste immuable des marques (instantané, sans copie)
      */
     public List<Brand> getAllBrands() {
-        return new ArrayList<>(brands.values());
+        return brandList.snapshot();
     }
 
     /**
-     * Retourne toutes les gammes de produits enregistrées.
+     * Retourne toutes les gammes de produits enregistrées, dans leur ordre de création.
      *
-     * @return liste des gammes
+     * @return liste immuable des gammes (instantané, sans copie)
      */
     public List<ProductLine> getAllProductLines() {
-        return new ArrayList<>(productLines.values());
+        return productLineList.snapshot();
     }
 
     /**
@@ -89,18 +135,13 @@ public class Catalog {
     }
 
     /**
-     * Retourne toutes les gammes associées à une marque donnée.
+     * Retourne toutes les gammes associées à une marque donnée, via l'index marque → gammes.
      *
      * @param brand instance de la marque cible
-     * @return liste des gammes rattachées à cette marque
+     * @return liste immuable des gammes rattachées à cette marque
      */
     public List<ProductLine> findLinesByBrand(Brand brand) {
-        List<ProductLine> results = new ArrayList<>();
-        for (ProductLine line : productLines.values()) {
-            if (line.getBrand().equals(brand)) {
-                results.add(line);
-            }
-        }
-        return results;
+        AppendOnlyList<ProductLine> lines = linesByBrand.get(brand.getBrandId());
+        return lines == null ? List.of() : lines.snapshot();
     }
-}
\ No newline at end of file
+}
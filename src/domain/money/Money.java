@@ -0,0 +1,131 @@
+package domain.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Opérations monétaires en virgule fixe.
+ * <p>
+ * Les montants sont représentés par un simple {@code long} exprimant des centimes d'euro :
+ * les additions et multiplications sont exactes (un dépassement lève une
+ * {@link ArithmeticException}), et aucun objet n'est créé. Les pourcentages sont exprimés
+ * en points de base (1 % = 100 points de base) et arrondis au centime le plus proche
+ * (demi-centime arrondi au-dessus).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.1
+ */
+public final class Money {
+
+    /** Nombre de centimes dans un euro. */
+    public static final long CENTS_PER_EURO = 100;
+
+    /** Plus grand montant en euros représentable en centimes sur un {@code long}. */
+    private static final double MAX_EUROS = Long.MAX_VALUE / (double) CENTS_PER_EURO;
+
+    /** Nombre de points de base dans 100 %. */
+    public static final int BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * Convertit un montant en euros en centimes, arrondi au centime le plus proche.
+     *
+     * @param euros montant en euros (ex: 12.5)
+     * @return montant en centimes (ex: 1250)
+     * @throws IllegalArgumentException si le montant n'est pas un nombre fini ou si, une fois
+     * converti en centimes, il ne tient pas dans un {@code long}
+     */
+    public static long ofEuros(double euros) {
+        if (Double.isNaN(euros) || Double.isInfinite(euros)) {
+            throw new IllegalArgumentException("amount must be a finite number");
+        }
+        // Math.round sature au lieu d'échouer : la borne est vérifiée avant la conversion
+        if (Math.abs(euros) >= MAX_EUROS) {
+            throw new IllegalArgumentException("amount out of range: " + euros);
+        }
+        double scaled = euros * CENTS_PER_EURO;
+        long rounded = Math.round(scaled);
+        // Cas courant : le montant est déjà un nombre entier de centimes
+        if (Math.abs(scaled - rounded) < 1e-6) {
+            return rounded;
+        }
+        return BigDecimal.valueOf(euros).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Convertit un montant en centimes en euros (pour l'affichage ou la compatibilité).
+     *
+     * @param cents montant en centimes
+     * @return montant en euros
+     */
+    public static double toEuros(long cents) {
+        return cents / (double) CENTS_PER_EURO;
+    }
+
+    /**
+     * Multiplie un prix unitaire par une quantité.
+     *
+     * @param cents prix unitaire en centimes
+     * @param quantity quantité
+     * @return montant total en centimes
+     * @throws ArithmeticException en cas de dépassement
+     */
+    public static long multiply(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    /**
+     * Calcule un pourcentage d'un montant, arrondi au centime le plus proche.
+     *
+     * @param cents montant en centimes
+     * @param basisPoints taux en points de base (500 = 5 %)
+     * @return part du montant en centimes
+     * @throws ArithmeticException en cas de dépassement
+     */
+    public static long percentOf(long cents, int basisPoints) {
+        return Math.floorDiv(Math.multiplyExact(cents, basisPoints) + BASIS_POINTS / 2, BASIS_POINTS);
+    }
+
+    /**
+     * Convertit un taux décimal en points de base (0.05 donne 500).
+     *
+     * @param rate taux décimal
+     * @return taux en points de base
+     */
+    public static int toBasisPoints(double rate) {
+        return (int) Math.round(rate * BASIS_POINTS);
+    }
+
+    /**
+     * Ajoute un montant au format {@code 12.50€} sans allocation intermédiaire.
+     *
+     * @param sb destination
+     * @param cents montant en centimes
+     * @return la destination, pour chaînage
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        long euros = cents / CENTS_PER_EURO;
+        int remainder = (int) Math.abs(cents % CENTS_PER_EURO);
+        if (cents < 0 && euros == 0) {
+            sb.append('-');
+        }
+        sb.append(euros).append('.');
+        if (remainder < 10) {
+            sb.append('0');
+        }
+        return sb.append(remainder).append('€');
+    }
+
+    /**
+     * Formate un montant au format {@code 12.50€}.
+     *
+     * @param cents montant en centimes
+     * @return montant formaté
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(16), cents).toString();
+    }
+}
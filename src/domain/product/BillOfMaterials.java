@@ -0,0 +1,158 @@
+package domain.product;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Nomenclature des produits conteneurs : graphe des liens conteneur → composant,
+ * identifiés par leurs identifiants de produit.
+ * <p>
+ * Un conteneur a au plus un composant ({@link ContainerProduct}) ; un composant peut entrer
+ * dans plusieurs conteneurs. Le graphe conserve aussi les liens inverses (composant →
+ * conteneurs), qui permettent de retrouver tous les conteneurs affectés par la modification
+ * d'un produit. Tout lien qui fermerait un cycle (un pack qui se contiendrait lui-même,
+ * directement ou non) est refusé.
+ * </p>
+ * <p>
+ * Thread-safe : toutes les opérations sont synchronisées.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class BillOfMaterials {
+
+    /**
+     * Lien d'un conteneur vers son composant.
+     */
+    public static final class Link {
+
+        private final String componentId;
+        private final int quantity;
+
+        Link(String componentId, int quantity) {
+            this.componentId = componentId;
+            this.quantity = quantity;
+        }
+
+        public String getComponentId() {
+            return componentId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    private final Map<String, Link> components = new HashMap<>();
+    private final Map<String, Set<String>> containers = new HashMap<>();
+
+    /**
+     * Vérifie qu'un lien peut être ajouté sans créer de cycle.
+     *
+     * @param containerId identifiant du conteneur
+     * @param componentId identifiant du composant
+     * @throws IllegalArgumentException si le lien fermerait un cycle
+     */
+    public synchronized void checkLink(String containerId, String componentId) {
+        List<String> path = new ArrayList<>();
+        path.add(containerId);
+        String current = componentId;
+        Set<String> visited = new HashSet<>();
+        while (current != null && visited.add(current)) {
+            path.add(current);
+            if (current.equals(containerId)) {
+                throw new IllegalArgumentException("Cycle de nomenclature : " + String.join(" -> ", path));
+            }
+            Link next = components.get(current);
+            current = next == null ? null : next.componentId;
+        }
+    }
+
+    /**
+     * Définit (ou remplace) le composant d'un conteneur.
+     *
+     * @param containerId identifiant du conteneur
+     * @param componentId identifiant du composant
+     * @param quantity quantité de composant par conteneur (strictement positive)
+     * @throws IllegalArgumentException si la quantité est invalide ou si le lien fermerait un cycle
+     */
+    public synchronized void link(String containerId, String componentId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be greater than zero");
+        }
+        checkLink(containerId, componentId);
+        unlink(containerId);
+        components.put(containerId, new Link(componentId, quantity));
+        containers.computeIfAbsent(componentId, id -> new HashSet<>()).add(containerId);
+    }
+
+    /**
+     * Retire le lien d'un produit vers son composant (sans effet si ce n'est pas un conteneur).
+     * Les liens des conteneurs qui le contiennent sont conservés.
+     *
+     * @param containerId identifiant du produit
+     */
+    public synchronized void unlink(String containerId) {
+        Link previous = components.remove(containerId);
+        if (previous != null) {
+            Set<String> parents = containers.get(previous.componentId);
+            parents.remove(containerId);
+            if (parents.isEmpty()) {
+                containers.remove(previous.componentId);
+            }
+        }
+    }
+
+    /**
+     * @param containerId identifiant d'un produit
+     * @return son lien vers son composant, ou null si ce n'est pas un conteneur
+     */
+    public synchronized Link componentOf(String containerId) {
+        return components.get(containerId);
+    }
+
+    /**
+     * @param componentId identifiant d'un produit
+     * @return les conteneurs qui le contiennent directement
+     */
+    public synchronized Set<String> containersOf(String componentId) {
+        Set<String> parents = containers.get(componentId);
+        return parents == null ? Set.of() : Set.copyOf(parents);
+    }
+
+    /**
+     * Retourne un produit et tous les conteneurs qui le contiennent, directement ou non
+     * (parcours des liens inverses).
+     *
+     * @param productId identifiant du produit modifié
+     * @return le produit puis les conteneurs affectés
+     */
+    public synchronized Set<String> affectedBy(String productId) {
+        Set<String> affected = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(productId);
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            if (affected.add(current)) {
+                pending.addAll(containers.getOrDefault(current, Collections.emptySet()));
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * @return nombre de conteneurs enregistrés
+     */
+    public synchronized int size() {
+        return components.size();
+    }
+}
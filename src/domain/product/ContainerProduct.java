@@ -11,7 +11,7 @@ import domain.catalog.ProductLine;
  * Hérite des propriétés de base d’un {@link Product}.
  *
  * @author Lucas
- * @version 1.1
+ * @version 1.2
  */
 public class ContainerProduct extends Product {
 
@@ -36,16 +36,47 @@ public class ContainerProduct extends Product {
                             Brand brand, ProductLine productLine) {
 
         super(id, name, price, stock, brand, productLine);
+        this.containedProduct = requireContained(containedProduct, containedQuantity);
+        this.containedQuantity = containedQuantity;
+    }
+
+    private ContainerProduct(String id, String name, int stock, long priceCents,
+                             Product containedProduct, int containedQuantity,
+                             Brand brand, ProductLine productLine) {
+        super(id, name, stock, priceCents, brand, productLine);
+        this.containedProduct = requireContained(containedProduct, containedQuantity);
+        this.containedQuantity = containedQuantity;
+    }
+
+    /**
+     * Construit un produit conteneur à partir d'un prix en centimes, sans conversion en euros.
+     *
+     * @param id identifiant unique du conteneur
+     * @param name nom du conteneur
+     * @param priceCents prix du conteneur en centimes (>= 0)
+     * @param stock quantité en stock du conteneur
+     * @param containedProduct produit contenu (ne peut pas être nul)
+     * @param containedQuantity quantité du produit contenu (strictement positive)
+     * @param brand marque associée
+     * @param productLine gamme associée
+     * @return le conteneur
+     * @throws IllegalArgumentException si un paramètre est invalide
+     */
+    public static ContainerProduct ofCents(String id, String name, long priceCents, int stock,
+                                           Product containedProduct, int containedQuantity,
+                                           Brand brand, ProductLine productLine) {
+        return new ContainerProduct(id, name, stock, priceCents, containedProduct, containedQuantity,
+                brand, productLine);
+    }
 
+    private static Product requireContained(Product containedProduct, int containedQuantity) {
         if (containedProduct == null) {
             throw new IllegalArgumentException("containedProduct cannot be null");
         }
         if (containedQuantity <= 0) {
             throw new IllegalArgumentException("containedQuantity must be greater than zero");
         }
-
-        this.containedProduct = containedProduct;
-        this.containedQuantity = containedQuantity;
+        return containedProduct;
     }
 
     /**
@@ -2,6 +2,9 @@ package domain.product;
 
 import domain.catalog.Brand;
 import domain.catalog.ProductLine;
+import domain.money.Money;
+
+import java.util.Locale;
 
 /**
  * Représente un produit abstrait appartenant à un catalogue.
@@ -10,18 +13,24 @@ import domain.catalog.ProductLine;
  * ainsi que les informations de marque et de gamme.
  *
  * Cette classe est abstraite et ne peut être instanciée directement.
+ * Le prix est conservé en centimes (voir {@link Money}) ; {@link #getPrice()} reste
+ * disponible en euros pour l'affichage. L'identifiant et le nom en minuscules, utilisés par
+ * les recherches par parcours, sont calculés une seule fois par produit puis conservés.
  *
  * @author Lucas
- * @version 1.1
+ * @version 1.4
  */
 public abstract class Product {
 
     private final String id;
     private final String name;
-    private double price;
+    private long priceCents;
     private int stock;
     private final Brand brand;
     private final ProductLine productLine;
+    // Formes en minuscules, calculées au premier besoin (course bénigne : valeur immuable)
+    private String lowerCaseId;
+    private String lowerCaseName;
 
     /**
      * Construit un produit générique avec validation des contraintes métier.
@@ -35,21 +44,44 @@ public abstract class Product {
      * @throws IllegalArgumentException si un paramètre est invalide
      */
     public Product(String id, String name, double price, int stock, Brand brand, ProductLine productLine) {
+        this(id, name, stock, centsOf(price), brand, productLine);
+    }
+
+    /**
+     * Construit un produit à partir d'un prix déjà exprimé en centimes (relecture d'un dépôt,
+     * copie avec un nouveau stock) : le prix ne repasse pas par un {@code double}.
+     * L'ordre des paramètres diffère du constructeur en euros pour éviter toute ambiguïté
+     * avec des littéraux entiers ; les sous-classes l'exposent par une fabrique {@code ofCents}.
+     *
+     * @param id identifiant unique du produit (non nul)
+     * @param name nom du produit (non nul)
+     * @param stock quantité disponible en stock (>= 0)
+     * @param priceCents prix unitaire en centimes (>= 0)
+     * @param brand marque à laquelle appartient le produit (non nulle)
+     * @param productLine gamme à laquelle appartient le produit (non nulle)
+     * @throws IllegalArgumentException si un paramètre est invalide
+     */
+    protected Product(String id, String name, int stock, long priceCents, Brand brand, ProductLine productLine) {
         if (id == null) throw new IllegalArgumentException("id cannot be null");
         if (name == null) throw new IllegalArgumentException("name cannot be null");
-        if (price < 0) throw new IllegalArgumentException("price must be equal or greater than zero");
+        if (priceCents < 0) throw new IllegalArgumentException("price must be equal or greater than zero");
         if (stock < 0) throw new IllegalArgumentException("stock must be equal or greater than zero");
         if (brand == null) throw new IllegalArgumentException("brand cannot be null");
         if (productLine == null) throw new IllegalArgumentException("product line cannot be null");
 
         this.id = id;
         this.name = name;
-        this.price = price;
+        this.priceCents = priceCents;
         this.stock = stock;
         this.brand = brand;
         this.productLine = productLine;
     }
 
+    private static long centsOf(double price) {
+        if (price < 0) throw new IllegalArgumentException("price must be equal or greater than zero");
+        return Money.ofEuros(price);
+    }
+
     /**
      * Retourne l'identifiant unique du produit.
      *
@@ -68,13 +100,50 @@ public abstract class Product {
         return name;
     }
 
+    /**
+     * Retourne l'identifiant en minuscules, pour les recherches insensibles à la casse.
+     *
+     * @return identifiant en minuscules
+     */
+    public String getLowerCaseId() {
+        String lower = lowerCaseId;
+        if (lower == null) {
+            lower = id.toLowerCase(Locale.ROOT);
+            lowerCaseId = lower;
+        }
+        return lower;
+    }
+
+    /**
+     * Retourne le nom en minuscules, pour les recherches insensibles à la casse.
+     *
+     * @return nom en minuscules
+     */
+    public String getLowerCaseName() {
+        String lower = lowerCaseName;
+        if (lower == null) {
+            lower = name.toLowerCase(Locale.ROOT);
+            lowerCaseName = lower;
+        }
+        return lower;
+    }
+
     /**
      * Retourne le prix unitaire du produit.
      *
      * @return prix du produit
      */
     public double getPrice() {
-        return price;
+        return Money.toEuros(priceCents);
+    }
+
+    /**
+     * Retourne le prix unitaire du produit en centimes.
+     *
+     * @return prix du produit en centimes
+     */
+    public long getPriceCents() {
+        return priceCents;
     }
 
     /**
@@ -106,7 +175,7 @@ public abstract class Product {
 
     @Override
     public String toString() {
-        return name + " | ID: " + id + " | Prix: " + price + " | Stock: " + stock +
+        return name + " | ID: " + id + " | Prix: " + getPrice() + " | Stock: " + stock +
                 " | Marque: " + brand.getName() + " | Gamme: " + productLine.getName();
     }
 }
\ No newline at end of file
@@ -11,7 +11,7 @@ import domain.catalog.ProductLine;
  * Cette classe est utilisée pour les cas standards de gestion de stock.
  *
  * @author Lucas
- * @version 1.1
+ * @version 1.2
  */
 public class SimpleProduct extends Product {
 
@@ -28,4 +28,25 @@ public class SimpleProduct extends Product {
     public SimpleProduct(String id, String name, double price, int stock, Brand brand, ProductLine productLine) {
         super(id, name, price, stock, brand, productLine);
     }
-}
\ No newline at end of file
+
+    private SimpleProduct(String id, String name, int stock, long priceCents, Brand brand, ProductLine productLine) {
+        super(id, name, stock, priceCents, brand, productLine);
+    }
+
+    /**
+     * Construit un produit simple à partir d'un prix en centimes, sans conversion en euros.
+     *
+     * @param id identifiant unique du produit
+     * @param name nom du produit
+     * @param priceCents prix unitaire en centimes (>= 0)
+     * @param stock quantité disponible (>= 0)
+     * @param brand marque associée au produit (non nulle)
+     * @param productLine gamme à laquelle appartient le produit (non nulle)
+     * @return le produit
+     * @throws IllegalArgumentException si un paramètre est invalide
+     */
+    public static SimpleProduct ofCents(String id, String name, long priceCents, int stock,
+                                        Brand brand, ProductLine productLine) {
+        return new SimpleProduct(id, name, stock, priceCents, brand, productLine);
+    }
+}
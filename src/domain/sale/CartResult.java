@@ -0,0 +1,59 @@
+package domain.sale;
+
+/**
+ * Résultat du traitement d'un panier dans une vente groupée :
+ * soit un ticket de caisse, soit le motif du refus.
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class CartResult {
+
+    private final Receipt receipt;
+    private final String rejectionReason;
+
+    private CartResult(Receipt receipt, String rejectionReason) {
+        this.receipt = receipt;
+        this.rejectionReason = rejectionReason;
+    }
+
+    /**
+     * @param receipt ticket du panier accepté (non nul)
+     * @return résultat d'un panier accepté
+     */
+    public static CartResult accepted(Receipt receipt) {
+        if (receipt == null) {
+            throw new IllegalArgumentException("receipt cannot be null");
+        }
+        return new CartResult(receipt, null);
+    }
+
+    /**
+     * @param reason motif du refus (non nul / non vide)
+     * @return résultat d'un panier refusé
+     */
+    public static CartResult rejected(String reason) {
+        if (reason == null || reason.isBlank()) {
+            throw new IllegalArgumentException("reason cannot be null or blank");
+        }
+        return new CartResult(null, reason);
+    }
+
+    public boolean isAccepted() {
+        return receipt != null;
+    }
+
+    /**
+     * @return le ticket, ou null si le panier a été refusé
+     */
+    public Receipt getReceipt() {
+        return receipt;
+    }
+
+    /**
+     * @return le motif du refus, ou null si le panier a été accepté
+     */
+    public String getRejectionReason() {
+        return rejectionReason;
+    }
+}
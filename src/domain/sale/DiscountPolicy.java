@@ -1,16 +1,27 @@
 package domain.sale;
 
+import domain.money.Money;
+
 /**
  * Politique de remise appliquée sur un total de panier.
  * Règle TP2 : 5% de remise si total > 20€.
+ * <p>
+ * Le seuil est conservé en centimes et le taux en points de base : la remise est
+ * calculée en arithmétique entière, arrondie au centime le plus proche.
+ * </p>
+ * <p>
+ * La classe est finale : la politique se résume à son seuil et à son taux, que
+ * {@link PromotionEngine#fromPolicy(DiscountPolicy)} convertit en palier panier. Une règle
+ * de remise différente se décrit par des {@link Promotion}.
+ * </p>
  *
  * @author Lucas
- * @version 1.0
+ * @version 1.2
  */
-public class DiscountPolicy {
+public final class DiscountPolicy {
 
-    private final double threshold;
-    private final double rate;
+    private final long thresholdCents;
+    private final int rateBasisPoints;
 
     /**
      * @param threshold seuil à dépasser pour appliquer la remise (ex: 20.0)
@@ -23,8 +34,21 @@ public class DiscountPolicy {
         if (rate < 0 || rate > 1) {
             throw new IllegalArgumentException("rate must be between 0 and 1");
         }
-        this.threshold = threshold;
-        this.rate = rate;
+        this.thresholdCents = Money.ofEuros(threshold);
+        this.rateBasisPoints = Money.toBasisPoints(rate);
+    }
+
+    /**
+     * Calcule le montant de la remise à appliquer en fonction du total brut.
+     *
+     * @param grossTotalCents total brut du panier en centimes
+     * @return montant de la remise en centimes
+     */
+    public long computeDiscountCents(long grossTotalCents) {
+        if (grossTotalCents > thresholdCents) {
+            return Money.percentOf(grossTotalCents, rateBasisPoints);
+        }
+        return 0L;
     }
 
     /**
@@ -34,17 +58,22 @@ public class DiscountPolicy {
      * @return montant de la remise
      */
     public double computeDiscount(double grossTotal) {
-        if (grossTotal > threshold) {
-            return grossTotal * rate;
-        }
-        return 0.0;
+        return Money.toEuros(computeDiscountCents(Money.ofEuros(grossTotal)));
+    }
+
+    public long getThresholdCents() {
+        return thresholdCents;
+    }
+
+    public int getRateBasisPoints() {
+        return rateBasisPoints;
     }
 
     public double getThreshold() {
-        return threshold;
+        return Money.toEuros(thresholdCents);
     }
 
     public double getRate() {
-        return rate;
+        return rateBasisPoints / (double) Money.BASIS_POINTS;
     }
-}
\ No newline at end of file
+}
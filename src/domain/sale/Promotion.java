@@ -0,0 +1,126 @@
+package domain.sale;
+
+import domain.money.Money;
+
+/**
+ * Règle de promotion élémentaire, immuable.
+ * <p>
+ * Quatre types de règles sont pris en charge :
+ * </p>
+ * <ul>
+ *     <li>{@link Type#CART_TIER} : remise sur le panier lorsque le total brut dépasse un seuil
+ *     (plusieurs paliers peuvent coexister, le meilleur palier atteint s'applique) ;</li>
+ *     <li>{@link Type#BRAND} : remise sur les lignes des produits d'une marque ;</li>
+ *     <li>{@link Type#PRODUCT_LINE} : remise sur les lignes des produits d'une gamme ;</li>
+ *     <li>{@link Type#QUANTITY_BREAK} : remise sur un produit à partir d'une quantité achetée.</li>
+ * </ul>
+ * Les règles sont compilées en un {@link PromotionSet} avant d'être évaluées.
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class Promotion {
+
+    /**
+     * Type de règle.
+     */
+    public enum Type { CART_TIER, BRAND, PRODUCT_LINE, QUANTITY_BREAK }
+
+    private final Type type;
+    private final String targetId;
+    private final long thresholdCents;
+    private final int minQuantity;
+    private final int rateBasisPoints;
+
+    private Promotion(Type type, String targetId, long thresholdCents, int minQuantity, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("rate must be between 0 and 1");
+        }
+        this.type = type;
+        this.targetId = targetId;
+        this.thresholdCents = thresholdCents;
+        this.minQuantity = minQuantity;
+        this.rateBasisPoints = Money.toBasisPoints(rate);
+    }
+
+    /**
+     * Palier de remise sur le panier.
+     *
+     * @param threshold total brut à dépasser (en euros, >= 0)
+     * @param rate taux de remise (ex: 0.05 pour 5%)
+     * @return la règle
+     */
+    public static Promotion cartTier(double threshold, double rate) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must be >= 0");
+        }
+        return new Promotion(Type.CART_TIER, null, Money.ofEuros(threshold), 0, rate);
+    }
+
+    /**
+     * Remise sur les produits d'une marque.
+     *
+     * @param brandId identifiant de la marque
+     * @param rate taux de remise
+     * @return la règle
+     */
+    public static Promotion brand(String brandId, double rate) {
+        return new Promotion(Type.BRAND, requireId(brandId), 0, 0, rate);
+    }
+
+    /**
+     * Remise sur les produits d'une gamme.
+     *
+     * @param lineId identifiant de la gamme
+     * @param rate taux de remise
+     * @return la règle
+     */
+    public static Promotion productLine(String lineId, double rate) {
+        return new Promotion(Type.PRODUCT_LINE, requireId(lineId), 0, 0, rate);
+    }
+
+    /**
+     * Remise sur un produit à partir d'une quantité achetée dans le panier.
+     *
+     * @param productId identifiant du produit
+     * @param minQuantity quantité minimale (strictement positive)
+     * @param rate taux de remise
+     * @return la règle
+     */
+    public static Promotion quantityBreak(String productId, int minQuantity, double rate) {
+        if (minQuantity <= 0) {
+            throw new IllegalArgumentException("minQuantity must be greater than zero");
+        }
+        return new Promotion(Type.QUANTITY_BREAK, requireId(productId), 0, minQuantity, rate);
+    }
+
+    private static String requireId(String id) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("target id cannot be null or blank");
+        }
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return identifiant de la marque, de la gamme ou du produit visé (null pour un palier panier)
+     */
+    public String getTargetId() {
+        return targetId;
+    }
+
+    public long getThresholdCents() {
+        return thresholdCents;
+    }
+
+    public int getMinQuantity() {
+        return minQuantity;
+    }
+
+    public int getRateBasisPoints() {
+        return rateBasisPoints;
+    }
+}
@@ -0,0 +1,75 @@
+package domain.sale;
+
+import domain.product.Product;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Moteur de promotions partagé par les caisses.
+ * <p>
+ * Le moteur référence l'ensemble de promotions actif, compilé et immuable
+ * ({@link PromotionSet}). Un nouvel ensemble est compilé hors de tout verrou puis
+ * publié par un simple remplacement atomique : les ventes en cours terminent avec
+ * l'ensemble qu'elles ont lu, les suivantes utilisent le nouveau, sans jamais attendre.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class PromotionEngine {
+
+    private final AtomicReference<PromotionSet> active;
+
+    /**
+     * @param promotions règles actives au démarrage
+     */
+    public PromotionEngine(Collection<Promotion> promotions) {
+        this.active = new AtomicReference<>(PromotionSet.compile(promotions));
+    }
+
+    /**
+     * Construit un moteur équivalent à une politique de remise simple (un seul palier panier).
+     *
+     * @param policy politique de remise
+     * @return moteur correspondant
+     */
+    public static PromotionEngine fromPolicy(DiscountPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy cannot be null");
+        }
+        return new PromotionEngine(List.of(Promotion.cartTier(policy.getThreshold(), policy.getRate())));
+    }
+
+    /**
+     * Compile et active un nouvel ensemble de promotions.
+     *
+     * @param promotions nouvelles règles actives
+     * @return l'ensemble compilé désormais actif
+     */
+    public PromotionSet replace(Collection<Promotion> promotions) {
+        PromotionSet compiled = PromotionSet.compile(promotions);
+        active.set(compiled);
+        return compiled;
+    }
+
+    /**
+     * @return l'ensemble de promotions actif
+     */
+    public PromotionSet current() {
+        return active.get();
+    }
+
+    /**
+     * Calcule la remise d'un panier avec l'ensemble actif.
+     *
+     * @param lines lignes du panier
+     * @param products accès aux produits du panier par identifiant
+     * @return remise en centimes
+     */
+    public long computeDiscountCents(List<CartLine> lines, Function<String, Product> products) {
+        return active.get().computeDiscountCents(lines, products);
+    }
+}
@@ -0,0 +1,217 @@
+package domain.sale;
+
+import domain.money.Money;
+import domain.product.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Ensemble de promotions compilé, immuable et donc partageable sans verrou.
+ * <p>
+ * À la compilation, les règles sont regroupées et précalculées :
+ * </p>
+ * <ul>
+ *     <li>paliers panier : seuils triés et meilleur taux cumulé (un palier plus haut ne peut
+ *     jamais donner moins qu'un palier plus bas) — recherche dichotomique ;</li>
+ *     <li>marques et gammes : meilleur taux par identifiant — table de hachage ;</li>
+ *     <li>paliers de quantité : par produit, quantités minimales triées et meilleur taux
+ *     cumulé — recherche dichotomique.</li>
+ * </ul>
+ * <p>
+ * Évaluation d'un panier : chaque ligne reçoit le meilleur taux parmi sa marque, sa gamme
+ * et le palier de quantité atteint par le produit (les remises de ligne ne se cumulent pas).
+ * Le palier panier, choisi d'après le total brut, s'applique ensuite au total restant après
+ * remises de ligne. Le coût est en O(lignes · log règles).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class PromotionSet {
+
+    /** Ensemble sans aucune promotion. */
+    public static final PromotionSet EMPTY = compile(List.of());
+
+    private final List<Promotion> promotions;
+    private final long[] tierThresholds;
+    private final int[] tierRates;
+    private final Map<String, Integer> brandRates;
+    private final Map<String, Integer> lineRates;
+    private final Map<String, QuantityBreaks> quantityBreaks;
+
+    private PromotionSet(List<Promotion> promotions, long[] tierThresholds, int[] tierRates,
+                         Map<String, Integer> brandRates, Map<String, Integer> lineRates,
+                         Map<String, QuantityBreaks> quantityBreaks) {
+        this.promotions = promotions;
+        this.tierThresholds = tierThresholds;
+        this.tierRates = tierRates;
+        this.brandRates = brandRates;
+        this.lineRates = lineRates;
+        this.quantityBreaks = quantityBreaks;
+    }
+
+    /**
+     * Compile un ensemble de promotions.
+     *
+     * @param promotions règles actives
+     * @return ensemble compilé
+     */
+    public static PromotionSet compile(Collection<Promotion> promotions) {
+        if (promotions == null) {
+            throw new IllegalArgumentException("promotions cannot be null");
+        }
+        List<Promotion> tiers = new ArrayList<>();
+        Map<String, Integer> brandRates = new HashMap<>();
+        Map<String, Integer> lineRates = new HashMap<>();
+        Map<String, List<Promotion>> breaksByProduct = new HashMap<>();
+        for (Promotion promotion : promotions) {
+            switch (promotion.getType()) {
+                case CART_TIER -> tiers.add(promotion);
+                case BRAND -> brandRates.merge(promotion.getTargetId(), promotion.getRateBasisPoints(), Math::max);
+                case PRODUCT_LINE -> lineRates.merge(promotion.getTargetId(), promotion.getRateBasisPoints(), Math::max);
+                case QUANTITY_BREAK -> breaksByProduct
+                        .computeIfAbsent(promotion.getTargetId(), key -> new ArrayList<>()).add(promotion);
+            }
+        }
+
+        tiers.sort((a, b) -> Long.compare(a.getThresholdCents(), b.getThresholdCents()));
+        long[] thresholds = new long[tiers.size()];
+        int[] rates = new int[tiers.size()];
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] = tiers.get(i).getThresholdCents();
+            rates[i] = Math.max(tiers.get(i).getRateBasisPoints(), i == 0 ? 0 : rates[i - 1]);
+        }
+
+        Map<String, QuantityBreaks> quantityBreaks = new HashMap<>();
+        for (Map.Entry<String, List<Promotion>> entry : breaksByProduct.entrySet()) {
+            List<Promotion> breaks = entry.getValue();
+            breaks.sort((a, b) -> Integer.compare(a.getMinQuantity(), b.getMinQuantity()));
+            int[] minQuantities = new int[breaks.size()];
+            int[] breakRates = new int[breaks.size()];
+            for (int i = 0; i < minQuantities.length; i++) {
+                minQuantities[i] = breaks.get(i).getMinQuantity();
+                breakRates[i] = Math.max(breaks.get(i).getRateBasisPoints(), i == 0 ? 0 : breakRates[i - 1]);
+            }
+            quantityBreaks.put(entry.getKey(), new QuantityBreaks(minQuantities, breakRates));
+        }
+
+        return new PromotionSet(Collections.unmodifiableList(new ArrayList<>(promotions)), thresholds, rates,
+                brandRates, lineRates, quantityBreaks);
+    }
+
+    /**
+     * Calcule la remise totale d'un panier.
+     *
+     * @param lines lignes du panier (un même produit peut apparaître sur plusieurs lignes)
+     * @param products accès aux produits du panier par identifiant
+     * @return remise en centimes
+     */
+    public long computeDiscountCents(List<CartLine> lines, Function<String, Product> products) {
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (CartLine line : lines) {
+            quantities.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        long grossTotal = 0L;
+        long lineDiscounts = 0L;
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            Product product = products.apply(entry.getKey());
+            long lineTotal = Money.multiply(product.getPriceCents(), entry.getValue());
+            grossTotal = Math.addExact(grossTotal, lineTotal);
+            int rate = lineRate(product, entry.getValue());
+            if (rate > 0) {
+                lineDiscounts += Money.percentOf(lineTotal, rate);
+            }
+        }
+        int cartRate = cartRate(grossTotal);
+        long cartDiscount = cartRate > 0 ? Money.percentOf(grossTotal - lineDiscounts, cartRate) : 0L;
+        return lineDiscounts + cartDiscount;
+    }
+
+    /**
+     * Taux du meilleur palier panier atteint (total strictement supérieur au seuil).
+     *
+     * @param grossTotalCents total brut en centimes
+     * @return taux en points de base (0 si aucun palier atteint)
+     */
+    public int cartRate(long grossTotalCents) {
+        int low = 0;
+        int high = tierThresholds.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (tierThresholds[mid] < grossTotalCents) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found < 0 ? 0 : tierRates[found];
+    }
+
+    /**
+     * Meilleur taux de ligne applicable à un produit pour une quantité donnée.
+     *
+     * @param product produit de la ligne
+     * @param quantity quantité totale du produit dans le panier
+     * @return taux en points de base (0 si aucune règle)
+     */
+    public int lineRate(Product product, int quantity) {
+        int rate = 0;
+        Integer brandRate = brandRates.get(product.getBrand().getBrandId());
+        if (brandRate != null) {
+            rate = brandRate;
+        }
+        Integer lineRate = lineRates.get(product.getProductLine().getLineId());
+        if (lineRate != null) {
+            rate = Math.max(rate, lineRate);
+        }
+        QuantityBreaks breaks = quantityBreaks.get(product.getProductId());
+        if (breaks != null) {
+            rate = Math.max(rate, breaks.rateFor(quantity));
+        }
+        return rate;
+    }
+
+    /**
+     * @return les règles ayant servi à la compilation
+     */
+    public List<Promotion> getPromotions() {
+        return promotions;
+    }
+
+    /**
+     * Paliers de quantité d'un produit : quantités minimales triées et meilleur taux cumulé.
+     */
+    private static final class QuantityBreaks {
+
+        private final int[] minQuantities;
+        private final int[] rates;
+
+        QuantityBreaks(int[] minQuantities, int[] rates) {
+            this.minQuantities = minQuantities;
+            this.rates = rates;
+        }
+
+        int rateFor(int quantity) {
+            int index = Arrays.binarySearch(minQuantities, quantity);
+            if (index < 0) {
+                index = -index - 2;
+            } else {
+                // plusieurs paliers peuvent partager la même quantité : on prend le dernier
+                while (index + 1 < minQuantities.length && minQuantities[index + 1] == quantity) {
+                    index++;
+                }
+            }
+            return index < 0 ? 0 : rates[index];
+        }
+    }
+}
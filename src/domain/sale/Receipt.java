@@ -1,68 +1,90 @@
 package domain.sale;
 
+import domain.money.Money;
+
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Ticket de caisse (résultat d'une vente).
- * Contient les lignes, le total brut, la remise éventuelle et le total net.
+ * Contient les lignes, le total brut, la remise éventuelle et le total net,
+ * exprimés en centimes (voir {@link Money}).
  *
  * @author Lucas
- * @version 1.0
+ * @version 1.1
  */
 public class Receipt {
 
     private final List<ReceiptLine> lines = new ArrayList<>();
-    private final double grossTotal;
-    private final double discountAmount;
-    private final double netTotal;
+    private final long grossTotalCents;
+    private final long discountAmountCents;
+    private final long netTotalCents;
 
-    public Receipt(List<ReceiptLine> lines, double grossTotal, double discountAmount, double netTotal) {
+    /**
+     * @param lines lignes du ticket
+     * @param grossTotalCents total brut en centimes
+     * @param discountAmountCents remise en centimes
+     * @param netTotalCents total net en centimes
+     */
+    public Receipt(List<ReceiptLine> lines, long grossTotalCents, long discountAmountCents, long netTotalCents) {
         if (lines == null) {
             throw new IllegalArgumentException("lines cannot be null");
         }
         this.lines.addAll(lines);
-        this.grossTotal = grossTotal;
-        this.discountAmount = discountAmount;
-        this.netTotal = netTotal;
+        this.grossTotalCents = grossTotalCents;
+        this.discountAmountCents = discountAmountCents;
+        this.netTotalCents = netTotalCents;
     }
 
     public List<ReceiptLine> getLines() {
         return Collections.unmodifiableList(lines);
     }
 
+    public long getGrossTotalCents() {
+        return grossTotalCents;
+    }
+
+    public long getDiscountAmountCents() {
+        return discountAmountCents;
+    }
+
+    public long getNetTotalCents() {
+        return netTotalCents;
+    }
+
     public double getGrossTotal() {
-        return grossTotal;
+        return Money.toEuros(grossTotalCents);
     }
 
     public double getDiscountAmount() {
-        return discountAmount;
+        return Money.toEuros(discountAmountCents);
     }
 
     public double getNetTotal() {
-        return netTotal;
+        return Money.toEuros(netTotalCents);
     }
 
     /**
      * Retourne une version texte prête à afficher dans la console.
+     * Les montants sont écrits directement dans le tampon, sans {@code String.format}.
      */
     public String formatForConsole() {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = new StringBuilder(96 + 64 * lines.size());
         sb.append("\n====== TICKET DE CAISSE ======\n");
         for (ReceiptLine line : lines) {
             sb.append("- ")
                     .append(line.getProductName())
                     .append(" | Qté: ").append(line.getQuantity())
-                    .append(" | PU: ").append(String.format("%.2f€", line.getUnitPrice()))
-                    .append(" | Total: ").append(String.format("%.2f€", line.getLineTotal()))
-                    .append("\n");
+                    .append(" | PU: ");
+            Money.appendTo(sb, line.getUnitPriceCents()).append(" | Total: ");
+            Money.appendTo(sb, line.getLineTotalCents()).append("\n");
         }
         sb.append("-----------------------------\n");
-        sb.append("Total brut : ").append(String.format("%.2f€", grossTotal)).append("\n");
-        sb.append("Remise     : ").append(String.format("%.2f€", discountAmount)).append("\n");
-        sb.append("Total net  : ").append(String.format("%.2f€", netTotal)).append("\n");
+        Money.appendTo(sb.append("Total brut : "), grossTotalCents).append("\n");
+        Money.appendTo(sb.append("Remise     : "), discountAmountCents).append("\n");
+        Money.appendTo(sb.append("Total net  : "), netTotalCents).append("\n");
         sb.append("=============================\n");
         return sb.toString();
     }
-}
\ No newline at end of file
+}
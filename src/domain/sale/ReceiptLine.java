@@ -1,33 +1,41 @@
 package domain.sale;
 
+import domain.money.Money;
+
 /**
  * Ligne d'un ticket de caisse.
  * Contient les informations calculées pour une ligne : nom, quantité, prix unitaire, total ligne.
+ * Les montants sont exprimés en centimes (voir {@link Money}).
  *
  * @author Lucas
- * @version 1.0
+ * @version 1.1
  */
 public class ReceiptLine {
 
     private final String productName;
     private final int quantity;
-    private final double unitPrice;
-    private final double lineTotal;
+    private final long unitPriceCents;
+    private final long lineTotalCents;
 
-    public ReceiptLine(String productName, int quantity, double unitPrice) {
+    /**
+     * @param productName nom du produit (non nul / non vide)
+     * @param quantity quantité vendue (strictement positive)
+     * @param unitPriceCents prix unitaire en centimes (>= 0)
+     */
+    public ReceiptLine(String productName, int quantity, long unitPriceCents) {
         if (productName == null || productName.isBlank()) {
             throw new IllegalArgumentException("productName cannot be null or blank");
         }
         if (quantity <= 0) {
             throw new IllegalArgumentException("quantity must be greater than zero");
         }
-        if (unitPrice < 0) {
+        if (unitPriceCents < 0) {
             throw new IllegalArgumentException("unitPrice must be >= 0");
         }
         this.productName = productName;
         this.quantity = quantity;
-        this.unitPrice = unitPrice;
-        this.lineTotal = unitPrice * quantity;
+        this.unitPriceCents = unitPriceCents;
+        this.lineTotalCents = Money.multiply(unitPriceCents, quantity);
     }
 
     public String getProductName() {
@@ -38,11 +46,19 @@ public class ReceiptLine {
         return quantity;
     }
 
+    public long getUnitPriceCents() {
+        return unitPriceCents;
+    }
+
+    public long getLineTotalCents() {
+        return lineTotalCents;
+    }
+
     public double getUnitPrice() {
-        return unitPrice;
+        return Money.toEuros(unitPriceCents);
     }
 
     public double getLineTotal() {
-        return lineTotal;
+        return Money.toEuros(lineTotalCents);
     }
 }
@@ -0,0 +1,133 @@
+package infrastructure;
+
+import application.BundleStockEngine;
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.ContainerProduct;
+import domain.product.Product;
+
+import java.util.List;
+
+/**
+ * Décorateur qui tient un {@link BundleStockEngine} informé de chaque écriture.
+ * <p>
+ * Avant l'enregistrement d'un conteneur, le moteur vérifie qu'il ne crée pas de cycle
+ * dans la nomenclature ; après chaque écriture (réussie ou non), il resynchronise le
+ * produit écrit et invalide les disponibilités qui en dépendent. Les écritures de
+ * conteneurs sont sérialisées entre elles, de sorte que deux liens concurrents ne puissent
+ * pas fermer un cycle ; les autres écritures ne prennent aucun verrou.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.1
+ */
+public class BundleAwareProductRepository extends ForwardingProductRepository {
+
+    private final BundleStockEngine engine;
+    private final Object bundleWrites = new Object();
+
+    /**
+     * @param delegate dépôt décoré, celui lu par le moteur
+     * @param engine moteur de stock des lots
+     * @throws IllegalArgumentException si un paramètre est null
+     */
+    public BundleAwareProductRepository(ProductRepository delegate, BundleStockEngine engine) {
+        super(delegate);
+        if (engine == null) {
+            throw new IllegalArgumentException("engine cannot be null");
+        }
+        this.engine = engine;
+    }
+
+    /**
+     * Enregistre un produit (refusé s'il ferme un cycle de conteneurs) puis resynchronise le moteur.
+     *
+     * @param product produit à enregistrer
+     * @throws IllegalArgumentException si le produit est un conteneur qui se contiendrait lui-même
+     */
+    @Override
+    public void save(Product product) {
+        if (!(product instanceof ContainerProduct)) {
+            try {
+                delegate().save(product);
+            } finally {
+                engine.refresh(product.getProductId());
+            }
+            return;
+        }
+        synchronized (bundleWrites) {
+            engine.checkBundle(product);
+            try {
+                delegate().save(product);
+            } finally {
+                engine.refresh(product.getProductId());
+            }
+        }
+    }
+
+    /**
+     * Enregistre un lot de produits puis resynchronise le moteur pour chacun. Un lot
+     * contenant un conteneur est enregistré produit par produit, chaque lien devant être
+     * vérifié contre la nomenclature qui inclut les précédents.
+     *
+     * @param products produits à enregistrer
+     * @throws IllegalArgumentException si un conteneur du lot se contiendrait lui-même
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        if (products.stream().anyMatch(ContainerProduct.class::isInstance)) {
+            products.forEach(this::save);
+            return;
+        }
+        try {
+            delegate().saveAll(products);
+        } finally {
+            products.forEach(product -> engine.refresh(product.getProductId()));
+        }
+    }
+
+    /**
+     * Supprime un produit puis resynchronise le moteur.
+     *
+     * @param productId identifiant du produit à supprimer
+     */
+    @Override
+    public void deleteById(String productId) {
+        try {
+            delegate().deleteById(productId);
+        } finally {
+            engine.refresh(productId);
+        }
+    }
+
+    /**
+     * Transmet le compare-and-set puis resynchronise les produits écrits.
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs
+     * @return true si les mises à jour ont été appliquées
+     * @throws IllegalArgumentException si l'un des remplacements fermerait un cycle de conteneurs
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        if (replacements.stream().noneMatch(ContainerProduct.class::isInstance)) {
+            return compareAndSaveAndRefresh(expected, replacements);
+        }
+        synchronized (bundleWrites) {
+            replacements.forEach(engine::checkBundle);
+            return compareAndSaveAndRefresh(expected, replacements);
+        }
+    }
+
+    private boolean compareAndSaveAndRefresh(List<VersionedProduct> expected, List<Product> replacements) {
+        boolean applied = false;
+        try {
+            applied = delegate().compareAndSaveAll(expected, replacements);
+            return applied;
+        } finally {
+            if (applied) {
+                replacements.forEach(product -> engine.refresh(product.getProductId()));
+            }
+        }
+    }
+}
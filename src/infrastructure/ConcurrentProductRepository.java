@@ -0,0 +1,374 @@
+package infrastructure;
+
+import application.ports.ProductPage;
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.Product;
+import infrastructure.index.ProductIndexes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation thread-safe de l'interface {@link ProductRepository}.
+ * <p>
+ * Contrairement à {@link InMemoryProductRepository}, cette classe peut être partagée
+ * entre plusieurs caisses ou threads de traitement :
+ * </p>
+ * <ul>
+ *     <li>les lectures ({@code findById}, {@code existsById}, {@code findAll}, {@code search})
+ *     s'appuient sur une {@link ConcurrentHashMap} et ne prennent jamais de verrou ;</li>
+ *     <li>les écritures sont sérialisées par produit grâce à un ensemble de verrous
+ *     « rayés » ({@link StripedLocks}) : deux écritures sur des produits différents ne se
+ *     bloquent que si leurs identifiants tombent sur le même verrou ;</li>
+ *     <li>chaque produit porte un numéro de version incrémenté à chaque écriture,
+ *     ce qui permet un compare-and-set atomique sur plusieurs produits
+ *     ({@link #compareAndSaveAll(List, List)}) sans verrou global ;</li>
+ *     <li>les index secondaires ({@link ProductIndexes}) sont mis à jour sous le verrou
+ *     du produit concerné.</li>
+ * </ul>
+ *
+ * @author Lucas
+ * @version 1.5
+ */
+public class ConcurrentProductRepository implements ProductRepository {
+
+    private final ConcurrentHashMap<String, VersionedProduct> productMap = new ConcurrentHashMap<>();
+    private final StripedLocks locks;
+    private final ProductIndexes indexes = new ProductIndexes();
+
+    /**
+     * Construit un dépôt concurrent avec le nombre de verrous par défaut.
+     */
+    public ConcurrentProductRepository() {
+        this(StripedLocks.DEFAULT_STRIPES);
+    }
+
+    /**
+     * Construit un dépôt concurrent avec un nombre de verrous donné.
+     * Le nombre est arrondi à la puissance de deux supérieure.
+     *
+     * @param stripeCount nombre de verrous souhaité (strictement positif)
+     * @throws IllegalArgumentException si le nombre de verrous est invalide
+     */
+    public ConcurrentProductRepository(int stripeCount) {
+        this.locks = new StripedLocks(stripeCount);
+    }
+
+    /**
+     * Enregistre ou met à jour un produit sous le verrou associé à son identifiant.
+     *
+     * @param product produit à sauvegarder
+     */
+    @Override
+    public void save(Product product) {
+        ReentrantLock lock = locks.lock(product.getProductId());
+        try {
+            put(product);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enregistre un lot de produits. Seule la dernière valeur de chaque identifiant est
+     * écrite ; les lots d'au moins {@value ProductIndexes#PARALLEL_THRESHOLD} produits sont
+     * écrits en parallèle, chaque produit sous son propre verrou.
+     *
+     * @param products produits à sauvegarder
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        Map<String, Product> latest = new LinkedHashMap<>();
+        for (Product product : products) {
+            latest.put(product.getProductId(), product);
+        }
+        Stream<Product> writes = latest.values().stream();
+        if (latest.size() >= ProductIndexes.PARALLEL_THRESHOLD) {
+            writes = writes.parallel();
+        }
+        writes.forEach(this::save);
+    }
+
+    /**
+     * Vérifie si un produit existe à partir de son identifiant (sans verrou).
+     *
+     * @param productId identifiant du produit
+     * @return true si le produit existe, false sinon
+     */
+    @Override
+    public boolean existsById(String productId) {
+        return productMap.containsKey(productId);
+    }
+
+    /**
+     * Recherche un produit par son identifiant (sans verrou).
+     *
+     * @param productId identifiant du produit
+     * @return le produit correspondant, ou null si absent
+     */
+    @Override
+    public Product findById(String productId) {
+        VersionedProduct entry = productMap.get(productId);
+        return entry == null ? null : entry.getProduct();
+    }
+
+    /**
+     * Recherche un produit et sa version courante (sans verrou).
+     *
+     * @param productId identifiant du produit
+     * @return le produit versionné, ou null si absent
+     */
+    @Override
+    public VersionedProduct findVersionedById(String productId) {
+        return productMap.get(productId);
+    }
+
+    /**
+     * Retourne une copie de l'ensemble des produits enregistrés.
+     * La copie reflète un état faiblement cohérent du dépôt.
+     *
+     * @return liste de tous les produits
+     */
+    @Override
+    public List<Product> findAll() {
+        List<Product> results = new ArrayList<>(productMap.size());
+        for (VersionedProduct entry : productMap.values()) {
+            results.add(entry.getProduct());
+        }
+        return results;
+    }
+
+    /**
+     * Diffuse les produits directement depuis la table, sans copie.
+     * Le parcours reflète un état faiblement cohérent du dépôt.
+     *
+     * @return flux de tous les produits
+     */
+    @Override
+    public Stream<Product> stream() {
+        return productMap.values().stream().map(VersionedProduct::getProduct);
+    }
+
+    /**
+     * Applique un visiteur à chaque produit, sans copie.
+     *
+     * @param visitor traitement appliqué à chaque produit
+     */
+    @Override
+    public void forEach(Consumer<? super Product> visitor) {
+        for (VersionedProduct entry : productMap.values()) {
+            visitor.accept(entry.getProduct());
+        }
+    }
+
+    /**
+     * Retourne le nombre de produits enregistrés.
+     *
+     * @return nombre de produits
+     */
+    @Override
+    public long count() {
+        return productMap.size();
+    }
+
+    /**
+     * Retourne une page de produits ordonnés par identifiant, lue dans l'index ordonné
+     * des identifiants : seuls les produits de la page sont résolus.
+     *
+     * @param afterId identifiant du dernier produit de la page précédente (null pour la première page)
+     * @param limit taille de page (strictement positive)
+     * @return la page demandée
+     */
+    @Override
+    public ProductPage findPage(String afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than zero");
+        }
+        return ProductPage.fromLookahead(resolve(indexes.idsAfter(afterId, limit + 1)), limit);
+    }
+
+    /**
+     * Recherche les produits contenant le mot-clé dans leur nom.
+     * La recherche est insensible à la casse et s'appuie sur l'index de trigrammes.
+     *
+     * @param keyword mot-clé à rechercher
+     * @return liste des produits correspondants
+     */
+    @Override
+    public List<Product> search(String keyword) {
+        return resolve(indexes.searchNames(keyword));
+    }
+
+    /**
+     * Recherche les produits dont l'identifiant contient le mot-clé.
+     * La recherche est insensible à la casse et s'appuie sur l'index de trigrammes.
+     *
+     * @param keyword mot-clé à rechercher
+     * @return liste des produits correspondants
+     */
+    @Override
+    public List<Product> searchById(String keyword) {
+        return resolve(indexes.searchIds(keyword));
+    }
+
+    /**
+     * Autocomplétion par identifiant, servie par l'arbre préfixe des identifiants.
+     *
+     * @param prefix début de l'identifiant
+     * @param limit nombre maximal de résultats
+     * @return premiers produits correspondants
+     */
+    @Override
+    public List<Product> autocompleteById(String prefix, int limit) {
+        return resolve(indexes.completeIds(prefix, limit));
+    }
+
+    /**
+     * Autocomplétion par nom, servie par l'arbre préfixe des noms.
+     *
+     * @param prefix début du nom ou d'un mot du nom
+     * @param limit nombre maximal de résultats
+     * @return premiers produits correspondants
+     */
+    @Override
+    public List<Product> autocompleteByName(String prefix, int limit) {
+        return resolve(indexes.completeNames(prefix, limit));
+    }
+
+    /**
+     * Retourne tous les produits par prix croissant, lus depuis l'index de prix (sans tri).
+     *
+     * @return produits ordonnés par prix croissant
+     */
+    @Override
+    public List<Product> findAllOrderedByPrice() {
+        return resolve(indexes.byPrice());
+    }
+
+    /**
+     * Retourne les produits d'une plage de prix, lus depuis l'index de prix.
+     *
+     * @param minPrice prix minimal (inclus)
+     * @param maxPrice prix maximal (inclus)
+     * @return produits de la plage, par prix croissant
+     */
+    @Override
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        return resolve(indexes.byPriceBetween(minPrice, maxPrice));
+    }
+
+    /**
+     * Retourne le produit le moins cher, lu depuis l'index de prix.
+     *
+     * @return le produit le moins cher, ou null si le dépôt est vide
+     */
+    @Override
+    public Product findCheapest() {
+        String productId = indexes.cheapest();
+        return productId == null ? null : findById(productId);
+    }
+
+    /**
+     * Retourne le produit le plus cher, lu depuis l'index de prix.
+     *
+     * @return le produit le plus cher, ou null si le dépôt est vide
+     */
+    @Override
+    public Product findMostExpensive() {
+        String productId = indexes.mostExpensive();
+        return productId == null ? null : findById(productId);
+    }
+
+    /**
+     * Supprime un produit sous le verrou associé à son identifiant.
+     *
+     * @param productId identifiant du produit à supprimer
+     */
+    @Override
+    public void deleteById(String productId) {
+        ReentrantLock lock = locks.lock(productId);
+        try {
+            VersionedProduct previous = productMap.remove(productId);
+            indexes.onDelete(previous == null ? null : previous.getProduct());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Applique atomiquement toutes les mises à jour si les versions attendues sont toujours
+     * celles du dépôt.
+     * <p>
+     * Seuls les verrous couvrant les produits concernés sont pris, toujours dans l'ordre
+     * croissant de leur indice afin d'éviter tout interblocage entre deux paniers.
+     * </p>
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs (alignées sur {@code expected})
+     * @return true si les mises à jour ont été appliquées, false en cas de conflit
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        if (expected.size() != replacements.size()) {
+            throw new IllegalArgumentException("expected and replacements must have the same size");
+        }
+        List<String> productIds = new ArrayList<>(expected.size());
+        for (VersionedProduct entry : expected) {
+            productIds.add(entry.getProduct().getProductId());
+        }
+        boolean[] held = locks.lockAll(productIds);
+        try {
+            for (VersionedProduct entry : expected) {
+                VersionedProduct current = productMap.get(entry.getProduct().getProductId());
+                // L'identité protège du cas suppression puis recréation (version repartie à 1).
+                if (current == null || current.getVersion() != entry.getVersion()
+                        || current.getProduct() != entry.getProduct()) {
+                    return false;
+                }
+            }
+            for (Product replacement : replacements) {
+                put(replacement);
+            }
+            return true;
+        } finally {
+            locks.unlockAll(held);
+        }
+    }
+
+    /**
+     * Enregistre un produit avec la version suivante.
+     * L'appelant doit détenir le verrou associé au produit.
+     *
+     * @param product produit à enregistrer
+     */
+    private void put(Product product) {
+        VersionedProduct previous = productMap.get(product.getProductId());
+        long version = previous == null ? 1L : previous.getVersion() + 1;
+        productMap.put(product.getProductId(), new VersionedProduct(product, version));
+        indexes.onSave(previous == null ? null : previous.getProduct(), product);
+    }
+
+    /**
+     * Convertit une liste d'identifiants issue d'un index en produits.
+     *
+     * @param productIds identifiants à résoudre
+     * @return produits correspondants
+     */
+    private List<Product> resolve(List<String> productIds) {
+        List<Product> results = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            Product product = findById(productId);
+            if (product != null) {
+                results.add(product);
+            }
+        }
+        return results;
+    }
+}
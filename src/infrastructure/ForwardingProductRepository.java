@@ -0,0 +1,148 @@
+package infrastructure;
+
+import application.ports.ProductPage;
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.Product;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur de base pour {@link ProductRepository} : chaque opération est transmise
+ * telle quelle au dépôt décoré.
+ * <p>
+ * Les décorateurs concrets (journalisation, cache, instrumentation...) étendent cette
+ * classe et ne redéfinissent que les opérations qui les concernent. Toutes les méthodes
+ * par défaut du port sont explicitement transmises afin que les index du dépôt décoré
+ * restent utilisés. {@code saveAll} étant transmis lui aussi, un décorateur qui agit sur
+ * {@code save} doit également redéfinir {@code saveAll}.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public abstract class ForwardingProductRepository implements ProductRepository {
+
+    private final ProductRepository delegate;
+
+    /**
+     * @param delegate dépôt décoré (non nul)
+     */
+    protected ForwardingProductRepository(ProductRepository delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    /**
+     * Retourne le dépôt décoré.
+     *
+     * @return dépôt décoré
+     */
+    protected ProductRepository delegate() {
+        return delegate;
+    }
+
+    @Override
+    public void save(Product product) {
+        delegate.save(product);
+    }
+
+    @Override
+    public void saveAll(List<Product> products) {
+        delegate.saveAll(products);
+    }
+
+    @Override
+    public boolean existsById(String productId) {
+        return delegate.existsById(productId);
+    }
+
+    @Override
+    public Product findById(String productId) {
+        return delegate.findById(productId);
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        return delegate.stream();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> visitor) {
+        delegate.forEach(visitor);
+    }
+
+    @Override
+    public long count() {
+        return delegate.count();
+    }
+
+    @Override
+    public ProductPage findPage(String afterId, int limit) {
+        return delegate.findPage(afterId, limit);
+    }
+
+    @Override
+    public List<Product> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public List<Product> searchById(String keyword) {
+        return delegate.searchById(keyword);
+    }
+
+    @Override
+    public List<Product> autocompleteById(String prefix, int limit) {
+        return delegate.autocompleteById(prefix, limit);
+    }
+
+    @Override
+    public List<Product> autocompleteByName(String prefix, int limit) {
+        return delegate.autocompleteByName(prefix, limit);
+    }
+
+    @Override
+    public List<Product> findAllOrderedByPrice() {
+        return delegate.findAllOrderedByPrice();
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        return delegate.findByPriceBetween(minPrice, maxPrice);
+    }
+
+    @Override
+    public Product findCheapest() {
+        return delegate.findCheapest();
+    }
+
+    @Override
+    public Product findMostExpensive() {
+        return delegate.findMostExpensive();
+    }
+
+    @Override
+    public void deleteById(String productId) {
+        delegate.deleteById(productId);
+    }
+
+    @Override
+    public VersionedProduct findVersionedById(String productId) {
+        return delegate.findVersionedById(productId);
+    }
+
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        return delegate.compareAndSaveAll(expected, replacements);
+    }
+}
@@ -1,9 +1,13 @@
 package infrastructure;
 
+import application.ports.ProductPage;
 import application.ports.ProductRepository;
 import domain.product.Product;
+import infrastructure.index.ProductIndexes;
 
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implémentation en mémoire de l'interface {@link ProductRepository}.
@@ -11,13 +15,16 @@ import java.util.*;
  * pour les phases de test, de prototypage ou d'exécution sans base de données.
  *
  * Les données sont stockées dans une Map et sont perdues à l’arrêt de l’application.
+ * Des index secondaires ({@link ProductIndexes}) sont maintenus à chaque écriture afin
+ * d'éviter un parcours complet lors des recherches.
  *
  * @author Lucas
- * @version 1.1
+ * @version 1.4
  */
 public class InMemoryProductRepository implements ProductRepository {
 
     private final Map<String, Product> productMap = new HashMap<>();
+    private final ProductIndexes indexes = new ProductIndexes();
 
     /**
      * Enregistre ou met à jour un produit dans le stockage.
@@ -26,7 +33,35 @@ public class InMemoryProductRepository implements ProductRepository {
      */
     @Override
     public void save(Product product) {
-        productMap.put(product.getProductId(), product);
+        Product previous = productMap.put(product.getProductId(), product);
+        indexes.onSave(previous, product);
+    }
+
+    /**
+     * Enregistre un lot de produits : la table est mise à jour dans l'ordre du lot, puis
+     * les index reçoivent une seule mise à jour par identifiant, en parallèle pour les
+     * gros lots ({@link ProductIndexes#onSaveAll(List, List)}).
+     *
+     * @param products produits à sauvegarder
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        // identifiant -> {valeur avant le lot, dernière valeur du lot}
+        Map<String, Product[]> changes = new LinkedHashMap<>();
+        for (Product product : products) {
+            Product previous = productMap.put(product.getProductId(), product);
+            Product[] change = changes.putIfAbsent(product.getProductId(), new Product[] {previous, product});
+            if (change != null) {
+                change[1] = product;
+            }
+        }
+        List<Product> previous = new ArrayList<>(changes.size());
+        List<Product> current = new ArrayList<>(changes.size());
+        for (Product[] change : changes.values()) {
+            previous.add(change[0]);
+            current.add(change[1]);
+        }
+        indexes.onSaveAll(previous, current);
     }
 
     /**
@@ -61,22 +96,143 @@ public class InMemoryProductRepository implements ProductRepository {
         return new ArrayList<>(productMap.values());
     }
 
+    /**
+     * Diffuse les produits directement depuis la table, sans copie.
+     * Le dépôt ne doit pas être modifié pendant le parcours.
+     *
+     * @return flux de tous les produits
+     */
+    @Override
+    public Stream<Product> stream() {
+        return productMap.values().stream();
+    }
+
+    /**
+     * Applique un visiteur à chaque produit, sans copie.
+     *
+     * @param visitor traitement appliqué à chaque produit
+     */
+    @Override
+    public void forEach(Consumer<? super Product> visitor) {
+        productMap.values().forEach(visitor);
+    }
+
+    /**
+     * Retourne le nombre de produits enregistrés.
+     *
+     * @return nombre de produits
+     */
+    @Override
+    public long count() {
+        return productMap.size();
+    }
+
+    /**
+     * Retourne une page de produits ordonnés par identifiant, lue dans l'index ordonné
+     * des identifiants : seuls les produits de la page sont résolus.
+     *
+     * @param afterId identifiant du dernier produit de la page précédente (null pour la première page)
+     * @param limit taille de page (strictement positive)
+     * @return la page demandée
+     */
+    @Override
+    public ProductPage findPage(String afterId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than zero");
+        }
+        return ProductPage.fromLookahead(resolve(indexes.idsAfter(afterId, limit + 1)), limit);
+    }
+
     /**
      * Recherche les produits contenant le mot-clé dans leur nom.
-     * La recherche est insensible à la casse.
+     * La recherche est insensible à la casse et s'appuie sur l'index de trigrammes.
      *
      * @param keyword mot-clé à rechercher
      * @return liste des produits correspondants
      */
     @Override
     public List<Product> search(String keyword) {
-        List<Product> results = new ArrayList<>();
-        for (Product product : productMap.values()) {
-            if (product.getName().toLowerCase().contains(keyword.toLowerCase())) {
-                results.add(product);
-            }
-        }
-        return results;
+        return resolve(indexes.searchNames(keyword));
+    }
+
+    /**
+     * Recherche les produits dont l'identifiant contient le mot-clé.
+     * La recherche est insensible à la casse et s'appuie sur l'index de trigrammes.
+     *
+     * @param keyword mot-clé à rechercher
+     * @return liste des produits correspondants
+     */
+    @Override
+    public List<Product> searchById(String keyword) {
+        return resolve(indexes.searchIds(keyword));
+    }
+
+    /**
+     * Autocomplétion par identifiant, servie par l'arbre préfixe des identifiants.
+     *
+     * @param prefix début de l'identifiant
+     * @param limit nombre maximal de résultats
+     * @return premiers produits correspondants
+     */
+    @Override
+    public List<Product> autocompleteById(String prefix, int limit) {
+        return resolve(indexes.completeIds(prefix, limit));
+    }
+
+    /**
+     * Autocomplétion par nom, servie par l'arbre préfixe des noms.
+     *
+     * @param prefix début du nom ou d'un mot du nom
+     * @param limit nombre maximal de résultats
+     * @return premiers produits correspondants
+     */
+    @Override
+    public List<Product> autocompleteByName(String prefix, int limit) {
+        return resolve(indexes.completeNames(prefix, limit));
+    }
+
+    /**
+     * Retourne tous les produits par prix croissant, lus depuis l'index de prix (sans tri).
+     *
+     * @return produits ordonnés par prix croissant
+     */
+    @Override
+    public List<Product> findAllOrderedByPrice() {
+        return resolve(indexes.byPrice());
+    }
+
+    /**
+     * Retourne les produits d'une plage de prix, lus depuis l'index de prix.
+     *
+     * @param minPrice prix minimal (inclus)
+     * @param maxPrice prix maximal (inclus)
+     * @return produits de la plage, par prix croissant
+     */
+    @Override
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        return resolve(indexes.byPriceBetween(minPrice, maxPrice));
+    }
+
+    /**
+     * Retourne le produit le moins cher, lu depuis l'index de prix.
+     *
+     * @return le produit le moins cher, ou null si le dépôt est vide
+     */
+    @Override
+    public Product findCheapest() {
+        String productId = indexes.cheapest();
+        return productId == null ? null : findById(productId);
+    }
+
+    /**
+     * Retourne le produit le plus cher, lu depuis l'index de prix.
+     *
+     * @return le produit le plus cher, ou null si le dépôt est vide
+     */
+    @Override
+    public Product findMostExpensive() {
+        String productId = indexes.mostExpensive();
+        return productId == null ? null : findById(productId);
     }
 
     /**
@@ -86,6 +242,23 @@ public class InMemoryProductRepository implements ProductRepository {
      */
     @Override
     public void deleteById(String productId) {
-        productMap.remove(productId);
+        indexes.onDelete(productMap.remove(productId));
+    }
+
+    /**
+     * Convertit une liste d'identifiants issue d'un index en produits.
+     *
+     * @param productIds identifiants à résoudre
+     * @return produits correspondants
+     */
+    private List<Product> resolve(List<String> productIds) {
+        List<Product> results = new ArrayList<>(productIds.size());
+        for (String productId : productIds) {
+            Product product = productMap.get(productId);
+            if (product != null) {
+                results.add(product);
+            }
+        }
+        return results;
     }
 }
\ No newline at end of file
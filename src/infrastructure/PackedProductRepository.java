@@ -0,0 +1,698 @@
+package infrastructure;
+
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.catalog.Brand;
+import domain.catalog.ProductLine;
+import domain.product.ContainerProduct;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Implémentation compacte de {@link ProductRepository} pour les très grands catalogues.
+ * <p>
+ * Au lieu de conserver un objet {@link Product} (et ses chaînes) par référence, les attributs
+ * sont rangés « en colonnes » dans des tableaux primitifs indexés par un numéro d'emplacement :
+ * prix (en centimes), stock, ordinal de marque, ordinal de gamme, version. Les identifiants
+ * et les noms sont stockés bout à bout dans une unique zone de caractères ; les marques et
+ * gammes, peu nombreuses, dans de petits dictionnaires. L'index identifiant → emplacement
+ * est une table à adressage ouvert (sondage linéaire) de simples entiers.
+ * </p>
+ * <p>
+ * Le tas ne contient donc qu'une poignée de grands tableaux, quelle que soit la taille du
+ * catalogue : l'empreinte par produit est réduite et le ramasse-miettes n'a presque rien à
+ * parcourir. Les produits retournés sont des vues reconstruites à la demande, de courte durée
+ * de vie, qui partagent les instances de marque et de gamme.
+ * </p>
+ * <p>
+ * Les lectures sont concurrentes ; les écritures sont sérialisées par un verrou
+ * lecture/écriture. Chaque écriture attribue une nouvelle version, ce qui permet le
+ * compare-and-set des ventes ({@link #compareAndSaveAll(List, List)}) bien que les vues
+ * soient recréées à chaque lecture.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.4
+ */
+public class PackedProductRepository implements ProductRepository {
+
+    private static final int EMPTY = 0;
+    private static final int TOMBSTONE = -1;
+    private static final int FREE = -1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Colonnes, indexées par emplacement
+    private long[] priceCents;
+    private int[] stocks;
+    private int[] brandOrdinals;
+    private int[] lineOrdinals;
+    private long[] versions;
+    private int[] hashes;
+    private int[] idOffsets;
+    private int[] idLengths;
+    private int[] nameOffsets;
+    private int[] nameLengths;
+    private int[] containedQuantities;
+
+    // Zone des chaînes (identifiants et noms)
+    private char[] chars;
+    private int charsUsed;
+    private int charsGarbage;
+
+    // Index identifiant -> emplacement + 1 (0 : vide, -1 : supprimé)
+    private int[] table;
+    private int tableUsed;
+
+    // Emplacements libérés, réutilisés en priorité
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private int size;
+    private long lastVersion;
+
+    private final List<Brand> brands = new ArrayList<>();
+    private final Map<String, Integer> brandIndex = new HashMap<>();
+    private final List<ProductLine> lines = new ArrayList<>();
+    private final Map<String, Integer> lineIndex = new HashMap<>();
+    private final Map<Integer, Product> containedProducts = new HashMap<>();
+
+    /**
+     * Construit un dépôt compact avec une capacité initiale par défaut.
+     */
+    public PackedProductRepository() {
+        this(1024);
+    }
+
+    /**
+     * Construit un dépôt compact dimensionné pour le nombre de produits attendu
+     * (la capacité augmente ensuite automatiquement).
+     *
+     * @param expectedSize nombre de produits attendu (strictement positif)
+     * @throws IllegalArgumentException si la capacité est invalide
+     */
+    public PackedProductRepository(int expectedSize) {
+        if (expectedSize <= 0) {
+            throw new IllegalArgumentException("expectedSize must be greater than zero");
+        }
+        priceCents = new long[expectedSize];
+        stocks = new int[expectedSize];
+        brandOrdinals = new int[expectedSize];
+        lineOrdinals = new int[expectedSize];
+        versions = new long[expectedSize];
+        hashes = new int[expectedSize];
+        idOffsets = new int[expectedSize];
+        idLengths = new int[expectedSize];
+        nameOffsets = new int[expectedSize];
+        nameLengths = new int[expectedSize];
+        containedQuantities = new int[expectedSize];
+        chars = new char[expectedSize * 16];
+        table = new int[tableCapacityFor(expectedSize)];
+    }
+
+    /**
+     * Enregistre ou met à jour un produit.
+     *
+     * @param product produit à sauvegarder
+     */
+    @Override
+    public void save(Product product) {
+        lock.writeLock().lock();
+        try {
+            put(product);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Vérifie si un produit existe à partir de son identifiant.
+     *
+     * @param productId identifiant du produit
+     * @return true si le produit existe, false sinon
+     */
+    @Override
+    public boolean existsById(String productId) {
+        lock.readLock().lock();
+        try {
+            return slotOf(productId) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche un produit par son identifiant.
+     *
+     * @param productId identifiant du produit
+     * @return une vue du produit, ou null si absent
+     */
+    @Override
+    public Product findById(String productId) {
+        lock.readLock().lock();
+        try {
+            int slot = slotOf(productId);
+            return slot < 0 ? null : view(slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recherche un produit et sa version courante.
+     *
+     * @param productId identifiant du produit
+     * @return le produit versionné, ou null si absent
+     */
+    @Override
+    public VersionedProduct findVersionedById(String productId) {
+        lock.readLock().lock();
+        try {
+            int slot = slotOf(productId);
+            return slot < 0 ? null : new VersionedProduct(view(slot), versions[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne une vue de chaque produit enregistré.
+     *
+     * @return liste de tous les produits
+     */
+    @Override
+    public List<Product> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Product> results = new ArrayList<>(size);
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (idLengths[slot] != FREE) {
+                    results.add(view(slot));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applique un visiteur à une vue de chaque produit, sans constituer de liste.
+     * Le verrou de lecture est détenu pendant tout le parcours : le visiteur ne doit
+     * pas écrire dans ce dépôt.
+     *
+     * @param visitor traitement appliqué à chaque produit
+     */
+    @Override
+    public void forEach(Consumer<? super Product> visitor) {
+        lock.readLock().lock();
+        try {
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (idLengths[slot] != FREE) {
+                    visitor.accept(view(slot));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre de produits enregistrés.
+     *
+     * @return nombre de produits
+     */
+    @Override
+    public long count() {
+        return size();
+    }
+
+    /**
+     * Recherche les produits contenant le mot-clé dans leur nom (insensible à la casse).
+     * Les noms sont comparés caractère par caractère dans la zone de caractères, sans créer
+     * de chaîne ; seuls les produits correspondants sont reconstruits.
+     *
+     * @param keyword mot-clé à rechercher
+     * @return liste des produits correspondants
+     */
+    @Override
+    public List<Product> search(String keyword) {
+        char[] needle = keyword.toLowerCase(Locale.ROOT).toCharArray();
+        lock.readLock().lock();
+        try {
+            List<Product> results = new ArrayList<>();
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (idLengths[slot] != FREE && nameContains(slot, needle)) {
+                    results.add(view(slot));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne tous les produits par prix croissant, triés sur la colonne des prix
+     * sans reconstruire les produits pendant le tri.
+     * <p>
+     * Chaque emplacement vivant est codé en une clé {@code long} (prix en centimes dans les
+     * bits de poids fort, emplacement dans les bits de poids faible) : le tri porte sur un
+     * tableau primitif, sans objet intermédiaire. Les séries de même prix sont ensuite
+     * départagées par identifiant. Si les prix ne tiennent pas dans la clé (prix négatif ou
+     * démesuré), le tri se fait par comparateur sur les emplacements.
+     * </p>
+     *
+     * @return produits ordonnés par prix croissant (puis par identifiant)
+     */
+    @Override
+    public List<Product> findAllOrderedByPrice() {
+        lock.readLock().lock();
+        try {
+            int slotBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, slotCount - 1));
+            long maxPrice = 0L;
+            boolean packable = true;
+            for (int slot = 0; slot < slotCount && packable; slot++) {
+                if (idLengths[slot] != FREE) {
+                    packable = priceCents[slot] >= 0;
+                    maxPrice = Math.max(maxPrice, priceCents[slot]);
+                }
+            }
+            if (!packable || 64 - Long.numberOfLeadingZeros(maxPrice) + slotBits > 63) {
+                return orderedByPriceBoxed();
+            }
+
+            long[] keys = new long[size];
+            int count = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (idLengths[slot] != FREE) {
+                    keys[count++] = (priceCents[slot] << slotBits) | slot;
+                }
+            }
+            Arrays.sort(keys, 0, count);
+
+            long slotMask = (1L << slotBits) - 1;
+            long[] buffer = null;
+            int runStart = 0;
+            for (int i = 1; i <= count; i++) {
+                if (i == count || (keys[i] >>> slotBits) != (keys[runStart] >>> slotBits)) {
+                    if (i - runStart > 1) {
+                        if (buffer == null) {
+                            buffer = new long[count];
+                        }
+                        sortByIds(keys, buffer, runStart, i, slotMask);
+                    }
+                    runStart = i;
+                }
+            }
+            List<Product> results = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                results.add(view((int) (keys[i] & slotMask)));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Supprime un produit et libère son emplacement.
+     *
+     * @param productId identifiant du produit à supprimer
+     */
+    @Override
+    public void deleteById(String productId) {
+        lock.writeLock().lock();
+        try {
+            int index = tableIndexOf(productId);
+            if (index < 0) {
+                return;
+            }
+            int slot = table[index] - 1;
+            table[index] = TOMBSTONE;
+            charsGarbage += idLengths[slot] + nameLengths[slot];
+            idLengths[slot] = FREE;
+            containedQuantities[slot] = 0;
+            containedProducts.remove(slot);
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+            size--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applique toutes les mises à jour si les versions attendues sont toujours les versions
+     * courantes (vérification et application sous le verrou d'écriture).
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs (alignées sur {@code expected})
+     * @return true si les mises à jour ont été appliquées, false en cas de conflit
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        if (expected.size() != replacements.size()) {
+            throw new IllegalArgumentException("expected and replacements must have the same size");
+        }
+        lock.writeLock().lock();
+        try {
+            for (VersionedProduct entry : expected) {
+                int slot = slotOf(entry.getProduct().getProductId());
+                if (slot < 0 || versions[slot] != entry.getVersion()) {
+                    return false;
+                }
+            }
+            for (Product replacement : replacements) {
+                put(replacement);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne le nombre de produits enregistrés.
+     *
+     * @return nombre de produits
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Enregistre un produit. L'appelant doit détenir le verrou d'écriture.
+     *
+     * @param product produit à enregistrer
+     */
+    private void put(Product product) {
+        String productId = product.getProductId();
+        int slot = slotOf(productId);
+        if (slot < 0) {
+            slot = allocateSlot();
+            hashes[slot] = productId.hashCode();
+            idOffsets[slot] = appendChars(productId);
+            idLengths[slot] = productId.length();
+            nameLengths[slot] = 0;
+            insertInTable(slot);
+            size++;
+        }
+        if (nameLengths[slot] != product.getName().length()
+                || !product.getName().contentEquals(string(nameOffsets[slot], nameLengths[slot]))) {
+            charsGarbage += nameLengths[slot];
+            nameOffsets[slot] = appendChars(product.getName());
+            nameLengths[slot] = product.getName().length();
+        }
+        priceCents[slot] = product.getPriceCents();
+        stocks[slot] = product.getStock();
+        brandOrdinals[slot] = ordinal(product.getBrand().getBrandId(), product.getBrand(), brandIndex, brands);
+        lineOrdinals[slot] = ordinal(product.getProductLine().getLineId(), product.getProductLine(), lineIndex, lines);
+        if (product instanceof ContainerProduct cp) {
+            containedQuantities[slot] = cp.getContainedQuantity();
+            containedProducts.put(slot, cp.getContainedProduct());
+        } else {
+            containedQuantities[slot] = 0;
+            containedProducts.remove(slot);
+        }
+        versions[slot] = ++lastVersion;
+    }
+
+    /**
+     * Reconstruit une vue du produit rangé à l'emplacement donné.
+     */
+    private Product view(int slot) {
+        String productId = string(idOffsets[slot], idLengths[slot]);
+        String name = string(nameOffsets[slot], nameLengths[slot]);
+        Brand brand = brands.get(brandOrdinals[slot]);
+        ProductLine line = lines.get(lineOrdinals[slot]);
+        if (containedQuantities[slot] > 0) {
+            return ContainerProduct.ofCents(productId, name, priceCents[slot], stocks[slot],
+                    containedProducts.get(slot), containedQuantities[slot], brand, line);
+        }
+        return SimpleProduct.ofCents(productId, name, priceCents[slot], stocks[slot], brand, line);
+    }
+
+    private int slotOf(String productId) {
+        int index = tableIndexOf(productId);
+        return index < 0 ? -1 : table[index] - 1;
+    }
+
+    /**
+     * Sondage linéaire dans la table : compare les empreintes puis les caractères
+     * en place, sans créer de chaîne.
+     *
+     * @return position dans la table, ou -1 si l'identifiant est absent
+     */
+    private int tableIndexOf(String productId) {
+        int hash = productId.hashCode();
+        int mask = table.length - 1;
+        for (int i = spread(hash) & mask; ; i = (i + 1) & mask) {
+            int entry = table[i];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != TOMBSTONE && hashes[entry - 1] == hash && idEquals(entry - 1, productId)) {
+                return i;
+            }
+        }
+    }
+
+    private boolean idEquals(int slot, String productId) {
+        int length = idLengths[slot];
+        if (length != productId.length()) {
+            return false;
+        }
+        int offset = idOffsets[slot];
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != productId.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void insertInTable(int slot) {
+        if ((tableUsed + 1) * 2 > table.length) {
+            rebuildTable(tableCapacityFor(size + 1));
+        }
+        int mask = table.length - 1;
+        int i = spread(hashes[slot]) & mask;
+        while (table[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        table[i] = slot + 1;
+        tableUsed++;
+    }
+
+    /**
+     * Reconstruit la table (agrandissement ou purge des entrées supprimées).
+     */
+    private void rebuildTable(int capacity) {
+        table = new int[capacity];
+        tableUsed = 0;
+        int mask = capacity - 1;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (idLengths[slot] != FREE) {
+                int i = spread(hashes[slot]) & mask;
+                while (table[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = slot + 1;
+                tableUsed++;
+            }
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == priceCents.length) {
+            int capacity = priceCents.length * 2;
+            priceCents = Arrays.copyOf(priceCents, capacity);
+            stocks = Arrays.copyOf(stocks, capacity);
+            brandOrdinals = Arrays.copyOf(brandOrdinals, capacity);
+            lineOrdinals = Arrays.copyOf(lineOrdinals, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            idOffsets = Arrays.copyOf(idOffsets, capacity);
+            idLengths = Arrays.copyOf(idLengths, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            containedQuantities = Arrays.copyOf(containedQuantities, capacity);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Ajoute une chaîne à la zone de caractères ; la zone est compactée lorsque plus
+     * de la moitié de son contenu n'est plus référencé, sinon agrandie.
+     *
+     * @return position de la chaîne dans la zone
+     */
+    private int appendChars(String value) {
+        if (charsUsed + value.length() > chars.length) {
+            if (charsGarbage * 2 > charsUsed) {
+                compactChars();
+            }
+            if (charsUsed + value.length() > chars.length) {
+                long capacity = Math.max((long) chars.length * 2, (long) charsUsed + value.length());
+                chars = Arrays.copyOf(chars, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+            }
+        }
+        int offset = charsUsed;
+        value.getChars(0, value.length(), chars, offset);
+        charsUsed += value.length();
+        return offset;
+    }
+
+    private void compactChars() {
+        char[] compacted = new char[chars.length];
+        int used = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (idLengths[slot] != FREE) {
+                System.arraycopy(chars, idOffsets[slot], compacted, used, idLengths[slot]);
+                idOffsets[slot] = used;
+                used += idLengths[slot];
+                System.arraycopy(chars, nameOffsets[slot], compacted, used, nameLengths[slot]);
+                nameOffsets[slot] = used;
+                used += nameLengths[slot];
+            }
+        }
+        chars = compacted;
+        charsUsed = used;
+        charsGarbage = 0;
+    }
+
+    private String string(int offset, int length) {
+        return new String(chars, offset, length);
+    }
+
+    /**
+     * Tri par comparateur des emplacements vivants, pour les prix qui ne tiennent pas dans
+     * une clé de tri primitive. L'appelant détient le verrou de lecture.
+     */
+    private List<Product> orderedByPriceBoxed() {
+        Integer[] order = new Integer[size];
+        int count = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (idLengths[slot] != FREE) {
+                order[count++] = slot;
+            }
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Long.compare(priceCents[a], priceCents[b]);
+            return cmp != 0 ? cmp : compareIds(a, b);
+        });
+        List<Product> results = new ArrayList<>(size);
+        for (Integer slot : order) {
+            results.add(view(slot));
+        }
+        return results;
+    }
+
+    /**
+     * Trie par identifiant les clés {@code [from, to)} (tri fusion stable, par insertion sur
+     * les petites séries).
+     */
+    private void sortByIds(long[] keys, long[] buffer, int from, int to, long slotMask) {
+        if (to - from < 8) {
+            for (int i = from + 1; i < to; i++) {
+                long key = keys[i];
+                int j = i - 1;
+                while (j >= from && compareIds((int) (keys[j] & slotMask), (int) (key & slotMask)) > 0) {
+                    keys[j + 1] = keys[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sortByIds(keys, buffer, from, middle, slotMask);
+        sortByIds(keys, buffer, middle, to, slotMask);
+        if (compareIds((int) (keys[middle - 1] & slotMask), (int) (keys[middle] & slotMask)) <= 0) {
+            return;
+        }
+        System.arraycopy(keys, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle
+                    && compareIds((int) (buffer[left] & slotMask), (int) (buffer[right] & slotMask)) <= 0)) {
+                keys[i] = buffer[left++];
+            } else {
+                keys[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * Indique si le nom d'un emplacement contient le motif, déjà en minuscules, en comparant
+     * les caractères en place.
+     */
+    private boolean nameContains(int slot, char[] needle) {
+        int offset = nameOffsets[slot];
+        int last = nameLengths[slot] - needle.length;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < needle.length; j++) {
+                if (Character.toLowerCase(chars[offset + i + j]) != needle[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private int compareIds(int a, int b) {
+        int lengthA = idLengths[a];
+        int lengthB = idLengths[b];
+        int limit = Math.min(lengthA, lengthB);
+        for (int i = 0; i < limit; i++) {
+            int cmp = chars[idOffsets[a] + i] - chars[idOffsets[b] + i];
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    private static <T> int ordinal(String key, T value, Map<String, Integer> index, List<T> values) {
+        Integer ordinal = index.get(key);
+        if (ordinal == null) {
+            ordinal = values.size();
+            index.put(key, ordinal);
+            values.add(value);
+        }
+        return ordinal;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableCapacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        return Math.max(capacity, 16);
+    }
+}
@@ -1,30 +1,81 @@
 package infrastructure;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Générateur d'identifiants uniques pour les produits.
  * Garantit l'unicité des IDs via un incrément interne.
  *
  * Utilisé pour éviter la duplication d'identifiants produits
  * lors de l'ajout de nouveaux éléments au stock.
- *
- * Ce générateur est thread-safe via synchronisation explicite.
+ * <p>
+ * Tous les threads partagent un même compteur atomique : les identifiants sont denses
+ * (1, 2, 3, ...) quel que soit le nombre de threads, y compris avec un thread virtuel
+ * par requête HTTP. Ce choix renonce à la réservation de blocs par thread (hi/lo), qui
+ * laissait un trou de la taille d'un bloc par thread de courte durée : sur un seul
+ * thread, un appel coûte environ 20 ns, dont l'essentiel en conversion en chaîne. Le coût
+ * d'un incrément disputé par de nombreux cœurs n'a pas été mesuré ; il croît avec le
+ * nombre de threads, le compteur étant une seule ligne de cache partagée.
+ * </p>
+ * <p>
+ * Lorsque la persistance est activée ({@link #configurePersistence(Path)}), la borne haute
+ * est enregistrée dans un fichier local avant toute distribution, par réservations de
+ * {@value #PERSISTED_RANGE} identifiants à la fois : après un redémarrage, la génération
+ * reprend au-delà de la dernière borne enregistrée et aucun identifiant n'est réattribué
+ * (les identifiants réservés mais non distribués sont simplement perdus). Le dépôt durable
+ * l'active à son ouverture, sur un fichier voisin de son journal.
+ * </p>
  *
  * @author Lucas
- * @version 1.1
+ * @version 2.2
  */
 public class ProductIdGenerator {
 
-    // Dernier ID généré (persisté uniquement en mémoire)
-    private static int lastId = 0;
+    /** Nombre d'identifiants couverts par chaque écriture du fichier de borne haute. */
+    static final long PERSISTED_RANGE = 1L << 16;
+
+    // Dernier identifiant distribué (tous threads confondus)
+    private static final AtomicLong highWater = new AtomicLong();
+
+    // Impair pendant une réinitialisation, incrémenté au début et à la fin de chacune
+    private static volatile long epoch;
+
+    // Borne haute déjà enregistrée sur disque (Long.MAX_VALUE si persistance désactivée)
+    private static volatile long persistedMark = Long.MAX_VALUE;
+    private static Path markFile;
 
     /**
      * Génère un nouvel identifiant unique sous forme de chaîne.
+     * Sans verrou : seul le franchissement de la borne enregistrée provoque une écriture disque.
+     * <p>
+     * Un identifiant tiré pendant une réinitialisation concurrente ({@link #initializeFrom(long)})
+     * est abandonné et un nouveau est tiré, au-delà de la nouvelle borne.
+     * </p>
      *
      * @return identifiant produit incrémental (ex: "1", "2", "3", ...)
      */
-    public static synchronized String generateId() {
-        lastId++;
-        return String.valueOf(lastId);
+    public static String generateId() {
+        while (true) {
+            long observed = epoch;
+            if ((observed & 1L) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long id = highWater.incrementAndGet();
+            if (id > persistedMark) {
+                reserve(id);
+            }
+            if (epoch == observed) {
+                return Long.toString(id);
+            }
+        }
     }
 
     /**
@@ -34,9 +85,116 @@ public class ProductIdGenerator {
      *
      * @param lastUsedId identifiant le plus élevé actuellement utilisé
      */
-    public static synchronized void initializeFrom(int lastUsedId) {
-        if (lastUsedId > lastId) {
-            lastId = lastUsedId;
+    public static synchronized void initializeFrom(long lastUsedId) {
+        epoch++;
+        try {
+            highWater.accumulateAndGet(lastUsedId, Math::max);
+        } finally {
+            epoch++;
+        }
+        // Écriture disque hors de la fenêtre impaire : les tirages qui dépassent la borne
+        // enregistrée attendent le moniteur dans reserve() au lieu de boucler pendant le fsync
+        if (lastUsedId > persistedMark) {
+            try {
+                persist(lastUsedId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Enregistrement de la borne haute impossible", e);
+            }
+        }
+    }
+
+    /**
+     * Valeur numérique d'un identifiant produit, pour le calcul du plus grand identifiant
+     * déjà utilisé.
+     *
+     * @param productId identifiant produit
+     * @return valeur de l'identifiant, ou 0 s'il n'est pas un entier positif
+     */
+    public static long numericValue(String productId) {
+        try {
+            return Math.max(0L, Long.parseLong(productId));
+        } catch (NumberFormatException e) {
+            // identifiant non numérique (ou hors de portée) : non concerné par le générateur
+            return 0L;
+        }
+    }
+
+    /**
+     * Active l'enregistrement de la borne haute dans un fichier local.
+     * Si le fichier existe, la génération reprend au-delà de la borne qu'il contient.
+     *
+     * @param file fichier de borne haute (créé si nécessaire)
+     * @throws UncheckedIOException si le fichier ne peut pas être lu ou écrit
+     */
+    public static synchronized void configurePersistence(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("file cannot be null");
+        }
+        try {
+            if (Files.exists(file)) {
+                String content = Files.readString(file, StandardCharsets.UTF_8).trim();
+                if (!content.isEmpty()) {
+                    initializeFrom(Long.parseLong(content));
+                }
+            }
+            markFile = file;
+            persistedMark = 0;
+            persist(highWater.get());
+        } catch (IOException | NumberFormatException e) {
+            throw new UncheckedIOException("Borne haute des identifiants illisible : " + file,
+                    e instanceof IOException io ? io : new IOException(e));
+        }
+    }
+
+    /**
+     * Désactive l'enregistrement de la borne haute s'il porte sur le fichier donné (fermeture
+     * du dépôt qui l'avait activé) ; sans effet sinon.
+     *
+     * @param file fichier de borne haute à libérer
+     */
+    public static synchronized void releasePersistence(Path file) {
+        if (file != null && file.equals(markFile)) {
+            markFile = null;
+            persistedMark = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Retourne la borne haute courante : aucun identifiant supérieur n'a été distribué.
+     *
+     * @return dernier identifiant réservé
+     */
+    public static long getHighWaterMark() {
+        return highWater.get();
+    }
+
+    /**
+     * Enregistre une borne couvrant l'identifiant tiré avant qu'il ne soit distribué.
+     */
+    private static void reserve(long id) {
+        synchronized (ProductIdGenerator.class) {
+            if (id > persistedMark) {
+                try {
+                    persist(id);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Enregistrement de la borne haute impossible", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Enregistre de façon atomique une borne couvrant {@code atLeast} et la plage suivante.
+     * L'appelant doit détenir le moniteur de la classe.
+     */
+    private static void persist(long atLeast) throws IOException {
+        long mark = Math.max(atLeast, highWater.get()) + PERSISTED_RANGE;
+        Path temp = markFile.resolveSibling(markFile.getFileName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp.toFile())) {
+            out.write(Long.toString(mark).getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
         }
+        Files.move(temp, markFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        persistedMark = mark;
     }
-}
\ No newline at end of file
+}
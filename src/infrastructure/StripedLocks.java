@@ -0,0 +1,109 @@
+package infrastructure;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrous répartis par identifiant de produit, utilisés par le dépôt concurrent et par les
+ * décorateurs qui doivent sérialiser les écritures d'un même produit sans bloquer celles
+ * des autres.
+ * <p>
+ * Un identifiant est associé à l'un des verrous (une puissance de deux) selon son hachage,
+ * dont les bits de poids fort sont repliés sur les bits de poids faible avant le masque.
+ * Plusieurs identifiants sont verrouillés dans l'ordre croissant des verrous, ce qui
+ * exclut tout interblocage entre deux écritures multi-produits.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.1
+ */
+public final class StripedLocks {
+
+    /** Nombre de verrous par défaut. */
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReentrantLock[] locks;
+
+    /**
+     * Construit {@value #DEFAULT_STRIPES} verrous.
+     */
+    public StripedLocks() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Construit un nombre de verrous donné, arrondi à la puissance de deux supérieure.
+     *
+     * @param stripeCount nombre de verrous souhaité (strictement positif)
+     * @throws IllegalArgumentException si le nombre de verrous est invalide
+     */
+    public StripedLocks(int stripeCount) {
+        if (stripeCount <= 0 || stripeCount > 1 << 30) {
+            throw new IllegalArgumentException("stripeCount must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Verrouille le verrou d'un identifiant.
+     *
+     * @param productId identifiant du produit
+     * @return le verrou pris, à libérer par l'appelant
+     */
+    public ReentrantLock lock(String productId) {
+        ReentrantLock lock = locks[stripe(productId)];
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Verrouille les verrous de plusieurs identifiants, dans l'ordre croissant.
+     *
+     * @param productIds identifiants des produits
+     * @return les verrous pris, à passer à {@link #unlockAll(boolean[])}
+     */
+    public boolean[] lockAll(List<String> productIds) {
+        boolean[] held = new boolean[locks.length];
+        for (String productId : productIds) {
+            held[stripe(productId)] = true;
+        }
+        for (int i = 0; i < locks.length; i++) {
+            if (held[i]) {
+                locks[i].lock();
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Libère les verrous pris par {@link #lockAll(List)}.
+     *
+     * @param held verrous pris
+     */
+    public void unlockAll(boolean[] held) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            if (held[i]) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * @return nombre de verrous
+     */
+    public int size() {
+        return locks.length;
+    }
+
+    private int stripe(String productId) {
+        int h = productId.hashCode();
+        return (h ^ (h >>> 16)) & (locks.length - 1);
+    }
+}
@@ -0,0 +1,370 @@
+package infrastructure.cache;
+
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.Product;
+import infrastructure.ForwardingProductRepository;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Décorateur de {@link ProductRepository} qui met en cache les lectures par identifiant.
+ * <p>
+ * Le cache est découpé en segments indépendants, choisis par hachage de l'identifiant :
+ * chacun a son verrou, sa capacité et son estimateur de fréquence, si bien que deux
+ * lectures de produits différents ne se disputent en général pas le même verrou (les
+ * tables en ordre d'accès étant modifiées à chaque lecture, un verrou unique sérialiserait
+ * toutes les lectures). Chaque segment suit une politique W-TinyLFU simplifiée :
+ * </p>
+ * <ul>
+ *     <li>une petite fenêtre LRU (1 % de la capacité) accueille les nouvelles entrées ;</li>
+ *     <li>l'entrée qui sort de la fenêtre n'entre dans la zone principale (LRU) que si sa
+ *     fréquence d'accès estimée ({@link FrequencySketch}) dépasse celle de l'entrée que la
+ *     zone principale évincerait : un balayage ponctuel ne chasse pas les produits populaires.</li>
+ * </ul>
+ * <p>
+ * {@code findById}, {@code findVersionedById} et {@code existsById} sont servis par le cache,
+ * y compris les absences (un identifiant inconnu n'interroge le dépôt qu'une fois). Le cache
+ * conserve le produit avec sa version : les ventes, qui lisent par
+ * {@code findVersionedById}, en profitent aussi. Les écritures ({@code save}, {@code saveAll},
+ * {@code deleteById}, {@code compareAndSaveAll}) sont transmises puis invalident les entrées
+ * concernées ; un compare-and-set refusé invalide aussi les produits attendus, pour que la
+ * nouvelle tentative relise le dépôt.
+ * </p>
+ * <p>
+ * Une lecture manquée dépose un jeton pour son identifiant avant d'interroger le dépôt ;
+ * une écriture du même identifiant retire ce jeton, et la valeur lue n'est insérée que si
+ * le jeton est toujours en place. Une écriture n'écarte donc que les lectures en cours du
+ * produit écrit, jamais celles des autres produits. Les requêtes de liste ne sont pas mises
+ * en cache.
+ * </p>
+ * <p>
+ * Les compteurs de succès, d'échecs et d'évictions permettent de dimensionner le cache.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public class CachingProductRepository extends ForwardingProductRepository {
+
+    /** Marqueur d'absence mis en cache. */
+    private static final Object ABSENT = new Object();
+    /** Capacité minimale d'un segment, pour que la politique d'admission reste pertinente. */
+    private static final int MIN_SEGMENT_SIZE = 64;
+
+    private final int maximumSize;
+    private final Segment[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param delegate dépôt décoré
+     * @param maximumSize nombre maximal d'entrées en cache (strictement positif)
+     * @throws IllegalArgumentException si la taille est invalide
+     */
+    public CachingProductRepository(ProductRepository delegate, int maximumSize) {
+        super(delegate);
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be greater than zero");
+        }
+        this.maximumSize = maximumSize;
+        int wanted = Math.min(4 * Runtime.getRuntime().availableProcessors(), Math.max(1, maximumSize / MIN_SEGMENT_SIZE));
+        int count = Integer.highestOneBit(Math.max(1, wanted));
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Recherche un produit, d'abord dans le cache puis dans le dépôt décoré.
+     *
+     * @param productId identifiant du produit
+     * @return le produit correspondant, ou null si absent
+     */
+    @Override
+    public Product findById(String productId) {
+        VersionedProduct found = findVersionedById(productId);
+        return found == null ? null : found.getProduct();
+    }
+
+    /**
+     * Recherche un produit avec sa version, d'abord dans le cache puis dans le dépôt décoré.
+     *
+     * @param productId identifiant du produit
+     * @return le produit et sa version, ou null si absent
+     */
+    @Override
+    public VersionedProduct findVersionedById(String productId) {
+        Object value = get(productId);
+        return value == ABSENT ? null : (VersionedProduct) value;
+    }
+
+    /**
+     * Vérifie l'existence d'un produit ; les réponses négatives sont aussi mises en cache.
+     *
+     * @param productId identifiant du produit
+     * @return true si le produit existe, false sinon
+     */
+    @Override
+    public boolean existsById(String productId) {
+        return get(productId) != ABSENT;
+    }
+
+    /**
+     * Enregistre un produit puis invalide son entrée.
+     *
+     * @param product produit à sauvegarder
+     */
+    @Override
+    public void save(Product product) {
+        try {
+            delegate().save(product);
+        } finally {
+            invalidate(product.getProductId());
+        }
+    }
+
+    /**
+     * Enregistre un lot de produits puis invalide leurs entrées.
+     *
+     * @param products produits à sauvegarder
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        try {
+            delegate().saveAll(products);
+        } finally {
+            for (Product product : products) {
+                invalidate(product.getProductId());
+            }
+        }
+    }
+
+    /**
+     * Supprime un produit puis invalide son entrée.
+     *
+     * @param productId identifiant du produit à supprimer
+     */
+    @Override
+    public void deleteById(String productId) {
+        try {
+            delegate().deleteById(productId);
+        } finally {
+            invalidate(productId);
+        }
+    }
+
+    /**
+     * Transmet le compare-and-set puis invalide les produits écrits ou, en cas de conflit,
+     * les produits attendus (dont la version en cache était peut-être périmée).
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs
+     * @return true si les mises à jour ont été appliquées
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        boolean applied = false;
+        try {
+            applied = delegate().compareAndSaveAll(expected, replacements);
+            return applied;
+        } finally {
+            if (applied) {
+                for (Product replacement : replacements) {
+                    invalidate(replacement.getProductId());
+                }
+            } else {
+                for (VersionedProduct entry : expected) {
+                    invalidate(entry.getProduct().getProductId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Vide le cache (les compteurs sont conservés) et écarte les lectures en cours.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                segment.window.clear();
+                segment.main.clear();
+                segment.pending.clear();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return proportion de lectures servies par le cache (0 si aucune lecture)
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return nombre d'entrées actuellement en cache
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.window.size() + segment.main.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Retourne l'entrée en cache ou la charge depuis le dépôt décoré.
+     *
+     * @return la version du produit, ou {@link #ABSENT}
+     */
+    private Object get(String productId) {
+        Segment segment = segmentFor(productId);
+        Object token;
+        segment.lock.lock();
+        try {
+            segment.sketch.increment(productId);
+            Object value = segment.window.get(productId);
+            if (value == null) {
+                value = segment.main.get(productId);
+            }
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+            token = segment.pending.computeIfAbsent(productId, key -> new Object());
+        } finally {
+            segment.lock.unlock();
+        }
+        misses.increment();
+        Object loaded = null;
+        try {
+            VersionedProduct found = delegate().findVersionedById(productId);
+            loaded = found == null ? ABSENT : found;
+            return loaded;
+        } finally {
+            segment.lock.lock();
+            try {
+                // jeton retiré : le produit a été écrit pendant la lecture
+                if (segment.pending.remove(productId, token) && loaded != null) {
+                    segment.store(productId, loaded);
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Invalide l'entrée d'un produit après une écriture, ainsi que les lectures en cours.
+     */
+    private void invalidate(String productId) {
+        Segment segment = segmentFor(productId);
+        segment.lock.lock();
+        try {
+            segment.window.remove(productId);
+            segment.main.remove(productId);
+            segment.pending.remove(productId);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Segment segmentFor(String productId) {
+        int hash = productId.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Segment du cache : fenêtre, zone principale, estimateur et lectures en cours, protégés
+     * par un même verrou.
+     */
+    private final class Segment {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Object> window = new LinkedHashMap<>(16, 0.75f, true);
+        final LinkedHashMap<String, Object> main = new LinkedHashMap<>(16, 0.75f, true);
+        final Map<String, Object> pending = new HashMap<>();
+        final FrequencySketch sketch;
+        final int capacity;
+        final int windowSize;
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.windowSize = Math.max(1, capacity / 100);
+            this.sketch = new FrequencySketch(capacity);
+        }
+
+        /**
+         * Insère une valeur lue dans le dépôt. L'appelant détient le verrou du segment.
+         */
+        void store(String productId, Object value) {
+            if (window.containsKey(productId) || main.containsKey(productId)) {
+                return;
+            }
+            window.put(productId, value);
+            if (window.size() > windowSize) {
+                Iterator<Map.Entry<String, Object>> eldest = window.entrySet().iterator();
+                Map.Entry<String, Object> candidate = eldest.next();
+                eldest.remove();
+                admit(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        /**
+         * Fait passer une entrée sortant de la fenêtre dans la zone principale si elle est
+         * plus fréquente que la victime désignée par la zone principale (admission TinyLFU).
+         */
+        private void admit(String key, Object value) {
+            if (main.size() < capacity - windowSize) {
+                main.put(key, value);
+                return;
+            }
+            Iterator<Map.Entry<String, Object>> eldest = main.entrySet().iterator();
+            if (!eldest.hasNext()) {
+                evictions.increment();
+                return;
+            }
+            Map.Entry<String, Object> victim = eldest.next();
+            if (sketch.frequency(key) > sketch.frequency(victim.getKey())) {
+                eldest.remove();
+                main.put(key, value);
+            }
+            evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package infrastructure.cache;
+
+/**
+ * Estimateur de fréquence d'accès compact (count-min sketch à compteurs de 4 bits).
+ * <p>
+ * Chaque clé incrémente un compteur dans chacune des quatre lignes de la table ; la
+ * fréquence estimée est le minimum de ces compteurs (surestimation possible, jamais de
+ * sous-estimation). Les compteurs sont plafonnés à 15 et divisés par deux après un
+ * nombre d'incréments proportionnel à la taille du cache, ce qui fait oublier
+ * progressivement les anciennes popularités.
+ * </p>
+ * <p>
+ * Classe non thread-safe : l'appelant doit sérialiser les accès.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param maximumSize taille maximale du cache suivi
+     */
+    FrequencySketch(int maximumSize) {
+        int counters = Integer.highestOneBit(Math.max(16, maximumSize) * 2 - 1) << 1;
+        this.table = new long[Math.max(1, counters / 16) * SEEDS.length];
+        this.mask = table.length / SEEDS.length - 1;
+        this.sampleSize = 10 * Math.max(16, maximumSize);
+    }
+
+    /**
+     * Enregistre un accès à la clé.
+     *
+     * @param key clé accédée
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < SEEDS.length; row++) {
+            added |= incrementAt(row, hash);
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Retourne la fréquence estimée d'une clé (0 à 15).
+     *
+     * @param key clé
+     * @return fréquence estimée
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < SEEDS.length; row++) {
+            int index = indexOf(row, hash);
+            int shift = counterShift(row, hash);
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xF));
+        }
+        return frequency;
+    }
+
+    private boolean incrementAt(int row, int hash) {
+        int index = indexOf(row, hash);
+        int shift = counterShift(row, hash);
+        long counter = (table[index] >>> shift) & 0xF;
+        if (counter == 0xF) {
+            return false;
+        }
+        table[index] += 1L << shift;
+        return true;
+    }
+
+    /**
+     * Divise tous les compteurs par deux.
+     */
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int indexOf(int row, int hash) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return row * (mask + 1) + ((int) (h >>> 32) & mask);
+    }
+
+    private int counterShift(int row, int hash) {
+        long h = (hash ^ SEEDS[row]) * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 60) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xED5AD4BB;
+        hash ^= hash >>> 11;
+        return hash;
+    }
+}
@@ -0,0 +1,70 @@
+package infrastructure.events;
+
+import domain.product.Product;
+
+/**
+ * Modification du dépôt publiée sur le {@link ChangeEventBus}.
+ * <p>
+ * Les événements sont des cases préallouées de l'anneau, réutilisées à chaque tour :
+ * un consommateur ne doit pas conserver l'instance après
+ * {@link ChangeEventHandler#onEvent(ChangeEvent, boolean)}, mais en copier les valeurs
+ * (le produit, immuable, peut être conservé).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class ChangeEvent {
+
+    /**
+     * Nature de la modification.
+     */
+    public enum Type {
+        /** Création ou remplacement d'un produit. */
+        SAVE,
+        /** Suppression d'un produit. */
+        DELETE
+    }
+
+    private Type type;
+    private String productId;
+    private Product product;
+    private long sequence;
+
+    ChangeEvent() {
+    }
+
+    void set(Type type, String productId, Product product, long sequence) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    /**
+     * @return le produit enregistré, ou null pour une suppression
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    /**
+     * @return numéro de séquence de l'événement (croissant, à partir de 0)
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + productId;
+    }
+}
@@ -0,0 +1,222 @@
+package infrastructure.events;
+
+import domain.product.Product;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bus de capture des modifications du dépôt (enregistrements et suppressions), sur le
+ * modèle d'un anneau à la Disruptor : un producteur, plusieurs consommateurs.
+ * <p>
+ * Les événements sont des cases préallouées d'un anneau de taille puissance de deux :
+ * publier ne crée aucun objet, remplit la case suivante puis avance le curseur (une écriture
+ * volatile). Chaque consommateur ({@link Subscription}) a son propre thread et sa propre
+ * séquence ; il traite par lots tout ce qui a été publié depuis son dernier passage. Le
+ * producteur ne relit les séquences des consommateurs que lorsqu'il risque de rattraper le
+ * plus lent d'entre eux ; il attend alors que la case se libère (contre-pression : aucun
+ * événement n'est perdu, mais un consommateur bloqué finit par bloquer les écritures).
+ * </p>
+ * <p>
+ * Un seul thread à la fois doit publier : les dépôts concurrents publient au travers de
+ * {@link PublishingProductRepository}, qui sérialise les publications.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class ChangeEventBus implements AutoCloseable {
+
+    /** Taille par défaut de l'anneau. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 14;
+
+    private final ChangeEvent[] entries;
+    private final int mask;
+    private final WaitStrategy waitStrategy;
+    private final Sequence cursor = new Sequence(-1L);
+    private volatile Subscription[] subscriptions = new Subscription[0];
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private final AtomicInteger blockedConsumers = new AtomicInteger();
+
+    // état du producteur unique
+    private long nextSequence = -1L;
+    private long cachedGatingSequence = -1L;
+
+    /**
+     * Construit un bus de {@value #DEFAULT_BUFFER_SIZE} cases avec attente bloquante.
+     */
+    public ChangeEventBus() {
+        this(DEFAULT_BUFFER_SIZE, WaitStrategy.BLOCKING);
+    }
+
+    /**
+     * @param bufferSize nombre de cases de l'anneau (puissance de deux)
+     * @param waitStrategy attente des consommateurs
+     * @throws IllegalArgumentException si la taille n'est pas une puissance de deux ou la stratégie est null
+     */
+    public ChangeEventBus(int bufferSize, WaitStrategy waitStrategy) {
+        if (bufferSize <= 0 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two");
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("waitStrategy cannot be null");
+        }
+        this.entries = new ChangeEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = new ChangeEvent();
+        }
+        this.mask = bufferSize - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * Publie l'enregistrement d'un produit (producteur unique).
+     *
+     * @param product produit enregistré
+     */
+    public void publishSave(Product product) {
+        publish(ChangeEvent.Type.SAVE, product.getProductId(), product);
+    }
+
+    /**
+     * Publie la suppression d'un produit (producteur unique).
+     *
+     * @param productId identifiant du produit supprimé
+     */
+    public void publishDelete(String productId) {
+        publish(ChangeEvent.Type.DELETE, productId, null);
+    }
+
+    /**
+     * Abonne un consommateur : il recevra tous les événements publiés à partir de maintenant,
+     * sur un thread dédié nommé {@code cdc-<nom>}.
+     *
+     * @param name nom du consommateur (diagnostic)
+     * @param handler traitement des événements
+     * @return l'abonnement, à fermer pour arrêter le consommateur
+     * @throws IllegalArgumentException si un paramètre est null
+     */
+    public Subscription subscribe(String name, ChangeEventHandler handler) {
+        if (name == null || handler == null) {
+            throw new IllegalArgumentException("name and handler cannot be null");
+        }
+        Subscription subscription = new Subscription(this, name, handler, cursor());
+        synchronized (this) {
+            Subscription[] current = subscriptions;
+            Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+            subscriptions = updated;
+        }
+        // le producteur a pu avancer avant de voir le nouvel abonné : on repart du curseur
+        subscription.startAt(cursor());
+        return subscription;
+    }
+
+    /**
+     * @return dernière séquence publiée (-1 si aucune)
+     */
+    public long getPublishedSequence() {
+        return cursor();
+    }
+
+    /**
+     * @return taille de l'anneau
+     */
+    public int getBufferSize() {
+        return entries.length;
+    }
+
+    /**
+     * Ferme tous les abonnements, après traitement des événements déjà publiés.
+     */
+    @Override
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    private void publish(ChangeEvent.Type type, String productId, Product product) {
+        long next = nextSequence + 1;
+        long wrapPoint = next - entries.length;
+        if (wrapPoint > cachedGatingSequence) {
+            long minimum;
+            while (wrapPoint > (minimum = minimumSequence(nextSequence))) {
+                LockSupport.parkNanos(1L);
+            }
+            cachedGatingSequence = minimum;
+        }
+        entries[(int) next & mask].set(type, productId, product, next);
+        nextSequence = next;
+        cursor.set(next);
+        if (blockedConsumers.get() > 0) {
+            signalAll();
+        }
+    }
+
+    private long minimumSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (Subscription subscription : subscriptions) {
+            minimum = Math.min(minimum, subscription.sequence());
+        }
+        return minimum;
+    }
+
+    long cursor() {
+        return cursor.get();
+    }
+
+    ChangeEvent entry(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Attente bloquante ({@link WaitStrategy#BLOCKING}). Le consommateur se déclare avant de
+     * relire le curseur, le producteur relit le compteur après avoir avancé le curseur :
+     * l'un des deux voit toujours l'autre, aucun réveil n'est perdu. L'attente est de plus
+     * bornée pour observer la fermeture de l'abonnement.
+     */
+    long awaitPublication(long sequence, Subscription subscription) {
+        long available = cursor();
+        if (available >= sequence) {
+            return available;
+        }
+        blockedConsumers.incrementAndGet();
+        lock.lock();
+        try {
+            while ((available = cursor()) < sequence && !subscription.isClosing()) {
+                published.await(1, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+            blockedConsumers.decrementAndGet();
+        }
+        return available;
+    }
+
+    void signalAll() {
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    synchronized void remove(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        subscriptions = Arrays.stream(current).filter(s -> s != subscription).toArray(Subscription[]::new);
+    }
+}
@@ -0,0 +1,25 @@
+package infrastructure.events;
+
+/**
+ * Consommateur des modifications publiées sur un {@link ChangeEventBus}.
+ * <p>
+ * Chaque consommateur reçoit tous les événements, dans l'ordre de publication, sur son
+ * propre thread. Les événements sont livrés par lots : {@code endOfBatch} signale le dernier
+ * événement disponible, moment propice pour appliquer un travail regroupé (écriture, envoi).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+@FunctionalInterface
+public interface ChangeEventHandler {
+
+    /**
+     * Traite un événement. Une exception est comptée
+     * ({@link Subscription#getErrorCount()}) sans interrompre la consommation.
+     *
+     * @param event événement (case de l'anneau, à ne pas conserver)
+     * @param endOfBatch true pour le dernier événement du lot en cours
+     */
+    void onEvent(ChangeEvent event, boolean endOfBatch);
+}
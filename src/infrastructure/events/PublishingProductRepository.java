@@ -0,0 +1,136 @@
+package infrastructure.events;
+
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.Product;
+import infrastructure.ForwardingProductRepository;
+import infrastructure.StripedLocks;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Décorateur qui publie chaque écriture réussie du dépôt décoré sur un {@link ChangeEventBus}
+ * (un événement {@code SAVE} par produit enregistré, {@code DELETE} par suppression).
+ * <p>
+ * Les écritures d'un même produit sont sérialisées avec leur publication
+ * ({@link StripedLocks}), si bien que les consommateurs voient les versions d'un produit
+ * dans l'ordre où elles ont été écrites. Les publications elles-mêmes sont sérialisées
+ * par un verrou court, le bus n'acceptant qu'un producteur à la fois.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.1
+ */
+public class PublishingProductRepository extends ForwardingProductRepository {
+
+    private final ChangeEventBus bus;
+    private final StripedLocks locks = new StripedLocks();
+    private final ReentrantLock producer = new ReentrantLock();
+
+    /**
+     * @param delegate dépôt décoré
+     * @param bus bus recevant les modifications
+     * @throws IllegalArgumentException si un paramètre est null
+     */
+    public PublishingProductRepository(ProductRepository delegate, ChangeEventBus bus) {
+        super(delegate);
+        if (bus == null) {
+            throw new IllegalArgumentException("bus cannot be null");
+        }
+        this.bus = bus;
+    }
+
+    /**
+     * Enregistre un produit puis publie l'événement correspondant.
+     *
+     * @param product produit à enregistrer
+     */
+    @Override
+    public void save(Product product) {
+        ReentrantLock lock = locks.lock(product.getProductId());
+        try {
+            delegate().save(product);
+            producer.lock();
+            try {
+                bus.publishSave(product);
+            } finally {
+                producer.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enregistre un lot de produits puis publie un événement par produit, dans l'ordre du lot.
+     *
+     * @param products produits à enregistrer
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        boolean[] held = locks.lockAll(products.stream().map(Product::getProductId).toList());
+        try {
+            delegate().saveAll(products);
+            producer.lock();
+            try {
+                for (Product product : products) {
+                    bus.publishSave(product);
+                }
+            } finally {
+                producer.unlock();
+            }
+        } finally {
+            locks.unlockAll(held);
+        }
+    }
+
+    /**
+     * Supprime un produit puis publie l'événement correspondant.
+     *
+     * @param productId identifiant du produit à supprimer
+     */
+    @Override
+    public void deleteById(String productId) {
+        ReentrantLock lock = locks.lock(productId);
+        try {
+            delegate().deleteById(productId);
+            producer.lock();
+            try {
+                bus.publishDelete(productId);
+            } finally {
+                producer.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Transmet le compare-and-set puis, s'il est appliqué, publie un événement par produit écrit.
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs
+     * @return true si les mises à jour ont été appliquées
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        boolean[] held = locks.lockAll(replacements.stream().map(Product::getProductId).toList());
+        try {
+            if (!delegate().compareAndSaveAll(expected, replacements)) {
+                return false;
+            }
+            producer.lock();
+            try {
+                for (Product replacement : replacements) {
+                    bus.publishSave(replacement);
+                }
+            } finally {
+                producer.unlock();
+            }
+            return true;
+        } finally {
+            locks.unlockAll(held);
+        }
+    }
+}
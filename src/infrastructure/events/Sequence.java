@@ -0,0 +1,41 @@
+package infrastructure.events;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compteur de séquence isolé sur sa propre ligne de cache : la valeur occupe le milieu
+ * d'un tableau de 15 {@code long}, les cases voisines servent de remplissage, ce qui évite
+ * le faux partage entre le curseur du producteur et les séquences des consommateurs.
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+final class Sequence {
+
+    private static final int VALUE = 7;
+
+    private final AtomicLongArray cells = new AtomicLongArray(2 * VALUE + 1);
+
+    Sequence(long initialValue) {
+        cells.set(VALUE, initialValue);
+    }
+
+    long get() {
+        return cells.get(VALUE);
+    }
+
+    /**
+     * Écriture volatile, ordonnée avec les lectures volatiles qui la suivent.
+     */
+    void set(long value) {
+        cells.set(VALUE, value);
+    }
+
+    /**
+     * Écriture de publication, moins coûteuse : suffit quand seul l'ordre des écritures
+     * précédentes compte.
+     */
+    void setRelease(long value) {
+        cells.setRelease(VALUE, value);
+    }
+}
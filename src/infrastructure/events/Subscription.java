@@ -0,0 +1,127 @@
+package infrastructure.events;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Abonnement d'un consommateur à un {@link ChangeEventBus} : thread dédié, séquence du
+ * dernier événement traité et compteurs (événements, lots, erreurs).
+ * <p>
+ * Le thread attend selon la {@link WaitStrategy} du bus, puis traite d'un coup tous les
+ * événements publiés depuis son dernier passage et n'avance sa séquence qu'une fois par lot :
+ * plus le consommateur prend de retard, plus ses lots grossissent et moins il coûte par
+ * événement.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class Subscription implements AutoCloseable {
+
+    private final ChangeEventBus bus;
+    private final String name;
+    private final ChangeEventHandler handler;
+    private final Sequence sequence;
+    private final Thread thread;
+    private final LongAdder events = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile long closeAt = Long.MAX_VALUE;
+    private volatile boolean closing;
+
+    Subscription(ChangeEventBus bus, String name, ChangeEventHandler handler, long startSequence) {
+        this.bus = bus;
+        this.name = name;
+        this.handler = handler;
+        this.sequence = new Sequence(startSequence);
+        this.thread = new Thread(this::run, "cdc-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Fixe le point de départ puis démarre le thread consommateur.
+     */
+    void startAt(long startSequence) {
+        sequence.set(startSequence);
+        thread.start();
+    }
+
+    private void run() {
+        long next = sequence.get() + 1;
+        while (!(closing && next > closeAt)) {
+            long available = bus.waitStrategy().waitFor(next, bus, this);
+            if (available < next) {
+                continue;
+            }
+            for (long s = next; s <= available; s++) {
+                try {
+                    handler.onEvent(bus.entry(s), s == available);
+                } catch (RuntimeException e) {
+                    errors.increment();
+                }
+            }
+            events.add(available - next + 1);
+            batches.increment();
+            sequence.setRelease(available);
+            next = available + 1;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return séquence du dernier événement traité
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * @return nombre d'événements publiés mais pas encore traités
+     */
+    public long getLag() {
+        return Math.max(0L, bus.cursor() - sequence.get());
+    }
+
+    public long getEventCount() {
+        return events.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * Arrête le consommateur après traitement des événements déjà publiés, puis le retire
+     * du bus.
+     */
+    @Override
+    public void close() {
+        if (!closing) {
+            closeAt = bus.cursor();
+            closing = true;
+            bus.signalAll();
+        }
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        bus.remove(this);
+    }
+
+    long sequence() {
+        return sequence.get();
+    }
+
+    boolean isClosing() {
+        return closing;
+    }
+}
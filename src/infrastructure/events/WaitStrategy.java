@@ -0,0 +1,92 @@
+package infrastructure.events;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Façon dont un consommateur attend les événements qui ne sont pas encore publiés.
+ * <p>
+ * Arbitrage entre latence et consommation de CPU :
+ * </p>
+ * <ul>
+ *     <li>{@link #BUSY_SPIN} : boucle active, latence minimale, occupe un cœur par consommateur
+ *     (à réserver aux machines qui ont des cœurs à y consacrer) ;</li>
+ *     <li>{@link #YIELDING} : boucle courte puis cède le processeur ;</li>
+ *     <li>{@link #SLEEPING} : boucle, cède, puis dort brièvement (quelques dizaines de
+ *     microsecondes de latence, quasiment pas de CPU à vide) ;</li>
+ *     <li>{@link #BLOCKING} : attente sur une condition réveillée par le producteur, qui ne
+ *     paie le réveil que lorsqu'un consommateur attend effectivement.</li>
+ * </ul>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public enum WaitStrategy {
+
+    BUSY_SPIN {
+        @Override
+        long waitFor(long sequence, ChangeEventBus bus, Subscription subscription) {
+            long available;
+            while ((available = bus.cursor()) < sequence && !subscription.isClosing()) {
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+    },
+
+    YIELDING {
+        @Override
+        long waitFor(long sequence, ChangeEventBus bus, Subscription subscription) {
+            long available;
+            int spins = SPIN_TRIES;
+            while ((available = bus.cursor()) < sequence && !subscription.isClosing()) {
+                if (spins > 0) {
+                    spins--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+    },
+
+    SLEEPING {
+        @Override
+        long waitFor(long sequence, ChangeEventBus bus, Subscription subscription) {
+            long available;
+            int tries = 2 * SPIN_TRIES;
+            while ((available = bus.cursor()) < sequence && !subscription.isClosing()) {
+                if (tries > SPIN_TRIES) {
+                    tries--;
+                    Thread.onSpinWait();
+                } else if (tries > 0) {
+                    tries--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            return available;
+        }
+    },
+
+    BLOCKING {
+        @Override
+        long waitFor(long sequence, ChangeEventBus bus, Subscription subscription) {
+            return bus.awaitPublication(sequence, subscription);
+        }
+    };
+
+    private static final int SPIN_TRIES = 100;
+    private static final long SLEEP_NANOS = 50_000L;
+
+    /**
+     * Attend que la séquence demandée soit publiée, ou que l'abonnement se ferme.
+     *
+     * @param sequence séquence attendue
+     * @param bus bus observé
+     * @param subscription abonnement en attente
+     * @return dernière séquence publiée (inférieure à {@code sequence} si l'abonnement se ferme)
+     */
+    abstract long waitFor(long sequence, ChangeEventBus bus, Subscription subscription);
+}
@@ -0,0 +1,114 @@
+package infrastructure.exporter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Écriture séquentielle dans un {@link FileChannel} au travers d'un unique tampon direct
+ * réutilisé : le tampon est vidé dans le canal dès qu'il est plein, la mémoire utilisée
+ * ne dépend donc pas du volume écrit. Le texte est encodé en UTF-8 directement dans le
+ * tampon, sans tableau d'octets intermédiaire.
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+final class ChannelWriter {
+
+    /** Longueur maximale, en octets UTF-8, d'une chaîne binaire (longueur sur 2 octets). */
+    static final int MAX_STRING_BYTES = 0xFFFF;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private long written;
+
+    /**
+     * @param channel canal de destination, positionné là où l'écriture commence
+     * @param bufferBytes taille du tampon direct
+     */
+    ChannelWriter(FileChannel channel, int bufferBytes) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /**
+     * Encode du texte en UTF-8.
+     */
+    void writeText(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else {
+                break;
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            flush();
+        }
+    }
+
+    void writeByte(int value) throws IOException {
+        ensure(Byte.BYTES);
+        buffer.put((byte) value);
+    }
+
+    void writeInt(int value) throws IOException {
+        ensure(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    void writeLong(long value) throws IOException {
+        ensure(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    /**
+     * Écrit une chaîne binaire : longueur en octets (2 octets non signés) puis UTF-8.
+     *
+     * @throws IllegalArgumentException si la chaîne dépasse {@value #MAX_STRING_BYTES} octets
+     */
+    void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String too long for binary export: " + bytes.length + " bytes");
+        }
+        ensure(Short.BYTES + bytes.length);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    /**
+     * @return nombre d'octets transmis au canal ou en attente dans le tampon
+     */
+    long position() {
+        return written + buffer.position();
+    }
+
+    /**
+     * Vide le tampon dans le canal.
+     */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
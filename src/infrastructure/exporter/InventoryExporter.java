@@ -0,0 +1,480 @@
+package infrastructure.exporter;
+
+import application.ports.ProductRepository;
+import domain.catalog.Brand;
+import domain.catalog.ProductLine;
+import domain.money.Money;
+import domain.product.ContainerProduct;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Export de l'inventaire complet vers un fichier, en CSV ou dans un format binaire compact,
+ * et écriture du rapport de valorisation du stock ({@link StockValuation}).
+ * <p>
+ * Les produits sont lus un par un via {@link ProductRepository#forEach} et encodés
+ * directement dans un tampon direct vidé dans un {@link FileChannel} : la mémoire utilisée
+ * est constante quelle que soit la taille du catalogue (seuls les dictionnaires de
+ * marques et de gammes du format binaire grandissent, avec le nombre de marques et de gammes).
+ * Chaque export est écrit dans un fichier temporaire, synchronisé sur disque puis
+ * renommé atomiquement : un lecteur ne voit jamais de fichier partiel.
+ * </p>
+ * <p>
+ * Le CSV reprend le format de l'import ({@code id;name;price;stock;brandId;brandName;lineId;lineName},
+ * prix en euros avec deux décimales) ; un conteneur y est exporté comme une ligne simple,
+ * sans son contenu. Le format binaire conserve les conteneurs :
+ * </p>
+ * <pre>
+ * en-tête  : magic (int), version (int), nombre de produits (long)
+ * MARQUE   : 1, identifiant, nom                               (référence = rang de définition)
+ * GAMME    : 2, identifiant, nom, référence de marque (int)
+ * PRODUIT  : 3 (simple) ou 4 (conteneur), identifiant, nom, prix en centimes (long), stock (int),
+ *            référence de marque (int), référence de gamme (int)
+ *            [conteneur : quantité contenue (int), puis le produit contenu encodé de la même façon]
+ * FIN      : 0
+ * </pre>
+ * <p>
+ * Chaque marque et chaque gamme n'est écrite qu'une fois, avant le premier produit qui y fait
+ * référence. Les chaînes sont codées par leur longueur en octets (2 octets) suivie de l'UTF-8.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class InventoryExporter {
+
+    /** Taille par défaut du tampon d'écriture. */
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+
+    /** Taille minimale du tampon : une chaîne binaire de longueur maximale doit y tenir. */
+    public static final int MIN_BUFFER_BYTES = 1 << 17;
+
+    /** En-tête CSV, identique au format attendu par l'import. */
+    public static final String CSV_HEADER = "id;name;price;stock;brandId;brandName;lineId;lineName";
+
+    private static final char DELIMITER = ';';
+    private static final int MAGIC = 0x494E5658;
+    private static final int FORMAT_VERSION = 1;
+    private static final int COUNT_OFFSET = 2 * Integer.BYTES;
+    private static final byte END = 0;
+    private static final byte BRAND = 1;
+    private static final byte LINE = 2;
+    private static final byte SIMPLE = 3;
+    private static final byte CONTAINER = 4;
+
+    private final ProductRepository repository;
+    private final int bufferBytes;
+
+    /**
+     * Construit un exporteur utilisant un tampon de 1 Mo.
+     *
+     * @param repository dépôt à exporter
+     */
+    public InventoryExporter(ProductRepository repository) {
+        this(repository, DEFAULT_BUFFER_BYTES);
+    }
+
+    /**
+     * @param repository dépôt à exporter
+     * @param bufferBytes taille du tampon direct d'écriture (au moins {@value #MIN_BUFFER_BYTES})
+     * @throws IllegalArgumentException si le dépôt est null ou le tampon trop petit
+     */
+    public InventoryExporter(ProductRepository repository, int bufferBytes) {
+        if (repository == null) {
+            throw new IllegalArgumentException("repository cannot be null");
+        }
+        if (bufferBytes < MIN_BUFFER_BYTES) {
+            throw new IllegalArgumentException("bufferBytes must be at least " + MIN_BUFFER_BYTES);
+        }
+        this.repository = repository;
+        this.bufferBytes = bufferBytes;
+    }
+
+    /**
+     * Exporte l'inventaire au format CSV (UTF-8, séparateur point-virgule, avec en-tête).
+     *
+     * @param file fichier de destination (remplacé s'il existe)
+     * @return nombre de produits exportés
+     * @throws UncheckedIOException si le fichier ne peut pas être écrit
+     */
+    public long exportCsv(Path file) {
+        return write(file, out -> {
+            StringBuilder line = new StringBuilder(128);
+            out.writeText(line.append(CSV_HEADER).append('\n'));
+            long[] count = new long[1];
+            forEachProduct(product -> {
+                line.setLength(0);
+                appendField(line, product.getProductId()).append(DELIMITER);
+                appendField(line, product.getName()).append(DELIMITER);
+                appendDecimal(line, product.getPriceCents()).append(DELIMITER);
+                line.append(product.getStock()).append(DELIMITER);
+                appendField(line, product.getBrand().getBrandId()).append(DELIMITER);
+                appendField(line, product.getBrand().getName()).append(DELIMITER);
+                appendField(line, product.getProductLine().getLineId()).append(DELIMITER);
+                appendField(line, product.getProductLine().getName()).append('\n');
+                out.writeText(line);
+                count[0]++;
+            });
+            return count[0];
+        });
+    }
+
+    /**
+     * Exporte l'inventaire au format binaire compact décrit dans la documentation de la classe.
+     *
+     * @param file fichier de destination (remplacé s'il existe)
+     * @return nombre de produits exportés
+     * @throws UncheckedIOException si le fichier ne peut pas être écrit
+     * @throws IllegalArgumentException si une chaîne dépasse 65 535 octets en UTF-8
+     */
+    public long exportBinary(Path file) {
+        return write(file, out -> {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(0L);
+            Map<String, Integer> brandRefs = new HashMap<>();
+            Map<String, Integer> lineRefs = new HashMap<>();
+            long[] count = new long[1];
+            forEachProduct(product -> {
+                for (Product p = product; p != null; p = contained(p)) {
+                    defineBrand(out, p.getBrand(), brandRefs);
+                    defineLine(out, p.getProductLine(), lineRefs, brandRefs);
+                }
+                writeProduct(out, product, brandRefs, lineRefs);
+                count[0]++;
+            });
+            out.writeByte(END);
+            return count[0];
+        }, true);
+    }
+
+    /**
+     * Calcule la valorisation du stock et l'écrit au format CSV :
+     * {@code level;id;name;products;units;value} pour chaque marque ({@code brand}),
+     * chaque gamme ({@code line}) puis le total ({@code total}), valeurs en euros.
+     *
+     * @param file fichier de destination (remplacé s'il existe)
+     * @return la valorisation écrite
+     * @throws UncheckedIOException si le fichier ne peut pas être écrit
+     * @throws ArithmeticException si une valeur dépasse la capacité d'un {@code long}
+     */
+    public StockValuation exportValuation(Path file) {
+        StockValuation valuation = StockValuation.of(repository);
+        write(file, out -> {
+            StringBuilder line = new StringBuilder(128);
+            out.writeText(line.append("level;id;name;products;units;value\n"));
+            for (StockValuation.Entry entry : valuation.getByBrand()) {
+                writeValuationLine(out, line, "brand", entry);
+            }
+            for (StockValuation.Entry entry : valuation.getByProductLine()) {
+                writeValuationLine(out, line, "line", entry);
+            }
+            writeValuationLine(out, line, "total", valuation.getTotal());
+            return valuation.getTotal().getProductCount();
+        });
+        return valuation;
+    }
+
+    /**
+     * Relit un fichier exporté au format binaire, produit par produit, sans le charger
+     * en mémoire.
+     *
+     * @param file fichier produit par {@link #exportBinary(Path)}
+     * @param consumer reçoit chaque produit exporté (les produits contenus ne sont transmis
+     *                 qu'au travers de leur conteneur)
+     * @return nombre de produits lus
+     * @throws UncheckedIOException si le fichier est illisible, tronqué ou d'un autre format
+     */
+    public static long readBinary(Path file, Consumer<Product> consumer) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ChannelReader in = new ChannelReader(channel, DEFAULT_BUFFER_BYTES);
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Format d'export inconnu");
+            }
+            long expected = in.readLong();
+            List<Brand> brands = new ArrayList<>();
+            List<ProductLine> lines = new ArrayList<>();
+            long count = 0;
+            while (true) {
+                byte tag = in.readByte();
+                switch (tag) {
+                    case END -> {
+                        if (count != expected) {
+                            throw new IOException("Export incomplet : " + count + " produit(s) sur " + expected);
+                        }
+                        return count;
+                    }
+                    case BRAND -> brands.add(new Brand(in.readString(), in.readString()));
+                    case LINE -> {
+                        String id = in.readString();
+                        String name = in.readString();
+                        lines.add(new ProductLine(id, name, ref(brands, in.readInt())));
+                    }
+                    case SIMPLE, CONTAINER -> {
+                        consumer.accept(readProduct(in, tag, brands, lines));
+                        count++;
+                    }
+                    default -> throw new IOException("Enregistrement inconnu : " + tag);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read export " + file, e);
+        }
+    }
+
+    private void forEachProduct(IOConsumer<Product> action) throws IOException {
+        try {
+            repository.forEach(product -> {
+                try {
+                    action.accept(product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private long write(Path file, ExportBody body) {
+        return write(file, body, false);
+    }
+
+    /**
+     * Écrit un export dans un fichier temporaire, complète éventuellement l'en-tête binaire
+     * (nombre de produits, connu à la fin), synchronise puis renomme atomiquement.
+     */
+    private long write(Path file, ExportBody body, boolean countInHeader) {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        boolean published = false;
+        try {
+            long count;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ChannelWriter out = new ChannelWriter(channel, bufferBytes);
+                count = body.write(out);
+                out.flush();
+                if (countInHeader) {
+                    channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, count), COUNT_OFFSET);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            published = true;
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to export to " + file, e);
+        } finally {
+            if (!published) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // l'erreur d'export d'origine est plus utile que celle du nettoyage
+        }
+    }
+
+    private static void defineBrand(ChannelWriter out, Brand brand, Map<String, Integer> brandRefs)
+            throws IOException {
+        if (!brandRefs.containsKey(brand.getBrandId())) {
+            out.writeByte(BRAND);
+            out.writeString(brand.getBrandId());
+            out.writeString(brand.getName());
+            brandRefs.put(brand.getBrandId(), brandRefs.size());
+        }
+    }
+
+    private static void defineLine(ChannelWriter out, ProductLine line, Map<String, Integer> lineRefs,
+                                   Map<String, Integer> brandRefs) throws IOException {
+        if (!lineRefs.containsKey(line.getLineId())) {
+            defineBrand(out, line.getBrand(), brandRefs);
+            out.writeByte(LINE);
+            out.writeString(line.getLineId());
+            out.writeString(line.getName());
+            out.writeInt(brandRefs.get(line.getBrand().getBrandId()));
+            lineRefs.put(line.getLineId(), lineRefs.size());
+        }
+    }
+
+    private static void writeProduct(ChannelWriter out, Product product, Map<String, Integer> brandRefs,
+                                     Map<String, Integer> lineRefs) throws IOException {
+        out.writeByte(product instanceof ContainerProduct ? CONTAINER : SIMPLE);
+        out.writeString(product.getProductId());
+        out.writeString(product.getName());
+        out.writeLong(product.getPriceCents());
+        out.writeInt(product.getStock());
+        out.writeInt(brandRefs.get(product.getBrand().getBrandId()));
+        out.writeInt(lineRefs.get(product.getProductLine().getLineId()));
+        if (product instanceof ContainerProduct cp) {
+            out.writeInt(cp.getContainedQuantity());
+            writeProduct(out, cp.getContainedProduct(), brandRefs, lineRefs);
+        }
+    }
+
+    private static Product readProduct(ChannelReader in, byte tag, List<Brand> brands, List<ProductLine> lines)
+            throws IOException {
+        String id = in.readString();
+        String name = in.readString();
+        double price = Money.toEuros(in.readLong());
+        int stock = in.readInt();
+        Brand brand = ref(brands, in.readInt());
+        ProductLine line = ref(lines, in.readInt());
+        return switch (tag) {
+            case SIMPLE -> new SimpleProduct(id, name, price, stock, brand, line);
+            case CONTAINER -> {
+                int quantity = in.readInt();
+                byte containedTag = in.readByte();
+                if (containedTag != SIMPLE && containedTag != CONTAINER) {
+                    throw new IOException("Produit contenu attendu, enregistrement " + containedTag);
+                }
+                Product contained = readProduct(in, containedTag, brands, lines);
+                yield new ContainerProduct(id, name, price, stock, contained, quantity, brand, line);
+            }
+            default -> throw new IOException("Type de produit inconnu : " + tag);
+        };
+    }
+
+    private static <T> T ref(List<T> dictionary, int index) throws IOException {
+        if (index < 0 || index >= dictionary.size()) {
+            throw new IOException("Référence inconnue : " + index);
+        }
+        return dictionary.get(index);
+    }
+
+    private static Product contained(Product product) {
+        return product instanceof ContainerProduct cp ? cp.getContainedProduct() : null;
+    }
+
+    private static void writeValuationLine(ChannelWriter out, StringBuilder line, String level,
+                                           StockValuation.Entry entry) throws IOException {
+        line.setLength(0);
+        line.append(level).append(DELIMITER);
+        appendField(line, entry.getId()).append(DELIMITER);
+        appendField(line, entry.getName()).append(DELIMITER);
+        line.append(entry.getProductCount()).append(DELIMITER).append(entry.getUnits()).append(DELIMITER);
+        appendDecimal(line, entry.getValueCents()).append('\n');
+        out.writeText(line);
+    }
+
+    /**
+     * Ajoute un champ CSV, entre guillemets s'il contient le séparateur, un guillemet
+     * ou une fin de ligne.
+     */
+    private static StringBuilder appendField(StringBuilder sb, String value) {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == DELIMITER || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return sb.append(value);
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                sb.append('"');
+            }
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Ajoute un montant en euros avec deux décimales ({@code 12.50}), sans symbole.
+     */
+    private static StringBuilder appendDecimal(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+        }
+        long abs = Math.abs(cents);
+        long remainder = abs % Money.CENTS_PER_EURO;
+        sb.append(abs / Money.CENTS_PER_EURO).append('.');
+        if (remainder < 10) {
+            sb.append('0');
+        }
+        return sb.append(remainder);
+    }
+
+    @FunctionalInterface
+    private interface IOConsumer<T> {
+        void accept(T value) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ExportBody {
+        long write(ChannelWriter out) throws IOException;
+    }
+
+    /**
+     * Lecture séquentielle d'un canal au travers d'un tampon direct rechargé à la demande.
+     */
+    private static final class ChannelReader {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        ChannelReader(FileChannel channel, int bufferBytes) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferBytes).flip();
+        }
+
+        byte readByte() throws IOException {
+            require(Byte.BYTES);
+            return buffer.get();
+        }
+
+        int readInt() throws IOException {
+            require(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        long readLong() throws IOException {
+            require(Long.BYTES);
+            return buffer.getLong();
+        }
+
+        String readString() throws IOException {
+            require(Short.BYTES);
+            int length = Short.toUnsignedInt(buffer.getShort());
+            require(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Export tronqué");
+                }
+            }
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package infrastructure.exporter;
+
+import application.ports.ProductRepository;
+import domain.catalog.Brand;
+import domain.catalog.ProductLine;
+import domain.money.Money;
+import domain.product.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Valorisation du stock : somme des prix × quantités en stock, par marque, par gamme
+ * et pour l'ensemble de l'inventaire. Les montants sont calculés en centimes (arithmétique
+ * exacte, voir {@link Money}).
+ * <p>
+ * Le calcul parcourt le dépôt une seule fois via {@link ProductRepository#forEach} :
+ * la mémoire utilisée dépend du nombre de marques et de gammes, pas du nombre de produits.
+ * Sur un dépôt concurrent, la valorisation reflète un parcours faiblement cohérent.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class StockValuation {
+
+    /**
+     * Ligne de valorisation : nombre de produits, unités en stock et valeur en centimes.
+     */
+    public static final class Entry {
+
+        private final String id;
+        private final String name;
+        private long productCount;
+        private long units;
+        private long valueCents;
+
+        Entry(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        void add(Product product) {
+            productCount++;
+            units += product.getStock();
+            valueCents = Math.addExact(valueCents, Money.multiply(product.getPriceCents(), product.getStock()));
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getProductCount() {
+            return productCount;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public long getValueCents() {
+            return valueCents;
+        }
+    }
+
+    private final List<Entry> byBrand;
+    private final List<Entry> byProductLine;
+    private final Entry total;
+
+    private StockValuation(List<Entry> byBrand, List<Entry> byProductLine, Entry total) {
+        this.byBrand = Collections.unmodifiableList(byBrand);
+        this.byProductLine = Collections.unmodifiableList(byProductLine);
+        this.total = total;
+    }
+
+    /**
+     * Calcule la valorisation du stock d'un dépôt.
+     *
+     * @param repository dépôt à valoriser
+     * @return valorisation, marques et gammes triées par identifiant
+     * @throws IllegalArgumentException si le dépôt est null
+     * @throws ArithmeticException si une valeur dépasse la capacité d'un {@code long}
+     */
+    public static StockValuation of(ProductRepository repository) {
+        if (repository == null) {
+            throw new IllegalArgumentException("repository cannot be null");
+        }
+        Map<String, Entry> brands = new TreeMap<>();
+        Map<String, Entry> lines = new TreeMap<>();
+        Entry total = new Entry("*", "Total");
+        repository.forEach(product -> {
+            Brand brand = product.getBrand();
+            ProductLine line = product.getProductLine();
+            brands.computeIfAbsent(brand.getBrandId(), id -> new Entry(id, brand.getName())).add(product);
+            lines.computeIfAbsent(line.getLineId(), id -> new Entry(id, line.getName())).add(product);
+            total.add(product);
+        });
+        return new StockValuation(new ArrayList<>(brands.values()), new ArrayList<>(lines.values()), total);
+    }
+
+    public List<Entry> getByBrand() {
+        return byBrand;
+    }
+
+    public List<Entry> getByProductLine() {
+        return byProductLine;
+    }
+
+    public Entry getTotal() {
+        return total;
+    }
+
+    /**
+     * Formate la valorisation pour l'affichage console.
+     *
+     * @return rapport lisible
+     */
+    public String formatForConsole() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Par marque :").append(System.lineSeparator());
+        byBrand.forEach(entry -> appendLine(sb, entry));
+        sb.append("Par gamme :").append(System.lineSeparator());
+        byProductLine.forEach(entry -> appendLine(sb, entry));
+        appendLine(sb, total);
+        return sb.toString();
+    }
+
+    private static void appendLine(StringBuilder sb, Entry entry) {
+        sb.append(String.format(Locale.ROOT, "  %-24s %8d produit(s) %10d unité(s)  ",
+                entry.getName() + " (" + entry.getId() + ")", entry.getProductCount(), entry.getUnits()));
+        Money.appendTo(sb, entry.getValueCents()).append(System.lineSeparator());
+    }
+}
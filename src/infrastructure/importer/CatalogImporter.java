@@ -0,0 +1,501 @@
+package infrastructure.importer;
+
+import application.AddProductUseCase;
+import domain.catalog.Brand;
+import domain.catalog.Catalog;
+import domain.catalog.ProductLine;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+import infrastructure.ProductIdGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Import en masse d'un catalogue fournisseur au format CSV ou TSV.
+ * <p>
+ * Format attendu, une ligne par produit (en-tête facultatif commençant par {@code id}) :
+ * {@code id;nom;prix;stock;idMarque;nomMarque;idGamme;nomGamme}. Le séparateur (tabulation,
+ * point-virgule ou virgule) est détecté sur la première ligne ; un identifiant vide est
+ * généré par {@link ProductIdGenerator}. Les champs peuvent être entre guillemets
+ * (guillemet doublé pour un guillemet littéral).
+ * </p>
+ * <p>
+ * Limite connue : un champ entre guillemets ne peut pas contenir de saut de ligne. Le
+ * fichier est découpé en lignes (et en blocs) sur chaque {@code \n} sans tenir compte des
+ * guillemets ; un tel enregistrement est donc rejeté en deux lignes (« guillemet non fermé »
+ * pour la première, nombre de colonnes incorrect pour la suite).
+ * </p>
+ * <p>
+ * Le fichier est lu par blocs via un {@link FileChannel} et un tampon direct ; chaque bloc,
+ * coupé au dernier saut de ligne, est analysé en parallèle (décodage, découpage,
+ * validation, construction de produits provisoires). Les blocs analysés sont ensuite
+ * intégrés dans l'ordre du fichier par le thread appelant : c'est lui seul qui enregistre
+ * les marques et gammes dans le {@link Catalog} et génère les identifiants manquants,
+ * uniquement pour les lignes valides, puis transmet les produits à
+ * {@link AddProductUseCase#executeAll(List)} par lots de {@value #BATCH_SIZE}. Chaque lot
+ * est écrit par {@link application.ports.ProductRepository#saveAll(List)}, le chemin
+ * d'écriture en masse du dépôt (index mis à jour en parallèle dans les dépôts en mémoire).
+ * Le nombre de blocs en cours d'analyse est borné, ce qui borne la mémoire quelle que soit
+ * la taille du fichier.
+ * </p>
+ * <p>
+ * Les lignes invalides sont rejetées sans interrompre l'import ; le bilan
+ * ({@link ImportReport}) en détaille les {@value #MAX_REPORTED_REJECTIONS} premières.
+ * Toute exception levée par l'analyse ou l'enregistrement d'une ligne la fait rejeter, avec
+ * son numéro. Un lot refusé par {@link AddProductUseCase#executeAll(List)} pour une donnée
+ * invalide (fusion de stock qui déborde, par exemple) est refusé avant toute écriture : il
+ * est alors repris ligne par ligne pour ne rejeter que les lignes fautives.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public class CatalogImporter {
+
+    /** Nombre maximal de rejets détaillés dans le bilan. */
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+
+    /** Nombre de produits transmis par appel au cas d'usage d'ajout. */
+    public static final int BATCH_SIZE = 4_096;
+
+    /** Taille par défaut d'un bloc lu dans le fichier. */
+    public static final int DEFAULT_CHUNK_BYTES = 4 << 20;
+
+    private static final int COLUMNS = 8;
+
+    /**
+     * Suivi de l'avancement, appelé après l'intégration de chaque bloc.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * @param rowsRead lignes de données lues jusqu'ici
+         * @param bytesRead octets du fichier traités jusqu'ici
+         * @param totalBytes taille du fichier
+         */
+        void onProgress(long rowsRead, long bytesRead, long totalBytes);
+    }
+
+    private final AddProductUseCase addProduct;
+    private final Catalog catalog;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final int chunkBytes;
+
+    /**
+     * Construit un importeur utilisant le pool fork/join commun et des blocs de 4 Mo.
+     *
+     * @param addProduct cas d'usage d'ajout recevant les produits
+     * @param catalog catalogue des marques et gammes
+     */
+    public CatalogImporter(AddProductUseCase addProduct, Catalog catalog) {
+        this(addProduct, catalog, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(),
+                DEFAULT_CHUNK_BYTES);
+    }
+
+    /**
+     * @param addProduct cas d'usage d'ajout recevant les produits
+     * @param catalog catalogue des marques et gammes
+     * @param executor exécuteur de l'analyse des blocs
+     * @param parallelism nombre de threads de l'exécuteur (borne les blocs en cours d'analyse)
+     * @param chunkBytes taille d'un bloc lu (une ligne plus longue est lue sur plusieurs blocs)
+     * @throws IllegalArgumentException si un paramètre est invalide
+     */
+    public CatalogImporter(AddProductUseCase addProduct, Catalog catalog, Executor executor,
+                           int parallelism, int chunkBytes) {
+        if (addProduct == null || catalog == null || executor == null) {
+            throw new IllegalArgumentException("addProduct, catalog and executor cannot be null");
+        }
+        if (parallelism <= 0 || chunkBytes <= 0) {
+            throw new IllegalArgumentException("parallelism and chunkBytes must be greater than zero");
+        }
+        this.addProduct = addProduct;
+        this.catalog = catalog;
+        this.executor = executor;
+        this.maxInFlight = parallelism * 2;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Importe un fichier.
+     *
+     * @param file fichier CSV ou TSV (UTF-8)
+     * @param listener suivi de l'avancement (peut être null)
+     * @return bilan de l'import
+     * @throws UncheckedIOException si le fichier ne peut pas être lu
+     */
+    public ImportReport importFile(Path file, ProgressListener listener) {
+        long start = System.nanoTime();
+        Progress progress = new Progress(listener);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            progress.totalBytes = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(chunkBytes);
+            Deque<CompletableFuture<ParsedChunk>> inFlight = new ArrayDeque<>();
+            byte[] carry = new byte[0];
+            Format format = null;
+
+            while (channel.read(buffer.clear()) >= 0) {
+                buffer.flip();
+                int lastNewline = buffer.limit() - 1;
+                while (lastNewline >= 0 && buffer.get(lastNewline) != '\n') {
+                    lastNewline--;
+                }
+                byte[] chunk = new byte[carry.length + lastNewline + 1];
+                System.arraycopy(carry, 0, chunk, 0, carry.length);
+                buffer.get(chunk, carry.length, lastNewline + 1);
+                byte[] rest = new byte[buffer.remaining()];
+                buffer.get(rest);
+                if (lastNewline < 0) {
+                    // aucune fin de ligne dans ce bloc : la ligne se poursuit au bloc suivant
+                    carry = concat(chunk, rest);
+                    continue;
+                }
+                carry = rest;
+                if (format == null) {
+                    format = Format.detect(chunk);
+                }
+                submit(inFlight, chunk, format, progress);
+            }
+            if (carry.length > 0) {
+                if (format == null) {
+                    format = Format.detect(carry);
+                }
+                submit(inFlight, carry, format, progress);
+            }
+            while (!inFlight.isEmpty()) {
+                integrate(inFlight.poll(), progress);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to import " + file, e);
+        }
+        return new ImportReport(progress.rowsRead, progress.imported, progress.rejectedCount,
+                progress.rejections, System.nanoTime() - start);
+    }
+
+    private void submit(Deque<CompletableFuture<ParsedChunk>> inFlight, byte[] chunk, Format format,
+                        Progress progress) {
+        boolean first = progress.submitted++ == 0;
+        inFlight.add(CompletableFuture.supplyAsync(() -> parse(chunk, format, first), executor));
+        while (inFlight.size() >= maxInFlight) {
+            integrate(inFlight.poll(), progress);
+        }
+    }
+
+    /**
+     * Intègre un bloc analysé : transmission des produits par lots, comptage des rejets
+     * et numérotation globale des lignes.
+     */
+    private void integrate(CompletableFuture<ParsedChunk> future, Progress progress) {
+        ParsedChunk chunk;
+        try {
+            chunk = future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+        List<Product> products = new ArrayList<>(chunk.drafts.size());
+        int[] productLines = new int[chunk.drafts.size()];
+        int pending = 0;
+        for (int i = 0; i < chunk.drafts.size(); i++) {
+            int line = chunk.draftLines[i];
+            // rejets de l'analyse intercalés dans l'ordre du fichier
+            for (; pending < chunk.rejectedLines.size() && chunk.rejectedLines.get(pending) < line; pending++) {
+                reject(progress, chunk.rejectedLines.get(pending), chunk.rejectedReasons.get(pending));
+            }
+            try {
+                Product product = register(chunk.drafts.get(i));
+                productLines[products.size()] = line;
+                products.add(product);
+            } catch (RuntimeException e) {
+                reject(progress, line, reasonOf(e));
+            }
+        }
+        for (; pending < chunk.rejectedLines.size(); pending++) {
+            reject(progress, chunk.rejectedLines.get(pending), chunk.rejectedReasons.get(pending));
+        }
+        for (int from = 0; from < products.size(); from += BATCH_SIZE) {
+            progress.imported += add(products, productLines, from, Math.min(products.size(), from + BATCH_SIZE), progress);
+        }
+        progress.rowsRead += chunk.rows;
+        progress.linesBefore += chunk.lines;
+        progress.bytesRead += chunk.bytes;
+        if (progress.listener != null) {
+            progress.listener.onProgress(progress.rowsRead, progress.bytesRead, progress.totalBytes);
+        }
+    }
+
+    /**
+     * Transmet un lot au cas d'usage. Un lot refusé pour une donnée invalide n'a rien écrit :
+     * il est repris ligne par ligne et seules les lignes fautives sont rejetées.
+     *
+     * @return nombre de produits importés
+     */
+    private int add(List<Product> products, int[] lines, int from, int to, Progress progress) {
+        try {
+            addProduct.executeAll(products.subList(from, to));
+            return to - from;
+        } catch (IllegalArgumentException | ArithmeticException batchFailure) {
+            int added = 0;
+            for (int i = from; i < to; i++) {
+                try {
+                    addProduct.execute(products.get(i));
+                    added++;
+                } catch (IllegalArgumentException | ArithmeticException e) {
+                    reject(progress, lines[i], reasonOf(e));
+                }
+            }
+            return added;
+        }
+    }
+
+    /**
+     * Comptabilise une ligne rejetée (numéro relatif au bloc en cours d'intégration).
+     */
+    private static void reject(Progress progress, int line, String reason) {
+        progress.rejectedCount++;
+        if (progress.rejections.size() < MAX_REPORTED_REJECTIONS) {
+            progress.rejections.add(new ImportReport.Rejection(progress.linesBefore + line, reason));
+        }
+    }
+
+    private static String reasonOf(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Analyse un bloc de lignes complètes (exécuté en parallèle).
+     */
+    private ParsedChunk parse(byte[] bytes, Format format, boolean firstChunk) {
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        ParsedChunk chunk = new ParsedChunk(bytes.length);
+        List<String> fields = new ArrayList<>(COLUMNS);
+        int position = 0;
+        if (firstChunk && !text.isEmpty() && text.charAt(0) == '\uFEFF') {
+            position = 1;
+        }
+        while (position < text.length()) {
+            int end = text.indexOf('\n', position);
+            if (end < 0) {
+                end = text.length();
+            }
+            int lineEnd = end > position && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            chunk.lines++;
+            boolean header = firstChunk && chunk.lines == 1 && format.hasHeader;
+            if (!header && lineEnd > position) {
+                chunk.rows++;
+                try {
+                    split(text, position, lineEnd, format.delimiter, fields);
+                    chunk.addDraft(toDraft(fields, format.delimiter));
+                } catch (RuntimeException e) {
+                    // toute erreur d'une ligne la rejette, sans faire échouer le bloc
+                    chunk.rejectedLines.add(chunk.lines);
+                    chunk.rejectedReasons.add(reasonOf(e));
+                }
+            }
+            position = end + 1;
+        }
+        return chunk;
+    }
+
+    /**
+     * Construit un produit provisoire (entièrement validé) dont la marque et la gamme ne
+     * sont pas encore celles du catalogue ; l'identifiant peut être vide.
+     */
+    private static Product toDraft(List<String> fields, char delimiter) {
+        if (fields.size() != COLUMNS) {
+            throw new IllegalArgumentException(COLUMNS + " colonnes attendues, " + fields.size() + " trouvée(s)");
+        }
+        String id = fields.get(0).trim();
+        String name = required(fields, 1, "nom");
+        double price = parsePrice(fields.get(2).trim(), delimiter);
+        int stock;
+        try {
+            stock = Integer.parseInt(fields.get(3).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("stock invalide : '" + fields.get(3) + "'");
+        }
+        Brand brand = new Brand(required(fields, 4, "identifiant de marque"), fields.get(5).trim());
+        ProductLine line = new ProductLine(required(fields, 6, "identifiant de gamme"), fields.get(7).trim(), brand);
+        return new SimpleProduct(id, name, price, stock, brand, line);
+    }
+
+    /**
+     * Remplace la marque et la gamme d'un produit provisoire par celles du catalogue (créées
+     * au besoin) et génère son identifiant s'il est vide. Appelé par le seul thread
+     * appelant, dans l'ordre du fichier.
+     */
+    private Product register(Product draft) {
+        Brand brand = catalog.createBrand(draft.getBrand().getBrandId(), draft.getBrand().getName());
+        ProductLine line = catalog.createProductLine(draft.getProductLine().getLineId(),
+                draft.getProductLine().getName(), brand);
+        String id = draft.getProductId().isEmpty() ? ProductIdGenerator.generateId() : draft.getProductId();
+        return new SimpleProduct(id, draft.getName(), draft.getPrice(), draft.getStock(), brand, line);
+    }
+
+    private static String required(List<String> fields, int index, String label) {
+        String value = fields.get(index).trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(label + " manquant");
+        }
+        return value;
+    }
+
+    private static double parsePrice(String value, char delimiter) {
+        String normalized = delimiter != ',' ? value.replace(',', '.') : value;
+        try {
+            double price = Double.parseDouble(normalized);
+            if (Double.isNaN(price) || Double.isInfinite(price)) {
+                throw new NumberFormatException();
+            }
+            return price;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("prix invalide : '" + value + "'");
+        }
+    }
+
+    /**
+     * Découpe une ligne en champs, en tenant compte des champs entre guillemets.
+     */
+    static void split(String text, int from, int to, char delimiter, List<String> fields) {
+        fields.clear();
+        int position = from;
+        while (true) {
+            if (position < to && text.charAt(position) == '"') {
+                StringBuilder sb = new StringBuilder();
+                position++;
+                while (true) {
+                    if (position >= to) {
+                        throw new IllegalArgumentException("guillemet non fermé");
+                    }
+                    char c = text.charAt(position++);
+                    if (c == '"') {
+                        if (position < to && text.charAt(position) == '"') {
+                            sb.append('"');
+                            position++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        sb.append(c);
+                    }
+                }
+                fields.add(sb.toString());
+                if (position < to && text.charAt(position) != delimiter) {
+                    throw new IllegalArgumentException("séparateur attendu après un champ entre guillemets");
+                }
+            } else {
+                int end = text.indexOf(delimiter, position);
+                if (end < 0 || end > to) {
+                    end = to;
+                }
+                fields.add(text.substring(position, end));
+                position = end;
+            }
+            if (position >= to) {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] joined = new byte[a.length + b.length];
+        System.arraycopy(a, 0, joined, 0, a.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    /**
+     * Séparateur et présence d'un en-tête, détectés sur la première ligne du fichier.
+     */
+    private static final class Format {
+
+        final char delimiter;
+        final boolean hasHeader;
+
+        private Format(char delimiter, boolean hasHeader) {
+            this.delimiter = delimiter;
+            this.hasHeader = hasHeader;
+        }
+
+        static Format detect(byte[] firstChunk) {
+            int end = 0;
+            while (end < firstChunk.length && firstChunk[end] != '\n') {
+                end++;
+            }
+            String firstLine = new String(firstChunk, 0, end, StandardCharsets.UTF_8).replace("\uFEFF", "");
+            char delimiter = firstLine.indexOf('\t') >= 0 ? '\t' : firstLine.indexOf(';') >= 0 ? ';' : ',';
+            int separator = firstLine.indexOf(delimiter);
+            String firstField = separator < 0 ? firstLine : firstLine.substring(0, separator);
+            boolean hasHeader = firstField.trim().replace("\"", "").equalsIgnoreCase("id");
+            return new Format(delimiter, hasHeader);
+        }
+    }
+
+    /**
+     * Résultat de l'analyse d'un bloc. Les numéros de ligne sont relatifs au bloc.
+     */
+    private static final class ParsedChunk {
+
+        final long bytes;
+        final List<Product> drafts = new ArrayList<>();
+        final List<Integer> rejectedLines = new ArrayList<>();
+        final List<String> rejectedReasons = new ArrayList<>();
+        int[] draftLines = new int[64];
+        int lines;
+        int rows;
+
+        ParsedChunk(long bytes) {
+            this.bytes = bytes;
+        }
+
+        /**
+         * Ajoute un produit provisoire lu sur la ligne courante.
+         */
+        void addDraft(Product draft) {
+            if (drafts.size() == draftLines.length) {
+                draftLines = Arrays.copyOf(draftLines, draftLines.length * 2);
+            }
+            draftLines[drafts.size()] = lines;
+            drafts.add(draft);
+        }
+    }
+
+    /**
+     * Compteurs de l'import, manipulés uniquement par le thread appelant.
+     */
+    private static final class Progress {
+
+        final ProgressListener listener;
+        final List<ImportReport.Rejection> rejections = new ArrayList<>();
+        long totalBytes;
+        long bytesRead;
+        long rowsRead;
+        long imported;
+        long rejectedCount;
+        long linesBefore;
+        int submitted;
+
+        Progress(ProgressListener listener) {
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package infrastructure.importer;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bilan d'un import de catalogue : lignes lues, produits importés, lignes rejetées
+ * (avec leur numéro et la raison du rejet) et débit obtenu.
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class ImportReport {
+
+    /**
+     * Ligne rejetée : numéro de ligne dans le fichier (à partir de 1) et raison.
+     */
+    public static final class Rejection {
+
+        private final long lineNumber;
+        private final String reason;
+
+        public Rejection(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "ligne " + lineNumber + " : " + reason;
+        }
+    }
+
+    private final long rowsRead;
+    private final long imported;
+    private final long rejectedCount;
+    private final List<Rejection> rejections;
+    private final long elapsedNanos;
+
+    /**
+     * @param rowsRead nombre de lignes de données lues (hors en-tête et lignes vides)
+     * @param imported nombre de produits transmis au cas d'usage d'ajout
+     * @param rejectedCount nombre total de lignes rejetées
+     * @param rejections détail des premières lignes rejetées
+     * @param elapsedNanos durée de l'import en nanosecondes
+     */
+    public ImportReport(long rowsRead, long imported, long rejectedCount, List<Rejection> rejections, long elapsedNanos) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejectedCount = rejectedCount;
+        this.rejections = Collections.unmodifiableList(rejections);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return les premières lignes rejetées ({@value CatalogImporter#MAX_REPORTED_REJECTIONS} au plus)
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return débit en lignes lues par seconde
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Formate le bilan pour l'affichage console.
+     *
+     * @return bilan lisible
+     */
+    public String formatForConsole() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Lignes lues    : %d%n", rowsRead));
+        sb.append(String.format(Locale.ROOT, "Importées      : %d%n", imported));
+        sb.append(String.format(Locale.ROOT, "Rejetées       : %d%n", rejectedCount));
+        sb.append(String.format(Locale.ROOT, "Durée          : %.2f s (%.0f lignes/s)%n",
+                elapsedNanos / 1e9, getRowsPerSecond()));
+        for (Rejection rejection : rejections) {
+            sb.append("  - ").append(rejection).append(System.lineSeparator());
+        }
+        if (rejectedCount > rejections.size()) {
+            sb.append("  ... ").append(rejectedCount - rejections.size()).append(" autre(s) rejet(s)")
+                    .append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
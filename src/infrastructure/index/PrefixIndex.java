@@ -0,0 +1,167 @@
+package infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index de préfixes associant des clés textuelles à des identifiants,
+ * utilisé pour l'autocomplétion.
+ * <p>
+ * Les entrées (texte, position de départ, identifiant) sont rangées dans une liste à saut
+ * ({@link ConcurrentSkipListSet}), dans l'ordre lexicographique du texte lu à partir de sa
+ * position de départ. Plusieurs entrées peuvent partager le même texte à des positions
+ * différentes (un nom indexé au début de chacun de ses mots) sans qu'aucune sous-chaîne ne
+ * soit copiée. Une requête se positionne sur le préfixe puis avance tant que les entrées
+ * commencent par ce préfixe, et s'arrête dès que {@code limit} identifiants ont été
+ * trouvés : son coût dépend du nombre de résultats demandés, pas de la taille du catalogue.
+ * Chaque entrée conserve ses quatre premiers caractères dans un {@code long}, ce qui décide
+ * la plupart des comparaisons de la liste à saut sans relire le texte.
+ * </p>
+ * <p>
+ * Lectures et écritures sont sans verrou ; les écritures concernant un même identifiant
+ * doivent être sérialisées par l'appelant (verrou du dépôt).
+ * </p>
+ *
+ * @author Lucas
+ * @version 2.1
+ */
+public class PrefixIndex {
+
+    private final NavigableSet<Key> keys = new ConcurrentSkipListSet<>();
+
+    /**
+     * Associe un identifiant à une clé.
+     *
+     * @param key clé normalisée
+     * @param id identifiant associé
+     */
+    public void insert(String key, String id) {
+        insert(key, 0, id);
+    }
+
+    /**
+     * Associe un identifiant à la fin d'un texte, lue à partir d'une position.
+     *
+     * @param text texte normalisé
+     * @param start position du premier caractère de la clé
+     * @param id identifiant associé
+     */
+    public void insert(String text, int start, String id) {
+        keys.add(new Key(text, start, id));
+    }
+
+    /**
+     * Retire l'association entre une clé et un identifiant.
+     *
+     * @param key clé normalisée
+     * @param id identifiant à retirer
+     */
+    public void remove(String key, String id) {
+        remove(key, 0, id);
+    }
+
+    /**
+     * Retire l'association entre la fin d'un texte et un identifiant.
+     *
+     * @param text texte normalisé
+     * @param start position du premier caractère de la clé
+     * @param id identifiant à retirer
+     */
+    public void remove(String text, int start, String id) {
+        keys.remove(new Key(text, start, id));
+    }
+
+    /**
+     * Retourne au plus {@code limit} identifiants dont une clé commence par le préfixe,
+     * dans l'ordre lexicographique des clés.
+     *
+     * @param prefix préfixe normalisé
+     * @param limit nombre maximal de résultats
+     * @return identifiants distincts correspondants
+     */
+    public List<String> complete(String prefix, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Set<String> results = new LinkedHashSet<>();
+        for (Key key : keys.tailSet(new Key(prefix, 0, null), true)) {
+            if (!key.text.startsWith(prefix, key.start)) {
+                break;
+            }
+            results.add(key.id);
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    /**
+     * Entrée : texte lu à partir de {@code start}, départagé par l'identifiant. Un
+     * identifiant null précède tous les autres (borne de recherche).
+     */
+    private static final class Key implements Comparable<Key> {
+
+        private static final int HEAD_CHARS = 4;
+
+        private final String text;
+        private final int start;
+        private final String id;
+        // quatre premiers caractères de la clé sur 16 bits chacun (0 au-delà de la fin)
+        private final long head;
+
+        Key(String text, int start, String id) {
+            this.text = text;
+            this.start = start;
+            this.id = id;
+            long packed = 0;
+            for (int i = 0; i < HEAD_CHARS; i++) {
+                packed = packed << 16 | (start + i < text.length() ? text.charAt(start + i) : 0);
+            }
+            this.head = packed;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            // la plupart des comparaisons se décident sur les premiers caractères
+            if (head != other.head) {
+                return Long.compareUnsigned(head, other.head);
+            }
+            int length = text.length() - start;
+            int otherLength = other.text.length() - other.start;
+            int common = Math.min(length, otherLength);
+            for (int i = 0; i < common; i++) {
+                char c = text.charAt(start + i);
+                char o = other.text.charAt(other.start + i);
+                if (c != o) {
+                    return Character.compare(c, o);
+                }
+            }
+            if (length != otherLength) {
+                return Integer.compare(length, otherLength);
+            }
+            if (id == null || other.id == null) {
+                return id == null ? (other.id == null ? 0 : -1) : 1;
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = 0;
+            for (int i = start; i < text.length(); i++) {
+                hash = 31 * hash + text.charAt(i);
+            }
+            return 31 * hash + (id == null ? 0 : id.hashCode());
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Index secondaire ordonné par prix, maintenu de façon incrémentale.
+ * <p>
+ * Les entrées sont des couples (prix en centimes, identifiant) rangés dans une liste à saut
+ * ({@link ConcurrentSkipListSet}) : l'identifiant départage les prix égaux, ce qui
+ * rend l'ordre total et déterministe. L'index permet :
+ * </p>
+ * <ul>
+ *     <li>le parcours ordonné sans tri complet ;</li>
+ *     <li>les requêtes par plage de prix en O(log n + k) ;</li>
+ *     <li>l'accès au moins cher / plus cher en O(log n).</li>
+ * </ul>
+ * <p>
+ * Les lectures sont non bloquantes. Les écritures concernant un même identifiant
+ * doivent être sérialisées par l'appelant (verrou du dépôt).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.1
+ */
+public class PriceIndex {
+
+    private final NavigableSet<Key> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Ajoute un identifiant à l'index.
+     *
+     * @param id identifiant du produit
+     * @param priceCents prix du produit en centimes
+     */
+    public void add(String id, long priceCents) {
+        entries.add(new Key(priceCents, id, 0));
+    }
+
+    /**
+     * Retire un identifiant de l'index.
+     *
+     * @param id identifiant du produit
+     * @param priceCents prix en centimes sous lequel le produit a été indexé
+     */
+    public void remove(String id, long priceCents) {
+        entries.remove(new Key(priceCents, id, 0));
+    }
+
+    /**
+     * Retourne tous les identifiants, par prix croissant.
+     *
+     * @return identifiants ordonnés
+     */
+    public List<String> ascending() {
+        return ids(entries);
+    }
+
+    /**
+     * Retourne les identifiants dont le prix est compris entre deux bornes incluses,
+     * par prix croissant.
+     *
+     * @param minCents prix minimal en centimes (inclus)
+     * @param maxCents prix maximal en centimes (inclus)
+     * @return identifiants ordonnés
+     */
+    public List<String> between(long minCents, long maxCents) {
+        if (minCents > maxCents) {
+            return new ArrayList<>();
+        }
+        return ids(entries.subSet(new Key(minCents, null, -1), true, new Key(maxCents, null, 1), true));
+    }
+
+    /**
+     * Retourne l'identifiant du produit le moins cher.
+     *
+     * @return identifiant, ou null si l'index est vide
+     */
+    public String first() {
+        Iterator<Key> iterator = entries.iterator();
+        return iterator.hasNext() ? iterator.next().id : null;
+    }
+
+    /**
+     * Retourne l'identifiant du produit le plus cher.
+     *
+     * @return identifiant, ou null si l'index est vide
+     */
+    public String last() {
+        Iterator<Key> iterator = entries.descendingIterator();
+        return iterator.hasNext() ? iterator.next().id : null;
+    }
+
+    private static List<String> ids(NavigableSet<Key> keys) {
+        List<String> results = new ArrayList<>();
+        for (Key key : keys) {
+            results.add(key.id);
+        }
+        return results;
+    }
+
+    /**
+     * Clé (prix, identifiant). Les clés « bornes » (bound = -1 ou +1) encadrent
+     * tous les identifiants d'un même prix pour les requêtes par plage.
+     */
+    private static final class Key implements Comparable<Key> {
+
+        private final long price;
+        private final String id;
+        private final int bound;
+
+        Key(long price, String id, int bound) {
+            this.price = price;
+            this.id = id;
+            this.bound = bound;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int byPrice = Long.compare(price, other.price);
+            if (byPrice != 0) {
+                return byPrice;
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(price) + (id == null ? bound : id.hashCode());
+        }
+    }
+}
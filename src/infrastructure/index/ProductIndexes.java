@@ -0,0 +1,276 @@
+package infrastructure.index;
+
+import domain.product.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.IntStream;
+
+/**
+ * Regroupe les index secondaires maintenus par les dépôts produits en mémoire.
+ * <p>
+ * Les dépôts notifient chaque écriture ({@link #onSave(Product, Product)}) et chaque
+ * suppression ({@link #onDelete(Product)}) afin que les index restent synchronisés
+ * avec le contenu du dépôt, sans jamais être reconstruits intégralement.
+ * </p>
+ * <ul>
+ *     <li>index de trigrammes sur les identifiants et les noms (recherche de sous-chaîne) ;</li>
+ *     <li>index de préfixes sur les identifiants et sur le début de chaque mot des noms
+ *     (autocomplétion) ;</li>
+ *     <li>index ordonné par prix en centimes (listes triées, plages de prix, extrêmes) ;</li>
+ *     <li>ensemble ordonné des identifiants (pagination par curseur).</li>
+ * </ul>
+ *
+ * @author Lucas
+ * @version 1.7
+ */
+public class ProductIndexes {
+
+    /** Taille de lot à partir de laquelle {@link #onSaveAll(List, List)} indexe en parallèle. */
+    public static final int PARALLEL_THRESHOLD = 1 << 10;
+
+    private final TrigramIndex nameIndex = new TrigramIndex();
+    private final TrigramIndex idIndex = new TrigramIndex();
+    private final PrefixIndex namePrefixes = new PrefixIndex();
+    private final PrefixIndex idPrefixes = new PrefixIndex();
+    private final PriceIndex priceIndex = new PriceIndex();
+    private final NavigableSet<String> orderedIds = new ConcurrentSkipListSet<>();
+
+    /**
+     * Met à jour les index après l'enregistrement d'un produit.
+     *
+     * @param previous valeur précédente (null si le produit est nouveau)
+     * @param current nouvelle valeur enregistrée
+     */
+    public void onSave(Product previous, Product current) {
+        String id = current.getProductId();
+        if (previous == null) {
+            idIndex.put(id, id);
+            idPrefixes.insert(TrigramIndex.normalize(id), id);
+            orderedIds.add(id);
+        }
+        if (previous == null) {
+            priceIndex.add(id, current.getPriceCents());
+        } else if (previous.getPriceCents() != current.getPriceCents()) {
+            priceIndex.remove(id, previous.getPriceCents());
+            priceIndex.add(id, current.getPriceCents());
+        }
+        if (previous == null || !previous.getName().equals(current.getName())) {
+            nameIndex.put(id, current.getName());
+            if (previous != null) {
+                String name = nameKey(previous.getName());
+                for (int start : wordStarts(name)) {
+                    namePrefixes.remove(name, start, id);
+                }
+            }
+            String name = nameKey(current.getName());
+            for (int start : wordStarts(name)) {
+                namePrefixes.insert(name, start, id);
+            }
+        }
+    }
+
+    /**
+     * Met à jour les index après l'enregistrement d'un lot de produits d'identifiants
+     * distincts. Chaque index tolérant les écritures concurrentes de produits différents,
+     * les lots d'au moins {@value #PARALLEL_THRESHOLD} produits sont indexés en parallèle
+     * (pool fork/join commun).
+     *
+     * @param previous valeurs précédentes (null pour un produit nouveau), alignées sur {@code current}
+     * @param current nouvelles valeurs enregistrées, d'identifiants distincts
+     */
+    public void onSaveAll(List<Product> previous, List<Product> current) {
+        if (previous.size() != current.size()) {
+            throw new IllegalArgumentException("previous and current must have the same size");
+        }
+        IntStream indices = IntStream.range(0, current.size());
+        if (current.size() >= PARALLEL_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        indices.forEach(i -> onSave(previous.get(i), current.get(i)));
+    }
+
+    /**
+     * Met à jour les index après la suppression d'un produit.
+     *
+     * @param previous produit supprimé (null si l'identifiant était absent)
+     */
+    public void onDelete(Product previous) {
+        if (previous == null) {
+            return;
+        }
+        String id = previous.getProductId();
+        idIndex.remove(id);
+        nameIndex.remove(id);
+        idPrefixes.remove(TrigramIndex.normalize(id), id);
+        orderedIds.remove(id);
+        priceIndex.remove(id, previous.getPriceCents());
+        String name = nameKey(previous.getName());
+        for (int start : wordStarts(name)) {
+            namePrefixes.remove(name, start, id);
+        }
+    }
+
+    /**
+     * Retourne les identifiants des produits dont le nom contient le mot-clé.
+     *
+     * @param keyword mot-clé (insensible à la casse)
+     * @return identifiants correspondants
+     */
+    public List<String> searchNames(String keyword) {
+        return nameIndex.find(keyword);
+    }
+
+    /**
+     * Retourne les identifiants des produits dont l'identifiant contient le mot-clé.
+     *
+     * @param keyword mot-clé (insensible à la casse)
+     * @return identifiants correspondants
+     */
+    public List<String> searchIds(String keyword) {
+        return idIndex.find(keyword);
+    }
+
+    /**
+     * Retourne au plus {@code limit} identifiants de produits dont l'identifiant commence par le préfixe.
+     *
+     * @param prefix début de l'identifiant (insensible à la casse)
+     * @param limit nombre maximal de résultats
+     * @return identifiants correspondants, dans l'ordre lexicographique
+     */
+    public List<String> completeIds(String prefix, int limit) {
+        return idPrefixes.complete(TrigramIndex.normalize(prefix), limit);
+    }
+
+    /**
+     * Retourne au plus {@code limit} identifiants de produits dont le nom, ou l'un des mots
+     * du nom, commence par le préfixe.
+     * <p>
+     * Les résultats suivent l'ordre lexicographique de la partie du nom qui commence au mot
+     * reconnu (le nom entier si c'est son premier mot), et non l'ordre des noms complets :
+     * trier par nom obligerait à lire toutes les correspondances avant de tronquer, au lieu
+     * des {@code limit} premières.
+     * </p>
+     *
+     * @param prefix début du nom ou d'un mot (insensible à la casse)
+     * @param limit nombre maximal de résultats
+     * @return identifiants correspondants, par ordre du nom lu à partir du mot reconnu
+     */
+    public List<String> completeNames(String prefix, int limit) {
+        return namePrefixes.complete(TrigramIndex.normalize(prefix.trim()), limit);
+    }
+
+    /**
+     * Retourne tous les identifiants de produits, par prix croissant.
+     *
+     * @return identifiants ordonnés par (prix, identifiant)
+     */
+    public List<String> byPrice() {
+        return priceIndex.ascending();
+    }
+
+    /**
+     * Retourne les identifiants des produits dont le prix est compris entre deux bornes incluses.
+     * Les bornes en euros sont ramenées aux centimes qu'elles encadrent exactement.
+     *
+     * @param min prix minimal (inclus)
+     * @param max prix maximal (inclus)
+     * @return identifiants ordonnés par prix croissant
+     */
+    public List<String> byPriceBetween(double min, double max) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            return new ArrayList<>();
+        }
+        return priceIndex.between(toCents(min, RoundingMode.CEILING), toCents(max, RoundingMode.FLOOR));
+    }
+
+    /**
+     * Retourne l'identifiant du produit le moins cher.
+     *
+     * @return identifiant, ou null si aucun produit
+     */
+    public String cheapest() {
+        return priceIndex.first();
+    }
+
+    /**
+     * Retourne l'identifiant du produit le plus cher.
+     *
+     * @return identifiant, ou null si aucun produit
+     */
+    public String mostExpensive() {
+        return priceIndex.last();
+    }
+
+    /**
+     * Retourne au plus {@code limit} identifiants strictement supérieurs au curseur,
+     * dans l'ordre naturel des chaînes.
+     *
+     * @param afterId curseur exclu (null pour partir du premier identifiant)
+     * @param limit nombre maximal de résultats
+     * @return identifiants ordonnés
+     */
+    public List<String> idsAfter(String afterId, int limit) {
+        NavigableSet<String> tail = afterId == null ? orderedIds : orderedIds.tailSet(afterId, false);
+        List<String> results = new ArrayList<>(Math.min(limit, 64));
+        for (String id : tail) {
+            if (results.size() >= limit) {
+                break;
+            }
+            results.add(id);
+        }
+        return results;
+    }
+
+    /**
+     * Convertit une borne en euros en centimes, arrondie dans le sens donné et saturée
+     * aux bornes des {@code long}.
+     */
+    private static long toCents(double euros, RoundingMode rounding) {
+        if (Double.isInfinite(euros)) {
+            return euros > 0 ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        BigDecimal cents = BigDecimal.valueOf(euros).movePointRight(2).setScale(0, rounding);
+        if (cents.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (cents.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return cents.longValue();
+    }
+
+    /**
+     * Normalise un nom pour l'autocomplétion.
+     */
+    private static String nameKey(String name) {
+        return TrigramIndex.normalize(name.trim());
+    }
+
+    /**
+     * Calcule les positions indexées d'un nom normalisé pour l'autocomplétion : le début
+     * du nom, puis le début de chaque mot suivant.
+     *
+     * @param name nom normalisé
+     * @return positions de départ des clés
+     */
+    private static int[] wordStarts(String name) {
+        int count = 1;
+        for (int i = 1; i < name.length(); i++) {
+            if (name.charAt(i - 1) == ' ' && name.charAt(i) != ' ') {
+                count++;
+            }
+        }
+        int[] starts = new int[count];
+        for (int i = 1, k = 1; i < name.length(); i++) {
+            if (name.charAt(i - 1) == ' ' && name.charAt(i) != ' ') {
+                starts[k++] = i;
+            }
+        }
+        return starts;
+    }
+}
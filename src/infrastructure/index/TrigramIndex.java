@@ -0,0 +1,397 @@
+package infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index inversé de trigrammes permettant la recherche de sous-chaînes.
+ * <p>
+ * Chaque texte indexé est normalisé (minuscules) une seule fois, à l'écriture, puis
+ * découpé en trigrammes (séquences de trois caractères consécutifs). Chaque texte reçoit
+ * un numéro d'ordre ({@code int}) ; pour chaque trigramme, l'index conserve la liste triée
+ * des numéros des textes qui le contiennent, dans un simple {@code int[]} (4 octets par
+ * occurrence, au lieu d'une entrée d'ensemble concurrent par identifiant).
+ * </p>
+ * <p>
+ * Une recherche de sous-chaîne d'au moins trois caractères intersecte les listes des
+ * trigrammes du mot-clé, en partant de la plus courte (recherche dichotomique dans les
+ * autres), puis vérifie uniquement les candidats restants. Les mots-clés plus courts sont
+ * résolus par un parcours des textes déjà normalisés, sans conversion de casse par produit.
+ * </p>
+ * <p>
+ * Les listes ne font que s'allonger : un texte modifié reçoit un nouveau numéro, ajouté en
+ * fin de liste, et l'ancien numéro est simplement marqué comme retiré. Les numéros retirés
+ * sont ignorés à la lecture, puis purgés de toutes les listes lorsqu'ils deviennent plus
+ * nombreux que les textes indexés. La purge est étalée sur les écritures suivantes : chacune
+ * compacte au plus {@value #PURGE_STEP} listes, si bien qu'aucune écriture ne paie la
+ * réécriture de tout l'index. Les numéros ne sont pas réattribués.
+ * </p>
+ * <p>
+ * L'index est sûr en lecture concurrente, sans verrou. Un numéro est attribué et publié dans
+ * la table des numéros sous le moniteur de l'index, celui-là même qui protège la libération
+ * des tranches entièrement retirées : une tranche n'est jamais libérée entre l'attribution
+ * d'un numéro et sa publication. Les écritures d'une même liste sont sérialisées par la
+ * table des listes ; les écritures concernant un même identifiant doivent être sérialisées
+ * par l'appelant (verrou du dépôt).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public class TrigramIndex {
+
+    private static final int GRAM = 3;
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int MIN_PURGE = 1024;
+    private static final int PURGE_STEP = 64;
+
+    private final Map<Long, Posting> postings = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger retired = new AtomicInteger();
+    private final ReentrantLock purgeLock = new ReentrantLock();
+    private volatile AtomicReferenceArray<Entry>[] chunks = newChunks(16);
+    // Prochain numéro à attribuer, protégé par le moniteur de l'index
+    private int nextOrdinal;
+    // Listes restant à compacter pendant une purge (null hors purge), protégé par purgeLock
+    private volatile Iterator<Long> purgeCursor;
+
+    /**
+     * Normalise un texte pour l'indexation et la recherche.
+     *
+     * @param text texte brut
+     * @return texte en minuscules
+     */
+    public static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexe (ou réindexe) le texte associé à un identifiant.
+     * Si le texte normalisé est inchangé, aucune liste n'est modifiée.
+     *
+     * @param id identifiant indexé
+     * @param text texte à indexer
+     */
+    public void put(String id, String text) {
+        String normalized = normalize(text);
+        Entry previous = entries.get(id);
+        if (previous != null && previous.text.equals(normalized)) {
+            return;
+        }
+        // visible par numéro avant d'apparaître dans une liste
+        Entry entry = publish(id, normalized);
+        entries.put(id, entry);
+        for (long gram : grams(normalized)) {
+            postings.compute(gram, (key, posting) -> {
+                Posting target = posting == null ? new Posting() : posting;
+                target.add(entry.ordinal);
+                return target;
+            });
+        }
+        if (previous != null) {
+            retire(previous);
+        }
+        purgeStep();
+    }
+
+    /**
+     * Retire un identifiant de l'index.
+     *
+     * @param id identifiant à retirer
+     */
+    public void remove(String id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            retire(previous);
+        }
+        purgeStep();
+    }
+
+    /**
+     * Retourne les identifiants dont le texte contient le mot-clé (insensible à la casse).
+     *
+     * @param keyword sous-chaîne recherchée
+     * @return identifiants correspondants, par ordre d'indexation
+     */
+    public List<String> find(String keyword) {
+        String needle = normalize(keyword);
+        List<String> results = new ArrayList<>();
+
+        if (needle.length() < GRAM) {
+            for (Entry entry : entries.values()) {
+                if (entry.text.contains(needle)) {
+                    results.add(entry.id);
+                }
+            }
+            return results;
+        }
+
+        long[] grams = grams(needle);
+        Run[] runs = new Run[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            Posting posting = postings.get(grams[i]);
+            if (posting == null) {
+                return results;
+            }
+            runs[i] = posting.run;
+        }
+        int[] sizes = new int[runs.length];
+        Integer[] order = new Integer[runs.length];
+        for (int i = 0; i < runs.length; i++) {
+            sizes[i] = runs[i].size;
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(sizes[a], sizes[b]));
+
+        int[] from = new int[runs.length];
+        Run shortest = runs[order[0]];
+        candidates:
+        for (int c = 0; c < sizes[order[0]]; c++) {
+            int ordinal = shortest.ordinals[c];
+            for (int k = 1; k < order.length; k++) {
+                int i = order[k];
+                int found = Arrays.binarySearch(runs[i].ordinals, from[i], sizes[i], ordinal);
+                if (found < 0) {
+                    from[i] = -found - 1;
+                    continue candidates;
+                }
+                from[i] = found + 1;
+            }
+            Entry entry = entry(ordinal);
+            if (entry != null && entries.get(entry.id) == entry && entry.text.contains(needle)) {
+                results.add(entry.id);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Attribue le numéro suivant et publie l'entrée dans la table des numéros, sous le
+     * moniteur qui protège la libération des tranches.
+     */
+    private synchronized Entry publish(String id, String normalized) {
+        Entry entry = new Entry(id, normalized, nextOrdinal++);
+        chunk(entry.ordinal).set(entry.ordinal & (CHUNK_SIZE - 1), entry);
+        return entry;
+    }
+
+    /**
+     * Marque un numéro comme retiré.
+     */
+    private void retire(Entry entry) {
+        chunk(entry.ordinal).set(entry.ordinal & (CHUNK_SIZE - 1), null);
+        retired.incrementAndGet();
+    }
+
+    /**
+     * Avance la purge d'un pas : démarre une purge si les numéros retirés dépassent le
+     * nombre de textes indexés, puis compacte au plus {@value #PURGE_STEP} listes. Le
+     * dernier pas libère les tranches de la table des numéros entièrement retirées. Une
+     * écriture qui trouve la purge déjà occupée par une autre ne l'attend pas.
+     */
+    private void purgeStep() {
+        if (purgeCursor == null && !purgeDue()) {
+            return;
+        }
+        if (!purgeLock.tryLock()) {
+            return;
+        }
+        try {
+            Iterator<Long> cursor = purgeCursor;
+            if (cursor == null) {
+                int count = retired.get();
+                if (count < MIN_PURGE || count <= entries.size()) {
+                    return;
+                }
+                retired.addAndGet(-count);
+                cursor = postings.keySet().iterator();
+            }
+            for (int step = 0; step < PURGE_STEP && cursor.hasNext(); step++) {
+                postings.computeIfPresent(cursor.next(), (key, posting) -> posting.compact(this) ? posting : null);
+            }
+            if (cursor.hasNext()) {
+                purgeCursor = cursor;
+            } else {
+                purgeCursor = null;
+                releaseRetiredChunks();
+            }
+        } finally {
+            purgeLock.unlock();
+        }
+    }
+
+    private boolean purgeDue() {
+        int count = retired.get();
+        return count >= MIN_PURGE && count > entries.size();
+    }
+
+    /**
+     * Libère les tranches de la table des numéros dont toutes les entrées sont retirées.
+     * Sous le moniteur, tout numéro déjà attribué est publié : une tranche vide l'est
+     * définitivement.
+     */
+    private synchronized void releaseRetiredChunks() {
+        AtomicReferenceArray<Entry>[] current = chunks;
+        for (int index = 0; index < current.length && (index + 1) * CHUNK_SIZE <= nextOrdinal; index++) {
+            if (current[index] != null && isEmpty(current[index])) {
+                current[index] = null;
+            }
+        }
+        chunks = current;
+    }
+
+    private static boolean isEmpty(AtomicReferenceArray<Entry> chunk) {
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.get(i) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Entry entry(int ordinal) {
+        AtomicReferenceArray<Entry>[] current = chunks;
+        int index = ordinal >>> CHUNK_BITS;
+        if (index >= current.length || current[index] == null) {
+            return null;
+        }
+        return current[index].get(ordinal & (CHUNK_SIZE - 1));
+    }
+
+    private AtomicReferenceArray<Entry> chunk(int ordinal) {
+        int index = ordinal >>> CHUNK_BITS;
+        AtomicReferenceArray<Entry>[] current = chunks;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (index >= current.length) {
+                AtomicReferenceArray<Entry>[] grown = newChunks(Math.max(index + 1, current.length * 2));
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+            if (current[index] == null) {
+                current[index] = new AtomicReferenceArray<>(CHUNK_SIZE);
+            }
+            chunks = current;
+            return current[index];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReferenceArray<Entry>[] newChunks(int length) {
+        return (AtomicReferenceArray<Entry>[]) new AtomicReferenceArray<?>[length];
+    }
+
+    /**
+     * Découpe un texte normalisé en trigrammes distincts, chacun codé sur un {@code long}.
+     *
+     * @param text texte normalisé
+     * @return trigrammes distincts (vide si le texte fait moins de trois caractères)
+     */
+    private static long[] grams(String text) {
+        int count = Math.max(0, text.length() - GRAM + 1);
+        long[] grams = new long[count];
+        for (int i = 0; i < count; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /**
+     * Texte indexé : identifiant, texte normalisé et numéro d'ordre.
+     */
+    private static final class Entry {
+
+        final String id;
+        final String text;
+        final int ordinal;
+
+        Entry(String id, String text, int ordinal) {
+            this.id = id;
+            this.text = text;
+            this.ordinal = ordinal;
+        }
+    }
+
+    /**
+     * Tableau trié de numéros dont seuls les {@code size} premiers sont valides. Un lecteur
+     * qui a lu {@code size} peut parcourir ces cases sans verrou : elles ne sont plus jamais
+     * modifiées, les ajouts se font au-delà ou dans une copie.
+     */
+    private static final class Run {
+
+        final int[] ordinals;
+        volatile int size;
+
+        Run(int[] ordinals, int size) {
+            this.ordinals = ordinals;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Liste des numéros d'un trigramme. Les écritures ont lieu dans
+     * {@link ConcurrentHashMap#compute}, qui les sérialise pour un même trigramme.
+     */
+    private static final class Posting {
+
+        volatile Run run = new Run(new int[2], 0);
+
+        void add(int ordinal) {
+            Run current = run;
+            int size = current.size;
+            int[] ordinals = current.ordinals;
+            if (size == 0 || ordinals[size - 1] < ordinal) {
+                if (size < ordinals.length) {
+                    ordinals[size] = ordinal;
+                    current.size = size + 1;
+                    return;
+                }
+                int[] grown = Arrays.copyOf(ordinals, size + (size >> 1) + 2);
+                grown[size] = ordinal;
+                run = new Run(grown, size + 1);
+                return;
+            }
+            // numéro attribué avant un autre déjà ajouté (écritures concurrentes) : copie triée
+            int position = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            int[] copy = new int[Math.max(ordinals.length, size + 1)];
+            System.arraycopy(ordinals, 0, copy, 0, position);
+            copy[position] = ordinal;
+            System.arraycopy(ordinals, position, copy, position + 1, size - position);
+            run = new Run(copy, size + 1);
+        }
+
+        /**
+         * @return false si la liste ne contient plus aucun numéro valide
+         */
+        boolean compact(TrigramIndex index) {
+            Run current = run;
+            int[] live = new int[current.size];
+            int count = 0;
+            for (int i = 0; i < current.size; i++) {
+                if (index.entry(current.ordinals[i]) != null) {
+                    live[count++] = current.ordinals[i];
+                }
+            }
+            if (count < current.size) {
+                run = new Run(Arrays.copyOf(live, Math.max(2, count)), count);
+            }
+            return count > 0;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package infrastructure.ledger;
+
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.Product;
+import infrastructure.ForwardingProductRepository;
+import infrastructure.StripedLocks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Décorateur qui inscrit dans un {@link StockLedger} chaque variation de stock écrite
+ * dans le dépôt décoré.
+ * <p>
+ * Classement des mouvements : une création ou une hausse est un réassort ; une baisse par
+ * {@link #compareAndSaveAll(List, List)} (chemin des ventes) est une vente ; une baisse par
+ * {@link #save(Product)} est une correction ; une suppression sort le stock restant.
+ * Les réenregistrements sans variation de stock (changement de prix, de nom) ne sont pas
+ * inscrits.
+ * </p>
+ * <p>
+ * Pour que chaque variation soit exacte, les écritures d'un même produit sont sérialisées
+ * par des {@link StripedLocks}.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public class LedgerProductRepository extends ForwardingProductRepository {
+
+    private final StockLedger ledger;
+    private final StripedLocks locks = new StripedLocks();
+
+    /**
+     * @param delegate dépôt décoré
+     * @param ledger journal recevant les mouvements
+     * @throws IllegalArgumentException si un paramètre est null
+     */
+    public LedgerProductRepository(ProductRepository delegate, StockLedger ledger) {
+        super(delegate);
+        if (ledger == null) {
+            throw new IllegalArgumentException("ledger cannot be null");
+        }
+        this.ledger = ledger;
+    }
+
+    /**
+     * Enregistre un produit et inscrit la variation de son stock (réassort ou correction).
+     *
+     * @param product produit à enregistrer
+     */
+    @Override
+    public void save(Product product) {
+        ReentrantLock lock = locks.lock(product.getProductId());
+        try {
+            Product previous = delegate().findById(product.getProductId());
+            delegate().save(product);
+            int delta = product.getStock() - (previous == null ? 0 : previous.getStock());
+            if (delta != 0) {
+                ledger.record(product.getProductId(),
+                        delta > 0 ? StockMovement.Type.RESTOCK : StockMovement.Type.CORRECTION, delta);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enregistre un lot de produits et inscrit, pour chacun dans l'ordre du lot, la variation
+     * de stock par rapport à la valeur précédente (dans le dépôt ou plus tôt dans le lot).
+     *
+     * @param products produits à enregistrer
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        boolean[] held = locks.lockAll(products.stream().map(Product::getProductId).toList());
+        try {
+            Map<String, Integer> stocks = new HashMap<>();
+            int[] deltas = new int[products.size()];
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                Integer before = stocks.get(product.getProductId());
+                if (before == null) {
+                    Product previous = delegate().findById(product.getProductId());
+                    before = previous == null ? 0 : previous.getStock();
+                }
+                deltas[i] = product.getStock() - before;
+                stocks.put(product.getProductId(), product.getStock());
+            }
+            delegate().saveAll(products);
+            for (int i = 0; i < products.size(); i++) {
+                if (deltas[i] != 0) {
+                    ledger.record(products.get(i).getProductId(),
+                            deltas[i] > 0 ? StockMovement.Type.RESTOCK : StockMovement.Type.CORRECTION, deltas[i]);
+                }
+            }
+        } finally {
+            locks.unlockAll(held);
+        }
+    }
+
+    /**
+     * Supprime un produit et inscrit la sortie de son stock restant.
+     *
+     * @param productId identifiant du produit à supprimer
+     */
+    @Override
+    public void deleteById(String productId) {
+        ReentrantLock lock = locks.lock(productId);
+        try {
+            Product previous = delegate().findById(productId);
+            delegate().deleteById(productId);
+            if (previous != null && previous.getStock() != 0) {
+                ledger.record(productId, StockMovement.Type.DELETION, -previous.getStock());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Transmet le compare-and-set puis, s'il est appliqué, inscrit une vente (ou un réassort)
+     * par produit dont le stock a varié.
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs
+     * @return true si les mises à jour ont été appliquées
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        boolean[] held = locks.lockAll(replacements.stream().map(Product::getProductId).toList());
+        try {
+            if (!delegate().compareAndSaveAll(expected, replacements)) {
+                return false;
+            }
+            for (int i = 0; i < replacements.size(); i++) {
+                Product replacement = replacements.get(i);
+                int delta = replacement.getStock() - expected.get(i).getProduct().getStock();
+                if (delta != 0) {
+                    ledger.record(replacement.getProductId(),
+                            delta < 0 ? StockMovement.Type.SALE : StockMovement.Type.RESTOCK, delta);
+                }
+            }
+            return true;
+        } finally {
+            locks.unlockAll(held);
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package infrastructure.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Journal des mouvements de stock, en ajout seul : chaque réassort, vente, correction ou
+ * suppression est conservé, ce qui permet de retrouver le stock d'un produit à n'importe
+ * quelle date.
+ * <p>
+ * Les mouvements de chaque produit sont rangés dans des tableaux primitifs parallèles
+ * (dates, variations, types), par blocs de {@value #BLOCK_SIZE}. Chaque bloc est précédé
+ * d'un instantané : date de son premier mouvement et stock avant celui-ci. Le stock à une
+ * date est obtenu par une recherche dichotomique sur les instantanés puis la somme d'au plus
+ * {@value #BLOCK_SIZE} variations, au lieu de rejouer tout l'historique.
+ * </p>
+ * <p>
+ * Avec un fichier de débordement, seuls les derniers mouvements de chaque produit restent
+ * en mémoire : les blocs complets plus anciens sont écrits dans le fichier (13 octets par
+ * mouvement) et relus à la demande ; les instantanés, eux, restent en mémoire.
+ * </p>
+ * <p>
+ * Les dates sont fournies par une horloge (millisecondes) et rendues croissantes par produit :
+ * un recul de l'horloge est absorbé en réutilisant la date du mouvement précédent.
+ * Thread-safe : les mouvements d'un même produit sont sérialisés, ceux de produits différents
+ * sont indépendants.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class StockLedger implements AutoCloseable {
+
+    /** Nombre de mouvements par bloc (un instantané par bloc). */
+    public static final int BLOCK_SIZE = 64;
+
+    private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES + Byte.BYTES;
+    private static final StockMovement.Type[] TYPES = StockMovement.Type.values();
+
+    private final Map<String, History> histories = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final Path spillFile;
+    private final FileChannel spill;
+    private final int inMemoryLimit;
+    private final AtomicLong spillPosition = new AtomicLong();
+    private final LongAdder spilledMovements = new LongAdder();
+
+    /**
+     * Construit un journal entièrement en mémoire, daté par l'horloge système.
+     */
+    public StockLedger() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Construit un journal entièrement en mémoire.
+     *
+     * @param clock horloge en millisecondes depuis l'époque Unix
+     */
+    public StockLedger(LongSupplier clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+        this.clock = clock;
+        this.spillFile = null;
+        this.spill = null;
+        this.inMemoryLimit = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Construit un journal qui déborde sur disque.
+     *
+     * @param clock horloge en millisecondes depuis l'époque Unix
+     * @param spillFile fichier de débordement (recréé, supprimé à la fermeture)
+     * @param inMemoryMovementsPerProduct nombre de mouvements récents gardés en mémoire
+     *                                    par produit (au moins {@value #BLOCK_SIZE})
+     * @throws IllegalArgumentException si un paramètre est invalide
+     * @throws UncheckedIOException si le fichier ne peut pas être créé
+     */
+    public StockLedger(LongSupplier clock, Path spillFile, int inMemoryMovementsPerProduct) {
+        if (clock == null || spillFile == null) {
+            throw new IllegalArgumentException("clock and spillFile cannot be null");
+        }
+        if (inMemoryMovementsPerProduct < BLOCK_SIZE) {
+            throw new IllegalArgumentException("inMemoryMovementsPerProduct must be at least " + BLOCK_SIZE);
+        }
+        this.clock = clock;
+        this.spillFile = spillFile;
+        this.inMemoryLimit = inMemoryMovementsPerProduct;
+        try {
+            this.spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open ledger spill file " + spillFile, e);
+        }
+    }
+
+    /**
+     * Enregistre un mouvement daté de l'instant présent.
+     *
+     * @param productId identifiant du produit
+     * @param type nature du mouvement
+     * @param delta variation du stock (non nulle)
+     * @return le mouvement enregistré
+     * @throws IllegalArgumentException si un paramètre est invalide
+     * @throws ArithmeticException si le stock cumulé dépasse la capacité d'un {@code int}
+     * @throws UncheckedIOException si le débordement sur disque échoue
+     */
+    public StockMovement record(String productId, StockMovement.Type type, int delta) {
+        if (productId == null || type == null) {
+            throw new IllegalArgumentException("productId and type cannot be null");
+        }
+        if (delta == 0) {
+            throw new IllegalArgumentException("delta cannot be zero");
+        }
+        History history = histories.computeIfAbsent(productId, id -> new History());
+        synchronized (history) {
+            StockMovement movement = history.append(type, delta, clock.getAsLong());
+            while (spill != null && history.size - history.memoryStart > inMemoryLimit) {
+                spillOldestBlock(history);
+            }
+            return movement;
+        }
+    }
+
+    /**
+     * Retourne le stock d'un produit à une date, après tous les mouvements de cette date.
+     *
+     * @param productId identifiant du produit
+     * @param timestamp date en millisecondes depuis l'époque Unix
+     * @return stock à cette date (0 avant le premier mouvement)
+     * @throws UncheckedIOException si un bloc débordé ne peut pas être relu
+     */
+    public int stockAt(String productId, long timestamp) {
+        History history = histories.get(productId);
+        if (history == null) {
+            return 0;
+        }
+        synchronized (history) {
+            int block = history.lastBlockStartingAtOrBefore(timestamp);
+            if (block < 0) {
+                return 0;
+            }
+            Block movements = load(history, block);
+            int stock = history.blockStartStock[block];
+            for (int i = 0; i < movements.length && movements.times[movements.from + i] <= timestamp; i++) {
+                stock += movements.deltas[movements.from + i];
+            }
+            return stock;
+        }
+    }
+
+    /**
+     * @param productId identifiant du produit
+     * @return stock après le dernier mouvement (0 si aucun)
+     */
+    public int currentStock(String productId) {
+        History history = histories.get(productId);
+        if (history == null) {
+            return 0;
+        }
+        synchronized (history) {
+            return history.stock;
+        }
+    }
+
+    /**
+     * Retourne tout l'historique d'un produit, du plus ancien au plus récent mouvement.
+     *
+     * @param productId identifiant du produit
+     * @return mouvements du produit (liste vide si aucun)
+     * @throws UncheckedIOException si un bloc débordé ne peut pas être relu
+     */
+    public List<StockMovement> movements(String productId) {
+        History history = histories.get(productId);
+        if (history == null) {
+            return List.of();
+        }
+        synchronized (history) {
+            List<StockMovement> movements = new ArrayList<>(history.size);
+            for (int block = 0; block < history.blockCount; block++) {
+                Block view = load(history, block);
+                int stock = history.blockStartStock[block];
+                for (int i = view.from; i < view.from + view.length; i++) {
+                    stock += view.deltas[i];
+                    movements.add(new StockMovement(TYPES[view.types[i]], view.deltas[i], stock, view.times[i]));
+                }
+            }
+            return movements;
+        }
+    }
+
+    /**
+     * @param productId identifiant du produit
+     * @return nombre de mouvements enregistrés pour ce produit
+     */
+    public int movementCount(String productId) {
+        History history = histories.get(productId);
+        if (history == null) {
+            return 0;
+        }
+        synchronized (history) {
+            return history.size;
+        }
+    }
+
+    /**
+     * @return nombre de mouvements écrits dans le fichier de débordement
+     */
+    public long getSpilledMovements() {
+        return spilledMovements.sum();
+    }
+
+    /**
+     * Ferme et supprime le fichier de débordement (sans effet pour un journal en mémoire).
+     *
+     * @throws UncheckedIOException si le fichier ne peut pas être fermé ou supprimé
+     */
+    @Override
+    public void close() {
+        if (spill == null) {
+            return;
+        }
+        try {
+            spill.close();
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close ledger spill file " + spillFile, e);
+        }
+    }
+
+    /**
+     * Écrit le plus ancien bloc en mémoire d'un produit dans le fichier de débordement
+     * (dates, puis variations, puis types) et le retire des tableaux en mémoire.
+     */
+    private void spillOldestBlock(History history) {
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE * RECORD_BYTES);
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            buffer.putLong(history.times[i]);
+        }
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            buffer.putInt(history.deltas[i]);
+        }
+        buffer.put(history.types, 0, BLOCK_SIZE).flip();
+        long offset = spillPosition.getAndAdd(buffer.capacity());
+        try {
+            while (buffer.hasRemaining()) {
+                spill.write(buffer, offset + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to spill stock ledger to " + spillFile, e);
+        }
+        history.blockOffset[history.memoryStart / BLOCK_SIZE] = offset;
+        int remaining = history.size - history.memoryStart - BLOCK_SIZE;
+        System.arraycopy(history.times, BLOCK_SIZE, history.times, 0, remaining);
+        System.arraycopy(history.deltas, BLOCK_SIZE, history.deltas, 0, remaining);
+        System.arraycopy(history.types, BLOCK_SIZE, history.types, 0, remaining);
+        history.memoryStart += BLOCK_SIZE;
+        spilledMovements.add(BLOCK_SIZE);
+    }
+
+    /**
+     * Donne accès aux mouvements d'un bloc : directement dans les tableaux en mémoire,
+     * ou relus depuis le fichier de débordement.
+     */
+    private Block load(History history, int block) {
+        int first = block * BLOCK_SIZE;
+        int length = Math.min(BLOCK_SIZE, history.size - first);
+        if (first >= history.memoryStart) {
+            return new Block(history.times, history.deltas, history.types, first - history.memoryStart, length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE * RECORD_BYTES);
+        try {
+            long offset = history.blockOffset[block];
+            while (buffer.hasRemaining()) {
+                if (spill.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Truncated ledger spill file");
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read stock ledger spill file " + spillFile, e);
+        }
+        buffer.flip();
+        long[] times = new long[BLOCK_SIZE];
+        int[] deltas = new int[BLOCK_SIZE];
+        byte[] types = new byte[BLOCK_SIZE];
+        buffer.asLongBuffer().get(times);
+        buffer.position(BLOCK_SIZE * Long.BYTES);
+        buffer.asIntBuffer().get(deltas);
+        buffer.position(BLOCK_SIZE * (Long.BYTES + Integer.BYTES));
+        buffer.get(types);
+        return new Block(times, deltas, types, 0, BLOCK_SIZE);
+    }
+
+    /**
+     * Mouvements d'un bloc : tranche {@code [from, from + length)} des tableaux.
+     */
+    private static final class Block {
+
+        final long[] times;
+        final int[] deltas;
+        final byte[] types;
+        final int from;
+        final int length;
+
+        Block(long[] times, int[] deltas, byte[] types, int from, int length) {
+            this.times = times;
+            this.deltas = deltas;
+            this.types = types;
+            this.from = from;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Historique d'un produit : mouvements récents en mémoire (à partir de l'indice
+     * {@code memoryStart}) et un instantané par bloc. Accès protégé par le moniteur de l'objet.
+     */
+    private static final class History {
+
+        long[] times = new long[4];
+        int[] deltas = new int[4];
+        byte[] types = new byte[4];
+        int memoryStart;
+        int size;
+        int stock;
+        long lastTime = Long.MIN_VALUE;
+
+        long[] blockFirstTime = new long[1];
+        int[] blockStartStock = new int[1];
+        long[] blockOffset = new long[1];
+        int blockCount;
+
+        StockMovement append(StockMovement.Type type, int delta, long now) {
+            int newStock = Math.addExact(stock, delta);
+            long time = Math.max(now, lastTime);
+            if (size % BLOCK_SIZE == 0) {
+                if (blockCount == blockFirstTime.length) {
+                    blockFirstTime = Arrays.copyOf(blockFirstTime, blockCount * 2);
+                    blockStartStock = Arrays.copyOf(blockStartStock, blockCount * 2);
+                    blockOffset = Arrays.copyOf(blockOffset, blockCount * 2);
+                }
+                blockFirstTime[blockCount] = time;
+                blockStartStock[blockCount] = stock;
+                blockOffset[blockCount] = -1L;
+                blockCount++;
+            }
+            int slot = size - memoryStart;
+            if (slot == times.length) {
+                times = Arrays.copyOf(times, slot * 2);
+                deltas = Arrays.copyOf(deltas, slot * 2);
+                types = Arrays.copyOf(types, slot * 2);
+            }
+            times[slot] = time;
+            deltas[slot] = delta;
+            types[slot] = (byte) type.ordinal();
+            size++;
+            stock = newStock;
+            lastTime = time;
+            return new StockMovement(type, delta, newStock, time);
+        }
+
+        int lastBlockStartingAtOrBefore(long timestamp) {
+            int low = 0;
+            int high = blockCount - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (blockFirstTime[mid] <= timestamp) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package infrastructure.ledger;
+
+/**
+ * Mouvement de stock enregistré dans le {@link StockLedger} : type, variation signée,
+ * stock résultant et date.
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class StockMovement {
+
+    /**
+     * Nature d'un mouvement de stock.
+     */
+    public enum Type {
+        /** Entrée en stock (création du produit ou réassort). */
+        RESTOCK,
+        /** Sortie par une vente. */
+        SALE,
+        /** Ajustement manuel (réenregistrement du produit avec un stock inférieur). */
+        CORRECTION,
+        /** Suppression du produit : le stock restant sort de l'inventaire. */
+        DELETION
+    }
+
+    private final Type type;
+    private final int delta;
+    private final int stockAfter;
+    private final long timestamp;
+
+    /**
+     * @param type nature du mouvement
+     * @param delta variation du stock (négative pour une sortie)
+     * @param stockAfter stock après le mouvement
+     * @param timestamp date du mouvement, en millisecondes depuis l'époque Unix
+     */
+    public StockMovement(Type type, int delta, int stockAfter, long timestamp) {
+        this.type = type;
+        this.delta = delta;
+        this.stockAfter = stockAfter;
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public int getStockAfter() {
+        return stockAfter;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return timestamp + " " + type + " " + (delta > 0 ? "+" : "") + delta + " -> " + stockAfter;
+    }
+}
@@ -0,0 +1,178 @@
+package infrastructure.metrics;
+
+import application.ports.ProductPage;
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.Product;
+import infrastructure.ForwardingProductRepository;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Décorateur de {@link ProductRepository} qui mesure chaque opération du dépôt décoré
+ * (latence, appels, erreurs) sous le nom {@code repo.<méthode>}.
+ * <p>
+ * Les mesures sont résolues une fois à la construction : un appel ne coûte ensuite que
+ * deux lectures d'horloge et quelques incréments atomiques. Pour {@code stream()}, seule
+ * l'ouverture du flux est mesurée : le parcours est à la charge de l'appelant.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public class InstrumentedProductRepository extends ForwardingProductRepository {
+
+    private final OperationMetrics save;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics existsById;
+    private final OperationMetrics findById;
+    private final OperationMetrics findAll;
+    private final OperationMetrics stream;
+    private final OperationMetrics forEach;
+    private final OperationMetrics count;
+    private final OperationMetrics findPage;
+    private final OperationMetrics search;
+    private final OperationMetrics searchById;
+    private final OperationMetrics autocompleteById;
+    private final OperationMetrics autocompleteByName;
+    private final OperationMetrics findAllOrderedByPrice;
+    private final OperationMetrics findByPriceBetween;
+    private final OperationMetrics findCheapest;
+    private final OperationMetrics findMostExpensive;
+    private final OperationMetrics deleteById;
+    private final OperationMetrics findVersionedById;
+    private final OperationMetrics compareAndSaveAll;
+
+    /**
+     * @param delegate dépôt mesuré
+     * @param registry registre recevant les mesures
+     */
+    public InstrumentedProductRepository(ProductRepository delegate, MetricsRegistry registry) {
+        super(delegate);
+        if (registry == null) {
+            throw new IllegalArgumentException("registry cannot be null");
+        }
+        this.save = registry.operation("repo.save");
+        this.saveAll = registry.operation("repo.saveAll");
+        this.existsById = registry.operation("repo.existsById");
+        this.findById = registry.operation("repo.findById");
+        this.findAll = registry.operation("repo.findAll");
+        this.stream = registry.operation("repo.stream");
+        this.forEach = registry.operation("repo.forEach");
+        this.count = registry.operation("repo.count");
+        this.findPage = registry.operation("repo.findPage");
+        this.search = registry.operation("repo.search");
+        this.searchById = registry.operation("repo.searchById");
+        this.autocompleteById = registry.operation("repo.autocompleteById");
+        this.autocompleteByName = registry.operation("repo.autocompleteByName");
+        this.findAllOrderedByPrice = registry.operation("repo.findAllOrderedByPrice");
+        this.findByPriceBetween = registry.operation("repo.findByPriceBetween");
+        this.findCheapest = registry.operation("repo.findCheapest");
+        this.findMostExpensive = registry.operation("repo.findMostExpensive");
+        this.deleteById = registry.operation("repo.deleteById");
+        this.findVersionedById = registry.operation("repo.findVersionedById");
+        this.compareAndSaveAll = registry.operation("repo.compareAndSaveAll");
+    }
+
+    @Override
+    public void save(Product product) {
+        save.time(() -> super.save(product));
+    }
+
+    @Override
+    public void saveAll(List<Product> products) {
+        saveAll.time(() -> super.saveAll(products));
+    }
+
+    @Override
+    public boolean existsById(String productId) {
+        return existsById.time(() -> super.existsById(productId));
+    }
+
+    @Override
+    public Product findById(String productId) {
+        return findById.time(() -> super.findById(productId));
+    }
+
+    @Override
+    public List<Product> findAll() {
+        return findAll.time(super::findAll);
+    }
+
+    @Override
+    public Stream<Product> stream() {
+        return stream.time(super::stream);
+    }
+
+    @Override
+    public void forEach(Consumer<? super Product> visitor) {
+        forEach.time(() -> super.forEach(visitor));
+    }
+
+    @Override
+    public long count() {
+        return count.time(super::count);
+    }
+
+    @Override
+    public ProductPage findPage(String afterId, int limit) {
+        return findPage.time(() -> super.findPage(afterId, limit));
+    }
+
+    @Override
+    public List<Product> search(String keyword) {
+        return search.time(() -> super.search(keyword));
+    }
+
+    @Override
+    public List<Product> searchById(String keyword) {
+        return searchById.time(() -> super.searchById(keyword));
+    }
+
+    @Override
+    public List<Product> autocompleteById(String prefix, int limit) {
+        return autocompleteById.time(() -> super.autocompleteById(prefix, limit));
+    }
+
+    @Override
+    public List<Product> autocompleteByName(String prefix, int limit) {
+        return autocompleteByName.time(() -> super.autocompleteByName(prefix, limit));
+    }
+
+    @Override
+    public List<Product> findAllOrderedByPrice() {
+        return findAllOrderedByPrice.time(super::findAllOrderedByPrice);
+    }
+
+    @Override
+    public List<Product> findByPriceBetween(double minPrice, double maxPrice) {
+        return findByPriceBetween.time(() -> super.findByPriceBetween(minPrice, maxPrice));
+    }
+
+    @Override
+    public Product findCheapest() {
+        return findCheapest.time(super::findCheapest);
+    }
+
+    @Override
+    public Product findMostExpensive() {
+        return findMostExpensive.time(super::findMostExpensive);
+    }
+
+    @Override
+    public void deleteById(String productId) {
+        deleteById.time(() -> super.deleteById(productId));
+    }
+
+    @Override
+    public VersionedProduct findVersionedById(String productId) {
+        return findVersionedById.time(() -> super.findVersionedById(productId));
+    }
+
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        return compareAndSaveAll.time(() -> super.compareAndSaveAll(expected, replacements));
+    }
+}
@@ -0,0 +1,134 @@
+package infrastructure.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de latences sans verrou, à classes log-linéaires (principe HdrHistogram).
+ * <p>
+ * Chaque puissance de deux est découpée en {@value #SUB_BUCKETS} classes égales : l'erreur
+ * relative sur un centile est donc inférieure à 1/{@value #SUB_BUCKETS} (environ 3 %), de la
+ * nanoseconde à plusieurs siècles, pour une table fixe de moins de 2 000 compteurs.
+ * L'enregistrement d'une valeur coûte un calcul d'indice et un incrément atomique ; aucune
+ * allocation, aucun verrou.
+ * </p>
+ * <p>
+ * Les centiles sont calculés sur une copie des compteurs : une lecture concurrente
+ * d'enregistrements peut être légèrement décalée mais jamais incohérente.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Enregistre une valeur (les valeurs négatives sont ramenées à zéro).
+     *
+     * @param value valeur mesurée, en nanosecondes
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(indexOf(v));
+        total.add(v);
+        if (v > max.get()) {
+            max.accumulateAndGet(v, Math::max);
+        }
+    }
+
+    /**
+     * @return nombre de valeurs enregistrées
+     */
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return plus grande valeur enregistrée (0 si aucune)
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return moyenne exacte des valeurs enregistrées (0 si aucune)
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0.0 : (double) total.sum() / count;
+    }
+
+    /**
+     * Retourne la valeur du centile demandé.
+     *
+     * @param quantile centile entre 0 et 1 (ex: 0.99)
+     * @return borne haute de la classe contenant le centile, plafonnée au maximum (0 si vide)
+     * @throws IllegalArgumentException si le centile est hors de [0, 1]
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be between 0 and 1");
+        }
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0L;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Remet l'histogramme à zéro.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        total.reset();
+        max.set(0L);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
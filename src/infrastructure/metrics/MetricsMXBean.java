@@ -0,0 +1,27 @@
+package infrastructure.metrics;
+
+import java.util.List;
+
+/**
+ * Interface de gestion JMX des mesures (consultable avec JConsole ou VisualVM).
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public interface MetricsMXBean {
+
+    /**
+     * @return mesures de chaque opération, triées par nom
+     */
+    List<OperationSnapshot> getOperations();
+
+    /**
+     * @return tableau des mesures au format texte
+     */
+    String getReport();
+
+    /**
+     * Remet toutes les mesures à zéro.
+     */
+    void reset();
+}
@@ -0,0 +1,110 @@
+package infrastructure.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registre des mesures de l'application, indexées par nom d'opération
+ * (ex: {@code usecase.sell}, {@code repo.findById}).
+ * <p>
+ * Les appelants récupèrent une fois leur {@link OperationMetrics} puis l'alimentent sans
+ * verrou. Le registre peut être publié sur le serveur JMX de la plateforme et produit le
+ * tableau affiché par la commande « stats » de la console.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public class MetricsRegistry implements MetricsMXBean {
+
+    /** Nom JMX par défaut du registre. */
+    public static final String DEFAULT_OBJECT_NAME = "stock:type=Metrics";
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne les mesures d'une opération, créées au premier appel.
+     *
+     * @param name nom de l'opération
+     * @return mesures de l'opération
+     * @throws IllegalArgumentException si le nom est vide
+     */
+    public OperationMetrics operation(String name) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("operation name cannot be null or blank");
+        }
+        OperationMetrics metrics = operations.get(name);
+        return metrics != null ? metrics : operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    @Override
+    public List<OperationSnapshot> getOperations() {
+        List<OperationSnapshot> snapshots = new ArrayList<>();
+        for (OperationMetrics metrics : operations.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        snapshots.sort(Comparator.comparing(OperationSnapshot::getName));
+        return snapshots;
+    }
+
+    /**
+     * Formate les mesures sous forme de tableau (latences en microsecondes).
+     *
+     * @return tableau prêt à afficher
+     */
+    @Override
+    public String getReport() {
+        List<OperationSnapshot> snapshots = getOperations();
+        if (snapshots.isEmpty()) {
+            return "Aucune mesure.";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-28s %10s %8s %10s %10s %10s %10s%n",
+                "Opération", "Appels", "Erreurs", "p50 µs", "p99 µs", "p999 µs", "max µs"));
+        for (OperationSnapshot s : snapshots) {
+            sb.append(String.format(Locale.ROOT, "%-28s %10d %8d %10.1f %10.1f %10.1f %10.1f%n",
+                    s.getName(), s.getCallCount(), s.getErrorCount(),
+                    s.getP50Nanos() / 1_000.0, s.getP99Nanos() / 1_000.0,
+                    s.getP999Nanos() / 1_000.0, s.getMaxNanos() / 1_000.0));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Publie le registre sur le serveur JMX de la plateforme. Un enregistrement déjà
+     * présent sous le même nom est remplacé.
+     *
+     * @param objectName nom JMX (ex: {@link #DEFAULT_OBJECT_NAME})
+     * @throws IllegalStateException si la publication échoue
+     */
+    public void registerMBean(String objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(objectName);
+            try {
+                server.registerMBean(this, name);
+            } catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("Unable to register metrics MBean " + objectName, e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package infrastructure.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Mesures d'une opération : histogramme de latences, nombre d'appels et nombre d'erreurs.
+ * <p>
+ * Une erreur est un appel terminé par une exception ; sa latence est tout de même
+ * enregistrée. Les compteurs sont des {@link LongAdder}, adaptés aux incréments très
+ * fréquents depuis plusieurs threads.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class OperationMetrics {
+
+    private final String name;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Exécute et mesure une opération qui retourne une valeur.
+     *
+     * @param operation opération à exécuter
+     * @param <T> type du résultat
+     * @return le résultat de l'opération
+     */
+    public <T> T time(Supplier<T> operation) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = operation.get();
+            failed = false;
+            return result;
+        } finally {
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Exécute et mesure une opération sans résultat.
+     *
+     * @param operation opération à exécuter
+     */
+    public void time(Runnable operation) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            operation.run();
+            failed = false;
+        } finally {
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Enregistre un appel déjà mesuré.
+     *
+     * @param elapsedNanos durée de l'appel en nanosecondes
+     * @param failed true si l'appel s'est terminé par une erreur
+     */
+    public void record(long elapsedNanos, boolean failed) {
+        latencies.record(elapsedNanos);
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * @return photographie des mesures courantes
+     */
+    public OperationSnapshot snapshot() {
+        return new OperationSnapshot(name, calls.sum(), errors.sum(),
+                latencies.getValueAtQuantile(0.50),
+                latencies.getValueAtQuantile(0.99),
+                latencies.getValueAtQuantile(0.999),
+                latencies.getMax());
+    }
+
+    void reset() {
+        latencies.reset();
+        calls.reset();
+        errors.reset();
+    }
+}
@@ -0,0 +1,61 @@
+package infrastructure.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Photographie immuable des mesures d'une opération, exposée telle quelle via JMX.
+ * Les latences sont exprimées en nanosecondes.
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class OperationSnapshot {
+
+    private final String name;
+    private final long callCount;
+    private final long errorCount;
+    private final long p50Nanos;
+    private final long p99Nanos;
+    private final long p999Nanos;
+    private final long maxNanos;
+
+    @ConstructorProperties({"name", "callCount", "errorCount", "p50Nanos", "p99Nanos", "p999Nanos", "maxNanos"})
+    public OperationSnapshot(String name, long callCount, long errorCount,
+                             long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos) {
+        this.name = name;
+        this.callCount = callCount;
+        this.errorCount = errorCount;
+        this.p50Nanos = p50Nanos;
+        this.p99Nanos = p99Nanos;
+        this.p999Nanos = p999Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCallCount() {
+        return callCount;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getP999Nanos() {
+        return p999Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+}
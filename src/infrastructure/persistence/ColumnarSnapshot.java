@@ -0,0 +1,402 @@
+package infrastructure.persistence;
+
+import domain.catalog.Brand;
+import domain.catalog.ProductLine;
+import domain.product.ContainerProduct;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+import infrastructure.ProductIdGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fichier instantané du catalogue au format colonnes, destiné à être projeté en mémoire
+ * ({@link FileChannel#map}).
+ * <p>
+ * Chaque attribut est stocké dans une colonne contiguë (prix en centimes, stocks, références de marque
+ * et de gamme, liens de conteneur, décalages des identifiants et des noms), suivie des tas
+ * de chaînes UTF-8 et d'un petit dictionnaire des marques et gammes. Les lignes sont triées
+ * par identifiant (ordre des octets UTF-8) : une recherche par identifiant est une recherche
+ * dichotomique directement dans le fichier projeté, sans index à reconstruire au démarrage.
+ * </p>
+ * <p>
+ * L'ouverture ne lit que l'en-tête et le dictionnaire : les produits sont reconstruits
+ * à la demande ({@link #materialize(int)}). La projection est limitée à 2 Go par fichier.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.3
+ */
+final class ColumnarSnapshot {
+
+    private static final int MAGIC = 0x434F4C53;
+    private static final int FORMAT_VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final byte HIDDEN = 1;
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final int prices;
+    private final int stocks;
+    private final int brandRefs;
+    private final int lineRefs;
+    private final int containedRows;
+    private final int containedQuantities;
+    private final int idOffsets;
+    private final int nameOffsets;
+    private final int flags;
+    private final int idHeap;
+    private final int nameHeap;
+    private final Brand[] brands;
+    private final ProductLine[] lines;
+    private final int visibleCount;
+    private final long maxNumericId;
+
+    private ColumnarSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Format d'instantané colonnes non reconnu");
+        }
+        rowCount = buffer.getInt(8);
+        int brandCount = buffer.getInt(12);
+        int lineCount = buffer.getInt(16);
+        int dictionary = buffer.getInt(20);
+        visibleCount = buffer.getInt(24);
+        maxNumericId = buffer.getLong(28);
+        prices = HEADER_SIZE;
+        stocks = prices + Long.BYTES * rowCount;
+        brandRefs = stocks + Integer.BYTES * rowCount;
+        lineRefs = brandRefs + Integer.BYTES * rowCount;
+        containedRows = lineRefs + Integer.BYTES * rowCount;
+        containedQuantities = containedRows + Integer.BYTES * rowCount;
+        idOffsets = containedQuantities + Integer.BYTES * rowCount;
+        nameOffsets = idOffsets + Integer.BYTES * (rowCount + 1);
+        flags = nameOffsets + Integer.BYTES * (rowCount + 1);
+        idHeap = flags + rowCount;
+        nameHeap = idHeap + buffer.getInt(idOffsets + Integer.BYTES * rowCount);
+
+        ByteBuffer dict = buffer.duplicate();
+        dict.position(dictionary);
+        brands = new Brand[brandCount];
+        for (int i = 0; i < brandCount; i++) {
+            brands[i] = new Brand(readString(dict), readString(dict));
+        }
+        lines = new ProductLine[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            String lineId = readString(dict);
+            String lineName = readString(dict);
+            lines[i] = new ProductLine(lineId, lineName, brands[dict.getInt()]);
+        }
+    }
+
+    /**
+     * Projette un instantané en mémoire. Seuls l'en-tête et le dictionnaire sont lus.
+     *
+     * @param file fichier instantané
+     * @return instantané projeté
+     * @throws IOException si le fichier est illisible, invalide ou dépasse 2 Go
+     */
+    static ColumnarSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Instantané trop volumineux pour être projeté : " + channel.size() + " octets");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ColumnarSnapshot(mapped);
+        }
+    }
+
+    /**
+     * Écrit un instantané des produits de façon atomique (fichier temporaire puis renommage).
+     * Les produits contenus dans un conteneur mais absents de la collection sont conservés
+     * sous forme de lignes masquées.
+     *
+     * @param file fichier cible
+     * @param products produits du catalogue
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void write(Path file, Collection<Product> products) throws IOException {
+        Map<String, Product> visible = new LinkedHashMap<>();
+        for (Product product : products) {
+            visible.put(product.getProductId(), product);
+        }
+        Map<String, Product> all = new LinkedHashMap<>(visible);
+        for (Product product : products) {
+            Product current = product;
+            while (current instanceof ContainerProduct cp) {
+                current = cp.getContainedProduct();
+                all.putIfAbsent(current.getProductId(), current);
+            }
+        }
+
+        Product[] rows = all.values().toArray(new Product[0]);
+        byte[][] ids = new byte[rows.length][];
+        Integer[] order = new Integer[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = rows[i].getProductId().getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(ids[a], ids[b]));
+        Map<String, Integer> rowOf = new LinkedHashMap<>();
+        for (int row = 0; row < order.length; row++) {
+            rowOf.put(rows[order[row]].getProductId(), row);
+        }
+
+        Map<String, Integer> brandOrdinals = new LinkedHashMap<>();
+        List<Brand> brandList = new ArrayList<>();
+        Map<String, Integer> lineOrdinals = new LinkedHashMap<>();
+        List<ProductLine> lineList = new ArrayList<>();
+        for (Product product : rows) {
+            ordinal(product.getBrand(), product.getBrand().getBrandId(), brandOrdinals, brandList);
+            ordinal(product.getProductLine().getBrand(), product.getProductLine().getBrand().getBrandId(),
+                    brandOrdinals, brandList);
+            ordinal(product.getProductLine(), product.getProductLine().getLineId(), lineOrdinals, lineList);
+        }
+
+        int n = rows.length;
+        byte[][] names = new byte[n][];
+        int idBytes = 0;
+        int nameBytes = 0;
+        for (int row = 0; row < n; row++) {
+            Product product = rows[order[row]];
+            names[row] = product.getName().getBytes(StandardCharsets.UTF_8);
+            idBytes += ids[order[row]].length;
+            nameBytes += names[row].length;
+        }
+        long dictionary = HEADER_SIZE + (long) n * (Long.BYTES + 5 * Integer.BYTES)
+                + 2L * Integer.BYTES * (n + 1) + n + idBytes + nameBytes;
+        if (dictionary > Integer.MAX_VALUE) {
+            throw new IOException("Catalogue trop volumineux pour un instantané projeté unique");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(n);
+            out.writeInt(brandList.size());
+            out.writeInt(lineList.size());
+            out.writeInt((int) dictionary);
+            out.writeInt(visible.size());
+            out.writeLong(maxNumericId(visible.keySet()));
+            out.write(new byte[HEADER_SIZE - 7 * Integer.BYTES - Long.BYTES]);
+
+            for (int row = 0; row < n; row++) {
+                out.writeLong(rows[order[row]].getPriceCents());
+            }
+            for (int row = 0; row < n; row++) {
+                out.writeInt(rows[order[row]].getStock());
+            }
+            for (int row = 0; row < n; row++) {
+                out.writeInt(brandOrdinals.get(rows[order[row]].getBrand().getBrandId()));
+            }
+            for (int row = 0; row < n; row++) {
+                out.writeInt(lineOrdinals.get(rows[order[row]].getProductLine().getLineId()));
+            }
+            for (int row = 0; row < n; row++) {
+                Product product = rows[order[row]];
+                out.writeInt(product instanceof ContainerProduct cp
+                        ? rowOf.get(cp.getContainedProduct().getProductId()) : -1);
+            }
+            for (int row = 0; row < n; row++) {
+                Product product = rows[order[row]];
+                out.writeInt(product instanceof ContainerProduct cp ? cp.getContainedQuantity() : 0);
+            }
+            int offset = 0;
+            for (int row = 0; row < n; row++) {
+                out.writeInt(offset);
+                offset += ids[order[row]].length;
+            }
+            out.writeInt(offset);
+            offset = 0;
+            for (int row = 0; row < n; row++) {
+                out.writeInt(offset);
+                offset += names[row].length;
+            }
+            out.writeInt(offset);
+            for (int row = 0; row < n; row++) {
+                out.writeByte(visible.containsKey(rows[order[row]].getProductId()) ? 0 : HIDDEN);
+            }
+            for (int row = 0; row < n; row++) {
+                out.write(ids[order[row]]);
+            }
+            for (int row = 0; row < n; row++) {
+                out.write(names[row]);
+            }
+            for (Brand brand : brandList) {
+                writeString(out, brand.getBrandId());
+                writeString(out, brand.getName());
+            }
+            for (ProductLine line : lineList) {
+                writeString(out, line.getLineId());
+                writeString(out, line.getName());
+                out.writeInt(brandOrdinals.get(line.getBrand().getBrandId()));
+            }
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return nombre de produits visibles (hors produits uniquement référencés par un conteneur)
+     */
+    int size() {
+        return visibleCount;
+    }
+
+    /**
+     * @return plus grand identifiant numérique visible (0 si aucun), pour le générateur d'identifiants
+     */
+    long maxNumericId() {
+        return maxNumericId;
+    }
+
+    /**
+     * @return nombre total de lignes, y compris les lignes masquées
+     */
+    int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Indique si une ligne correspond à un produit du catalogue (et non à un simple contenu).
+     *
+     * @param row indice de ligne
+     * @return true si la ligne est visible
+     */
+    boolean isVisible(int row) {
+        return buffer.get(flags + row) != HIDDEN;
+    }
+
+    /**
+     * Recherche dichotomique d'un identifiant dans la colonne triée des identifiants.
+     *
+     * @param productId identifiant recherché
+     * @return indice de la ligne visible correspondante, ou -1 si absent
+     */
+    int find(String productId) {
+        byte[] key = productId.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareId(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return isVisible(mid) ? mid : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Retourne l'identifiant d'une ligne.
+     *
+     * @param row indice de ligne
+     * @return identifiant du produit
+     */
+    String idAt(int row) {
+        return string(idHeap, idOffsets, row);
+    }
+
+    /**
+     * Reconstruit le produit d'une ligne à partir des colonnes projetées.
+     *
+     * @param row indice de ligne
+     * @return produit reconstruit
+     */
+    Product materialize(int row) {
+        String id = idAt(row);
+        String name = nameAt(row);
+        long priceCents = buffer.getLong(prices + Long.BYTES * row);
+        int stock = buffer.getInt(stocks + Integer.BYTES * row);
+        Brand brand = brands[buffer.getInt(brandRefs + Integer.BYTES * row)];
+        ProductLine line = lines[buffer.getInt(lineRefs + Integer.BYTES * row)];
+        int contained = buffer.getInt(containedRows + Integer.BYTES * row);
+        if (contained >= 0) {
+            int quantity = buffer.getInt(containedQuantities + Integer.BYTES * row);
+            return ContainerProduct.ofCents(id, name, priceCents, stock, materialize(contained), quantity, brand, line);
+        }
+        return SimpleProduct.ofCents(id, name, priceCents, stock, brand, line);
+    }
+
+    private int compareId(int row, byte[] key) {
+        int start = idHeap + buffer.getInt(idOffsets + Integer.BYTES * row);
+        int end = idHeap + buffer.getInt(idOffsets + Integer.BYTES * (row + 1));
+        int length = Math.min(end - start, key.length);
+        for (int i = 0; i < length; i++) {
+            int cmp = Byte.toUnsignedInt(buffer.get(start + i)) - Byte.toUnsignedInt(key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return (end - start) - key.length;
+    }
+
+    /**
+     * Retourne le nom d'une ligne sans reconstruire le produit.
+     *
+     * @param row indice de ligne
+     * @return nom du produit
+     */
+    String nameAt(int row) {
+        return string(nameHeap, nameOffsets, row);
+    }
+
+    private String string(int heap, int offsets, int row) {
+        int start = buffer.getInt(offsets + Integer.BYTES * row);
+        int end = buffer.getInt(offsets + Integer.BYTES * (row + 1));
+        byte[] bytes = new byte[end - start];
+        buffer.get(heap + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long maxNumericId(Collection<String> productIds) {
+        long max = 0;
+        for (String productId : productIds) {
+            max = Math.max(max, ProductIdGenerator.numericValue(productId));
+        }
+        return max;
+    }
+
+    private static <T> void ordinal(T value, String key, Map<String, Integer> ordinals, List<T> values) {
+        if (!ordinals.containsKey(key)) {
+            ordinals.put(key, values.size());
+            values.add(value);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
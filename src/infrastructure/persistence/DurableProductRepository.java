@@ -0,0 +1,480 @@
+package infrastructure.persistence;
+
+import application.ports.VersionedProduct;
+import domain.product.Product;
+import infrastructure.ConcurrentProductRepository;
+import infrastructure.ForwardingProductRepository;
+import infrastructure.ProductIdGenerator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Implémentation durable de {@link application.ports.ProductRepository}, adossée à un
+ * journal d'écriture anticipée et à des instantanés périodiques.
+ * <p>
+ * L'état courant est conservé en mémoire dans un {@link ConcurrentProductRepository}
+ * (lectures et index inchangés). Chaque mutation — enregistrement, suppression, mise à
+ * jour de stock suite à une vente, lot importé — est d'abord ajoutée au journal binaire,
+ * puis appliquée en mémoire. Les ajouts au journal sont sérialisés par un verrou d'écriture afin que
+ * l'ordre du journal soit exactement l'ordre d'application.
+ * </p>
+ * <p>
+ * Un point de contrôle (instantané) est écrit en tâche de fond à intervalle régulier :
+ * le journal bascule sur un nouveau segment, l'état est copié hors du verrou d'écriture et
+ * écrit de façon atomique (fichier temporaire puis renommage), puis les segments couverts
+ * sont supprimés.
+ * Au démarrage, seul le dernier instantané valide est chargé et seule la fin du journal
+ * qui lui est postérieure est rejouée.
+ * </p>
+ * <p>
+ * Un instantané de fond qui échoue ne compromet pas la durabilité : les segments du journal
+ * ne sont supprimés qu'après un instantané réussi. L'échec est compté
+ * ({@link #getCheckpointFailureCount()}) et conservé ({@link #getLastCheckpointFailure()})
+ * jusqu'au prochain instantané réussi.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.4
+ */
+public class DurableProductRepository extends ForwardingProductRepository implements AutoCloseable {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin";
+    private static final int SNAPSHOT_MAGIC = 0x50524F44;
+    private static final String ID_MARK_FILE = "product-ids.hwm";
+
+    private final Path directory;
+    private final WriteAheadLog log;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object checkpointMonitor = new Object();
+    private final ScheduledExecutorService checkpointer;
+    private final LongAdder checkpointFailures = new LongAdder();
+    private volatile UncheckedIOException lastCheckpointFailure;
+
+    /**
+     * Ouvre (ou crée) un dépôt durable dans le répertoire donné et restaure son état.
+     *
+     * @param directory répertoire contenant le journal et les instantanés
+     * @param policy politique de synchronisation disque du journal
+     * @param checkpointInterval intervalle entre deux instantanés en tâche de fond
+     *                           (null ou nul pour désactiver les instantanés automatiques)
+     * @throws UncheckedIOException si le répertoire ne peut pas être lu ou initialisé
+     */
+    public DurableProductRepository(Path directory, FsyncPolicy policy, Duration checkpointInterval) {
+        super(new ConcurrentProductRepository());
+        if (directory == null || policy == null) {
+            throw new IllegalArgumentException("directory and policy cannot be null");
+        }
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+            long snapshotLsn = loadLatestSnapshot();
+            long lastLsn = WriteAheadLog.replay(directory, snapshotLsn, this::applyRecord);
+            this.log = new WriteAheadLog(directory, policy, lastLsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de restaurer le dépôt depuis " + directory, e);
+        }
+        initializeIdGenerator();
+
+        if (checkpointInterval != null && !checkpointInterval.isZero() && !checkpointInterval.isNegative()) {
+            long period = checkpointInterval.toMillis();
+            checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "product-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            checkpointer.scheduleWithFixedDelay(this::checkpointQuietly, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            checkpointer = null;
+        }
+    }
+
+    /**
+     * Fichier de borne haute du générateur d'identifiants, à côté du journal. Le dépôt
+     * l'active à l'ouverture et le libère à la fermeture : les identifiants distribués mais
+     * jamais enregistrés avant un arrêt ne sont pas réattribués au redémarrage.
+     *
+     * @return chemin du fichier de borne haute
+     */
+    public Path getIdMarkFile() {
+        return directory.resolve(ID_MARK_FILE);
+    }
+
+    /**
+     * Journalise puis enregistre un produit.
+     *
+     * @param product produit à sauvegarder
+     * @throws UncheckedIOException si le journal ne peut pas être écrit
+     */
+    @Override
+    public void save(Product product) {
+        byte[] payload = encode(out -> ProductCodec.write(out, product));
+        long lsn;
+        writeLock.lock();
+        try {
+            lsn = log.append(WriteAheadLog.SAVE, payload);
+            delegate().save(product);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible", e);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(lsn);
+    }
+
+    /**
+     * Journalise un lot de produits en un seul enregistrement, puis l'applique en mémoire
+     * (chemin d'écriture en masse : un seul ajout au journal et une seule attente de
+     * durabilité par lot).
+     *
+     * @param products produits à sauvegarder
+     * @throws UncheckedIOException si le journal ne peut pas être écrit
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        byte[] payload = encode(out -> {
+            out.writeInt(products.size());
+            for (Product product : products) {
+                ProductCodec.write(out, product);
+            }
+        });
+        long lsn;
+        writeLock.lock();
+        try {
+            lsn = log.append(WriteAheadLog.SALE, payload);
+            delegate().saveAll(products);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible", e);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(lsn);
+    }
+
+    /**
+     * Journalise puis supprime un produit. Une suppression d'un identifiant absent n'est pas journalisée.
+     *
+     * @param productId identifiant du produit à supprimer
+     * @throws UncheckedIOException si le journal ne peut pas être écrit
+     */
+    @Override
+    public void deleteById(String productId) {
+        byte[] payload = encode(out -> out.writeUTF(productId));
+        long lsn;
+        writeLock.lock();
+        try {
+            if (!delegate().existsById(productId)) {
+                return;
+            }
+            lsn = log.append(WriteAheadLog.DELETE, payload);
+            delegate().deleteById(productId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible", e);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(lsn);
+    }
+
+    /**
+     * Vérifie les versions attendues, journalise les nouveaux stocks en un seul enregistrement
+     * puis les applique. Aucun enregistrement n'est écrit en cas de conflit.
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs (alignées sur {@code expected})
+     * @return true si les mises à jour ont été journalisées et appliquées, false en cas de conflit
+     * @throws UncheckedIOException si le journal ne peut pas être écrit
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        if (expected.size() != replacements.size()) {
+            throw new IllegalArgumentException("expected and replacements must have the same size");
+        }
+        byte[] payload = encode(out -> {
+            out.writeInt(replacements.size());
+            for (Product replacement : replacements) {
+                ProductCodec.write(out, replacement);
+            }
+        });
+        long lsn;
+        writeLock.lock();
+        try {
+            for (VersionedProduct entry : expected) {
+                VersionedProduct current = delegate().findVersionedById(entry.getProduct().getProductId());
+                if (current == null || current.getVersion() != entry.getVersion()
+                        || current.getProduct() != entry.getProduct()) {
+                    return false;
+                }
+            }
+            lsn = log.append(WriteAheadLog.SALE, payload);
+            // Toutes les écritures passent par ce verrou : les versions ne peuvent plus changer.
+            delegate().compareAndSaveAll(expected, replacements);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible", e);
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(lsn);
+        return true;
+    }
+
+    /**
+     * Écrit un instantané de l'état courant et supprime les segments de journal qu'il couvre.
+     * <p>
+     * Seule la bascule du journal se fait sous le verrou d'écriture : elle fixe le LSN couvert,
+     * et l'état en mémoire reflète alors exactement les enregistrements jusqu'à ce LSN. L'état
+     * est ensuite copié sans bloquer les écritures ; il peut déjà contenir des modifications
+     * postérieures, que la relecture du journal réappliquera. Chaque enregistrement porte la
+     * valeur complète des produits concernés (pas de variation), sa réapplication est donc
+     * sans effet sur un état qui le contient déjà.
+     * </p>
+     *
+     * @throws UncheckedIOException si l'instantané ne peut pas être écrit
+     */
+    public void checkpoint() {
+        synchronized (checkpointMonitor) {
+            long coveredLsn;
+            writeLock.lock();
+            try {
+                coveredLsn = log.rotate();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Bascule du journal impossible", e);
+            } finally {
+                writeLock.unlock();
+            }
+            List<Product> products = delegate().findAll();
+            try {
+                writeSnapshot(coveredLsn, products);
+                log.deleteSegmentsUpTo(coveredLsn);
+                deleteSnapshotsBefore(coveredLsn);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Écriture de l'instantané impossible", e);
+            }
+            lastCheckpointFailure = null;
+        }
+    }
+
+    /**
+     * @return nombre d'instantanés de fond ayant échoué depuis l'ouverture
+     */
+    public long getCheckpointFailureCount() {
+        return checkpointFailures.sum();
+    }
+
+    /**
+     * @return dernier échec d'un instantané de fond, ou null si le dernier instantané a réussi
+     */
+    public UncheckedIOException getLastCheckpointFailure() {
+        return lastCheckpointFailure;
+    }
+
+    /**
+     * Arrête les instantanés automatiques, écrit un dernier instantané et ferme le journal.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'écriture
+     */
+    @Override
+    public void close() {
+        if (checkpointer != null) {
+            checkpointer.shutdown();
+            try {
+                checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkpoint();
+        ProductIdGenerator.releasePersistence(getIdMarkFile());
+        try {
+            log.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Fermeture du journal impossible", e);
+        }
+    }
+
+    /**
+     * Applique en mémoire un enregistrement relu depuis le journal.
+     */
+    private void applyRecord(long lsn, byte type, DataInputStream in) throws IOException {
+        switch (type) {
+            case WriteAheadLog.SAVE -> delegate().save(ProductCodec.read(in));
+            case WriteAheadLog.DELETE -> delegate().deleteById(in.readUTF());
+            case WriteAheadLog.SALE -> {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    delegate().save(ProductCodec.read(in));
+                }
+            }
+            default -> throw new IOException("Type d'enregistrement inconnu " + type + " (LSN " + lsn + ")");
+        }
+    }
+
+    /**
+     * Charge le plus récent instantané valide.
+     *
+     * @return LSN couvert par l'instantané chargé (0 si aucun)
+     */
+    private long loadLatestSnapshot() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            List<Product> products = readSnapshot(snapshots.get(i));
+            if (products != null) {
+                for (Product product : products) {
+                    delegate().save(product);
+                }
+                return lsnOf(snapshots.get(i));
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Lit un instantané et vérifie sa somme de contrôle.
+     *
+     * @return produits de l'instantané, ou null s'il est invalide
+     */
+    private static List<Product> readSnapshot(Path file) {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                return null;
+            }
+            in.readLong();
+            int count = in.readInt();
+            List<Product> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                products.add(ProductCodec.read(in));
+            }
+            long expected = crc.getValue();
+            return in.readLong() == expected ? products : null;
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Écrit un instantané dans un fichier temporaire synchronisé sur disque, puis le renomme atomiquement.
+     */
+    private void writeSnapshot(long coveredLsn, List<Product> products) throws IOException {
+        Path target = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, coveredLsn, SNAPSHOT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file), crc))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(coveredLsn);
+            out.writeInt(products.size());
+            for (Product product : products) {
+                ProductCodec.write(out, product);
+            }
+            out.flush();
+            long checksum = crc.getValue();
+            out.writeLong(checksum);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteSnapshotsBefore(long coveredLsn) throws IOException {
+        for (Path snapshot : listSnapshots()) {
+            if (lsnOf(snapshot) < coveredLsn) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    private List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().startsWith(SNAPSHOT_PREFIX)
+                            && p.getFileName().toString().endsWith(SNAPSHOT_SUFFIX))
+                    .sorted()
+                    .forEach(snapshots::add);
+        }
+        return snapshots;
+    }
+
+    private static long lsnOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        return Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+    }
+
+    /**
+     * Évite que le générateur d'identifiants ne réattribue un identifiant restauré ou déjà
+     * distribué : la borne haute est relevée au-delà des produits relus, puis enregistrée
+     * dans {@link #getIdMarkFile()}.
+     */
+    private void initializeIdGenerator() {
+        long max = 0;
+        for (Product product : delegate().findAll()) {
+            max = Math.max(max, ProductIdGenerator.numericValue(product.getProductId()));
+        }
+        ProductIdGenerator.initializeFrom(max);
+        ProductIdGenerator.configurePersistence(getIdMarkFile());
+    }
+
+    private void awaitDurable(long lsn) {
+        try {
+            log.awaitDurable(lsn);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Synchronisation du journal impossible", e);
+        }
+    }
+
+    /**
+     * Instantané de fond : un échec est enregistré pour {@link #getLastCheckpointFailure()}
+     * au lieu d'arrêter les instantanés suivants.
+     */
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (UncheckedIOException e) {
+            checkpointFailures.increment();
+            lastCheckpointFailure = e;
+        }
+    }
+
+    /**
+     * Encode des données binaires en mémoire.
+     */
+    private static byte[] encode(Encoder encoder) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            encoder.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private interface Encoder {
+        void write(DataOutputStream out) throws IOException;
+    }
+}
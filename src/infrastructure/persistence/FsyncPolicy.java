@@ -0,0 +1,74 @@
+package infrastructure.persistence;
+
+import java.time.Duration;
+
+/**
+ * Politique de synchronisation disque ({@code fsync}) du journal d'écriture.
+ * <p>
+ * Permet d'arbitrer entre durabilité et débit :
+ * </p>
+ * <ul>
+ *     <li>{@link #perWrite()} : chaque écriture est forcée sur disque avant d'être acquittée
+ *     (aucune perte, débit le plus faible) ;</li>
+ *     <li>{@link #groupCommit(Duration)} : les écritures sont forcées par lots à intervalle
+ *     régulier, chaque écrivain attendant le lot qui le contient (aucune perte, une seule
+ *     synchronisation partagée par plusieurs écritures) ;</li>
+ *     <li>{@link #osManaged()} : le système d'exploitation décide du moment de l'écriture
+ *     physique (débit maximal, les dernières écritures peuvent être perdues en cas de panne
+ *     machine, mais pas en cas d'arrêt du seul processus).</li>
+ * </ul>
+ *
+ * @author Lucas
+ * @version 1.0
+ */
+public final class FsyncPolicy {
+
+    /**
+     * Modes de synchronisation disponibles.
+     */
+    public enum Mode {
+        PER_WRITE, GROUP_COMMIT, OS_MANAGED
+    }
+
+    private final Mode mode;
+    private final Duration interval;
+
+    private FsyncPolicy(Mode mode, Duration interval) {
+        this.mode = mode;
+        this.interval = interval;
+    }
+
+    /**
+     * @return politique forçant chaque écriture sur disque
+     */
+    public static FsyncPolicy perWrite() {
+        return new FsyncPolicy(Mode.PER_WRITE, Duration.ZERO);
+    }
+
+    /**
+     * @param interval intervalle entre deux synchronisations groupées (strictement positif)
+     * @return politique de synchronisation groupée
+     * @throws IllegalArgumentException si l'intervalle est nul ou négatif
+     */
+    public static FsyncPolicy groupCommit(Duration interval) {
+        if (interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("interval must be strictly positive");
+        }
+        return new FsyncPolicy(Mode.GROUP_COMMIT, interval);
+    }
+
+    /**
+     * @return politique laissant le système d'exploitation gérer l'écriture physique
+     */
+    public static FsyncPolicy osManaged() {
+        return new FsyncPolicy(Mode.OS_MANAGED, Duration.ZERO);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+}
@@ -0,0 +1,383 @@
+package infrastructure.persistence;
+
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import domain.product.Product;
+import infrastructure.ProductIdGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Implémentation de {@link ProductRepository} ouverte directement sur un instantané
+ * colonnes projeté en mémoire ({@link ColumnarSnapshot}).
+ * <p>
+ * L'ouverture ne construit aucun produit : seuls l'en-tête et le dictionnaire des marques
+ * et gammes sont lus, si bien qu'un catalogue de plusieurs millions de références est
+ * disponible en quelques millisecondes. Un produit est reconstruit à chaque lecture par
+ * identifiant, sans être conservé : la mémoire occupée ne dépend que des écritures.
+ * </p>
+ * <p>
+ * Les écritures sont conservées dans une surcouche mémoire (produits enregistrés, avec un
+ * numéro de version, et identifiants supprimés). Un produit jamais modifié depuis
+ * l'instantané porte la version de base de cet instantané, supérieure à toutes les versions
+ * attribuées avant sa réécriture : le compare-and-set des ventes compare les versions, pas
+ * les instances, et une lecture antérieure à une réécriture ne peut plus être confirmée.
+ * </p>
+ * <p>
+ * Chaque réécriture produit une nouvelle génération ({@code <fichier>.<n>}), projetée à
+ * son tour, au lieu de remplacer le fichier encore projeté ; la génération précédente est
+ * ensuite supprimée. À l'ouverture, la génération la plus récente est retenue (le fichier
+ * de base lui-même, s'il existe, est la génération 0).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public class MappedProductRepository implements ProductRepository, AutoCloseable {
+
+    private final Path file;
+    private final Map<String, VersionedProduct> overlay = new ConcurrentHashMap<>();
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private long writes;
+    private volatile long baseVersion;
+    private long generation = -1;
+    private volatile ColumnarSnapshot snapshot;
+    private volatile boolean dirty;
+
+    /**
+     * Ouvre le dépôt sur la dernière génération de l'instantané (créée à la fermeture s'il
+     * n'en existe aucune).
+     *
+     * @param file fichier instantané colonnes (nom de base des générations)
+     * @throws UncheckedIOException si la dernière génération ne peut pas être projetée
+     */
+    public MappedProductRepository(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("file cannot be null");
+        }
+        this.file = file;
+        try {
+            List<Long> generations = generations();
+            if (!generations.isEmpty()) {
+                generation = generations.get(generations.size() - 1);
+                snapshot = ColumnarSnapshot.open(generationFile(generation));
+                for (long older : generations.subList(0, generations.size() - 1)) {
+                    Files.deleteIfExists(generationFile(older));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de projeter l'instantané " + file, e);
+        }
+        if (snapshot != null) {
+            ProductIdGenerator.initializeFrom(snapshot.maxNumericId());
+        }
+    }
+
+    /**
+     * Enregistre ou met à jour un produit dans la surcouche mémoire.
+     *
+     * @param product produit à sauvegarder
+     */
+    @Override
+    public void save(Product product) {
+        writeLock.lock();
+        try {
+            put(product);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Enregistre un lot de produits dans la surcouche, sous une seule prise du verrou d'écriture.
+     *
+     * @param products produits à enregistrer
+     */
+    @Override
+    public void saveAll(List<Product> products) {
+        writeLock.lock();
+        try {
+            for (Product product : products) {
+                put(product);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Vérifie si un produit existe, sans le reconstruire.
+     *
+     * @param productId identifiant du produit
+     * @return true si le produit existe, false sinon
+     */
+    @Override
+    public boolean existsById(String productId) {
+        if (deleted.contains(productId)) {
+            return false;
+        }
+        ColumnarSnapshot base = snapshot;
+        return overlay.containsKey(productId) || (base != null && base.find(productId) >= 0);
+    }
+
+    /**
+     * Recherche un produit par son identifiant (recherche dichotomique dans l'instantané,
+     * reconstruction sans mise en cache).
+     *
+     * @param productId identifiant du produit
+     * @return le produit correspondant, ou null si absent
+     */
+    @Override
+    public Product findById(String productId) {
+        VersionedProduct found = findVersionedById(productId);
+        return found == null ? null : found.getProduct();
+    }
+
+    /**
+     * Recherche un produit avec sa version : celle de sa dernière écriture, ou la version de
+     * base de l'instantané s'il n'a pas été modifié depuis.
+     *
+     * @param productId identifiant du produit
+     * @return le produit et sa version, ou null si absent
+     */
+    @Override
+    public VersionedProduct findVersionedById(String productId) {
+        if (deleted.contains(productId)) {
+            return null;
+        }
+        VersionedProduct written = overlay.get(productId);
+        if (written != null) {
+            return written;
+        }
+        // version lue avant l'instantané : elle ne peut pas être plus récente que lui
+        long version = baseVersion;
+        ColumnarSnapshot base = snapshot;
+        int row = base == null ? -1 : base.find(productId);
+        return row < 0 ? null : new VersionedProduct(base.materialize(row), version);
+    }
+
+    /**
+     * Retourne tous les produits. Les produits jamais consultés sont reconstruits
+     * sans être conservés en mémoire.
+     *
+     * @return liste de tous les produits
+     */
+    @Override
+    public List<Product> findAll() {
+        ColumnarSnapshot base = snapshot;
+        List<Product> results = new ArrayList<>(base == null ? overlay.size() : base.size());
+        if (base != null) {
+            for (int row = 0; row < base.rowCount(); row++) {
+                if (!base.isVisible(row)) {
+                    continue;
+                }
+                String productId = base.idAt(row);
+                if (deleted.contains(productId)) {
+                    continue;
+                }
+                VersionedProduct written = overlay.get(productId);
+                results.add(written != null ? written.getProduct() : base.materialize(row));
+            }
+        }
+        for (Map.Entry<String, VersionedProduct> entry : overlay.entrySet()) {
+            if (!deleted.contains(entry.getKey()) && (base == null || base.find(entry.getKey()) < 0)) {
+                results.add(entry.getValue().getProduct());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Recherche les produits contenant le mot-clé dans leur nom (insensible à la casse).
+     * Les noms de l'instantané sont lus dans la colonne des noms, sans reconstruire
+     * les produits qui ne correspondent pas.
+     *
+     * @param keyword mot-clé à rechercher
+     * @return liste des produits correspondants
+     */
+    @Override
+    public List<Product> search(String keyword) {
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        List<Product> results = new ArrayList<>();
+        ColumnarSnapshot base = snapshot;
+        if (base != null) {
+            for (int row = 0; row < base.rowCount(); row++) {
+                if (!base.isVisible(row)) {
+                    continue;
+                }
+                String productId = base.idAt(row);
+                if (deleted.contains(productId) || overlay.containsKey(productId)) {
+                    continue;
+                }
+                if (base.nameAt(row).toLowerCase(Locale.ROOT).contains(lowerKeyword)) {
+                    results.add(base.materialize(row));
+                }
+            }
+        }
+        for (Map.Entry<String, VersionedProduct> entry : overlay.entrySet()) {
+            Product product = entry.getValue().getProduct();
+            if (!deleted.contains(entry.getKey())
+                    && product.getName().toLowerCase(Locale.ROOT).contains(lowerKeyword)) {
+                results.add(product);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Supprime un produit. La suppression d'un produit de l'instantané est mémorisée
+     * jusqu'à sa réécriture.
+     *
+     * @param productId identifiant du produit à supprimer
+     */
+    @Override
+    public void deleteById(String productId) {
+        writeLock.lock();
+        try {
+            overlay.remove(productId);
+            ColumnarSnapshot base = snapshot;
+            if (base != null && base.find(productId) >= 0) {
+                deleted.add(productId);
+            }
+            dirty = true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Applique les mises à jour si chaque produit attendu est toujours présent, à la version
+     * lue. Les écritures étant sérialisées, la vérification et l'application sont atomiques.
+     *
+     * @param expected produits lus avec leur version
+     * @param replacements nouvelles valeurs (alignées sur {@code expected})
+     * @return true si les mises à jour ont été appliquées, false en cas de conflit
+     */
+    @Override
+    public boolean compareAndSaveAll(List<VersionedProduct> expected, List<Product> replacements) {
+        if (expected.size() != replacements.size()) {
+            throw new IllegalArgumentException("expected and replacements must have the same size");
+        }
+        writeLock.lock();
+        try {
+            for (VersionedProduct entry : expected) {
+                VersionedProduct current = findVersionedById(entry.getProduct().getProductId());
+                if (current == null || current.getVersion() != entry.getVersion()) {
+                    return false;
+                }
+            }
+            for (Product replacement : replacements) {
+                put(replacement);
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Écrit une nouvelle génération de l'instantané si le dépôt a été modifié, la projette,
+     * puis supprime la génération précédente. Les lectures en cours sur l'ancienne
+     * projection restent valides.
+     *
+     * @throws UncheckedIOException en cas d'erreur d'écriture
+     */
+    public void writeSnapshot() {
+        writeLock.lock();
+        try {
+            if (!dirty && snapshot != null) {
+                return;
+            }
+            long next = generation + 1;
+            Path target = generationFile(next);
+            ColumnarSnapshot.write(target, findAll());
+            snapshot = ColumnarSnapshot.open(target);
+            baseVersion = ++writes;
+            overlay.clear();
+            deleted.clear();
+            dirty = false;
+            long previous = generation;
+            generation = next;
+            if (previous >= 0) {
+                deleteQuietly(generationFile(previous));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture de l'instantané impossible : " + file, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Réécrit l'instantané si nécessaire.
+     */
+    @Override
+    public void close() {
+        writeSnapshot();
+    }
+
+    /**
+     * Enregistre un produit dans la surcouche. L'appelant doit détenir le verrou d'écriture.
+     *
+     * @param product produit à enregistrer
+     */
+    private void put(Product product) {
+        overlay.put(product.getProductId(), new VersionedProduct(product, ++writes));
+        deleted.remove(product.getProductId());
+        dirty = true;
+    }
+
+    /**
+     * Supprime une génération remplacée. Si le système refuse de supprimer un fichier encore
+     * projeté, elle sera supprimée à la prochaine ouverture.
+     */
+    private static void deleteQuietly(Path generationFile) {
+        try {
+            Files.deleteIfExists(generationFile);
+        } catch (IOException e) {
+            // supprimée à la prochaine ouverture
+        }
+    }
+
+    /**
+     * @return fichier de la génération donnée (0 : le fichier de base)
+     */
+    private Path generationFile(long number) {
+        return number == 0 ? file : file.resolveSibling(String.format("%s.%020d", file.getFileName(), number));
+    }
+
+    /**
+     * @return numéros des générations présentes, par ordre croissant
+     */
+    private List<Long> generations() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        Path directory = file.toAbsolutePath().getParent();
+        if (!Files.isDirectory(directory)) {
+            return numbers;
+        }
+        String base = file.getFileName().toString();
+        Pattern pattern = Pattern.compile(Pattern.quote(base) + "(?:\\.(\\d{20}))?");
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(p -> pattern.matcher(p.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(m -> m.group(1) == null ? 0L : Long.parseLong(m.group(1)))
+                    .sorted()
+                    .forEach(numbers::add);
+        }
+        return numbers;
+    }
+}
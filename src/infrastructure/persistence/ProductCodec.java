@@ -0,0 +1,92 @@
+package infrastructure.persistence;
+
+import domain.catalog.Brand;
+import domain.catalog.ProductLine;
+import domain.money.Money;
+import domain.product.ContainerProduct;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Sérialisation binaire des produits utilisée par le journal et les instantanés.
+ * <p>
+ * Format d'un produit : type (octet), identifiant, nom, prix en centimes ({@code long}),
+ * stock, marque (identifiant + nom), gamme (identifiant + nom). Un conteneur ajoute ensuite
+ * la quantité contenue puis le produit contenu, encodé récursivement.
+ * </p>
+ * <p>
+ * Les enregistrements antérieurs, dont le prix était un {@code double} en euros, portent
+ * leurs propres types et restent lisibles.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+final class ProductCodec {
+
+    // prix en euros (double) : lecture seule
+    private static final byte LEGACY_SIMPLE = 0;
+    private static final byte LEGACY_CONTAINER = 1;
+    private static final byte SIMPLE = 2;
+    private static final byte CONTAINER = 3;
+
+    private ProductCodec() {
+    }
+
+    /**
+     * Écrit un produit dans le flux.
+     *
+     * @param out flux de sortie
+     * @param product produit à écrire
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void write(DataOutput out, Product product) throws IOException {
+        out.writeByte(product instanceof ContainerProduct ? CONTAINER : SIMPLE);
+        out.writeUTF(product.getProductId());
+        out.writeUTF(product.getName());
+        out.writeLong(product.getPriceCents());
+        out.writeInt(product.getStock());
+        out.writeUTF(product.getBrand().getBrandId());
+        out.writeUTF(product.getBrand().getName());
+        out.writeUTF(product.getProductLine().getLineId());
+        out.writeUTF(product.getProductLine().getName());
+        if (product instanceof ContainerProduct cp) {
+            out.writeInt(cp.getContainedQuantity());
+            write(out, cp.getContainedProduct());
+        }
+    }
+
+    /**
+     * Lit un produit depuis le flux.
+     *
+     * @param in flux d'entrée
+     * @return produit reconstruit
+     * @throws IOException en cas d'erreur de lecture ou de données invalides
+     */
+    static Product read(DataInput in) throws IOException {
+        byte type = in.readByte();
+        String id = in.readUTF();
+        String name = in.readUTF();
+        long priceCents = switch (type) {
+            case SIMPLE, CONTAINER -> in.readLong();
+            case LEGACY_SIMPLE, LEGACY_CONTAINER -> Money.ofEuros(in.readDouble());
+            default -> throw new IOException("Type de produit inconnu : " + type);
+        };
+        int stock = in.readInt();
+        Brand brand = new Brand(in.readUTF(), in.readUTF());
+        ProductLine line = new ProductLine(in.readUTF(), in.readUTF(), brand);
+        return switch (type) {
+            case SIMPLE, LEGACY_SIMPLE -> SimpleProduct.ofCents(id, name, priceCents, stock, brand, line);
+            case CONTAINER, LEGACY_CONTAINER -> {
+                int quantity = in.readInt();
+                Product contained = read(in);
+                yield ContainerProduct.ofCents(id, name, priceCents, stock, contained, quantity, brand, line);
+            }
+            default -> throw new IOException("Type de produit inconnu : " + type);
+        };
+    }
+}
@@ -0,0 +1,317 @@
+package infrastructure.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'écriture anticipée (write-ahead log) binaire, découpé en segments.
+ * <p>
+ * Chaque enregistrement reçoit un numéro de séquence croissant (LSN) et est encadré
+ * ainsi : {@code [longueur:int][lsn:long][type:byte][données][crc32:int]}. Un segment
+ * est nommé d'après le LSN de son premier enregistrement ({@code wal-<lsn>.log}), ce qui
+ * permet de supprimer les segments entièrement couverts par un instantané.
+ * </p>
+ * <p>
+ * À la relecture, un enregistrement tronqué ou corrompu (écriture interrompue par une
+ * panne) marque la fin du journal : le segment est tronqué à la dernière position valide
+ * et les segments suivants sont ignorés. Une longueur d'en-tête qui dépasse la fin du
+ * segment est traitée de la même façon, avant toute allocation.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+final class WriteAheadLog implements AutoCloseable {
+
+    /** Enregistrement d'un produit. */
+    static final byte SAVE = 1;
+    /** Suppression d'un produit. */
+    static final byte DELETE = 2;
+    /** Enregistrement groupé de produits (mise à jour des stocks d'une vente, lot importé). */
+    static final byte SALE = 3;
+
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES + 1;
+
+    /**
+     * Traitement appliqué à chaque enregistrement relu.
+     */
+    interface RecordHandler {
+        void apply(long lsn, byte type, DataInputStream payload) throws IOException;
+    }
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final ScheduledExecutorService flusher;
+    private FileChannel channel;
+    private long segmentStart;
+    private long lastLsn;
+    private long durableLsn;
+    private IOException failure;
+
+    /**
+     * Ouvre un nouveau segment à la suite du dernier LSN connu.
+     *
+     * @param directory répertoire du journal
+     * @param policy politique de synchronisation disque
+     * @param lastLsn dernier LSN relu lors de la récupération
+     * @throws IOException si le segment ne peut pas être créé
+     */
+    WriteAheadLog(Path directory, FsyncPolicy policy, long lastLsn) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        this.lastLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        openSegment();
+
+        if (policy.getMode() == FsyncPolicy.Mode.GROUP_COMMIT) {
+            long period = policy.getInterval().toNanos();
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "wal-group-commit");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleAtFixedRate(this::flushQuietly, period, period, TimeUnit.NANOSECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Ajoute un enregistrement au journal.
+     * Avec la politique {@link FsyncPolicy.Mode#PER_WRITE}, l'enregistrement est forcé sur disque
+     * avant le retour.
+     *
+     * @param type type d'enregistrement
+     * @param payload données de l'enregistrement
+     * @return LSN attribué
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    synchronized long append(byte type, byte[] payload) throws IOException {
+        long lsn = lastLsn + 1;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length + Integer.BYTES);
+        buffer.putInt(Long.BYTES + 1 + payload.length);
+        buffer.putLong(lsn);
+        buffer.put(type);
+        buffer.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), Integer.BYTES, Long.BYTES + 1 + payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        lastLsn = lsn;
+
+        if (policy.getMode() == FsyncPolicy.Mode.PER_WRITE) {
+            channel.force(false);
+            durableLsn = lsn;
+        }
+        return lsn;
+    }
+
+    /**
+     * Attend que l'enregistrement donné soit forcé sur disque par la synchronisation groupée.
+     * Sans effet pour les autres politiques.
+     *
+     * @param lsn LSN à attendre
+     * @throws IOException si la synchronisation a échoué ou si l'attente est interrompue
+     */
+    synchronized void awaitDurable(long lsn) throws IOException {
+        if (flusher == null) {
+            return;
+        }
+        while (durableLsn < lsn) {
+            if (failure != null) {
+                throw new IOException("Échec de la synchronisation groupée du journal", failure);
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Attente de synchronisation du journal interrompue");
+            }
+        }
+    }
+
+    /**
+     * Force sur disque tous les enregistrements écrits et réveille les écrivains en attente.
+     *
+     * @throws IOException en cas d'erreur de synchronisation
+     */
+    synchronized void flush() throws IOException {
+        if (durableLsn < lastLsn) {
+            channel.force(false);
+            durableLsn = lastLsn;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Ferme le segment courant et en ouvre un nouveau.
+     *
+     * @return dernier LSN contenu dans les segments fermés
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    synchronized long rotate() throws IOException {
+        flush();
+        channel.close();
+        openSegment();
+        return lastLsn;
+    }
+
+    /**
+     * Supprime les segments fermés dont tous les enregistrements ont un LSN inférieur ou égal
+     * à celui donné (c'est-à-dire couverts par un instantané).
+     *
+     * @param coveredLsn dernier LSN couvert par l'instantané
+     * @throws IOException en cas d'erreur de suppression
+     */
+    void deleteSegmentsUpTo(long coveredLsn) throws IOException {
+        long current;
+        synchronized (this) {
+            current = segmentStart;
+        }
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            long start = startOf(segments.get(i));
+            long nextStart = i + 1 < segments.size() ? startOf(segments.get(i + 1)) : Long.MAX_VALUE;
+            if (start < current && nextStart <= coveredLsn + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    /**
+     * Relit les segments du répertoire et applique les enregistrements postérieurs à un LSN.
+     *
+     * @param directory répertoire du journal
+     * @param afterLsn LSN couvert par l'instantané chargé (les enregistrements antérieurs sont ignorés)
+     * @param handler traitement appliqué à chaque enregistrement retenu
+     * @return dernier LSN valide rencontré (au moins {@code afterLsn})
+     * @throws IOException en cas d'erreur de lecture
+     */
+    static long replay(Path directory, long afterLsn, RecordHandler handler) throws IOException {
+        long last = afterLsn;
+        boolean corrupted = false;
+        for (Path segment : listSegments(directory)) {
+            if (corrupted) {
+                Files.deleteIfExists(segment);
+                continue;
+            }
+            long validBytes = 0;
+            long segmentSize = Files.size(segment);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+                while (true) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException end) {
+                        break;
+                    }
+                    long remaining = segmentSize - validBytes - 2L * Integer.BYTES;
+                    if (length < Long.BYTES + 1 || length > remaining) {
+                        corrupted = true;
+                        break;
+                    }
+                    byte[] body = new byte[length];
+                    int storedCrc;
+                    try {
+                        in.readFully(body);
+                        storedCrc = in.readInt();
+                    } catch (EOFException torn) {
+                        corrupted = true;
+                        break;
+                    }
+                    CRC32 crc = new CRC32();
+                    crc.update(body);
+                    if ((int) crc.getValue() != storedCrc) {
+                        corrupted = true;
+                        break;
+                    }
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                    long lsn = record.readLong();
+                    byte type = record.readByte();
+                    if (lsn > afterLsn) {
+                        handler.apply(lsn, type, record);
+                    }
+                    last = Math.max(last, lsn);
+                    validBytes += Integer.BYTES + length + Integer.BYTES;
+                }
+            }
+            if (corrupted) {
+                try (FileChannel truncate = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    truncate.truncate(validBytes);
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Arrête la synchronisation groupée, force les dernières écritures et ferme le segment.
+     *
+     * @throws IOException en cas d'erreur de synchronisation
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        synchronized (this) {
+            flush();
+            channel.close();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segmentStart = lastLsn + 1;
+        Path segment = directory.resolve(String.format("%s%020d%s", PREFIX, segmentStart, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            synchronized (this) {
+                failure = e;
+                notifyAll();
+            }
+        }
+    }
+
+    private static List<Path> listSegments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().startsWith(PREFIX)
+                            && p.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private static long startOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -1,16 +1,44 @@
 package presentation;
 
 import application.*;
+import application.ports.ProductPage;
 import application.ports.ProductRepository;
 import domain.catalog.Brand;
 import domain.catalog.Catalog;
 import domain.catalog.ProductLine;
 import domain.product.*;
+import domain.sale.DiscountPolicy;
+import domain.sale.PromotionEngine;
+import infrastructure.BundleAwareProductRepository;
 import infrastructure.InMemoryProductRepository;
 import infrastructure.ProductIdGenerator;
+import infrastructure.events.ChangeEvent;
+import infrastructure.events.ChangeEventBus;
+import infrastructure.events.PublishingProductRepository;
+import infrastructure.events.Subscription;
+import infrastructure.exporter.InventoryExporter;
+import infrastructure.exporter.StockValuation;
+import infrastructure.importer.CatalogImporter;
+import infrastructure.importer.ImportReport;
+import infrastructure.ledger.LedgerProductRepository;
+import infrastructure.ledger.StockLedger;
+import infrastructure.ledger.StockMovement;
+import infrastructure.metrics.InstrumentedProductRepository;
+import infrastructure.metrics.MetricsRegistry;
+import infrastructure.metrics.OperationMetrics;
 
+import java.io.UncheckedIOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Queue;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Interface utilisateur en ligne de commande pour la gestion de stock.
@@ -23,34 +51,86 @@ import java.util.Scanner;
  * Cette classe ne contient aucune logique métier et délègue
  * entièrement les traitements aux UseCases applicatifs.
  *
+ * Chaque cas d'usage et chaque appel au dépôt est mesuré (latences, appels, erreurs) ;
+ * les mesures sont consultables par la commande « stats » et via JMX.
+ *
+ * Chaque variation de stock est inscrite dans un journal des mouvements, consultable
+ * par produit (historique et stock à une date). Les modifications sont aussi publiées sur
+ * un bus d'événements, dont un consommateur signale les produits passés sous le seuil
+ * de stock bas ; les alertes s'affichent avant le menu.
+ *
  * @author Lucas
- * @version 1.1
+ * @version 1.8
  */
 public class ConsoleInterface {
 
+    /** Nombre de produits affichés par page lors du parcours du stock. */
+    private static final int PAGE_SIZE = 20;
+
+    /** Seuil de stock à partir duquel une alerte est affichée. */
+    private static final int LOW_STOCK_THRESHOLD = 5;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     private final Scanner scanner = new Scanner(System.in);
-    private final ProductRepository repository = new InMemoryProductRepository();
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final ProductRepository storage =
+            new InstrumentedProductRepository(new InMemoryProductRepository(), metrics);
+    private final BundleStockEngine bundles = new BundleStockEngine(storage);
+    private final StockLedger ledger = new StockLedger();
+    private final ChangeEventBus changes = new ChangeEventBus();
+    private final ProductRepository repository = new BundleAwareProductRepository(
+            new PublishingProductRepository(new LedgerProductRepository(storage, ledger), changes), bundles);
+    private final Queue<String> lowStockAlerts = new ConcurrentLinkedQueue<>();
+    private final Subscription lowStockWatch = changes.subscribe("low-stock", (event, endOfBatch) -> {
+        if (event.getType() == ChangeEvent.Type.SAVE && event.getProduct().getStock() <= LOW_STOCK_THRESHOLD) {
+            lowStockAlerts.add(event.getProductId() + " (" + event.getProduct().getName() + ") : "
+                    + event.getProduct().getStock() + " en stock");
+        }
+    });
     private final Catalog catalog = new Catalog();
 
     private final AddProductUseCase addProduct = new AddProductUseCase(repository);
-    private final SellProductUseCase sellProduct = new SellProductUseCase(repository);
+    private final SellProductUseCase sellProduct = new SellProductUseCase(repository,
+            PromotionEngine.fromPolicy(new DiscountPolicy(20.0, 0.05)), bundles);
     private final DeleteProductUseCase deleteProduct = new DeleteProductUseCase(repository);
     private final SearchProductUseCase searchProduct = new SearchProductUseCase(repository);
     private final SortProductsUseCase sortProducts = new SortProductsUseCase(repository);
 
+    private final OperationMetrics addMetrics = metrics.operation("usecase.add");
+    private final OperationMetrics sellMetrics = metrics.operation("usecase.sell");
+    private final OperationMetrics deleteMetrics = metrics.operation("usecase.delete");
+    private final OperationMetrics searchMetrics = metrics.operation("usecase.search");
+    private final OperationMetrics sortMetrics = metrics.operation("usecase.sort");
+    private final OperationMetrics exportMetrics = metrics.operation("usecase.export");
+
     /**
      * Lance le menu principal en boucle jusqu'à la demande de sortie.
      */
     public void start() {
         System.out.println("Bienvenue dans le système de gestion de stock.");
+        try {
+            metrics.registerMBean(MetricsRegistry.DEFAULT_OBJECT_NAME);
+        } catch (IllegalStateException e) {
+            System.out.println("Mesures JMX indisponibles : " + e.getMessage());
+        }
 
         while (true) {
+            String alert;
+            while ((alert = lowStockAlerts.poll()) != null) {
+                System.out.println("Alerte stock bas : " + alert);
+            }
             System.out.println("\n--- MENU PRINCIPAL ---");
             System.out.println("1. Ajouter un produit");
             System.out.println("2. Vendre un produit");
             System.out.println("3. Supprimer un produit");
             System.out.println("4. Rechercher un produit");
             System.out.println("5. Afficher tous les produits");
+            System.out.println("6. Statistiques (stats)");
+            System.out.println("7. Parcourir le stock page par page");
+            System.out.println("8. Importer un catalogue (CSV/TSV)");
+            System.out.println("9. Exporter l'inventaire ou sa valorisation");
+            System.out.println("10. Historique du stock d'un produit");
             System.out.println("0. Quitter");
             System.out.print("Choix : ");
 
@@ -61,7 +141,12 @@ public class ConsoleInterface {
                 case "3" -> supprimerProduit();
                 case "4" -> rechercherProduit();
                 case "5" -> afficherProduits();
-                case "0" -> { System.out.println("Au revoir !"); return; }
+                case "6", "stats" -> afficherStatistiques();
+                case "7" -> parcourirProduits();
+                case "8" -> importerCatalogue();
+                case "9" -> exporterInventaire();
+                case "10" -> afficherHistorique();
+                case "0" -> { changes.close(); System.out.println("Au revoir !"); return; }
                 default -> System.out.println("Choix invalide.");
             }
         }
@@ -97,7 +182,7 @@ public class ConsoleInterface {
 
         Product p = new SimpleProduct(id, name, price, stock, brand, line);
         try {
-            addProduct.execute(p);
+            addMetrics.time(() -> addProduct.execute(p));
             System.out.println("Produit ajouté avec succès.");
         } catch (IllegalArgumentException e) {
             System.out.println("Erreur : " + e.getMessage());
@@ -133,13 +218,13 @@ public class ConsoleInterface {
                 }
             }
 
-            domain.sale.Receipt receipt = sellProduct.executeCart(cartLines);
+            domain.sale.Receipt receipt = sellMetrics.time(() -> sellProduct.executeCart(cartLines));
             System.out.println("Vente enregistrée.");
             System.out.println(receipt.formatForConsole());
 
         } catch (NumberFormatException e) {
             System.out.println("Erreur : quantité invalide (entier attendu).");
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | IllegalStateException e) {
             System.out.println("Erreur : " + e.getMessage());
         }
     }
@@ -160,7 +245,7 @@ public class ConsoleInterface {
         }
 
         try {
-            deleteProduct.execute(id);
+            deleteMetrics.time(() -> deleteProduct.execute(id));
             System.out.println("Produit supprimé.");
         } catch (IllegalArgumentException e) {
             System.out.println("Erreur : " + e.getMessage());
@@ -192,7 +277,7 @@ public class ConsoleInterface {
         System.out.print("Mot-clé : ");
         String keyword = scanner.nextLine();
 
-        List<Product> results = searchProduct.execute(keyword, searchMode);
+        List<Product> results = searchMetrics.time(() -> searchProduct.execute(keyword, searchMode));
         if (results.isEmpty()) {
             System.out.println("Aucun résultat.");
         } else {
@@ -207,7 +292,7 @@ public class ConsoleInterface {
      * Affiche l'ensemble des produits du stock, triés par prix croissant.
      */
     private void afficherProduits() {
-        List<Product> produits = sortProducts.sortByPrice();
+        List<Product> produits = sortMetrics.time(() -> sortProducts.sortByPrice());
         if (produits.isEmpty()) {
             System.out.println("Aucun produit en stock.");
             return;
@@ -218,4 +303,129 @@ public class ConsoleInterface {
             System.out.println(p);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Affiche le stock par pages de {@value #PAGE_SIZE} produits, par identifiant croissant.
+     * Seule la page affichée est lue dans le dépôt.
+     */
+    private void parcourirProduits() {
+        System.out.println("\n--- Stock : " + searchMetrics.time(searchProduct::countAll) + " produit(s) ---");
+        String cursor = null;
+        do {
+            String current = cursor;
+            ProductPage page = searchMetrics.time(() -> searchProduct.browse(current, PAGE_SIZE));
+            if (page.getProducts().isEmpty()) {
+                System.out.println("Aucun produit en stock.");
+                return;
+            }
+            for (Product p : page.getProducts()) {
+                System.out.println(p);
+            }
+            cursor = page.getNextCursor();
+            if (cursor != null) {
+                System.out.print("Page suivante ? (y/n) : ");
+                if (!scanner.nextLine().equalsIgnoreCase("y")) {
+                    return;
+                }
+            }
+        } while (cursor != null);
+    }
+
+    /**
+     * Importe un catalogue fournisseur (CSV ou TSV) en affichant l'avancement,
+     * puis le bilan (lignes importées, rejetées, débit).
+     */
+    private void importerCatalogue() {
+        System.out.println("Format : id;nom;prix;stock;idMarque;nomMarque;idGamme;nomGamme (id vide = généré)");
+        System.out.print("Chemin du fichier : ");
+        String path = scanner.nextLine().trim();
+        CatalogImporter importer = new CatalogImporter(addProduct, catalog);
+        try {
+            ImportReport report = addMetrics.time(() -> importer.importFile(Path.of(path),
+                    (rows, bytes, total) -> System.out.printf("\r%d lignes lues (%d %%)",
+                            rows, total == 0 ? 100 : bytes * 100 / total)));
+            System.out.println();
+            System.out.print(report.formatForConsole());
+        } catch (UncheckedIOException | InvalidPathException e) {
+            System.out.println("Erreur : fichier illisible (" + e.getMessage() + ").");
+        }
+    }
+
+    /**
+     * Exporte l'inventaire (CSV ou binaire) ou écrit la valorisation du stock
+     * par marque et par gamme, puis l'affiche.
+     */
+    private void exporterInventaire() {
+        System.out.println("1. Inventaire CSV");
+        System.out.println("2. Inventaire binaire");
+        System.out.println("3. Valorisation du stock (CSV)");
+        System.out.print("Choix : ");
+        String choice = scanner.nextLine().trim();
+        if (!choice.equals("1") && !choice.equals("2") && !choice.equals("3")) {
+            System.out.println("Choix invalide.");
+            return;
+        }
+        System.out.print("Chemin du fichier : ");
+        String path = scanner.nextLine().trim();
+        InventoryExporter exporter = new InventoryExporter(repository);
+        try {
+            Path file = Path.of(path);
+            switch (choice) {
+                case "1" -> System.out.println(exportMetrics.time(() -> exporter.exportCsv(file))
+                        + " produit(s) exporté(s).");
+                case "2" -> System.out.println(exportMetrics.time(() -> exporter.exportBinary(file))
+                        + " produit(s) exporté(s).");
+                default -> {
+                    StockValuation valuation = exportMetrics.time(() -> exporter.exportValuation(file));
+                    System.out.print(valuation.formatForConsole());
+                }
+            }
+        } catch (UncheckedIOException | InvalidPathException e) {
+            System.out.println("Erreur : fichier non écrit (" + e.getMessage() + ").");
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            System.out.println("Erreur : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Affiche les mouvements de stock d'un produit, puis son stock à une date choisie.
+     */
+    private void afficherHistorique() {
+        System.out.print("ID du produit : ");
+        String id = scanner.nextLine().trim();
+        List<StockMovement> movements = ledger.movements(id);
+        if (movements.isEmpty()) {
+            System.out.println("Aucun mouvement pour ce produit.");
+            return;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        for (StockMovement movement : movements) {
+            System.out.printf("%s  %-10s %+6d  -> %d%n",
+                    DATE_FORMAT.format(Instant.ofEpochMilli(movement.getTimestamp()).atZone(zone)),
+                    movement.getType(), movement.getDelta(), movement.getStockAfter());
+        }
+        System.out.print("Stock à la date (" + DATE_FORMAT.format(LocalDateTime.now()) + ", vide pour ignorer) : ");
+        String date = scanner.nextLine().trim();
+        if (date.isEmpty()) {
+            return;
+        }
+        try {
+            long timestamp = LocalDateTime.parse(date, DATE_FORMAT).atZone(zone).toInstant().toEpochMilli();
+            // la minute saisie est incluse en entier
+            System.out.println("Stock : " + ledger.stockAt(id, timestamp + 59_999));
+        } catch (DateTimeParseException e) {
+            System.out.println("Date invalide.");
+        }
+    }
+
+    /**
+     * Affiche les mesures de latence et les compteurs de chaque opération.
+     */
+    private void afficherStatistiques() {
+        System.out.println("\n--- Statistiques ---");
+        System.out.print(metrics.getReport());
+        System.out.printf("Événements publiés : %d (alertes : %d traités en %d lot(s), retard %d)%n",
+                changes.getPublishedSequence() + 1, lowStockWatch.getEventCount(),
+                lowStockWatch.getBatchCount(), lowStockWatch.getLag());
+    }
+}
@@ -0,0 +1,428 @@
+package presentation.http;
+
+import application.AddProductUseCase;
+import application.DeleteProductUseCase;
+import application.SearchProductUseCase;
+import application.SellProductUseCase;
+import application.SortProductsUseCase;
+import application.ports.ProductRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import domain.catalog.Brand;
+import domain.catalog.Catalog;
+import domain.catalog.ProductLine;
+import domain.product.Product;
+import domain.product.SimpleProduct;
+import domain.sale.CartLine;
+import domain.sale.Receipt;
+import domain.sale.ReceiptLine;
+import infrastructure.ProductIdGenerator;
+import infrastructure.metrics.MetricsRegistry;
+import infrastructure.metrics.OperationMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interface HTTP/JSON du système de gestion de stock, second adaptateur de présentation
+ * à côté de {@link presentation.ConsoleInterface}.
+ * <p>
+ * Un serveur HTTP embarqué ({@code com.sun.net.httpserver}) expose les mêmes cas d'usage
+ * que la console, ce qui permet à de nombreuses caisses de partager un même stock :
+ * </p>
+ * <ul>
+ *     <li>{@code POST /products} : ajoute un produit (identifiant généré s'il est absent) ;</li>
+ *     <li>{@code DELETE /products/{id}} : supprime un produit ;</li>
+ *     <li>{@code GET /products/search?q=...&mode=ID|NAME|BOTH&limit=50} : recherche (sans
+ *     {@code q}, première page du stock par identifiant) ;</li>
+ *     <li>{@code GET /products/sorted?offset=0&limit=50} : page de la liste triée par prix ;</li>
+ *     <li>{@code POST /sales} : vend un panier {@code {"lines":[{"productId":"1","quantity":2}]}}
+ *     et retourne le ticket.</li>
+ * </ul>
+ * <p>
+ * Chaque requête est traitée sur son propre thread virtuel lorsque la JVM en dispose
+ * (Java 21+), sinon par un pool de threads extensible. Le dépôt fourni doit donc être
+ * thread-safe. Les erreurs de validation ({@link IllegalArgumentException}) donnent une
+ * réponse 400, les conflits de stock non résolus ({@link IllegalStateException}) une
+ * réponse 409, la suppression d'un produit inconnu une réponse 404. Chaque point d'entrée
+ * est mesuré sous le nom {@code http.<opération>}.
+ * </p>
+ * <p>
+ * Les réponses listant des produits sont limitées à {@value #MAX_PAGE_SIZE} produits et les
+ * corps de requête à {@value #MAX_BODY_BYTES} octets (réponse 413 au-delà).
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.2
+ */
+public class HttpInterface {
+
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BODY_BYTES = 1 << 20;
+
+    private final ProductRepository repository;
+    private final Catalog catalog;
+    private final AddProductUseCase addProduct;
+    private final SellProductUseCase sellProduct;
+    private final DeleteProductUseCase deleteProduct;
+    private final SearchProductUseCase searchProduct;
+    private final SortProductsUseCase sortProducts;
+
+    private final OperationMetrics addMetrics;
+    private final OperationMetrics sellMetrics;
+    private final OperationMetrics deleteMetrics;
+    private final OperationMetrics searchMetrics;
+    private final OperationMetrics sortMetrics;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * @param repository dépôt partagé (thread-safe)
+     * @param catalog catalogue des marques et gammes
+     * @param metrics registre recevant les mesures des points d'entrée
+     */
+    public HttpInterface(ProductRepository repository, Catalog catalog, MetricsRegistry metrics) {
+        if (repository == null || catalog == null || metrics == null) {
+            throw new IllegalArgumentException("repository, catalog and metrics cannot be null");
+        }
+        this.repository = repository;
+        this.catalog = catalog;
+        this.addProduct = new AddProductUseCase(repository);
+        this.sellProduct = new SellProductUseCase(repository);
+        this.deleteProduct = new DeleteProductUseCase(repository);
+        this.searchProduct = new SearchProductUseCase(repository);
+        this.sortProducts = new SortProductsUseCase(repository);
+        this.addMetrics = metrics.operation("http.add");
+        this.sellMetrics = metrics.operation("http.sell");
+        this.deleteMetrics = metrics.operation("http.delete");
+        this.searchMetrics = metrics.operation("http.search");
+        this.sortMetrics = metrics.operation("http.sort");
+    }
+
+    /**
+     * Démarre le serveur.
+     *
+     * @param port port d'écoute (0 pour un port libre choisi par le système)
+     * @return le port effectivement utilisé
+     * @throws IllegalStateException si le serveur est déjà démarré
+     * @throws UncheckedIOException si le port ne peut pas être ouvert
+     */
+    public synchronized int start(int port) {
+        if (server != null) {
+            throw new IllegalStateException("HTTP server already started");
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open port " + port, e);
+        }
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/products", this::handleProducts);
+        server.createContext("/sales", this::handleSales);
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Arrête le serveur après les requêtes en cours (au plus une seconde d'attente).
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(1);
+        executor.shutdown();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Crée l'exécuteur des requêtes : un thread virtuel par requête si la JVM le permet
+     * (recherché par réflexion pour rester compilable en Java 17), sinon un pool extensible.
+     *
+     * @return exécuteur des requêtes
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threads = task -> {
+                Thread thread = new Thread(task, "http-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(threads);
+        }
+    }
+
+    private void handleProducts(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        respond(exchange, () -> {
+            if (path.equals("/products") && method.equals("POST")) {
+                return addMetrics.time(() -> add(readBody(exchange)));
+            }
+            if (path.equals("/products/search") && method.equals("GET")) {
+                return searchMetrics.time(() -> search(query(exchange)));
+            }
+            if (path.equals("/products/sorted") && method.equals("GET")) {
+                return sortMetrics.time(() -> sorted(query(exchange)));
+            }
+            if (path.startsWith("/products/") && method.equals("DELETE")) {
+                String id = URLDecoder.decode(path.substring("/products/".length()), StandardCharsets.UTF_8);
+                if (!id.isBlank() && !repository.existsById(id)) {
+                    return Response.NOT_FOUND;
+                }
+                deleteMetrics.time(() -> deleteProduct.execute(id));
+                StringBuilder sb = new StringBuilder("{\"deleted\":");
+                return new Response(200, Json.appendString(sb, id).append('}').toString());
+            }
+            return Response.NOT_FOUND;
+        });
+    }
+
+    private void handleSales(HttpExchange exchange) throws IOException {
+        respond(exchange, () -> {
+            if (!exchange.getRequestURI().getPath().equals("/sales")) {
+                return Response.NOT_FOUND;
+            }
+            if (!exchange.getRequestMethod().equals("POST")) {
+                return Response.METHOD_NOT_ALLOWED;
+            }
+            return sellMetrics.time(() -> sell(readBody(exchange)));
+        });
+    }
+
+    private Response add(Map<String, Object> body) {
+        String requestedId = Json.optionalString(body, "id");
+        // produit entièrement validé avant d'enregistrer sa marque et sa gamme dans le catalogue
+        Brand draftBrand = new Brand(Json.requireString(body, "brandId"), Json.requireString(body, "brandName"));
+        ProductLine draftLine = new ProductLine(Json.requireString(body, "lineId"),
+                Json.requireString(body, "lineName"), draftBrand);
+        Product draft = new SimpleProduct(requestedId == null || requestedId.isBlank() ? "" : requestedId,
+                Json.requireString(body, "name"),
+                Json.requireNumber(body, "price").doubleValue(), Json.requireInt(body, "stock"), draftBrand, draftLine);
+
+        Brand brand = catalog.createBrand(draftBrand.getBrandId(), draftBrand.getName());
+        ProductLine line = catalog.createProductLine(draftLine.getLineId(), draftLine.getName(), brand);
+        String id = draft.getProductId().isEmpty() ? ProductIdGenerator.generateId() : draft.getProductId();
+        addProduct.execute(SimpleProduct.ofCents(id, draft.getName(), draft.getPriceCents(), draft.getStock(), brand, line));
+        StringBuilder sb = new StringBuilder("{\"id\":");
+        Json.appendString(sb, id).append('}');
+        return new Response(201, sb.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Response sell(Map<String, Object> body) {
+        Object rawLines = body.get("lines");
+        if (!(rawLines instanceof List)) {
+            throw new IllegalArgumentException("field 'lines' must be an array");
+        }
+        List<CartLine> lines = new ArrayList<>();
+        for (Object rawLine : (List<Object>) rawLines) {
+            if (!(rawLine instanceof Map)) {
+                throw new IllegalArgumentException("each cart line must be an object");
+            }
+            Map<String, Object> line = (Map<String, Object>) rawLine;
+            lines.add(new CartLine(Json.requireString(line, "productId"), Json.requireInt(line, "quantity")));
+        }
+        Receipt receipt = sellProduct.executeCart(lines);
+
+        StringBuilder sb = new StringBuilder(128).append("{\"lines\":[");
+        for (int i = 0; i < receipt.getLines().size(); i++) {
+            ReceiptLine line = receipt.getLines().get(i);
+            sb.append(i == 0 ? "{" : ",{").append("\"name\":");
+            Json.appendString(sb, line.getProductName());
+            sb.append(",\"quantity\":").append(line.getQuantity()).append(",\"unitPrice\":");
+            Json.appendCents(sb, line.getUnitPriceCents()).append(",\"total\":");
+            Json.appendCents(sb, line.getLineTotalCents()).append('}');
+        }
+        sb.append("],\"grossTotal\":");
+        Json.appendCents(sb, receipt.getGrossTotalCents()).append(",\"discount\":");
+        Json.appendCents(sb, receipt.getDiscountAmountCents()).append(",\"netTotal\":");
+        Json.appendCents(sb, receipt.getNetTotalCents()).append('}');
+        return new Response(200, sb.toString());
+    }
+
+    private Response search(Map<String, String> query) {
+        String mode = query.getOrDefault("mode", "BOTH").toUpperCase(Locale.ROOT);
+        SearchProductUseCase.Mode searchMode;
+        try {
+            searchMode = SearchProductUseCase.Mode.valueOf(mode);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("mode must be ID, NAME or BOTH");
+        }
+        int limit = pageSize(query);
+        String keyword = query.get("q");
+        if (keyword == null || keyword.isBlank()) {
+            return new Response(200, products(searchProduct.browse(null, limit).getProducts()));
+        }
+        List<Product> found = searchProduct.execute(keyword, searchMode);
+        return new Response(200, products(found.size() > limit ? found.subList(0, limit) : found));
+    }
+
+    private Response sorted(Map<String, String> query) {
+        int offset = intParameter(query, "offset", 0);
+        return new Response(200, products(sortProducts.sortByPrice(offset, pageSize(query))));
+    }
+
+    /**
+     * Taille de page demandée, ramenée entre 1 et {@value #MAX_PAGE_SIZE}.
+     */
+    private static int pageSize(Map<String, String> query) {
+        int limit = intParameter(query, "limit", DEFAULT_PAGE_SIZE);
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static String products(List<Product> products) {
+        StringBuilder sb = new StringBuilder(64 + products.size() * 96).append('[');
+        for (int i = 0; i < products.size(); i++) {
+            Product p = products.get(i);
+            sb.append(i == 0 ? "{" : ",{").append("\"id\":");
+            Json.appendString(sb, p.getProductId()).append(",\"name\":");
+            Json.appendString(sb, p.getName()).append(",\"price\":");
+            Json.appendCents(sb, p.getPriceCents()).append(",\"stock\":").append(p.getStock()).append(",\"brand\":");
+            Json.appendString(sb, p.getBrand().getName()).append(",\"line\":");
+            Json.appendString(sb, p.getProductLine().getName()).append('}');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter '" + name + "' must be an integer");
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new RequestTooLargeException();
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int separator = pair.indexOf('=');
+            String key = separator < 0 ? pair : pair.substring(0, separator);
+            String value = separator < 0 ? "" : pair.substring(separator + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    /**
+     * Exécute un traitement et écrit sa réponse, en traduisant les exceptions en codes HTTP.
+     * L'échange est toujours répondu et fermé, y compris sur une {@link Error}, qui est
+     * ensuite relancée.
+     */
+    private static void respond(HttpExchange exchange, Handler handler) throws IOException {
+        Response response;
+        Error fatal = null;
+        try {
+            response = handler.handle();
+        } catch (RequestTooLargeException e) {
+            response = Response.error(413, "request body exceeds " + MAX_BODY_BYTES + " bytes");
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (IllegalStateException e) {
+            response = Response.error(409, e.getMessage());
+        } catch (RuntimeException e) {
+            response = Response.error(500, "internal error");
+        } catch (Error e) {
+            response = Response.error(500, "internal error");
+            fatal = e;
+        }
+        try (exchange) {
+            byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+            exchange.sendResponseHeaders(response.status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        if (fatal != null) {
+            throw fatal;
+        }
+    }
+
+    /**
+     * Corps de requête au-delà de {@value #MAX_BODY_BYTES} octets.
+     */
+    private static final class RequestTooLargeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        RequestTooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Traitement d'une requête.
+     */
+    @FunctionalInterface
+    private interface Handler {
+        Response handle();
+    }
+
+    /**
+     * Réponse HTTP : code et corps JSON. Toutes les réponses ont un corps : une réponse sans
+     * corps peut amener le serveur du JDK à fermer la connexion pendant que le client la réutilise.
+     */
+    private static final class Response {
+
+        static final Response NOT_FOUND = error(404, "not found");
+        static final Response METHOD_NOT_ALLOWED = error(405, "method not allowed");
+
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        static Response error(int status, String message) {
+            StringBuilder sb = new StringBuilder("{\"error\":");
+            return new Response(status, Json.appendString(sb, message).append('}').toString());
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package presentation.http;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lecture et écriture JSON minimales pour l'interface HTTP, sans dépendance externe.
+ * <p>
+ * La lecture produit des {@code Map<String, Object>} (objets), des {@code List<Object>}
+ * (tableaux), des {@link String}, des {@link BigDecimal} (nombres), des {@link Boolean}
+ * et {@code null}. Toute erreur de syntaxe lève une {@link IllegalArgumentException},
+ * traduite en réponse 400 par l'interface. L'imbrication est limitée à
+ * {@value #MAX_DEPTH} niveaux, la lecture étant récursive : un document plus profond est
+ * refusé comme invalide au lieu d'épuiser la pile du thread.
+ * </p>
+ *
+ * @author Lucas
+ * @version 1.1
+ */
+final class Json {
+
+    /** Profondeur maximale d'imbrication des objets et tableaux. */
+    static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int position;
+    private int depth;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Analyse un document JSON complet.
+     *
+     * @param text document JSON
+     * @return la valeur lue
+     * @throws IllegalArgumentException si le document est invalide
+     */
+    static Object parse(String text) {
+        Json parser = new Json(text);
+        parser.skipWhitespace();
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("unexpected trailing content");
+        }
+        return value;
+    }
+
+    /**
+     * Analyse un document dont la racine doit être un objet.
+     *
+     * @param text document JSON
+     * @return l'objet lu
+     * @throws IllegalArgumentException si le document est invalide ou n'est pas un objet
+     */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("JSON object expected");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * Lit un champ texte obligatoire.
+     */
+    static String requireString(Map<String, Object> object, String field) {
+        Object value = object.get(field);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("field '" + field + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    /**
+     * Lit un champ texte facultatif.
+     */
+    static String optionalString(Map<String, Object> object, String field) {
+        Object value = object.get(field);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("field '" + field + "' must be a string");
+        }
+        return (String) value;
+    }
+
+    /**
+     * Lit un champ numérique obligatoire.
+     */
+    static BigDecimal requireNumber(Map<String, Object> object, String field) {
+        Object value = object.get(field);
+        if (!(value instanceof BigDecimal)) {
+            throw new IllegalArgumentException("field '" + field + "' must be a number");
+        }
+        return (BigDecimal) value;
+    }
+
+    /**
+     * Lit un champ entier obligatoire.
+     */
+    static int requireInt(Map<String, Object> object, String field) {
+        try {
+            return requireNumber(object, field).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("field '" + field + "' must be an integer");
+        }
+    }
+
+    /**
+     * Ajoute une chaîne JSON échappée (avec ses guillemets).
+     *
+     * @param sb destination
+     * @param value chaîne à écrire (null écrit {@code null})
+     * @return la destination, pour chaînage
+     */
+    static StringBuilder appendString(StringBuilder sb, String value) {
+        if (value == null) {
+            return sb.append("null");
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /**
+     * Ajoute un montant en euros, au centime près, sous forme de nombre JSON (ex: {@code 12.05}).
+     *
+     * @param sb destination
+     * @param cents montant en centimes
+     * @return la destination, pour chaînage
+     */
+    static StringBuilder appendCents(StringBuilder sb, long cents) {
+        long euros = cents / 100;
+        int remainder = (int) Math.abs(cents % 100);
+        if (cents < 0 && euros == 0) {
+            sb.append('-');
+        }
+        sb.append(euros).append('.');
+        if (remainder < 10) {
+            sb.append('0');
+        }
+        return sb.append(remainder);
+    }
+
+    private Object readValue() {
+        if (position >= text.length()) {
+            throw error("unexpected end of input");
+        }
+        char c = text.charAt(position);
+        return switch (c) {
+            case '{', '[' -> {
+                if (++depth > MAX_DEPTH) {
+                    throw error("nesting deeper than " + MAX_DEPTH + " levels");
+                }
+                Object nested = c == '{' ? readObject() : readArray();
+                depth--;
+                yield nested;
+            }
+            case '"' -> readString();
+            case 't' -> readLiteral("true", Boolean.TRUE);
+            case 'f' -> readLiteral("false", Boolean.FALSE);
+            case 'n' -> readLiteral("null", null);
+            default -> {
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    yield readNumber();
+                }
+                throw error("unexpected character '" + c + "'");
+            }
+        };
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("field name expected");
+            }
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+            char next = peek();
+            position++;
+            if (next == '}') {
+                return object;
+            }
+            if (next != ',') {
+                throw error("',' or '}' expected");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            skipWhitespace();
+            array.add(readValue());
+            skipWhitespace();
+            char next = peek();
+            position++;
+            if (next == ']') {
+                return array;
+            }
+            if (next != ',') {
+                throw error("',' or ']' expected");
+            }
+        }
+    }
+
+    private String readString() {
+        position++;
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (position >= text.length()) {
+                throw error("unterminated string");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                throw error("unterminated escape");
+            }
+            char escaped = text.charAt(position++);
+            switch (escaped) {
+                case '"', '\\', '/' -> sb.append(escaped);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (position + 4 > text.length()) {
+                        throw error("invalid unicode escape");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("invalid unicode escape");
+                    }
+                    position += 4;
+                }
+                default -> throw error("invalid escape '\\" + escaped + "'");
+            }
+        }
+    }
+
+    private BigDecimal readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        try {
+            return new BigDecimal(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("invalid number");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("invalid literal");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("'" + expected + "' expected");
+        }
+        position++;
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("unexpected end of input");
+        }
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid JSON at position " + position + ": " + message);
+    }
+}
@@ -1,14 +1,74 @@
 package test;
 
 import application.*;
+import application.ports.ProductPage;
+import application.ports.ProductRepository;
+import application.ports.VersionedProduct;
+import infrastructure.BundleAwareProductRepository;
+import infrastructure.ConcurrentProductRepository;
+import infrastructure.ForwardingProductRepository;
 import infrastructure.InMemoryProductRepository;
+import infrastructure.PackedProductRepository;
+import infrastructure.cache.CachingProductRepository;
+import infrastructure.events.ChangeEvent;
+import infrastructure.events.ChangeEventBus;
+import infrastructure.events.PublishingProductRepository;
+import infrastructure.events.Subscription;
+import infrastructure.events.WaitStrategy;
+import infrastructure.exporter.InventoryExporter;
+import infrastructure.exporter.StockValuation;
+import infrastructure.importer.CatalogImporter;
+import infrastructure.importer.ImportReport;
+import infrastructure.index.ProductIndexes;
+import infrastructure.ledger.LedgerProductRepository;
+import infrastructure.ledger.StockLedger;
+import infrastructure.ledger.StockMovement;
+import infrastructure.metrics.InstrumentedProductRepository;
+import infrastructure.metrics.LatencyHistogram;
+import infrastructure.metrics.MetricsRegistry;
+import infrastructure.metrics.OperationSnapshot;
 import domain.catalog.Brand;
+import domain.catalog.Catalog;
 import domain.catalog.ProductLine;
+import domain.money.Money;
+import domain.product.ContainerProduct;
 import domain.product.Product;
 import domain.product.SimpleProduct;
+import domain.sale.CartLine;
+import domain.sale.CartResult;
+import domain.sale.Promotion;
+import domain.sale.PromotionEngine;
+import domain.sale.Receipt;
 import infrastructure.ProductIdGenerator;
+import infrastructure.persistence.DurableProductRepository;
+import infrastructure.persistence.FsyncPolicy;
+import infrastructure.persistence.MappedProductRepository;
+import presentation.http.HttpInterface;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * Classe de test manuelle de l'application de gestion de stock.
@@ -38,6 +98,32 @@ public class TestRunner {
         testProductIdGeneration();
         testDeleteProduct();
         testSearchProduct();
+        testConcurrentRepository();
+        testConcurrentCheckoutNeverOversells();
+        testTrigramSearchFollowsWrites();
+        testAutocomplete();
+        testPriceIndexFollowsPriceChanges();
+        testDurableRepositoryRecovery();
+        testCheckpointFailureIsReported();
+        testMappedSnapshotRoundTrip();
+        testBatchSaleFirstComeFirstServed();
+        testPackedRepository();
+        testIdGeneratorPersistsHighWater();
+        testConcurrentCatalog();
+        testMoneyFixedPoint();
+        testPromotionEngine();
+        testCachingRepository();
+        testMetrics();
+        testStreamingAndCursorPages();
+        testTopKAndParallelSort();
+        testParallelSearchMatchesSequential();
+        testHttpInterface();
+        testCatalogImport();
+        testBulkSave();
+        testInventoryExport();
+        testBundleStockEngine();
+        testStockLedger();
+        testChangeEventBus();
 
         System.out.println("=== Tous les tests sont passés ===");
     }
@@ -80,7 +166,7 @@ public class TestRunner {
         String id1 = ProductIdGenerator.generateId();
         String id2 = ProductIdGenerator.generateId();
         assert !id1.equals(id2);
-        assert Integer.parseInt(id2) > Integer.parseInt(id1);
+        assert Long.parseLong(id2) > Long.parseLong(id1);
 
         System.out.println("[OK] testProductIdGeneration");
     }
@@ -117,4 +203,1400 @@ public class TestRunner {
 
         System.out.println("[OK] testSearchProduct");
     }
-}
\ No newline at end of file
+
+    /**
+     * Vérifie que le dépôt concurrent reste cohérent lorsque plusieurs threads écrivent en parallèle.
+     */
+    static void testConcurrentRepository() {
+        var repo = new ConcurrentProductRepository();
+        Brand brand = new Brand("b4", "Lego");
+        ProductLine line = new ProductLine("l4", "Jouets", brand);
+
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            final int offset = t * 1000;
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    repo.save(new SimpleProduct(String.valueOf(offset + i), "Brique " + i, 1.0, 1, brand, line));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        assert repo.findAll().size() == 4000;
+        assert repo.existsById("3999");
+
+        System.out.println("[OK] testConcurrentRepository");
+    }
+
+    /**
+     * Vérifie que des ventes concurrentes sur un même produit ne provoquent jamais de survente.
+     */
+    static void testConcurrentCheckoutNeverOversells() {
+        var repo = new ConcurrentProductRepository();
+        Brand brand = new Brand("b5", "Haribo");
+        ProductLine line = new ProductLine("l5", "Bonbons", brand);
+        repo.save(new SimpleProduct("hot", "Ours d'or", 1.5, 100, brand, line));
+
+        SellProductUseCase sell = new SellProductUseCase(repo);
+        AtomicInteger sold = new AtomicInteger();
+        Thread[] registers = new Thread[8];
+        for (int t = 0; t < registers.length; t++) {
+            registers[t] = new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        sell.executeCart(List.of(new CartLine("hot", 1)));
+                        sold.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        // stock épuisé : vente refusée
+                    }
+                }
+            });
+            registers[t].start();
+        }
+        for (Thread register : registers) {
+            try {
+                register.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        assert sold.get() == 100;
+        assert repo.findById("hot").getStock() == 0;
+
+        System.out.println("[OK] testConcurrentCheckoutNeverOversells");
+    }
+
+    /**
+     * Vérifie que l'index de recherche suit les enregistrements et suppressions du dépôt.
+     */
+    static void testTrigramSearchFollowsWrites() {
+        var repo = new InMemoryProductRepository();
+        Brand brand = new Brand("b6", "Bic");
+        ProductLine line = new ProductLine("l6", "Papeterie", brand);
+        repo.save(new SimpleProduct("A-100", "Stylo Bleu", 1.0, 10, brand, line));
+        repo.save(new SimpleProduct("A-200", "Stylo Rouge", 1.0, 10, brand, line));
+        repo.save(new SimpleProduct("B-300", "Cahier Bleu", 2.0, 10, brand, line));
+
+        SearchProductUseCase search = new SearchProductUseCase(repo);
+        assert search.execute("BLEU", SearchProductUseCase.Mode.NAME).size() == 2;
+        assert search.execute("a-", SearchProductUseCase.Mode.ID).size() == 2;
+        assert search.execute("b", SearchProductUseCase.Mode.BOTH).size() == 2;
+
+        repo.deleteById("B-300");
+        assert search.execute("bleu", SearchProductUseCase.Mode.NAME).size() == 1;
+        assert search.execute("stylo rouge", SearchProductUseCase.Mode.NAME).size() == 1;
+        assert search.execute("stylo vert", SearchProductUseCase.Mode.NAME).isEmpty();
+
+        // Renommages répétés : les anciens numéros sont purgés sans fausser les résultats
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 1_000; i++) {
+                repo.save(new SimpleProduct("R-" + i, (round % 2 == 0 ? "Gomme " : "Crayon ") + i, 1.0, 1, brand, line));
+            }
+        }
+        assert search.execute("gomme", SearchProductUseCase.Mode.NAME).size() == 1_000;
+        assert search.execute("crayon", SearchProductUseCase.Mode.NAME).isEmpty();
+        assert search.execute("gomme 99", SearchProductUseCase.Mode.NAME).size() == 11;
+
+        // Renommages concurrents pendant les purges : aucune écriture n'est perdue
+        var shared = new ConcurrentProductRepository();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int writer = t;
+            writers[t] = new Thread(() -> {
+                for (int round = 0; round < 4; round++) {
+                    for (int i = 0; i < 1_000; i++) {
+                        shared.save(new SimpleProduct("W" + writer + "-" + i,
+                                (round % 2 == 0 ? "Feutre " : "Ardoise ") + i, 1.0, 1, brand, line));
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        assert shared.search("ardoise").size() == 4_000;
+        assert shared.search("feutre").isEmpty();
+
+        System.out.println("[OK] testTrigramSearchFollowsWrites");
+    }
+
+    /**
+     * Vérifie l'autocomplétion par identifiant et par nom, y compris après renommage.
+     */
+    static void testAutocomplete() {
+        var repo = new ConcurrentProductRepository();
+        Brand brand = new Brand("b7", "Lu");
+        ProductLine line = new ProductLine("l7", "Biscuits", brand);
+        repo.save(new SimpleProduct("120", "Petit Beurre", 1.0, 10, brand, line));
+        repo.save(new SimpleProduct("121", "Prince Chocolat", 1.0, 10, brand, line));
+        repo.save(new SimpleProduct("130", "Petit Ecolier", 1.0, 10, brand, line));
+
+        SearchProductUseCase search = new SearchProductUseCase(repo);
+        assert search.autocomplete("12", SearchProductUseCase.Mode.ID, 5).size() == 2;
+        assert search.autocomplete("1", SearchProductUseCase.Mode.ID, 2).size() == 2;
+        assert search.autocomplete("pet", SearchProductUseCase.Mode.NAME, 5).size() == 2;
+        assert search.autocomplete("choc", SearchProductUseCase.Mode.NAME, 5).get(0).getProductId().equals("121");
+
+        // ordre du nom lu à partir du mot reconnu : « caramel » précède « caramel beurre salé »
+        repo.save(new SimpleProduct("140", "Caramel Beurre Salé", 1.0, 10, brand, line));
+        repo.save(new SimpleProduct("141", "Sablé Caramel", 1.0, 10, brand, line));
+        repo.save(new SimpleProduct("142", "Carambar", 1.0, 10, brand, line));
+        List<Product> caramels = search.autocomplete("cara", SearchProductUseCase.Mode.NAME, 5);
+        assert caramels.size() == 3;
+        assert caramels.get(0).getProductId().equals("142");
+        assert caramels.get(1).getProductId().equals("141") && caramels.get(2).getProductId().equals("140");
+        assert search.autocomplete("caramel b", SearchProductUseCase.Mode.NAME, 5).size() == 1;
+        repo.deleteById("140");
+        repo.deleteById("141");
+        repo.deleteById("142");
+
+        repo.save(new SimpleProduct("130", "Granola", 1.0, 10, brand, line));
+        assert search.autocomplete("pet", SearchProductUseCase.Mode.NAME, 5).size() == 1;
+        repo.deleteById("120");
+        assert search.autocomplete("pet", SearchProductUseCase.Mode.NAME, 5).isEmpty();
+
+        // Écritures concurrentes sans verrou global
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            int offset = t * 500;
+            writers[t] = new Thread(() -> {
+                for (int i = offset; i < offset + 500; i++) {
+                    repo.save(new SimpleProduct("c" + i, "Cookie Nature " + i, 1.0, 1, brand, line));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        assert search.autocomplete("nature", SearchProductUseCase.Mode.NAME, 5_000).size() == 2_000;
+        assert search.autocomplete("cookie nature 42", SearchProductUseCase.Mode.NAME, 50).size() == 11;
+
+        System.out.println("[OK] testAutocomplete");
+    }
+
+    /**
+     * Vérifie que l'index de prix reste correct lorsqu'un réapprovisionnement modifie le prix.
+     */
+    static void testPriceIndexFollowsPriceChanges() {
+        var repo = new InMemoryProductRepository();
+        Brand brand = new Brand("b8", "Evian");
+        ProductLine line = new ProductLine("l8", "Boissons", brand);
+        repo.save(new SimpleProduct("1", "Eau 50cl", 0.8, 10, brand, line));
+        repo.save(new SimpleProduct("2", "Eau 1L", 1.2, 10, brand, line));
+        repo.save(new SimpleProduct("3", "Pack 6x1L", 6.0, 10, brand, line));
+
+        SortProductsUseCase sort = new SortProductsUseCase(repo);
+        assert sort.findCheapest().getProductId().equals("1");
+        assert sort.findByPriceRange(1.0, 6.0).size() == 2;
+
+        new AddProductUseCase(repo).execute(new SimpleProduct("1", "Eau 50cl", 25.0, 5, brand, line));
+        assert sort.findCheapest().getProductId().equals("2");
+        assert sort.findMostExpensive().getProductId().equals("1");
+        assert sort.findMostExpensive().getStock() == 15;
+        assert sort.findByPriceRange(1.0, 6.0).size() == 2;
+        assert sort.sortByPrice().get(2).getProductId().equals("1");
+
+        // Bornes en euros ramenées exactement aux centimes indexés
+        repo.save(new SimpleProduct("4", "Eau 33cl", 0.57, 10, brand, line));
+        assert sort.findByPriceRange(0.57, 0.57).size() == 1;
+        assert sort.findByPriceRange(0.565, 0.575).size() == 1;
+        assert sort.findByPriceRange(0.571, 1.19).isEmpty();
+
+        System.out.println("[OK] testPriceIndexFollowsPriceChanges");
+    }
+
+    /**
+     * Vérifie la restauration d'un dépôt durable : depuis le journal seul, puis depuis
+     * un instantané suivi de la fin du journal.
+     */
+    static void testDurableRepositoryRecovery() {
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("stock-wal");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Brand brand = new Brand("b9", "Danone");
+        ProductLine line = new ProductLine("l9", "Yaourts", brand);
+
+        var first = new DurableProductRepository(directory, FsyncPolicy.perWrite(), null);
+        first.save(new SimpleProduct("1", "Nature", 2.0, 10, brand, line));
+        first.save(new SimpleProduct("2", "Fraise", 2.5, 10, brand, line));
+        new SellProductUseCase(first).execute("1", 3);
+        first.deleteById("2");
+
+        // Aucun arrêt propre : seul le journal permet la restauration
+        var second = new DurableProductRepository(directory, FsyncPolicy.groupCommit(Duration.ofMillis(5)), null);
+        assert second.findById("1").getStock() == 7;
+        assert !second.existsById("2");
+
+        second.checkpoint();
+        second.save(new SimpleProduct("3", "Vanille", 2.5, 4, brand, line));
+        // lot journalisé en un seul enregistrement
+        second.saveAll(List.of(new SimpleProduct("5", "Citron", 2.5, 1, brand, line),
+                new SimpleProduct("6", "Abricot", 2.5, 2, brand, line),
+                new SimpleProduct("5", "Citron", 2.5, 9, brand, line)));
+        second.close();
+
+        var third = new DurableProductRepository(directory, FsyncPolicy.osManaged(), null);
+        assert third.findById("1").getStock() == 7;
+        assert third.findById("5").getStock() == 9 && third.findById("6").getStock() == 2;
+        assert third.findById("3").getStock() == 4;
+        assert third.findById("3").getPriceCents() == 250;
+        assert third.search("vanil").size() == 1;
+        // Borne haute enregistrée par le dépôt : un identifiant distribué n'est pas réattribué
+        long distributed = Long.parseLong(ProductIdGenerator.generateId());
+        long mark;
+        try {
+            mark = Long.parseLong(Files.readString(third.getIdMarkFile()).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        assert mark >= distributed;
+        third.close();
+
+        // En-tête annonçant une longueur démesurée : fin du journal, sans allocation
+        var fourth = new DurableProductRepository(directory, FsyncPolicy.perWrite(), null);
+        long afterReopen = Long.parseLong(ProductIdGenerator.generateId());
+        assert afterReopen > mark;
+        fourth.save(new SimpleProduct("4", "Coco", 2.5, 6, brand, line));
+        Path segment;
+        long segmentSize;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(f -> f.getFileName().toString().startsWith("wal-")).sorted()
+                    .reduce((a, b) -> b).orElseThrow();
+            segmentSize = Files.size(segment);
+            Files.write(segment, new byte[] {0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xF0, 1, 2, 3},
+                    StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        var fifth = new DurableProductRepository(directory, FsyncPolicy.perWrite(), null);
+        assert fifth.findById("4").getStock() == 6;
+        try {
+            assert Files.size(segment) == segmentSize;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Instantanés pendant des écritures : la relecture du journal complète l'état copié
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 500; i++) {
+                fifth.save(new SimpleProduct("5", "Citron", 2.5, i, brand, line));
+            }
+        });
+        writer.start();
+        for (int i = 0; i < 5; i++) {
+            fifth.checkpoint();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        var sixth = new DurableProductRepository(directory, FsyncPolicy.osManaged(), null);
+        assert sixth.findById("5").getStock() == 499;
+        assert sixth.findById("4").getStock() == 6;
+        sixth.close();
+
+        System.out.println("[OK] testDurableRepositoryRecovery");
+    }
+
+    /**
+     * Vérifie qu'un instantané de fond en échec est signalé par le dépôt durable, puis
+     * effacé par le prochain instantané réussi.
+     */
+    static void testCheckpointFailureIsReported() {
+        Path directory;
+        Path blocker;
+        try {
+            directory = Files.createTempDirectory("stock-checkpoint");
+            // le fichier temporaire du premier instantané est occupé par un répertoire
+            blocker = Files.createDirectory(directory.resolve(
+                    String.format("snapshot-%020d.bin.tmp", 1)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Brand brand = new Brand("b21", "Lu");
+        ProductLine line = new ProductLine("l21", "Biscuits", brand);
+
+        var repo = new DurableProductRepository(directory, FsyncPolicy.perWrite(), Duration.ofMillis(5));
+        repo.save(new SimpleProduct("1", "Petit beurre", 1.5, 10, brand, line));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (repo.getLastCheckpointFailure() == null && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assert repo.getLastCheckpointFailure() != null;
+        assert repo.getCheckpointFailureCount() > 0;
+
+        try {
+            Files.delete(blocker);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        repo.checkpoint();
+        assert repo.getLastCheckpointFailure() == null;
+        repo.close();
+
+        var reopened = new DurableProductRepository(directory, FsyncPolicy.perWrite(), null);
+        assert reopened.findById("1").getStock() == 10;
+        reopened.close();
+
+        System.out.println("[OK] testCheckpointFailureIsReported");
+    }
+
+    /**
+     * Vérifie l'instantané colonnes projeté : lecture paresseuse, conteneurs,
+     * ventes et suppressions conservées après réécriture.
+     */
+    static void testMappedSnapshotRoundTrip() {
+        Path file;
+        try {
+            file = Files.createTempDirectory("stock-columnar").resolve("catalog.col");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Brand brand = new Brand("b10", "Evian");
+        ProductLine line = new ProductLine("l10", "Eaux", brand);
+        Product bottle = new SimpleProduct("20", "Bouteille 1L", 0.8, 100, brand, line);
+
+        try (var first = new MappedProductRepository(file)) {
+            first.save(new SimpleProduct("10", "Bouteille 50cl", 0.5, 40, brand, line));
+            first.save(new ContainerProduct("11", "Pack de 6", 4.2, 8, bottle, 6, brand, line));
+            first.save(new SimpleProduct("12", "Gourde", 9.9, 3, brand, line));
+        }
+
+        try (var second = new MappedProductRepository(file)) {
+            assert second.findAll().size() == 3;
+            assert !second.existsById("20");
+            Product pack = second.findById("11");
+            assert pack instanceof ContainerProduct cp
+                    && "Bouteille 1L".equals(cp.getContainedProduct().getName())
+                    && cp.getContainedQuantity() == 6;
+            assert "Eaux".equals(pack.getProductLine().getName());
+            assert second.search("bouteille").size() == 1;
+            // lecture non conservée : seules les écritures occupent la surcouche
+            Product reread = second.findById("11");
+            assert reread != pack;
+            VersionedProduct stale = second.findVersionedById("10");
+            new SellProductUseCase(second).execute("10", 4);
+            boolean staleApplied = second.compareAndSaveAll(List.of(stale), List.of(new SimpleProduct("10", "Bouteille 50cl", 0.5, 1, brand, line)));
+            assert !staleApplied;
+            // une lecture antérieure à la réécriture ne peut plus être confirmée
+            VersionedProduct beforeRewrite = second.findVersionedById("11");
+            second.writeSnapshot();
+            boolean rewriteApplied = second.compareAndSaveAll(List.of(beforeRewrite), List.of(new ContainerProduct("11", "Pack de 6", 4.2, 1, bottle, 6, brand, line)));
+            assert !rewriteApplied;
+            VersionedProduct fresh = second.findVersionedById("11");
+            boolean freshApplied = second.compareAndSaveAll(List.of(fresh), List.of(new ContainerProduct("11", "Pack de 6", 4.2, 7, bottle, 6, brand, line)));
+            assert freshApplied;
+            second.deleteById("12");
+        }
+
+        try (var third = new MappedProductRepository(file)) {
+            assert third.findById("10").getStock() == 36;
+            assert third.findById("11").getStock() == 7;
+            assert !third.existsById("12");
+            assert third.findAll().size() == 2;
+        }
+
+        // chaque réécriture crée une nouvelle génération et supprime la précédente
+        try (Stream<Path> files = Files.list(file.getParent())) {
+            List<String> names = files.map(p -> p.getFileName().toString()).toList();
+            assert names.equals(List.of("catalog.col.00000000000000000002")) : names;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        System.out.println("[OK] testMappedSnapshotRoundTrip");
+    }
+
+    /**
+     * Vérifie la vente groupée : une lecture par produit, ordre premier arrivé premier servi,
+     * refus sans effet sur le stock.
+     */
+    static void testBatchSaleFirstComeFirstServed() {
+        AtomicInteger reads = new AtomicInteger();
+        var repo = new ForwardingProductRepository(new ConcurrentProductRepository()) {
+            @Override
+            public VersionedProduct findVersionedById(String productId) {
+                reads.incrementAndGet();
+                return super.findVersionedById(productId);
+            }
+        };
+        Brand brand = new Brand("b11", "Lego");
+        ProductLine line = new ProductLine("l11", "Briques", brand);
+        repo.save(new SimpleProduct("1", "Boîte A", 10.0, 5, brand, line));
+        repo.save(new SimpleProduct("2", "Boîte B", 20.0, 1, brand, line));
+
+        List<CartResult> results = new SellProductUseCase(repo).executeBatch(List.of(
+                List.of(new CartLine("1", 3), new CartLine("2", 1)),
+                List.of(new CartLine("2", 1)),
+                List.of(new CartLine("1", 2)),
+                List.of(new CartLine("1", 1)),
+                List.of(new CartLine("404", 1))));
+
+        assert reads.get() == 3;
+        assert results.size() == 5;
+        assert results.get(0).isAccepted() && results.get(0).getReceipt().getGrossTotal() == 50.0;
+        assert !results.get(1).isAccepted() && results.get(1).getRejectionReason().contains("Stock insuffisant");
+        assert results.get(2).isAccepted();
+        assert !results.get(3).isAccepted();
+        assert results.get(4).getRejectionReason().contains("introuvable");
+        assert repo.findById("1").getStock() == 0;
+        assert repo.findById("2").getStock() == 0;
+
+        System.out.println("[OK] testBatchSaleFirstComeFirstServed");
+    }
+
+    /**
+     * Vérifie le dépôt compact : croissance, réutilisation des emplacements, conteneurs,
+     * tri par prix et vente par compare-and-set sur des vues reconstruites.
+     */
+    static void testPackedRepository() {
+        var repo = new PackedProductRepository(4);
+        Brand brand = new Brand("b12", "Bic");
+        ProductLine line = new ProductLine("l12", "Stylos", brand);
+        for (int i = 0; i < 1000; i++) {
+            repo.save(new SimpleProduct("p" + i, "Stylo " + i, 1000 - i, 10, brand, line));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            repo.deleteById("p" + i);
+        }
+        repo.save(new SimpleProduct("p1", "Stylo bille bleu", 0.5, 10, brand, line));
+        repo.save(new ContainerProduct("lot", "Lot de stylos", 3.0, 4, repo.findById("p3"), 5, brand, line));
+
+        assert repo.size() == 501;
+        assert !repo.existsById("p0") && repo.existsById("p999");
+        assert "Stylo bille bleu".equals(repo.findById("p1").getName());
+        assert repo.findById("lot") instanceof ContainerProduct cp && cp.getContainedQuantity() == 5;
+        assert repo.search("BILLE").size() == 1;
+        assert "p1".equals(repo.findCheapest().getProductId());
+        assert "p3".equals(repo.findMostExpensive().getProductId());
+        assert repo.findById("p1") != repo.findById("p1");
+        assert repo.search("").size() == 501;
+
+        // séries de même prix, enregistrées hors de l'ordre des identifiants
+        for (int i = 20; i > 0; i--) {
+            repo.save(new SimpleProduct("t" + i, "Feutre " + i, 2.0, 1, brand, line));
+        }
+        List<Product> ordered = repo.findAllOrderedByPrice();
+        assert ordered.size() == 521;
+        for (int i = 1; i < ordered.size(); i++) {
+            assert ProductRepository.BY_PRICE.compare(ordered.get(i - 1), ordered.get(i)) < 0;
+        }
+        // prix trop grand pour la clé de tri primitive : tri par comparateur
+        repo.save(new SimpleProduct("t0", "Feutre or", 1e15, 1, brand, line));
+        List<Product> reordered = repo.findAllOrderedByPrice();
+        assert "t1".equals(reordered.get(2).getProductId());
+        assert "t0".equals(reordered.get(reordered.size() - 1).getProductId());
+        repo.deleteById("t0");
+
+        new SellProductUseCase(repo).execute("p1", 4);
+        assert repo.findById("p1").getStock() == 6;
+        assert "Bic".equals(repo.findById("p5").getBrand().getName());
+
+        System.out.println("[OK] testPackedRepository");
+    }
+
+    /**
+     * Vérifie que les identifiants restent uniques et denses entre threads, que la borne
+     * haute enregistrée couvre tous les identifiants distribués et qu'ils dépassent la
+     * portée d'un int.
+     */
+    static void testIdGeneratorPersistsHighWater() {
+        Path markFile;
+        try {
+            markFile = Files.createTempDirectory("stock-ids").resolve("product-ids.hwm");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ProductIdGenerator.configurePersistence(markFile);
+
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    ids.add(ProductIdGenerator.generateId());
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        assert ids.size() == 20_000;
+
+        long persisted;
+        try {
+            persisted = Long.parseLong(Files.readString(markFile).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long maxId = ids.stream().mapToLong(Long::parseLong).max().orElse(0);
+        long minId = ids.stream().mapToLong(Long::parseLong).min().orElse(0);
+        assert maxId - minId + 1 == ids.size();
+        assert persisted >= ProductIdGenerator.getHighWaterMark() && persisted >= maxId;
+
+        ProductIdGenerator.initializeFrom(persisted + 10);
+        String next = ProductIdGenerator.generateId();
+        assert Long.parseLong(next) == persisted + 11;
+
+        // Identifiants au-delà de la portée d'un int
+        ProductIdGenerator.initializeFrom(5_000_000_000L);
+        String large = ProductIdGenerator.generateId();
+        assert Long.parseLong(large) == 5_000_000_001L;
+        assert ProductIdGenerator.numericValue(large) == 5_000_000_001L;
+        assert ProductIdGenerator.numericValue("SKU-1") == 0;
+
+        System.out.println("[OK] testIdGeneratorPersistsHighWater");
+    }
+
+    /**
+     * Vérifie les créations concurrentes dans le catalogue et l'index marque → gammes.
+     */
+    static void testConcurrentCatalog() {
+        Catalog catalog = new Catalog();
+        Thread[] importers = new Thread[4];
+        for (int t = 0; t < importers.length; t++) {
+            importers[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    Brand brand = catalog.createBrand("b" + (i % 10), "Marque " + (i % 10));
+                    catalog.createProductLine("l" + i, "Gamme " + i, brand);
+                }
+            });
+            importers[t].start();
+        }
+        for (Thread importer : importers) {
+            try {
+                importer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        assert catalog.getAllBrands().size() == 10;
+        assert catalog.getAllProductLines().size() == 200;
+        Brand brand3 = catalog.findBrandById("b3").orElseThrow();
+        List<ProductLine> lines = catalog.findLinesByBrand(brand3);
+        assert lines.size() == 20;
+        assert lines.stream().allMatch(l -> l.getBrand().equals(brand3));
+        assert catalog.getAllBrands() == catalog.getAllBrands();
+        try {
+            catalog.getAllBrands().clear();
+            assert false;
+        } catch (UnsupportedOperationException expected) {
+            // instantané immuable
+        }
+
+        // un instantané déjà lu ne voit pas les créations suivantes
+        List<ProductLine> before = catalog.getAllProductLines();
+        catalog.createProductLine("l-new", "Nouvelle gamme", brand3);
+        assert before.size() == 200 && catalog.getAllProductLines().size() == 201;
+        assert lines.size() == 20 && catalog.findLinesByBrand(brand3).size() == 21;
+        assert catalog.getAllProductLines().get(200).getLineId().equals("l-new");
+
+        System.out.println("[OK] testConcurrentCatalog");
+    }
+
+    /**
+     * Vérifie les montants en centimes : arithmétique exacte, remise arrondie au centime
+     * et mise en forme du ticket.
+     */
+    static void testMoneyFixedPoint() {
+        assert Money.ofEuros(0.1) + Money.ofEuros(0.2) == Money.ofEuros(0.3);
+        assert Money.ofEuros(0.285) == 29;
+        assert Money.percentOf(2_105, 500) == 105;
+        assert "12.05€".equals(Money.format(1_205));
+        assert "-0.50€".equals(Money.format(-50));
+
+        var repo = new InMemoryProductRepository();
+        Brand brand = new Brand("b13", "Haribo");
+        ProductLine line = new ProductLine("l13", "Bonbons", brand);
+        repo.save(new SimpleProduct("1", "Sachet", 0.1, 1_000, brand, line));
+        repo.save(new SimpleProduct("2", "Boîte", 7.03, 10, brand, line));
+
+        Receipt receipt = new SellProductUseCase(repo).executeCart(List.of(
+                new CartLine("1", 3), new CartLine("2", 3)));
+        assert receipt.getGrossTotalCents() == 2_139;
+        assert receipt.getDiscountAmountCents() == 107;
+        assert receipt.getNetTotalCents() == 2_032;
+        assert receipt.formatForConsole().contains("Total net  : 20.32€");
+        assert receipt.formatForConsole().contains("PU: 0.10€ | Total: 0.30€");
+
+        boolean rejected = false;
+        try {
+            new SimpleProduct("3", "Trop cher", 1e20, 1, brand, line);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        assert rejected : "un prix hors de portée doit être refusé par une IllegalArgumentException";
+
+        // un prix en centimes est conservé tel quel, sans repasser par les euros
+        long cents = Long.MAX_VALUE - 1;
+        SimpleProduct exact = SimpleProduct.ofCents("4", "Exact", cents, 1, brand, line);
+        assert exact.getPriceCents() == cents;
+
+        System.out.println("[OK] testMoneyFixedPoint");
+    }
+
+    /**
+     * Vérifie le moteur de promotions : paliers panier, remise par marque, palier de quantité
+     * et remplacement à chaud des règles.
+     */
+    static void testPromotionEngine() {
+        var repo = new InMemoryProductRepository();
+        Brand lego = new Brand("b14", "Lego");
+        Brand playmo = new Brand("b15", "Playmobil");
+        ProductLine legoLine = new ProductLine("l14", "Technic", lego);
+        ProductLine playmoLine = new ProductLine("l15", "Château", playmo);
+        repo.save(new SimpleProduct("1", "Grue", 10.0, 10, lego, legoLine));
+        repo.save(new SimpleProduct("2", "Donjon", 30.0, 10, playmo, playmoLine));
+
+        PromotionEngine engine = new PromotionEngine(List.of(
+                Promotion.cartTier(20.0, 0.05),
+                Promotion.cartTier(100.0, 0.10),
+                Promotion.brand("b14", 0.20),
+                Promotion.quantityBreak("2", 3, 0.15)));
+        SellProductUseCase sell = new SellProductUseCase(repo, engine);
+
+        // Grue : 10€ - 20 % ; Donjon x3 (deux lignes) : 90€ - 15 % ; panier 100€ (palier 5 %) sur le reste
+        Receipt receipt = sell.executeCart(List.of(
+                new CartLine("1", 1), new CartLine("2", 2), new CartLine("2", 1)));
+        assert receipt.getGrossTotalCents() == 10_000;
+        assert receipt.getDiscountAmountCents() == 200 + 1_350 + 423;
+        assert engine.current().cartRate(10_001) == 1_000;
+
+        engine.replace(List.of());
+        Receipt undiscounted = sell.executeCart(List.of(new CartLine("2", 3)));
+        assert undiscounted.getDiscountAmountCents() == 0;
+
+        System.out.println("[OK] testPromotionEngine");
+    }
+
+    /**
+     * Vérifie le cache en lecture : succès, mise en cache des absences et des lectures
+     * versionnées, invalidation sur écriture limitée au produit écrit et éviction bornée.
+     */
+    static void testCachingRepository() {
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch slowReadStarted = new CountDownLatch(1);
+        CountDownLatch releaseSlowRead = new CountDownLatch(1);
+        var backing = new ForwardingProductRepository(new InMemoryProductRepository()) {
+            @Override
+            public Product findById(String productId) {
+                reads.incrementAndGet();
+                return super.findById(productId);
+            }
+
+            @Override
+            public VersionedProduct findVersionedById(String productId) {
+                reads.incrementAndGet();
+                if (productId.startsWith("slow")) {
+                    slowReadStarted.countDown();
+                    try {
+                        releaseSlowRead.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.findVersionedById(productId);
+            }
+        };
+        var cache = new CachingProductRepository(backing, 4);
+        Brand brand = new Brand("b16", "Ravensburger");
+        ProductLine line = new ProductLine("l16", "Puzzles", brand);
+        cache.save(new SimpleProduct("1", "Puzzle 500", 12.0, 5, brand, line));
+
+        assert cache.findById("1").getName().equals("Puzzle 500");
+        assert cache.findById("1") != null;
+        assert reads.get() == 1;
+        assert cache.getHitCount() == 1 && cache.getMissCount() == 1;
+
+        // absence mise en cache
+        assert !cache.existsById("404");
+        assert cache.findById("404") == null;
+        assert reads.get() == 2;
+
+        // une écriture invalide l'entrée
+        cache.save(new SimpleProduct("1", "Puzzle 1000", 15.0, 5, brand, line));
+        assert cache.findById("1").getName().equals("Puzzle 1000");
+        cache.deleteById("1");
+        assert !cache.existsById("1");
+        assert reads.get() == 4;
+
+        // les ventes lisent par version : servies par le cache, invalidées après écriture
+        cache.save(new SimpleProduct("2", "Puzzle 2000", 25.0, 5, brand, line));
+        var sell = new SellProductUseCase(cache);
+        sell.execute("2", 1);
+        sell.execute("2", 1);
+        assert reads.get() == 6;
+        VersionedProduct sold = cache.findVersionedById("2");
+        assert sold.getProduct().getStock() == 3;
+        assert reads.get() == 7;
+        VersionedProduct again = cache.findVersionedById("2");
+        assert again == sold;
+
+        // une écriture n'écarte que la lecture en cours du produit écrit
+        cache.save(new SimpleProduct("slow-1", "Puzzle lent", 9.0, 1, brand, line));
+        Thread slowReader = new Thread(() -> cache.findById("slow-1"));
+        slowReader.start();
+        try {
+            slowReadStarted.await();
+            cache.save(new SimpleProduct("3", "Puzzle 3000", 30.0, 1, brand, line));
+            releaseSlowRead.countDown();
+            slowReader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int beforeCachedRead = reads.get();
+        Product cachedSlow = cache.findById("slow-1");
+        assert cachedSlow != null && reads.get() == beforeCachedRead;
+
+        // taille bornée : un balayage ne dépasse pas la capacité
+        for (int i = 0; i < 50; i++) {
+            cache.findById("scan-" + i);
+        }
+        assert cache.size() <= 4;
+        assert cache.getEvictionCount() > 0;
+
+        System.out.println("[OK] testCachingRepository");
+    }
+
+    /**
+     * Vérifie les mesures : centiles de l'histogramme, compteurs du dépôt instrumenté,
+     * comptage des erreurs et publication JMX.
+     */
+    static void testMetrics() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            histogram.record(v * 1_000);
+        }
+        long p50 = histogram.getValueAtQuantile(0.50);
+        long p99 = histogram.getValueAtQuantile(0.99);
+        assert histogram.getCount() == 10_000;
+        assert Math.abs(p50 - 5_000_000) <= 5_000_000 / 32;
+        assert Math.abs(p99 - 9_900_000) <= 9_900_000 / 32;
+        assert histogram.getValueAtQuantile(1.0) == 10_000_000;
+
+        MetricsRegistry registry = new MetricsRegistry();
+        var repo = new InstrumentedProductRepository(new InMemoryProductRepository(), registry);
+        Brand brand = new Brand("b17", "Hasbro");
+        ProductLine line = new ProductLine("l17", "Monopoly", brand);
+        repo.save(new SimpleProduct("1", "Monopoly", 30.0, 2, brand, line));
+        repo.findById("1");
+        repo.findById("2");
+        try {
+            registry.operation("usecase.sell").time(() -> new SellProductUseCase(repo).executeCart(
+                    List.of(new CartLine("1", 5))));
+            assert false;
+        } catch (IllegalArgumentException | IllegalStateException expected) {
+            // stock insuffisant
+        }
+
+        OperationSnapshot findById = registry.getOperations().stream()
+                .filter(s -> s.getName().equals("repo.findById")).findFirst().orElseThrow();
+        assert findById.getCallCount() >= 2;
+        assert registry.operation("repo.save").getCallCount() == 1;
+        assert registry.operation("usecase.sell").getErrorCount() == 1;
+        assert registry.getReport().contains("usecase.sell");
+
+        registry.registerMBean("stock.test:type=Metrics");
+        try {
+            Object calls = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName("stock.test:type=Metrics"), "Operations");
+            assert calls != null;
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+
+        System.out.println("[OK] testMetrics");
+    }
+
+    /**
+     * Vérifie le parcours sans copie (flux, visiteur, comptage) et la pagination par curseur,
+     * sur les dépôts indexés comme sur l'implémentation par défaut du port.
+     */
+    static void testStreamingAndCursorPages() {
+        Brand brand = new Brand("b18", "Djeco");
+        ProductLine line = new ProductLine("l18", "Jeux", brand);
+        for (ProductRepository repo : List.of(new InMemoryProductRepository(),
+                new ConcurrentProductRepository(), new PackedProductRepository())) {
+            for (int i = 0; i < 25; i++) {
+                repo.save(new SimpleProduct(String.format("p%02d", i), "Jeu " + i, 1.0 + i, i, brand, line));
+            }
+            assert repo.count() == 25;
+            assert repo.stream().filter(p -> p.getStock() >= 20).count() == 5;
+            AtomicInteger visited = new AtomicInteger();
+            repo.forEach(p -> visited.incrementAndGet());
+            assert visited.get() == 25;
+
+            ProductPage first = repo.findPage(null, 10);
+            assert first.getProducts().size() == 10 && first.hasNext();
+            assert first.getProducts().get(0).getProductId().equals("p00");
+            assert first.getNextCursor().equals("p09");
+
+            // une suppression avant le curseur ne décale pas la page suivante
+            repo.deleteById("p03");
+            ProductPage second = repo.findPage(first.getNextCursor(), 10);
+            assert second.getProducts().get(0).getProductId().equals("p10");
+            ProductPage last = repo.findPage(second.getNextCursor(), 10);
+            assert last.getProducts().size() == 5 && !last.hasNext();
+        }
+
+        var search = new SearchProductUseCase(new InMemoryProductRepository());
+        assert search.countAll() == 0;
+        assert !search.browse(null, 5).hasNext();
+
+        System.out.println("[OK] testStreamingAndCursorPages");
+    }
+
+    /**
+     * Vérifie le top-K, la pagination triée et le tri parallèle sur clés primitives
+     * (avec des prix égaux départagés par identifiant).
+     */
+    static void testTopKAndParallelSort() {
+        var repo = new PackedProductRepository();
+        Brand brand = new Brand("b19", "Bandai");
+        ProductLine line = new ProductLine("l19", "Figurines", brand);
+        Random random = new Random(19);
+        int n = 10_000;
+        for (int i = 0; i < n; i++) {
+            repo.save(new SimpleProduct("f" + i, "Figurine " + i, random.nextInt(500) / 4.0, 1, brand, line));
+        }
+        SortProductsUseCase sort = new SortProductsUseCase(repo);
+        List<Product> expected = repo.stream().sorted(ProductRepository.BY_PRICE).toList();
+
+        List<Product> parallel = sort.sortByPriceParallel();
+        assert parallel.size() == n;
+        for (int i = 0; i < n; i++) {
+            assert parallel.get(i).getProductId().equals(expected.get(i).getProductId());
+        }
+
+        List<Product> cheapest = sort.findCheapest(10);
+        List<Product> page = sort.sortByPrice(20, 10);
+        for (int i = 0; i < 10; i++) {
+            assert cheapest.get(i).getProductId().equals(expected.get(i).getProductId());
+            assert page.get(i).getProductId().equals(expected.get(20 + i).getProductId());
+        }
+        assert sort.findMostExpensive(1).get(0).getProductId().equals(expected.get(n - 1).getProductId());
+        assert sort.sortByPrice(n - 3, 10).size() == 3;
+        assert sort.sortByPrice(n, 10).isEmpty();
+
+        System.out.println("[OK] testTopKAndParallelSort");
+    }
+
+    /**
+     * Vérifie que la recherche fork/join retourne exactement les résultats du parcours
+     * séquentiel, dans le même ordre, et que le seuil bascule sur le parcours séquentiel.
+     */
+    static void testParallelSearchMatchesSequential() {
+        var repo = new InMemoryProductRepository();
+        Brand brand = new Brand("b20", "Schleich");
+        ProductLine line = new ProductLine("l20", "Animaux", brand);
+        for (int i = 0; i < 30_000; i++) {
+            repo.save(new SimpleProduct("a" + i, (i % 7 == 0 ? "Cheval " : "Vache ") + i, 5.0, 1, brand, line));
+        }
+        var search = new SearchProductUseCase(repo, new ForkJoinPool(4));
+        for (SearchProductUseCase.Mode mode : SearchProductUseCase.Mode.values()) {
+            List<Product> sequential = search.scan("12", mode, false);
+            List<Product> parallel = search.scan("12", mode, true);
+            assert !sequential.isEmpty();
+            assert sequential.equals(parallel);
+        }
+        assert search.executeParallel("CHEVAL", SearchProductUseCase.Mode.NAME).size() == (30_000 + 6) / 7;
+        assert search.executeParallel("a1", SearchProductUseCase.Mode.ID)
+                .equals(search.scan("a1", SearchProductUseCase.Mode.ID, false));
+        // sans mot-clé : première page seulement, jamais une copie du catalogue
+        List<Product> firstPage = search.execute(" ", SearchProductUseCase.Mode.NAME);
+        assert firstPage.size() == SearchProductUseCase.BROWSE_PAGE_SIZE;
+        assert firstPage.equals(search.executeParallel(null, SearchProductUseCase.Mode.ID));
+
+        System.out.println("[OK] testParallelSearchMatchesSequential");
+    }
+
+    /**
+     * Vérifie l'interface HTTP de bout en bout : ajout, recherche, tri, vente, suppression
+     * et traduction des erreurs en codes HTTP.
+     */
+    static void testHttpInterface() {
+        Catalog catalog = new Catalog();
+        HttpInterface http = new HttpInterface(new ConcurrentProductRepository(), catalog, new MetricsRegistry());
+        int port = http.start(0);
+        try {
+            HttpClient client = HttpClient.newHttpClient();
+            String base = "http://localhost:" + port;
+
+            HttpResponse<String> added = send(client, HttpRequest.newBuilder(URI.create(base + "/products"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"id\":\"h1\",\"name\":\"Toupie \\\"Beyblade\\\"\","
+                            + "\"price\":12.5,\"stock\":4,\"brandId\":\"b21\",\"brandName\":\"Takara\","
+                            + "\"lineId\":\"l21\",\"lineName\":\"Toupies\"}")).build());
+            assert added.statusCode() == 201 : added.body();
+            assert added.body().equals("{\"id\":\"h1\"}");
+
+            // prix hors de portée : 400, et ni marque ni gamme enregistrées
+            HttpResponse<String> overpriced = send(client, HttpRequest.newBuilder(URI.create(base + "/products"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Lingot\",\"price\":1e20,\"stock\":1,"
+                            + "\"brandId\":\"b40\",\"brandName\":\"Or\",\"lineId\":\"l40\",\"lineName\":\"Lingots\"}")).build());
+            assert overpriced.statusCode() == 400 && overpriced.body().contains("out of range") : overpriced.body();
+            assert catalog.findBrandById("b40").isEmpty() && catalog.findProductLineById("l40").isEmpty();
+
+            HttpResponse<String> found = send(client, HttpRequest.newBuilder(
+                    URI.create(base + "/products/search?q=beyblade&mode=NAME")).GET().build());
+            assert found.statusCode() == 200;
+            assert found.body().contains("\"price\":12.50") && found.body().contains("Toupie \\\"Beyblade\\\"");
+
+            HttpResponse<String> sorted = send(client, HttpRequest.newBuilder(
+                    URI.create(base + "/products/sorted?offset=0&limit=10")).GET().build());
+            assert sorted.body().startsWith("[{\"id\":\"h1\"");
+
+            HttpResponse<String> sale = send(client, HttpRequest.newBuilder(URI.create(base + "/sales"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"lines\":[{\"productId\":\"h1\",\"quantity\":2}]}")).build());
+            assert sale.statusCode() == 200 : sale.body();
+            assert sale.body().contains("\"grossTotal\":25.00");
+
+            HttpResponse<String> tooMany = send(client, HttpRequest.newBuilder(URI.create(base + "/sales"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"lines\":[{\"productId\":\"h1\",\"quantity\":9}]}")).build());
+            assert tooMany.statusCode() == 400;
+            HttpResponse<String> malformed = send(client, HttpRequest.newBuilder(URI.create(base + "/sales"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{oops")).build());
+            assert malformed.statusCode() == 400;
+            HttpResponse<String> deep = send(client, HttpRequest.newBuilder(URI.create(base + "/sales"))
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"lines\":" + "[".repeat(100_000))).build());
+            assert deep.statusCode() == 400 : deep.body();
+            HttpResponse<String> huge = send(client, HttpRequest.newBuilder(URI.create(base + "/sales"))
+                    .POST(HttpRequest.BodyPublishers.ofString(" ".repeat((1 << 20) + 16))).build());
+            assert huge.statusCode() == 413;
+
+            HttpResponse<String> all = send(client, HttpRequest.newBuilder(
+                    URI.create(base + "/products/search?limit=100000")).GET().build());
+            assert all.statusCode() == 200 && all.body().startsWith("[{\"id\":\"h1\"");
+            HttpResponse<String> clamped = send(client, HttpRequest.newBuilder(
+                    URI.create(base + "/products/sorted?limit=2000000000")).GET().build());
+            assert clamped.statusCode() == 200;
+
+            HttpResponse<String> deleted = send(client, HttpRequest.newBuilder(URI.create(base + "/products/h1")).DELETE().build());
+            assert deleted.statusCode() == 200;
+            HttpResponse<String> missing = send(client, HttpRequest.newBuilder(URI.create(base + "/products/h1")).DELETE().build());
+            assert missing.statusCode() == 404;
+        } finally {
+            http.stop();
+        }
+
+        System.out.println("[OK] testHttpInterface");
+    }
+
+    private static HttpResponse<String> send(HttpClient client, HttpRequest request) {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Vérifie l'import de catalogue : blocs minuscules (lignes coupées entre deux lectures),
+     * champs entre guillemets, identifiants générés, rejets numérotés, TSV sans en-tête.
+     */
+    static void testCatalogImport() {
+        Path dir;
+        try {
+            dir = Files.createTempDirectory("import-test");
+            Files.writeString(dir.resolve("catalog.csv"), String.join("\n",
+                    "id;name;price;stock;brandId;brandName;lineId;lineName",
+                    "c1;Puzzle;12,50;3;b22;Nathan;l22;Puzzles",
+                    "c2;\"Jeu \"\"1;2;3\"\"\";5;1;b22;Nathan;l23;Jeux",
+                    "c3;Cassé;abc;1;b22;Nathan;l22;Puzzles",
+                    "",
+                    "c4;Incomplet;1",
+                    ";Sans id;7.5;2;b23;Janod;l24;Bois",
+                    "c1;Puzzle;13;2;b22;Nathan;l22;Puzzles",
+                    "c5;Négatif;1;-3;b29;Djeco;l29;Arts"));
+            Files.writeString(dir.resolve("faulty.csv"), String.join("\n",
+                    "f1;Toupie;2;1;b22;Nathan;l22;Puzzles",
+                    "f2;Trop cher;1e20;1;b22;Nathan;l22;Puzzles",
+                    "f1;Toupie;2;2147483647;b22;Nathan;l22;Puzzles",
+                    "f3;Yoyo;3;4;b22;Nathan;l22;Puzzles"));
+            Files.writeString(dir.resolve("multiline.csv"), "q1;\"Deux\nlignes\";1;1;b22;Nathan;l22;Puzzles\n");
+            Files.writeString(dir.resolve("catalog.tsv"), "t1\tCubes\t4.2\t10\tb23\tJanod\tl24\tBois\r\n"
+                    + "t2\tQuilles\t-1\t10\tb23\tJanod\tl24\tBois\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        var repo = new InMemoryProductRepository();
+        Catalog catalog = new Catalog();
+        var importer = new CatalogImporter(new AddProductUseCase(repo), catalog,
+                new ForkJoinPool(3), 3, 16);
+        AtomicInteger progressCalls = new AtomicInteger();
+        ImportReport report = importer.importFile(dir.resolve("catalog.csv"),
+                (rows, bytes, total) -> progressCalls.incrementAndGet());
+
+        assert report.getRowsRead() == 7 : report.formatForConsole();
+        assert report.getImported() == 4;
+        assert report.getRejectedCount() == 3;
+        assert report.getRejections().get(0).getLineNumber() == 4;
+        assert report.getRejections().get(0).getReason().contains("prix invalide");
+        assert report.getRejections().get(1).getLineNumber() == 6;
+        assert report.getRejections().get(2).getLineNumber() == 9;
+        assert progressCalls.get() > 1;
+        // une ligne rejetée n'enregistre ni marque ni gamme
+        assert catalog.findBrandById("b29").isEmpty() && catalog.findProductLineById("l29").isEmpty();
+
+        assert repo.count() == 3;
+        assert repo.findById("c1").getStock() == 5 && repo.findById("c1").getPriceCents() == 1_300;
+        assert repo.findById("c2").getName().equals("Jeu \"1;2;3\"");
+        assert repo.stream().anyMatch(p -> p.getName().equals("Sans id"));
+        assert catalog.getAllBrands().size() == 2 && catalog.getAllProductLines().size() == 3;
+        assert repo.findById("c2").getBrand() == catalog.findBrandById("b22").orElseThrow();
+        assert repo.findById("c2").getProductLine() == catalog.findProductLineById("l23").orElseThrow();
+
+        ImportReport tsv = new CatalogImporter(new AddProductUseCase(repo), catalog)
+                .importFile(dir.resolve("catalog.tsv"), null);
+        assert tsv.getImported() == 1 && tsv.getRejectedCount() == 1;
+        assert repo.findById("t1").getPrice() == 4.2;
+        assert tsv.getRejections().get(0).getLineNumber() == 2;
+
+        // lignes fautives entre des lignes valides : prix hors de portée, fusion de stock qui
+        // déborde ; seules ces lignes sont rejetées, l'import continue
+        ImportReport faulty = new CatalogImporter(new AddProductUseCase(repo), catalog)
+                .importFile(dir.resolve("faulty.csv"), null);
+        assert faulty.getImported() == 2 && faulty.getRejectedCount() == 2 : faulty.formatForConsole();
+        assert faulty.getRejections().get(0).getLineNumber() == 2;
+        assert faulty.getRejections().get(1).getLineNumber() == 3;
+        assert repo.findById("f1").getStock() == 1 && repo.findById("f3").getStock() == 4;
+        assert !repo.existsById("f2");
+
+        // limite documentée : un saut de ligne entre guillemets coupe l'enregistrement
+        ImportReport multiline = new CatalogImporter(new AddProductUseCase(repo), catalog)
+                .importFile(dir.resolve("multiline.csv"), null);
+        assert multiline.getImported() == 0 && multiline.getRejectedCount() == 2;
+        assert multiline.getRejections().get(0).getReason().contains("guillemet non fermé");
+
+        System.out.println("[OK] testCatalogImport");
+    }
+
+    /**
+     * Vérifie le chemin d'écriture en masse : fusion des lots par le cas d'usage, index à
+     * jour après un lot indexé en parallèle (doublons compris) et mouvements du journal.
+     */
+    static void testBulkSave() {
+        Brand brand = new Brand("b32", "Goula");
+        ProductLine line = new ProductLine("l32", "Éveil", brand);
+        int size = 2 * ProductIndexes.PARALLEL_THRESHOLD;
+        for (ProductRepository repo : List.of(new InMemoryProductRepository(), new ConcurrentProductRepository())) {
+            repo.save(new SimpleProduct("m0", "Ancien nom", 3.0, 1, brand, line));
+            List<Product> batch = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                batch.add(new SimpleProduct("m" + i, "Hochet " + i, 1.0 + i, 2, brand, line));
+            }
+            batch.add(new SimpleProduct("m1", "Hochet final", 0.5, 7, brand, line));
+            repo.saveAll(batch);
+
+            assert repo.count() == size;
+            assert repo.findById("m1").getName().equals("Hochet final");
+            assert repo.search("hochet final").size() == 1 && repo.search("hochet 1").size() > 1;
+            assert repo.search("ancien").isEmpty();
+            assert repo.findCheapest().getProductId().equals("m1");
+            assert repo.findByPriceBetween(3.0, 3.0).size() == 1;
+            assert repo.autocompleteByName("final", 5).size() == 1;
+            assert repo.findPage(null, size + 1).getProducts().size() == size;
+        }
+
+        StockLedger ledger = new StockLedger();
+        var repo = new LedgerProductRepository(new InMemoryProductRepository(), ledger);
+        var add = new AddProductUseCase(repo);
+        add.execute(new SimpleProduct("n1", "Toupie", 9.0, 4, brand, line));
+        add.executeAll(List.of(new SimpleProduct("n1", "Autre nom", 8.0, 3, brand, line),
+                new SimpleProduct("n2", "Boulier", 12.0, 5, brand, line),
+                new SimpleProduct("n1", "Toupie", 7.5, 1, brand, line)));
+        Product toupie = repo.findById("n1");
+        assert toupie.getName().equals("Toupie") && toupie.getStock() == 8 && toupie.getPriceCents() == 750;
+        assert repo.findById("n2").getStock() == 5;
+        assert ledger.currentStock("n1") == 8 && ledger.currentStock("n2") == 5;
+        assert ledger.movements("n1").size() == 2;
+
+        System.out.println("[OK] testBulkSave");
+    }
+
+    /**
+     * Vérifie l'export : CSV relu par l'import, binaire relu à l'identique (conteneurs compris),
+     * valorisation par marque et par gamme en centimes.
+     */
+    static void testInventoryExport() {
+        Brand lego = new Brand("b30", "Lego");
+        Brand janod = new Brand("b31", "Janod");
+        ProductLine city = new ProductLine("l30", "City", lego);
+        ProductLine bois = new ProductLine("l31", "Bois", janod);
+        var repo = new InMemoryProductRepository();
+        SimpleProduct car = new SimpleProduct("e1", "Voiture; \"police\"", 19.99, 3, lego, city);
+        repo.save(car);
+        repo.save(new SimpleProduct("e2", "Cubes", 4.5, 10, janod, bois));
+        repo.save(new ContainerProduct("e3", "Lot de voitures", 49.9, 2, car, 3, lego, city));
+
+        Path dir;
+        try {
+            dir = Files.createTempDirectory("export-test");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        InventoryExporter exporter = new InventoryExporter(repo, InventoryExporter.MIN_BUFFER_BYTES);
+
+        long csvCount = exporter.exportCsv(dir.resolve("stock.csv"));
+        assert csvCount == 3;
+        var reimported = new InMemoryProductRepository();
+        ImportReport report = new CatalogImporter(new AddProductUseCase(reimported), new Catalog())
+                .importFile(dir.resolve("stock.csv"), null);
+        assert report.getImported() == 3 && report.getRejectedCount() == 0 : report.formatForConsole();
+        assert reimported.findById("e1").getName().equals(car.getName());
+        assert reimported.findById("e3").getPriceCents() == 4_990 && reimported.findById("e3").getStock() == 2;
+
+        long binaryCount = exporter.exportBinary(dir.resolve("stock.bin"));
+        assert binaryCount == 3;
+        List<Product> read = new ArrayList<>();
+        long readCount = InventoryExporter.readBinary(dir.resolve("stock.bin"), read::add);
+        assert readCount == 3;
+        for (Product p : read) {
+            Product original = repo.findById(p.getProductId());
+            assert p.getName().equals(original.getName()) && p.getPriceCents() == original.getPriceCents();
+            assert p.getStock() == original.getStock() && p.getProductLine().equals(original.getProductLine());
+        }
+        ContainerProduct pack = (ContainerProduct) read.stream()
+                .filter(p -> p.getProductId().equals("e3")).findFirst().orElseThrow();
+        assert pack.getContainedQuantity() == 3 && pack.getContainedProduct().getProductId().equals("e1");
+        assert !Files.exists(dir.resolve("stock.bin.tmp"));
+
+        StockValuation valuation = exporter.exportValuation(dir.resolve("valuation.csv"));
+        assert valuation.getTotal().getValueCents() == 1_999 * 3 + 450 * 10 + 4_990 * 2;
+        assert valuation.getTotal().getUnits() == 15;
+        assert valuation.getByBrand().size() == 2 && valuation.getByBrand().get(0).getId().equals("b30");
+        assert valuation.getByBrand().get(0).getValueCents() == 1_999 * 3 + 4_990 * 2;
+        assert valuation.getByProductLine().get(1).getValueCents() == 4_500;
+        try {
+            List<String> lines = Files.readAllLines(dir.resolve("valuation.csv"));
+            assert lines.size() == 6 && lines.get(5).equals("total;*;Total;3;15;204.77") : lines;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        System.out.println("[OK] testInventoryExport");
+    }
+
+    /**
+     * Vérifie le moteur de lots : disponibilités mémorisées et invalidées le long des liens
+     * inverses, vente d'un lot assemblé à partir de ses composants, refus des cycles.
+     */
+    static void testBundleStockEngine() {
+        Brand brand = new Brand("b40", "Billes & Co");
+        ProductLine line = new ProductLine("l40", "Billes", brand);
+        var base = new InMemoryProductRepository();
+        SimpleProduct marble = new SimpleProduct("bille", "Bille", 0.1, 20, brand, line);
+        ContainerProduct bag = new ContainerProduct("sac", "Sac de 10", 0.9, 1, marble, 10, brand, line);
+        base.save(marble);
+        base.save(bag);
+        base.save(new ContainerProduct("caisse", "Caisse de 3 sacs", 2.5, 0, bag, 3, brand, line));
+        base.save(new SimpleProduct("autre", "Autre", 1.0, 5, brand, line));
+
+        BundleStockEngine engine = new BundleStockEngine(base);
+        ProductRepository repo = new BundleAwareProductRepository(base, engine);
+        assert engine.availableToSell("bille") == 20;
+        assert engine.availableToSell("sac") == 3;
+        assert engine.availableToSell("caisse") == 1;
+        long computations = engine.getComputations();
+        assert engine.availableToSell("caisse") == 1 && engine.getComputations() == computations;
+
+        // une écriture sans lien avec les lots ne les invalide pas
+        repo.save(new SimpleProduct("autre", "Autre", 1.0, 4, brand, line));
+        assert engine.availableToSell("caisse") == 1 && engine.getComputations() == computations;
+        // une écriture d'un composant invalide toute la chaîne qui le contient
+        repo.save(new SimpleProduct("bille", "Bille", 0.1, 50, brand, line));
+        assert engine.availableToSell("caisse") == 2 && engine.getComputations() == computations + 3;
+
+        // vente : 1 caisse en stock propre manquante -> 3 sacs, dont 2 assemblés avec 20 billes
+        var sell = new SellProductUseCase(repo, new PromotionEngine(List.of()), engine);
+        sell.executeCart(List.of(new CartLine("caisse", 2)));
+        assert base.findById("caisse").getStock() == 0;
+        assert base.findById("sac").getStock() == 0;
+        assert base.findById("bille").getStock() == 0;
+        assert engine.availableToSell("caisse") == 0 && engine.availableToSell("sac") == 0;
+        try {
+            sell.executeCart(List.of(new CartLine("sac", 1)));
+            assert false : "stock insuffisant attendu";
+        } catch (IllegalArgumentException expected) {
+            assert expected.getMessage().startsWith("Stock insuffisant pour le produit : sac");
+        }
+
+        // une bille qui contiendrait la caisse fermerait un cycle
+        try {
+            repo.save(new ContainerProduct("bille", "Bille", 0.1, 1, base.findById("caisse"), 1, brand, line));
+            assert false : "cycle attendu";
+        } catch (IllegalArgumentException expected) {
+            assert expected.getMessage().contains("bille -> caisse -> sac -> bille");
+        }
+        assert !(base.findById("bille") instanceof ContainerProduct);
+
+        // sans moteur, un lot n'est vendu que sur son stock propre
+        repo.save(new SimpleProduct("bille", "Bille", 0.1, 10, brand, line));
+        try {
+            new SellProductUseCase(repo).execute("sac", 1);
+            assert false : "stock insuffisant attendu";
+        } catch (IllegalArgumentException expected) {
+            assert base.findById("bille").getStock() == 10;
+        }
+
+        System.out.println("[OK] testBundleStockEngine");
+    }
+
+    /**
+     * Vérifie le journal des mouvements : classement des mouvements écrits par les cas d'usage,
+     * stock à une date, et résultats identiques une fois les anciens blocs débordés sur disque.
+     */
+    static void testStockLedger() {
+        AtomicLong now = new AtomicLong(1_000);
+        Path spillFile;
+        try {
+            spillFile = Files.createTempFile("ledger", ".spill");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Brand brand = new Brand("b50", "Smoby");
+        ProductLine line = new ProductLine("l50", "Cuisines", brand);
+
+        try (StockLedger ledger = new StockLedger(now::get, spillFile, StockLedger.BLOCK_SIZE)) {
+            var repo = new LedgerProductRepository(new InMemoryProductRepository(), ledger);
+            var add = new AddProductUseCase(repo);
+            add.execute(new SimpleProduct("k1", "Cuisine", 59.0, 10, brand, line));
+            now.set(2_000);
+            add.execute(new SimpleProduct("k1", "Cuisine", 59.0, 5, brand, line));
+            now.set(3_000);
+            new SellProductUseCase(repo).execute("k1", 3);
+            now.set(4_000);
+            repo.save(new SimpleProduct("k1", "Cuisine", 55.0, 8, brand, line));
+            repo.save(new SimpleProduct("k1", "Cuisine", 49.0, 8, brand, line));
+            now.set(5_000);
+            repo.deleteById("k1");
+
+            assert ledger.movements("k1").stream().map(StockMovement::getType).toList().equals(List.of(
+                    StockMovement.Type.RESTOCK, StockMovement.Type.RESTOCK, StockMovement.Type.SALE,
+                    StockMovement.Type.CORRECTION, StockMovement.Type.DELETION));
+            assert ledger.stockAt("k1", 999) == 0;
+            assert ledger.stockAt("k1", 1_000) == 10;
+            assert ledger.stockAt("k1", 2_500) == 15;
+            assert ledger.stockAt("k1", 3_000) == 12;
+            assert ledger.stockAt("k1", 4_999) == 8;
+            assert ledger.stockAt("k1", 6_000) == 0 && ledger.currentStock("k1") == 0;
+
+            // 1 000 mouvements : seuls les 64 derniers restent en mémoire
+            Random random = new Random(24);
+            int[] expected = new int[1_000];
+            int stock = 0;
+            for (int i = 0; i < expected.length; i++) {
+                now.set(10_000 + i * 10L);
+                int delta = stock > 0 && random.nextBoolean() ? -1 - random.nextInt(stock) : 1 + random.nextInt(20);
+                ledger.record("k2", delta > 0 ? StockMovement.Type.RESTOCK : StockMovement.Type.SALE, delta);
+                stock += delta;
+                expected[i] = stock;
+            }
+            assert ledger.getSpilledMovements() >= 1_000 - 2 * StockLedger.BLOCK_SIZE;
+            for (int i = 0; i < expected.length; i += 37) {
+                assert ledger.stockAt("k2", 10_000 + i * 10L + 5) == expected[i];
+            }
+            List<StockMovement> history = ledger.movements("k2");
+            assert history.size() == 1_000 && history.get(999).getStockAfter() == stock;
+            assert history.get(500).getStockAfter() == expected[500];
+
+            // un recul de l'horloge ne casse pas l'ordre des dates
+            now.set(0);
+            ledger.record("k2", StockMovement.Type.RESTOCK, 1);
+            assert ledger.stockAt("k2", 10_000 + 999 * 10L) == stock + 1;
+        }
+        assert !Files.exists(spillFile);
+
+        System.out.println("[OK] testStockLedger");
+    }
+
+    /**
+     * Vérifie le bus de modifications avec chaque stratégie d'attente : anneau de 8 cases
+     * (contre-pression), deux consommateurs qui voient tous les événements dans l'ordre,
+     * erreurs d'un consommateur comptées sans interrompre la consommation.
+     */
+    static void testChangeEventBus() {
+        Brand brand = new Brand("b60", "Vilac");
+        ProductLine line = new ProductLine("l60", "Bois", brand);
+        for (WaitStrategy strategy : WaitStrategy.values()) {
+            ChangeEventBus bus = new ChangeEventBus(8, strategy);
+            List<String> seen = new ArrayList<>();
+            AtomicLong lastSequence = new AtomicLong(-1);
+            AtomicInteger batchEnds = new AtomicInteger();
+            Subscription recorder = bus.subscribe("recorder", (event, endOfBatch) -> {
+                assert event.getSequence() == lastSequence.get() + 1;
+                lastSequence.set(event.getSequence());
+                seen.add(event.getType() + ":" + event.getProductId()
+                        + (event.getProduct() == null ? "" : ":" + event.getProduct().getStock()));
+                if (endOfBatch) {
+                    batchEnds.incrementAndGet();
+                }
+            });
+            Subscription failing = bus.subscribe("failing", (event, endOfBatch) -> {
+                if (event.getType() == ChangeEvent.Type.DELETE) {
+                    throw new IllegalStateException("consommateur en échec");
+                }
+            });
+
+            var repo = new PublishingProductRepository(new InMemoryProductRepository(), bus);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < 60; i++) {
+                String id = "v" + (i % 5);
+                repo.save(new SimpleProduct(id, "Jouet " + id, 9.9, 100 + i, brand, line));
+                expected.add("SAVE:" + id + ":" + (100 + i));
+                if (i % 10 == 9) {
+                    repo.deleteById(id);
+                    expected.add("DELETE:" + id);
+                }
+            }
+            new SellProductUseCase(repo).execute("v0", 4);
+            expected.add("SAVE:v0:" + (repo.findById("v0").getStock()));
+            bus.close();
+
+            assert seen.equals(expected) : strategy + " " + seen;
+            assert bus.getPublishedSequence() == expected.size() - 1;
+            assert recorder.getEventCount() == expected.size() && recorder.getLag() == 0;
+            assert recorder.getBatchCount() == batchEnds.get() && batchEnds.get() <= expected.size();
+            assert failing.getEventCount() == expected.size() && failing.getErrorCount() == 6;
+        }
+
+        System.out.println("[OK] testChangeEventBus");
+    }
+}